@@ -16,8 +16,17 @@ public class ActiveMessagesController {
     @Autowired
     private FirestoreService firestoreService;
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * One page of the inbox, newest first. Pass the returned nextCursor as cursor to load older messages;
+     * it is null on the last page. The unread count comes from the user's counter, not from the page.
+     */
     @GetMapping("/inbox")
-    public ResponseEntity<?> getInboxMessages(HttpServletRequest request) {
+    public ResponseEntity<?> getInboxMessages(@RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String cursor,
+                                              HttpServletRequest request) {
         try {
             String firebaseUid = (String) request.getAttribute("firebaseUid");
 
@@ -26,23 +35,26 @@ public class ActiveMessagesController {
                     .body(Map.of("error", "User not authenticated"));
             }
 
+            int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
             // Fetch messages from Firestore
             try {
-                List<Map<String, Object>> messages = firestoreService.getUserMessages(firebaseUid);
-                int unreadCount = (int) messages.stream()
-                    .filter(msg -> !Boolean.TRUE.equals(msg.get("read")))
-                    .count();
+                FirestoreService.MessagePage page = firestoreService.getUserMessagesPage(firebaseUid, pageSize, cursor);
 
                 Map<String, Object> response = new HashMap<>();
-                response.put("messages", messages);
-                response.put("unreadCount", unreadCount);
+                response.put("messages", page.getMessages());
+                response.put("nextCursor", page.getNextCursor());
+                response.put("unreadCount", firestoreService.getUnreadCount(firebaseUid));
 
                 return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
             } catch (Exception e) {
                 // If Firestore is not available, return empty inbox
                 System.err.println("Failed to fetch messages from Firestore: " + e.getMessage());
                 Map<String, Object> response = new HashMap<>();
                 response.put("messages", new ArrayList<>());
+                response.put("nextCursor", null);
                 response.put("unreadCount", 0);
                 return ResponseEntity.ok(response);
             }
@@ -53,6 +65,19 @@ public class ActiveMessagesController {
         }
     }
 
+    // Badge polling: a single counter document read
+    @GetMapping("/inbox/unread-count")
+    public ResponseEntity<?> getUnreadCount(HttpServletRequest request) {
+        String firebaseUid = (String) request.getAttribute("firebaseUid");
+
+        if (firebaseUid == null) {
+            return ResponseEntity.status(401)
+                .body(Map.of("error", "User not authenticated"));
+        }
+
+        return ResponseEntity.ok(Map.of("unreadCount", firestoreService.getUnreadCount(firebaseUid)));
+    }
+
     @PutMapping("/inbox/{messageId}/read")
     public ResponseEntity<?> markMessageAsRead(@PathVariable String messageId, HttpServletRequest request) {
         try {
@@ -77,4 +102,26 @@ public class ActiveMessagesController {
         }
     }
 
-}
\ No newline at end of file
+    @DeleteMapping("/inbox/{messageId}")
+    public ResponseEntity<?> deleteMessage(@PathVariable String messageId, HttpServletRequest request) {
+        try {
+            String firebaseUid = (String) request.getAttribute("firebaseUid");
+
+            if (firebaseUid == null) {
+                return ResponseEntity.status(401)
+                    .body(Map.of("error", "User not authenticated"));
+            }
+
+            if (firestoreService.deleteMessage(firebaseUid, messageId)) {
+                return ResponseEntity.ok(Map.of("success", true));
+            } else {
+                return ResponseEntity.status(404)
+                    .body(Map.of("error", "Message not found"));
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(500)
+                .body(Map.of("error", "Failed to delete message: " + e.getMessage()));
+        }
+    }
+
+}
@@ -1,14 +1,20 @@
 package com.example.restservice;
 
+import com.example.restservice.config.MonitoredExecutor;
+import com.example.restservice.config.MonitoredExecutorOwner;
 import com.example.restservice.model.firestore.EventFirestore;
 import com.example.restservice.model.firestore.ParticipantFirestore;
 import com.example.restservice.model.firestore.VolunteerFirestore;
 import com.example.restservice.model.firestore.UserFirestore;
+import com.example.restservice.repository.firestore.AudienceIndex;
+import com.example.restservice.repository.firestore.EventCounters;
 import com.example.restservice.repository.firestore.EventFirestoreRepository;
 import com.example.restservice.repository.firestore.ParticipantFirestoreRepository;
 import com.example.restservice.repository.firestore.VolunteerFirestoreRepository;
 import com.example.restservice.repository.firestore.UserFirestoreRepository;
 import com.example.restservice.security.FirebaseAuthService;
+import com.example.restservice.security.FirebaseTokenFilter;
+import com.example.restservice.security.UserClaimsSync;
 import com.example.restservice.service.MessagingService;
 import com.example.restservice.service.EmailDeliveryService;
 import com.google.cloud.firestore.Firestore;
@@ -26,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
@@ -48,9 +55,18 @@ public class AdminController {
     @Autowired
     private UserFirestoreRepository userRepository;
 
+    @Autowired
+    private EventCounters eventCounters;
+
     @Autowired
     private FirebaseAuthService firebaseAuthService;
 
+    @Autowired
+    private FirebaseTokenFilter firebaseTokenFilter;
+
+    @Autowired
+    private UserClaimsSync userClaimsSync;
+
     @Autowired
     private MessagingService messagingService;
 
@@ -60,6 +76,15 @@ public class AdminController {
     @Autowired(required = false)
     private Firestore firestore;
 
+    @Autowired
+    private AudienceIndex audienceIndex;
+
+    @Autowired
+    private List<MonitoredExecutor> executors;
+
+    @Autowired
+    private List<MonitoredExecutorOwner> executorOwners;
+
     // Fetch aggregate stats for all events (Admin only)
     @GetMapping("/events/stats")
     @PreAuthorize("hasRole('ADMIN')")
@@ -69,15 +94,32 @@ public class AdminController {
 
             Map<String, Map<String, Object>> eventStats = new HashMap<>();
 
-            // For each event, create basic stats (participants/volunteers would need proper repositories)
+            // Counters are read in one batch; only events whose counter is missing or corrupted need an aggregate count
+            Map<String, EventCounters.Counts> storedCounts = eventCounters.read(
+                events.stream().map(EventFirestore::getId).toList()).get();
+            Map<String, CompletableFuture<Long>> participantCounts = new HashMap<>();
+            Map<String, CompletableFuture<Long>> volunteerCounts = new HashMap<>();
             for (EventFirestore event : events) {
+                EventCounters.Counts counts = storedCounts.getOrDefault(event.getId(), new EventCounters.Counts(null, null));
+                participantCounts.put(event.getId(), counts.participants() != null
+                    ? CompletableFuture.completedFuture(counts.participants())
+                    : participantRepository.countByEventIdAsync(event.getId()));
+                volunteerCounts.put(event.getId(), counts.volunteers() != null
+                    ? CompletableFuture.completedFuture(counts.volunteers())
+                    : volunteerRepository.countByEventIdAsync(event.getId()));
+            }
+
+            for (EventFirestore event : events) {
+                long registrationCount = participantCounts.get(event.getId()).get();
+                long volunteerCount = volunteerCounts.get(event.getId()).get();
+
                 Map<String, Object> stats = new HashMap<>();
                 stats.put("eventId", event.getId());
-                stats.put("registrationCount", 0); // TODO: Add when participant repository is available
-                stats.put("volunteerCount", 0); // TODO: Add when volunteer repository is available
-                stats.put("revenue", 0.0);
+                stats.put("registrationCount", registrationCount);
+                stats.put("volunteerCount", volunteerCount);
+                stats.put("revenue", registrationCount * (event.getPrice() != null ? event.getPrice() : 0.0));
                 stats.put("capacity", event.getCapacity());
-                stats.put("isFullyBooked", false);
+                stats.put("isFullyBooked", event.getCapacity() != null && registrationCount >= event.getCapacity());
 
                 eventStats.put(event.getId(), stats);
             }
@@ -90,6 +132,71 @@ public class AdminController {
         }
     }
 
+    // Backfill participant/volunteer counters on events created before they were maintained (Admin only)
+    @PostMapping("/events/recount")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> recountEventCounters() {
+        try {
+            List<EventFirestore> events = eventRepository.findAllByOrderByDateAsc();
+            for (EventFirestore event : events) {
+                eventCounters.recount(event.getId());
+            }
+            return ResponseEntity.ok(Map.of("message", "Recounted registrations for " + events.size() + " events"));
+        } catch (Exception e) {
+            logger.error("Failed to recount event counters", e);
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to recount event counters: " + e.getMessage()));
+        }
+    }
+
+    // User cache hit/miss/eviction stats (Admin only)
+    @GetMapping("/cache/users")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getUserCacheStats() {
+        return ResponseEntity.ok(userRepository.getCacheStats());
+    }
+
+    // Audience index segment counts by user type (Admin only)
+    @GetMapping("/audience")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAudienceSegments() {
+        try {
+            return ResponseEntity.ok(audienceIndex.getSegmentCounts());
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to read audience index: " + e.getMessage()));
+        }
+    }
+
+    // Threads, queue depth and task latency for each application thread pool (Admin only)
+    @GetMapping("/executors")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getExecutorStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        executors.forEach(executor -> stats.add(executor.getStats()));
+        // Delivery pools are created by their components rather than registered as beans
+        executorOwners.forEach(owner -> owner.getExecutors().forEach(executor -> stats.add(executor.getStats())));
+        return ResponseEntity.ok(stats);
+    }
+
+    // Write userType/teams/banned custom claims for every existing user (Admin only)
+    @PostMapping("/claims/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> backfillCustomClaims() {
+        try {
+            return ResponseEntity.ok(userClaimsSync.backfill());
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to backfill custom claims: " + e.getMessage()));
+        }
+    }
+
+    // Verified ID-token cache stats from the auth filter (Admin only)
+    @GetMapping("/cache/tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getTokenCacheStats() {
+        return ResponseEntity.ok(firebaseTokenFilter.getTokenCacheStats());
+    }
+
     // Reset test accounts (parent@gmail.com and volunteer@gmail.com)
     @PostMapping("/test-accounts/reset")
     @PreAuthorize("hasRole('ADMIN')")
@@ -246,6 +353,7 @@ public class AdminController {
                 newUser.setUpdatedTimestamp(System.currentTimeMillis());
 
                 userRepository.save(newUser);
+                userClaimsSync.sync(newUser);
                 logger.info("Created Firestore user document for: {}", email);
 
                 // Add to success list
@@ -1,27 +1,45 @@
 package com.example.restservice;
 
+import com.example.restservice.service.PublicResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/announcements")
 public class AnnouncementController {
 
+    // Announcements are not stored yet, so the content never changes version
+    private static final String ANNOUNCEMENTS_VERSION = "static";
+
+    @Autowired
+    private PublicResponseCache publicResponseCache;
+
     // Get active announcements (public endpoint)
     @GetMapping("/active")
-    public ResponseEntity<?> getActiveAnnouncements() {
-        // Return empty list for now - can be enhanced later
-        List<Map<String, Object>> announcements = new ArrayList<>();
-        return ResponseEntity.ok(announcements);
+    public ResponseEntity<?> getActiveAnnouncements(HttpServletRequest request) {
+        try {
+            // Return empty list for now - can be enhanced later
+            return publicResponseCache.respond("announcements:active", ANNOUNCEMENTS_VERSION, request,
+                () -> new ArrayList<Map<String, Object>>());
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch announcements: " + e.getMessage()));
+        }
     }
 
     // Get recent announcements (public endpoint)
     @GetMapping("/recent")
-    public ResponseEntity<?> getRecentAnnouncements() {
-        // Return empty list for now - can be enhanced later
-        List<Map<String, Object>> announcements = new ArrayList<>();
-        return ResponseEntity.ok(announcements);
+    public ResponseEntity<?> getRecentAnnouncements(HttpServletRequest request) {
+        try {
+            // Return empty list for now - can be enhanced later
+            return publicResponseCache.respond("announcements:recent", ANNOUNCEMENTS_VERSION, request,
+                () -> new ArrayList<Map<String, Object>>());
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch announcements: " + e.getMessage()));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.restservice;
+
+import com.example.restservice.service.CalendarFeedService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+@CrossOrigin(origins = "${cors.allowed.origins}", maxAge = 3600)
+@RestController
+@RequestMapping("/api/calendar")
+public class CalendarFeedController {
+
+    private static final MediaType TEXT_CALENDAR = MediaType.parseMediaType("text/calendar;charset=UTF-8");
+
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    // The signed-in user's feed token, issued on first request
+    @GetMapping("/feed-token")
+    public ResponseEntity<?> getFeedToken(HttpServletRequest request) {
+        String firebaseUid = (String) request.getAttribute("firebaseUid");
+        if (firebaseUid == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated"));
+        }
+
+        try {
+            return ResponseEntity.ok(feedTokenResponse(calendarFeedService.getOrIssueToken(firebaseUid)));
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to load calendar feed: " + e.getMessage()));
+        }
+    }
+
+    // Replaces the user's token; calendars subscribed to the old URL stop updating
+    @PostMapping("/feed-token")
+    public ResponseEntity<?> reissueFeedToken(HttpServletRequest request) {
+        String firebaseUid = (String) request.getAttribute("firebaseUid");
+        if (firebaseUid == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "User not authenticated"));
+        }
+
+        try {
+            return ResponseEntity.ok(feedTokenResponse(calendarFeedService.reissueToken(firebaseUid)));
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to reset calendar feed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Public: calendar clients authenticate with the token in the URL. Answers 304 when the client's
+     * If-None-Match still matches the feed's events and versions.
+     */
+    @GetMapping("/feed/{token}.ics")
+    public ResponseEntity<?> getFeed(@PathVariable String token,
+                                     @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        try {
+            Optional<CalendarFeedService.Feed> feed = calendarFeedService.resolveFeed(token);
+            if (feed.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            String etag = feed.get().getEtag();
+            CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+            if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(TEXT_CALENDAR)
+                .body(calendarFeedService.render(feed.get()));
+        } catch (ExecutionException | InterruptedException e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to build calendar feed: " + e.getMessage()));
+        }
+    }
+
+    private Map<String, String> feedTokenResponse(String token) {
+        return Map.of("token", token, "feedPath", "/api/calendar/feed/" + token + ".ics");
+    }
+}
@@ -2,15 +2,15 @@ package com.example.restservice;
 
 import com.example.restservice.model.firestore.EventFirestore;
 import com.example.restservice.model.firestore.VolunteerFirestore;
-import com.example.restservice.model.firestore.ParticipantFirestore;
 import com.example.restservice.model.firestore.UserFirestore;
+import com.example.restservice.repository.firestore.EventCatalog;
+import com.example.restservice.repository.firestore.EventCounters;
 import com.example.restservice.repository.firestore.EventFirestoreRepository;
 import com.example.restservice.repository.firestore.VolunteerFirestoreRepository;
 import com.example.restservice.repository.firestore.ParticipantFirestoreRepository;
 import com.example.restservice.repository.firestore.UserFirestoreRepository;
-import com.example.restservice.service.MessagingService;
-import com.example.restservice.service.EmailDeliveryService;
-import com.example.restservice.service.CalendarInviteService;
+import com.example.restservice.service.EventUpdateNotifier;
+import com.example.restservice.service.PublicResponseCache;
 import com.example.restservice.payload.response.MessageResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -20,9 +20,8 @@ import jakarta.validation.Valid;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -40,46 +39,32 @@ public class EventController {
     private EventFirestoreRepository eventRepository;
 
     @Autowired
-    private VolunteerFirestoreRepository volunteerRepository;
+    private EventCatalog eventCatalog;
 
     @Autowired
-    private ParticipantFirestoreRepository participantRepository;
+    private VolunteerFirestoreRepository volunteerRepository;
 
     @Autowired
-    private MessagingService messagingService;
+    private ParticipantFirestoreRepository participantRepository;
 
     @Autowired
-    private EmailDeliveryService emailDeliveryService;
+    private EventCounters eventCounters;
 
     @Autowired
-    private CalendarInviteService calendarInviteService;
+    private EventUpdateNotifier eventUpdateNotifier;
 
     @Autowired
     private UserFirestoreRepository userRepository;
 
+    @Autowired
+    private PublicResponseCache publicResponseCache;
 
     // Fetch all events, ordered by date
     @GetMapping
-    public ResponseEntity<?> getAllEvents() {
+    public ResponseEntity<?> getAllEvents(HttpServletRequest request) {
         try {
-            List<EventFirestore> events = eventRepository.findAllByOrderByDateAsc();
-            System.out.println("=== ENHANCED BACKEND DEBUG ===");
-            System.out.println("DEBUG: getAllEvents returning " + events.size() + " events");
-            if (!events.isEmpty()) {
-                EventFirestore firstEvent = events.get(0);
-                System.out.println("DEBUG: First event details:");
-                System.out.println("  - Name: " + firstEvent.getName());
-                System.out.println("  - Date: " + firstEvent.getDate());
-                System.out.println("  - StartTime (raw): " + firstEvent.getStartTime());
-                System.out.println("  - EndTime (raw): " + firstEvent.getEndTime());
-                System.out.println("  - StartTime type: " + (firstEvent.getStartTime() != null ? firstEvent.getStartTime().getClass().getSimpleName() : "null"));
-                System.out.println("  - EndTime type: " + (firstEvent.getEndTime() != null ? firstEvent.getEndTime().getClass().getSimpleName() : "null"));
-                System.out.println("  - StartTime null check: " + (firstEvent.getStartTime() == null));
-                System.out.println("  - EndTime null check: " + (firstEvent.getEndTime() == null));
-                System.out.println("  - StartTime empty check: " + (firstEvent.getStartTime() != null && firstEvent.getStartTime().isEmpty()));
-                System.out.println("  - EndTime empty check: " + (firstEvent.getEndTime() != null && firstEvent.getEndTime().isEmpty()));
-            }
-            return ResponseEntity.ok(events);
+            return publicResponseCache.respond("events", String.valueOf(eventCatalog.getVersion()), request,
+                eventCatalog::findAll);
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch events - " + e.getMessage()));
@@ -94,19 +79,32 @@ public class EventController {
             List<EventFirestore> events = eventRepository.findAllByOrderByDateAsc();
             Map<String, Object> eventStats = new HashMap<>();
 
+            // Counters are read in one batch; only events whose counter is missing or corrupted need an aggregate count
+            Map<String, EventCounters.Counts> storedCounts = eventCounters.read(
+                events.stream().map(EventFirestore::getId).toList()).get();
+            Map<String, CompletableFuture<Long>> participantCounts = new HashMap<>();
+            Map<String, CompletableFuture<Long>> volunteerCounts = new HashMap<>();
+            for (EventFirestore event : events) {
+                EventCounters.Counts counts = storedCounts.getOrDefault(event.getId(), new EventCounters.Counts(null, null));
+                participantCounts.put(event.getId(), counts.participants() != null
+                    ? CompletableFuture.completedFuture(counts.participants())
+                    : participantRepository.countByEventIdAsync(event.getId()));
+                volunteerCounts.put(event.getId(), counts.volunteers() != null
+                    ? CompletableFuture.completedFuture(counts.volunteers())
+                    : volunteerRepository.countByEventIdAsync(event.getId()));
+            }
+
             for (EventFirestore event : events) {
                 Map<String, Object> stats = new HashMap<>();
 
                 try {
                     // Get participant count
-                    List<ParticipantFirestore> participants = participantRepository.findByEventId(event.getId());
-                    int participantCount = participants.size();
+                    long participantCount = participantCounts.get(event.getId()).get();
 
                     // Get volunteer count
-                    int volunteerCount = 0;
+                    long volunteerCount = 0;
                     try {
-                        List<VolunteerFirestore> volunteers = volunteerRepository.findByEventId(event.getId());
-                        volunteerCount = volunteers.size();
+                        volunteerCount = volunteerCounts.get(event.getId()).get();
                     } catch (Exception volError) {
                         logger.warn("Failed to fetch volunteers for event {}: {}", event.getId(), volError.getMessage());
                         volunteerCount = 0;
@@ -150,16 +148,12 @@ public class EventController {
 
     // Fetch upcoming events (today or later), ordered by date
     @GetMapping("/upcoming")
-    public ResponseEntity<?> getUpcomingEvents() {
+    public ResponseEntity<?> getUpcomingEvents(HttpServletRequest request) {
         try {
+            // The split between upcoming and past moves at midnight, so the date is part of the version
             LocalDate today = LocalDate.now();
-            List<EventFirestore> events = eventRepository.findByDateGreaterThanEqualOrderByDateAsc(today);
-            System.out.println("DEBUG: getUpcomingEvents returning " + events.size() + " events");
-            if (!events.isEmpty()) {
-                EventFirestore firstEvent = events.get(0);
-                System.out.println("DEBUG: First upcoming event - startTime: " + firstEvent.getStartTime() + ", endTime: " + firstEvent.getEndTime());
-            }
-            return ResponseEntity.ok(events);
+            return publicResponseCache.respond("events:upcoming", eventCatalog.getVersion() + ":" + today, request,
+                () -> eventCatalog.findUpcoming(today));
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch upcoming events - " + e.getMessage()));
@@ -168,11 +162,11 @@ public class EventController {
 
     // Fetch past events (before today), ordered by date descending
     @GetMapping("/past")
-    public ResponseEntity<?> getPastEvents() {
+    public ResponseEntity<?> getPastEvents(HttpServletRequest request) {
         try {
             LocalDate today = LocalDate.now();
-            List<EventFirestore> events = eventRepository.findByDateLessThanOrderByDateDesc(today);
-            return ResponseEntity.ok(events);
+            return publicResponseCache.respond("events:past", eventCatalog.getVersion() + ":" + today, request,
+                () -> eventCatalog.findPast(today));
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch past events - " + e.getMessage()));
@@ -181,14 +175,10 @@ public class EventController {
 
     // Get event by ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getEventById(@PathVariable String id) {
+    public ResponseEntity<?> getEventById(@PathVariable String id, HttpServletRequest request) {
         try {
-            Optional<EventFirestore> eventOpt = eventRepository.findById(id);
-            if (eventOpt.isPresent()) {
-                return ResponseEntity.ok(eventOpt.get());
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            return publicResponseCache.respond("event:" + id, String.valueOf(eventCatalog.getVersion()), request,
+                () -> eventCatalog.findById(id).orElse(null));
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch event - " + e.getMessage()));
@@ -389,93 +379,8 @@ public class EventController {
 
             EventFirestore savedEvent = eventRepository.save(event);
 
-            // Detect changes and send notifications
-            Map<String, String> changes = detectEventChanges(oldEvent, savedEvent);
-            if (!changes.isEmpty()) {
-                try {
-                    List<ParticipantFirestore> participants = participantRepository.findByEventId(id);
-                    if (!participants.isEmpty()) {
-                        logger.info("Event {} updated with {} changes, notifying {} participants",
-                                   id, changes.size(), participants.size());
-
-                        int emailCount = 0;
-                        int inboxCount = 0;
-
-                        for (ParticipantFirestore participant : participants) {
-                            try {
-                                // Send email notification with optional calendar invite
-                                if (participant.getParentUserEmail() != null && emailDeliveryService.isEnabled()) {
-                                    String emailBody = buildEventUpdateEmail(savedEvent, changes, participant.getChildName());
-                                    boolean emailSent;
-
-                                    // Check if we should include calendar invite (if date/time changed)
-                                    if (shouldIncludeCalendarInvite(changes)) {
-                                        try {
-                                            String calendarInvite = calendarInviteService.generateBase64ICalInvite(
-                                                savedEvent,
-                                                participant.getChildName()
-                                            );
-
-                                            if (calendarInvite != null) {
-                                                String emailBodyWithCalendar = emailBody + "\n\nA calendar invite is attached to this email to help you keep track of the updated event details.";
-                                                emailSent = emailDeliveryService.sendEmailWithAttachment(
-                                                    participant.getParentUserEmail(),
-                                                    "Event Update: " + savedEvent.getName(),
-                                                    emailBodyWithCalendar,
-                                                    calendarInvite,
-                                                    savedEvent.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_updated.ics",
-                                                    "text/calendar"
-                                                );
-                                                logger.debug("Sent email with calendar invite to {}", participant.getParentUserEmail());
-                                            } else {
-                                                // Fallback to regular email if calendar generation fails
-                                                emailSent = emailDeliveryService.sendEmail(
-                                                    participant.getParentUserEmail(),
-                                                    "Event Update: " + savedEvent.getName(),
-                                                    emailBody
-                                                );
-                                            }
-                                        } catch (Exception calendarError) {
-                                            logger.warn("Failed to generate calendar invite for participant {}, sending regular email: {}",
-                                                       participant.getChildName(), calendarError.getMessage());
-                                            // Fallback to regular email
-                                            emailSent = emailDeliveryService.sendEmail(
-                                                participant.getParentUserEmail(),
-                                                "Event Update: " + savedEvent.getName(),
-                                                emailBody
-                                            );
-                                        }
-                                    } else {
-                                        // No calendar invite needed, send regular email
-                                        emailSent = emailDeliveryService.sendEmail(
-                                            participant.getParentUserEmail(),
-                                            "Event Update: " + savedEvent.getName(),
-                                            emailBody
-                                        );
-                                    }
-
-                                    if (emailSent) emailCount++;
-                                }
-
-                                // Send inbox message
-                                if (participant.getParentUserId() != null) {
-                                    Map<String, Object> inboxMessage = buildEventUpdateInboxMessage(savedEvent, changes, participant.getChildName());
-                                    boolean inboxSent = messagingService.sendInboxMessage(participant.getParentUserId(), inboxMessage);
-                                    if (inboxSent) inboxCount++;
-                                }
-                            } catch (Exception notificationError) {
-                                logger.warn("Failed to send notification to participant {}: {}",
-                                           participant.getChildName(), notificationError.getMessage());
-                            }
-                        }
-
-                        logger.info("Sent {} emails and {} inbox messages for event update", emailCount, inboxCount);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error sending event update notifications: {}", e.getMessage());
-                    // Don't fail the update if notifications fail
-                }
-            }
+            // Notifications are rendered and sent in the background
+            eventUpdateNotifier.publish(oldEvent, savedEvent);
 
             return ResponseEntity.ok(savedEvent);
 
@@ -576,228 +481,4 @@ public class EventController {
         public void setEndTime(String endTime) { this.endTime = endTime; }
     }
 
-    // Helper methods for date/time formatting
-    private String formatEventDate(String dateString) {
-        if (dateString == null || dateString.trim().isEmpty()) {
-            return "TBD";
-        }
-        try {
-            LocalDate date = LocalDate.parse(dateString);
-            return date.format(DateTimeFormatter.ofPattern("MMMM d, yyyy"));
-        } catch (Exception e) {
-            logger.warn("Failed to parse date string: {}", dateString);
-            return "TBD";
-        }
-    }
-
-    private String formatEventTime(String timeString) {
-        if (timeString == null || timeString.trim().isEmpty()) {
-            return "TBD";
-        }
-        try {
-            LocalTime time = LocalTime.parse(timeString);
-            return time.format(DateTimeFormatter.ofPattern("h:mm a"));
-        } catch (Exception e) {
-            logger.warn("Failed to parse time string: {}", timeString);
-            return "TBD";
-        }
-    }
-
-    private String formatEventDateTime(String date, String startTime, String endTime) {
-        String formattedDate = formatEventDate(date);
-        String formattedStartTime = formatEventTime(startTime);
-        String formattedEndTime = formatEventTime(endTime);
-
-        if ("TBD".equals(formattedDate)) {
-            return "Date and time TBD";
-        }
-
-        StringBuilder result = new StringBuilder(formattedDate);
-
-        if (!"TBD".equals(formattedStartTime)) {
-            result.append(" from ").append(formattedStartTime);
-            if (!"TBD".equals(formattedEndTime)) {
-                result.append(" to ").append(formattedEndTime);
-            }
-        } else if (!"TBD".equals(formattedEndTime)) {
-            result.append(" until ").append(formattedEndTime);
-        }
-
-        return result.toString();
-    }
-
-    // Helper method to format age range
-    private String formatAgeRange(Integer minAge, Integer maxAge) {
-        if (minAge != null && maxAge != null) {
-            return "Ages " + minAge + "-" + maxAge;
-        } else if (minAge != null) {
-            return "Ages " + minAge + "+";
-        } else if (maxAge != null) {
-            return "Ages up to " + maxAge;
-        } else {
-            return "All Ages";
-        }
-    }
-
-    // Change detection method
-    private Map<String, String> detectEventChanges(EventFirestore oldEvent, EventFirestore newEvent) {
-        Map<String, String> changes = new HashMap<>();
-
-        // Compare key fields
-        if (!java.util.Objects.equals(oldEvent.getName(), newEvent.getName())) {
-            changes.put("name", oldEvent.getName() + " → " + newEvent.getName());
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getDate(), newEvent.getDate())) {
-            changes.put("date", formatEventDate(oldEvent.getDate()) + " → " + formatEventDate(newEvent.getDate()));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getStartTime(), newEvent.getStartTime())) {
-            changes.put("startTime", formatEventTime(oldEvent.getStartTime()) + " → " + formatEventTime(newEvent.getStartTime()));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getEndTime(), newEvent.getEndTime())) {
-            changes.put("endTime", formatEventTime(oldEvent.getEndTime()) + " → " + formatEventTime(newEvent.getEndTime()));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getLocation(), newEvent.getLocation())) {
-            changes.put("location", (oldEvent.getLocation() != null ? oldEvent.getLocation() : "TBD") + " → " + (newEvent.getLocation() != null ? newEvent.getLocation() : "TBD"));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getAgeGroup(), newEvent.getAgeGroup())) {
-            changes.put("ageGroup", (oldEvent.getAgeGroup() != null ? oldEvent.getAgeGroup() : "Not specified") + " → " + (newEvent.getAgeGroup() != null ? newEvent.getAgeGroup() : "Not specified"));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getPrice(), newEvent.getPrice())) {
-            changes.put("price", String.format("$%.2f → $%.2f", (oldEvent.getPrice() != null ? oldEvent.getPrice() : 0.0), (newEvent.getPrice() != null ? newEvent.getPrice() : 0.0)));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getCapacity(), newEvent.getCapacity())) {
-            changes.put("capacity", (oldEvent.getCapacity() != null ? oldEvent.getCapacity().toString() : "Unlimited") + " → " + (newEvent.getCapacity() != null ? newEvent.getCapacity().toString() : "Unlimited"));
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getMinAge(), newEvent.getMinAge()) || !java.util.Objects.equals(oldEvent.getMaxAge(), newEvent.getMaxAge())) {
-            String oldAgeRange = formatAgeRange(oldEvent.getMinAge(), oldEvent.getMaxAge());
-            String newAgeRange = formatAgeRange(newEvent.getMinAge(), newEvent.getMaxAge());
-            changes.put("ageRange", oldAgeRange + " → " + newAgeRange);
-        }
-
-        if (!java.util.Objects.equals(oldEvent.getTags(), newEvent.getTags())) {
-            String oldTags = oldEvent.getTags() != null && !oldEvent.getTags().trim().isEmpty() ? oldEvent.getTags() : "None";
-            String newTags = newEvent.getTags() != null && !newEvent.getTags().trim().isEmpty() ? newEvent.getTags() : "None";
-            changes.put("tags", oldTags + " → " + newTags);
-        }
-
-        return changes;
-    }
-
-    // Email builder method
-    private String buildEventUpdateEmail(EventFirestore event, Map<String, String> changes, String childName) {
-        StringBuilder emailBody = new StringBuilder();
-
-        emailBody.append("Dear Parent,\n\n");
-        emailBody.append("The event '").append(event.getName()).append("' that ").append(childName).append(" is registered for has been updated.\n\n");
-
-        emailBody.append("CHANGES MADE:\n");
-        for (Map.Entry<String, String> change : changes.entrySet()) {
-            String fieldName = change.getKey();
-            String changeValue = change.getValue();
-
-            // Make field names more readable
-            switch (fieldName) {
-                case "startTime":
-                    fieldName = "Start Time";
-                    break;
-                case "endTime":
-                    fieldName = "End Time";
-                    break;
-                case "ageGroup":
-                    fieldName = "Age Group";
-                    break;
-                case "ageRange":
-                    fieldName = "Age Range";
-                    break;
-                case "tags":
-                    fieldName = "Tags";
-                    break;
-                default:
-                    fieldName = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
-            }
-
-            emailBody.append("• ").append(fieldName).append(": ").append(changeValue).append("\n");
-        }
-
-        emailBody.append("\n");
-        emailBody.append("UPDATED EVENT DETAILS:\n");
-        emailBody.append("Event: ").append(event.getName()).append("\n");
-        emailBody.append("Date & Time: ").append(formatEventDateTime(event.getDate(), event.getStartTime(), event.getEndTime())).append("\n");
-
-        if (event.getLocation() != null && !event.getLocation().trim().isEmpty()) {
-            emailBody.append("Location: ").append(event.getLocation()).append("\n");
-        }
-
-        if (event.getAgeGroup() != null && !event.getAgeGroup().trim().isEmpty()) {
-            emailBody.append("Age Group: ").append(event.getAgeGroup()).append("\n");
-        }
-
-        if (event.getPrice() != null && event.getPrice() > 0) {
-            emailBody.append("Price: $").append(String.format("%.2f", event.getPrice())).append("\n");
-        }
-
-        emailBody.append("\n");
-        emailBody.append("If you have questions about these changes, please contact us.\n\n");
-        emailBody.append("Thank you,\n");
-        emailBody.append("Kids in Motion Team\n");
-        emailBody.append("Email: info@kidsinmotionpa.org");
-
-        return emailBody.toString();
-    }
-
-    // Inbox message builder method
-    private Map<String, Object> buildEventUpdateInboxMessage(EventFirestore event, Map<String, String> changes, String childName) {
-        Map<String, Object> message = new HashMap<>();
-
-        message.put("id", "event_update_" + System.currentTimeMillis());
-        message.put("type", "event-update");
-        message.put("title", "Event Update: " + event.getName());
-
-        // Build short message with first 2-3 changes
-        StringBuilder shortMessage = new StringBuilder();
-        shortMessage.append("The event '").append(event.getName()).append("' has been updated for ").append(childName).append(". ");
-
-        int changeCount = 0;
-        for (Map.Entry<String, String> change : changes.entrySet()) {
-            if (changeCount >= 2) {
-                shortMessage.append("and more...");
-                break;
-            }
-            if (changeCount > 0) {
-                shortMessage.append(", ");
-            }
-            shortMessage.append(change.getKey()).append(" changed");
-            changeCount++;
-        }
-
-        shortMessage.append(". Check your email for full details.");
-
-        message.put("message", shortMessage.toString());
-        message.put("from", "Kids in Motion");
-        message.put("timestamp", LocalDateTime.now().toString());
-        message.put("read", false);
-        message.put("isSystem", true);
-        message.put("actionLink", "/dashboard");
-        message.put("actionText", "View Registrations");
-
-        return message;
-    }
-
-    // Helper method to determine if calendar invite should be included
-    private boolean shouldIncludeCalendarInvite(Map<String, String> changes) {
-        // Include calendar invite if date, start time, or end time changed
-        return changes.containsKey("date") ||
-               changes.containsKey("startTime") ||
-               changes.containsKey("endTime") ||
-               changes.containsKey("location");
-    }
-
 }
\ No newline at end of file
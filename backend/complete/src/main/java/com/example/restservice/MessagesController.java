@@ -2,17 +2,19 @@ package com.example.restservice;
 
 import com.example.restservice.payload.request.BroadcastMessageRequest;
 import com.example.restservice.payload.response.BroadcastMessageResponse;
+import com.example.restservice.service.BroadcastJob;
+import com.example.restservice.service.BroadcastJobService;
 import com.example.restservice.service.MessagingService;
 import com.example.restservice.service.MessagingRecipientService;
 import com.example.restservice.service.RecipientCategory;
 import com.example.restservice.model.firestore.BroadcastHistoryFirestore;
-import com.example.restservice.model.firestore.UserFirestore;
 import com.example.restservice.repository.firestore.BroadcastHistoryFirestoreRepository;
-import com.example.restservice.repository.firestore.UserFirestoreRepository;
+import com.example.restservice.repository.firestore.CursorPage;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.util.StringUtils;
@@ -23,6 +25,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
@@ -38,10 +41,10 @@ public class MessagesController {
     private MessagingRecipientService messagingRecipientService;
 
     @Autowired
-    private BroadcastHistoryFirestoreRepository broadcastHistoryRepository;
+    private BroadcastJobService broadcastJobService;
 
     @Autowired
-    private UserFirestoreRepository userFirestoreRepository;
+    private BroadcastHistoryFirestoreRepository broadcastHistoryRepository;
 
     @Value("${app.admin.emails:}")
     private String adminEmails;
@@ -85,6 +88,7 @@ public class MessagesController {
     @PostMapping("/broadcast")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> broadcastMessages(@Valid @RequestBody BroadcastMessageRequest request,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                                HttpServletRequest httpRequest) {
         if (!isAdminRequest(httpRequest)) {
             return ResponseEntity.status(403)
@@ -93,21 +97,55 @@ public class MessagesController {
 
         try {
             String initiatorFirebaseUid = (String) httpRequest.getAttribute("firebaseUid");
-            MessagingService.BroadcastResult result =
-                    messagingService.broadcast(request, resolveInitiatedBy(httpRequest));
-
-            // Save broadcast history
-            saveBroadcastHistory(request, result, initiatorFirebaseUid);
+            BroadcastJob job = broadcastJobService.submit(request, resolveInitiatedBy(httpRequest),
+                    initiatorFirebaseUid, idempotencyKey);
 
-            return ResponseEntity.ok(BroadcastMessageResponse.from(result));
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("jobId", job.getId());
+            response.put("status", job.getStatus().name());
+            response.put("statusUrl", "/api/messages/broadcast-jobs/" + job.getId());
+            return ResponseEntity.accepted().body(response);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.badRequest().body(error(ex.getMessage()));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(error("Too many broadcasts are queued right now. Please try again shortly."));
         } catch (Exception ex) {
             return ResponseEntity.internalServerError()
                     .body(error("Failed to broadcast messages: " + ex.getMessage()));
         }
     }
 
+    /**
+     * Progress of a broadcast job; includes the full delivery result once the job has finished
+     */
+    @GetMapping("/broadcast-jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getBroadcastJob(@PathVariable String jobId, HttpServletRequest httpRequest) {
+        if (!isAdminRequest(httpRequest)) {
+            return ResponseEntity.status(403)
+                    .body(error("Admin access required to view broadcast jobs."));
+        }
+
+        try {
+            Optional<Map<String, Object>> status = broadcastJobService.getStatus(jobId);
+            if (status.isEmpty()) {
+                return ResponseEntity.status(404).body(error("Broadcast job not found"));
+            }
+
+            Map<String, Object> response = new HashMap<>(status.get());
+            response.put("success", true);
+            broadcastJobService.findJob(jobId)
+                    .filter(BroadcastJob::isFinished)
+                    .ifPresent(job -> response.put("result", BroadcastMessageResponse.from(job.getResult())));
+            return ResponseEntity.ok(response);
+        } catch (Exception ex) {
+            return ResponseEntity.internalServerError()
+                    .body(error("Failed to retrieve broadcast job: " + ex.getMessage()));
+        }
+    }
+
     @PostMapping("/recipients/preview")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> previewRecipients(@RequestBody Map<String, String> request,
@@ -210,78 +248,26 @@ public class MessagesController {
         return error;
     }
 
-    /**
-     * Save broadcast history to database
-     */
-    private void saveBroadcastHistory(BroadcastMessageRequest request, MessagingService.BroadcastResult result, String initiatorFirebaseUid) {
-        try {
-            BroadcastHistoryFirestore history = new BroadcastHistoryFirestore();
-            history.setInitiatorFirebaseUid(initiatorFirebaseUid);
-
-            // Get initiator name
-            try {
-                Optional<UserFirestore> initiatorOpt = userFirestoreRepository.findByFirebaseUid(initiatorFirebaseUid);
-                if (initiatorOpt.isPresent()) {
-                    UserFirestore initiator = initiatorOpt.get();
-                    history.setInitiatorName(initiator.getFirstName() + " " + initiator.getLastName());
-                } else {
-                    history.setInitiatorName("Kids in Motion Admin");
-                }
-            } catch (Exception e) {
-                history.setInitiatorName("Kids in Motion Admin");
-            }
-
-            history.setSubject(request.getSubject());
-            history.setMessage(request.getMessage());
-            history.setRequestedChannels(result.getRequestedChannels());
-            history.setCategories(request.getCategories());
-            history.setDirectEmails(request.getDirectEmails());
-            history.setDirectPhoneNumbers(request.getDirectPhoneNumbers());
-            history.setSelectedRecipients(request.getSelectedRecipients()); // Save selected recipients
-
-            history.setTotalRecipients(result.getTotalRecipients());
-            history.setInboxSent(result.getInboxSent());
-            history.setInboxSkipped(result.getInboxSkipped());
-            history.setEmailSent(result.getEmailSent());
-            history.setEmailSkipped(result.getEmailSkipped());
-            history.setSmsSent(result.getSmsSent());
-            history.setSmsSkipped(result.getSmsSkipped());
-
-            history.setCategoryCounts(result.getCategoryCounts());
-            history.setWarnings(result.getGlobalWarnings());
-
-            // Convert failures to serializable format
-            List<Map<String, Object>> failuresList = result.getFailures().stream()
-                .map(failure -> {
-                    Map<String, Object> failureMap = new HashMap<>();
-                    failureMap.put("channel", failure.getChannel());
-                    failureMap.put("reason", failure.getReason());
-                    failureMap.put("recipient", failure.getRecipient());
-                    return failureMap;
-                })
-                .collect(Collectors.toList());
-            history.setFailures(failuresList);
-
-            broadcastHistoryRepository.save(history);
-        } catch (Exception e) {
-            // Don't fail the broadcast if history saving fails
-            System.err.println("Failed to save broadcast history: " + e.getMessage());
-        }
-    }
-
     /**
      * Get broadcast history for admins
      */
     @GetMapping("/broadcast-history")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getBroadcastHistory(HttpServletRequest request) {
+    public ResponseEntity<?> getBroadcastHistory(@RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) String cursor,
+                                                 HttpServletRequest request) {
         if (!isAdminRequest(request)) {
             return ResponseEntity.status(403)
                     .body(error("Admin access required to view broadcast history."));
         }
 
         try {
-            List<BroadcastHistoryFirestore> history = broadcastHistoryRepository.findRecent(50);
+            // Without paging parameters keep returning the 50 most recent broadcasts
+            boolean paged = limit != null || cursor != null;
+            CursorPage<BroadcastHistoryFirestore> page = paged
+                    ? broadcastHistoryRepository.findPage(CursorPage.clampLimit(limit), cursor)
+                    : null;
+            List<BroadcastHistoryFirestore> history = paged ? page.getItems() : broadcastHistoryRepository.findRecent(50);
 
             List<Map<String, Object>> response = history.stream()
                 .map(broadcast -> {
@@ -296,13 +282,24 @@ public class MessagesController {
                     item.put("smsSent", broadcast.getSmsSent());
                     item.put("inboxSent", broadcast.getInboxSent());
                     item.put("requestedChannels", broadcast.getRequestedChannels());
+                    item.put("status", broadcast.getStatus());
                     item.put("warnings", broadcast.getWarnings() != null ? broadcast.getWarnings().size() : 0);
                     item.put("failures", broadcast.getFailures() != null ? broadcast.getFailures().size() : 0);
                     return item;
                 })
                 .collect(Collectors.toList());
 
-            return ResponseEntity.ok(Map.of("history", response));
+            if (!paged) {
+                return ResponseEntity.ok(Map.of("history", response));
+            }
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("history", response);
+            body.put("nextCursor", page.getNextCursor());
+            body.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(error("Failed to retrieve broadcast history: " + e.getMessage()));
@@ -4,9 +4,11 @@ import com.example.restservice.model.firestore.EventFirestore;
 import com.example.restservice.model.firestore.UserFirestore;
 import com.example.restservice.model.firestore.ParticipantFirestore;
 import com.example.restservice.model.firestore.VolunteerFirestore;
+import com.example.restservice.repository.firestore.CursorPage;
 import com.example.restservice.repository.firestore.EventFirestoreRepository;
 import com.example.restservice.repository.firestore.UserFirestoreRepository;
 import com.example.restservice.repository.firestore.ParticipantFirestoreRepository;
+import com.example.restservice.repository.firestore.SeatReservationGate;
 import com.example.restservice.repository.firestore.VolunteerFirestoreRepository;
 import com.example.restservice.payload.response.MessageResponse;
 import com.example.restservice.service.NotificationService;
@@ -31,7 +33,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600) // Allow all origins for now
 @RestController
@@ -88,12 +92,18 @@ public class ParticipantController {
         try {
             List<ParticipantFirestore> participants = participantRepository.findByEventId(eventId);
 
+            // Load every parent in a few batched reads instead of one lookup per participant
+            Map<String, UserFirestore> parentUsers = userRepository.findAllByIds(participants.stream()
+                .map(ParticipantFirestore::getParentUserId)
+                .collect(Collectors.toList()));
+
             // Enrich participant data with parent user information
             for (ParticipantFirestore participant : participants) {
                 try {
-                    Optional<UserFirestore> parentUserOpt = userRepository.findByFirebaseUid(participant.getParentUserId());
-                    if (parentUserOpt.isPresent()) {
-                        UserFirestore parentUser = parentUserOpt.get();
+                    UserFirestore parentUser = participant.getParentUserId() != null
+                        ? parentUsers.get(participant.getParentUserId())
+                        : null;
+                    if (parentUser != null) {
 
                         // Create a map to include parent user details
                         Map<String, Object> parentUserDetails = new HashMap<>();
@@ -139,10 +149,21 @@ public class ParticipantController {
     // Get all participants (Admin only)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllParticipants() {
+    public ResponseEntity<?> getAllParticipants(@RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String cursor) {
         try {
-            List<ParticipantFirestore> participants = participantRepository.findAll();
-            return ResponseEntity.ok(participants);
+            // Without paging parameters keep returning the full list for existing clients
+            if (limit == null && cursor == null) {
+                List<ParticipantFirestore> participants = participantRepository.findAll();
+                return ResponseEntity.ok(participants);
+            }
+
+            CursorPage<ParticipantFirestore> page = participantRepository.findPage(CursorPage.clampLimit(limit), cursor);
+            Map<String, Object> response = new HashMap<>();
+            response.put("participants", page.getItems());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(response);
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch participants - " + e.getMessage()));
@@ -178,8 +199,14 @@ public class ParticipantController {
             String childName = request.getParticipantFirstName() + " " + request.getParticipantLastName();
             String normalizedChildName = normalizeChildName(childName);
 
+            // Issue the duplicate check, user and event lookups concurrently
+            CompletableFuture<List<ParticipantFirestore>> existingFuture =
+                participantRepository.findByParentUserIdAndEventIdAsync(firebaseUid, request.getEventId());
+            CompletableFuture<Optional<UserFirestore>> userFuture = userRepository.findByFirebaseUidAsync(firebaseUid);
+            CompletableFuture<Optional<EventFirestore>> eventFuture = eventRepository.findByIdAsync(request.getEventId());
+
             // Check for existing registrations using normalized name comparison
-            List<ParticipantFirestore> allParentEventRegistrations = participantRepository.findByParentUserIdAndEventId(firebaseUid, request.getEventId());
+            List<ParticipantFirestore> allParentEventRegistrations = existingFuture.get();
             boolean childAlreadyRegistered = allParentEventRegistrations.stream()
                 .anyMatch(reg -> normalizeChildName(reg.getChildName()).equals(normalizedChildName));
 
@@ -189,8 +216,8 @@ public class ParticipantController {
             }
 
             // Get user and event details for denormalization
-            Optional<UserFirestore> userOpt = userRepository.findByFirebaseUid(firebaseUid);
-            Optional<EventFirestore> eventOpt = eventRepository.findById(request.getEventId());
+            Optional<UserFirestore> userOpt = userFuture.get();
+            Optional<EventFirestore> eventOpt = eventFuture.get();
 
             if (!eventOpt.isPresent()) {
                 return ResponseEntity.badRequest()
@@ -210,15 +237,6 @@ public class ParticipantController {
                     .body(new MessageResponse("Child exceeds maximum age requirement. Please contact us if you have questions."));
             }
 
-            // Check event capacity
-            if (event.getCapacity() != null && event.getCapacity() > 0) {
-                long currentParticipants = participantRepository.countByEventId(request.getEventId());
-                if (currentParticipants >= event.getCapacity()) {
-                    return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Error: Event is at full capacity"));
-                }
-            }
-
             // Create participant record
             ParticipantFirestore participant = new ParticipantFirestore();
             participant.setParentUserId(firebaseUid);
@@ -266,18 +284,27 @@ public class ParticipantController {
             participant.setEventName(event.getName());
             participant.setEventDate(event.getDate());
 
-            ParticipantFirestore savedParticipant = participantRepository.save(participant);
+            // Capacity check and insert happen atomically so concurrent registrations cannot overbook the event
+            SeatReservationGate.Outcome reservation = participantRepository.reserveSeat(participant);
+            if (reservation == SeatReservationGate.Outcome.FULL) {
+                return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Event is at full capacity"));
+            }
+            if (reservation == SeatReservationGate.Outcome.EVENT_NOT_FOUND) {
+                return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error: Event not found"));
+            }
 
             // Update event's allowedUserIds array to include the parent for chat access
             updateEventAllowedUsers(request.getEventId(), firebaseUid);
 
-            // Send notifications after successful registration and collect delivery status
+            // Queue notifications after successful registration and collect delivery status
             NotificationService.NotificationDeliveryStatus deliveryStatus =
-                notificationService.sendRegistrationNotifications(savedParticipant, event, firebaseEmail, firebaseUid);
+                notificationService.queueRegistrationNotifications(participant, event, firebaseEmail, firebaseUid);
 
             // Create response with participant data and delivery status
             Map<String, Object> response = new HashMap<>();
-            response.put("participant", savedParticipant);
+            response.put("participant", participant);
             response.put("deliveryStatus", deliveryStatus);
 
             return ResponseEntity.ok(response);
@@ -3,9 +3,11 @@ package com.example.restservice;
 import com.example.restservice.model.User;
 import com.example.restservice.payload.response.UserProfileResponse;
 import com.example.restservice.payload.response.MessageResponse;
+import com.example.restservice.repository.firestore.CursorPage;
 import com.example.restservice.repository.firestore.UserFirestoreRepository;
 import com.example.restservice.model.firestore.UserFirestore;
 import com.example.restservice.security.FirebaseAuthService;
+import com.example.restservice.security.UserClaimsSync;
 import com.example.restservice.service.MessagingService;
 import com.example.restservice.service.NotificationService;
 import com.example.restservice.service.SmsDeliveryService;
@@ -45,6 +47,9 @@ public class UserController {
     @Autowired
     private FirebaseAuthService firebaseAuthService;
 
+    @Autowired
+    private UserClaimsSync userClaimsSync;
+
 
     @Autowired(required = false)
     private Firestore db;
@@ -80,6 +85,7 @@ public class UserController {
             if (existingUser.isPresent()) {
                 user = existingUser.get();
                 boolean needsUpdate = false;
+                String previousUserType = user.getUserType();
 
                 // Check if user is banned
                 if (user.getIsBanned() != null && user.getIsBanned()) {
@@ -137,6 +143,10 @@ public class UserController {
                 if (needsUpdate) {
                     userFirestoreRepository.save(user);
                 }
+                // Login refreshes lastLoginAt every time; only touch claims when the role actually changed
+                if (!Objects.equals(previousUserType, user.getUserType())) {
+                    userClaimsSync.sync(user);
+                }
             } else {
                 // Create new user
                 user = new UserFirestore();
@@ -198,6 +208,7 @@ public class UserController {
                 user.setLastLoginAt(System.currentTimeMillis());
 
                 userFirestoreRepository.save(user);
+                userClaimsSync.sync(user);
             }
 
             // Return user profile data with verification status
@@ -328,6 +339,9 @@ public class UserController {
             }
 
             userFirestoreRepository.save(user);
+            if (updates.containsKey("userType")) {
+                userClaimsSync.sync(user);
+            }
 
             UserProfileResponse response = buildUserProfileResponse(user, firebaseUid);
             return ResponseEntity.ok(response);
@@ -388,9 +402,15 @@ public class UserController {
 
     @GetMapping("/users/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String cursor) {
         try {
-            List<UserFirestore> users = userFirestoreRepository.findAllExcludingBanned();
+            // Without paging parameters keep returning the full list for existing clients
+            boolean paged = limit != null || cursor != null;
+            CursorPage<UserFirestore> page = paged
+                ? userFirestoreRepository.findPageExcludingBanned(CursorPage.clampLimit(limit), cursor)
+                : null;
+            List<UserFirestore> users = paged ? page.getItems() : userFirestoreRepository.findAllExcludingBanned();
 
             // Add computed fields including id, name, and proper timestamps
             List<Map<String, Object>> usersWithComputedFields = new ArrayList<>();
@@ -401,7 +421,17 @@ public class UserController {
                 usersWithComputedFields.add(userMap);
             }
 
-            return ResponseEntity.ok(Map.of("users", usersWithComputedFields));
+            if (!paged) {
+                return ResponseEntity.ok(Map.of("users", usersWithComputedFields));
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("users", usersWithComputedFields);
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().body(Map.of("error", "Failed to get users: " + e.getMessage()));
@@ -435,6 +465,9 @@ public class UserController {
             }
 
             userFirestoreRepository.save(user);
+            if (updates.containsKey("userType") || updates.containsKey("teams")) {
+                userClaimsSync.sync(user);
+            }
 
             return ResponseEntity.ok(Map.of("message", "User updated successfully"));
 
@@ -510,6 +543,8 @@ public class UserController {
 
             user.setUserType(newUserType);
             userFirestoreRepository.save(user);
+            userFirestoreRepository.evictFromCache(userId);
+            userClaimsSync.sync(user);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "User account type updated successfully");
@@ -706,14 +741,10 @@ public class UserController {
             user.setBannedAt(System.currentTimeMillis());
             user.setBannedReason(reason);
             userFirestoreRepository.save(user);
+            userFirestoreRepository.evictFromCache(userId);
 
-            // Force logout by revoking tokens
-            try {
-                firebaseAuthService.revokeRefreshTokens(user.getFirebaseUid());
-                firebaseAuthService.setCustomUserClaims(user.getFirebaseUid(), Map.of("banned", true));
-            } catch (Exception e) {
-                System.err.println("Failed to revoke tokens: " + e.getMessage());
-            }
+            // Writes the banned claim and forces logout by revoking tokens
+            userClaimsSync.sync(user);
 
             // Send email/inbox notification to user
             try {
@@ -778,13 +809,10 @@ public class UserController {
             user.setBannedAt(null);
             user.setBannedReason(null);
             userFirestoreRepository.save(user);
+            userFirestoreRepository.evictFromCache(userId);
 
             // Remove ban claim
-            try {
-                firebaseAuthService.setCustomUserClaims(user.getFirebaseUid(), Map.of("banned", false));
-            } catch (Exception e) {
-                System.err.println("Failed to update claims: " + e.getMessage());
-            }
+            userClaimsSync.sync(user);
 
             return ResponseEntity.ok(Map.of("message", "User unbanned successfully"));
 
@@ -3,7 +3,8 @@ package com.example.restservice;
 import com.example.restservice.model.firestore.EventFirestore;
 import com.example.restservice.model.firestore.UserFirestore;
 import com.example.restservice.model.firestore.VolunteerFirestore;
-import com.example.restservice.model.firestore.ParticipantFirestore;
+import com.example.restservice.model.firestore.ParticipantSummary;
+import com.example.restservice.repository.firestore.CursorPage;
 import com.example.restservice.repository.firestore.EventFirestoreRepository;
 import com.example.restservice.repository.firestore.UserFirestoreRepository;
 import com.example.restservice.repository.firestore.VolunteerFirestoreRepository;
@@ -83,10 +84,14 @@ public class VolunteerController {
     // Get all volunteers (Admin only)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllVolunteers() {
+    public ResponseEntity<?> getAllVolunteers(@RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) String cursor) {
         try {
-            List<VolunteerFirestore> volunteers = volunteerRepository.findAll();
-            return ResponseEntity.ok(volunteers);
+            if (limit == null && cursor == null) {
+                List<VolunteerFirestore> volunteers = volunteerRepository.findAll();
+                return ResponseEntity.ok(volunteers);
+            }
+            return ResponseEntity.ok(volunteerPage(limit, cursor));
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch volunteers - " + e.getMessage()));
@@ -99,10 +104,14 @@ public class VolunteerController {
     // Get all volunteers with event details (Admin only)
     @GetMapping("/admin/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllVolunteersWithEventDetails() {
+    public ResponseEntity<?> getAllVolunteersWithEventDetails(@RequestParam(required = false) Integer limit,
+                                                              @RequestParam(required = false) String cursor) {
         try {
-            List<VolunteerFirestore> volunteers = volunteerRepository.findAll();
-            return ResponseEntity.ok(volunteers);
+            if (limit == null && cursor == null) {
+                List<VolunteerFirestore> volunteers = volunteerRepository.findAll();
+                return ResponseEntity.ok(volunteers);
+            }
+            return ResponseEntity.ok(volunteerPage(limit, cursor));
         } catch (ExecutionException | InterruptedException e) {
             return ResponseEntity.status(500)
                 .body(new MessageResponse("Error: Failed to fetch volunteers - " + e.getMessage()));
@@ -283,13 +292,13 @@ public class VolunteerController {
                     .body(new MessageResponse("Error: Access denied. Must be admin or volunteer for this event"));
             }
 
-            // Search for participants in the specified event
-            List<ParticipantFirestore> allParticipants = participantRepository.findByEventId(eventId);
+            // Search for participants in the specified event, reading only the fields shown in results
+            List<ParticipantSummary> allParticipants = participantRepository.findSummariesByEventId(eventId);
             Map<String, Map<String, Object>> parentGroups = new HashMap<>();
 
             String lowerQuery = query.toLowerCase().trim();
 
-            for (ParticipantFirestore participant : allParticipants) {
+            for (ParticipantSummary participant : allParticipants) {
                 boolean matches = false;
 
                 // Search in parent name
@@ -363,6 +372,16 @@ public class VolunteerController {
         }
     }
 
+    // Cursor-paginated response shared by the admin list endpoints
+    private Map<String, Object> volunteerPage(Integer limit, String cursor) throws ExecutionException, InterruptedException {
+        CursorPage<VolunteerFirestore> page = volunteerRepository.findPage(CursorPage.clampLimit(limit), cursor);
+        Map<String, Object> response = new HashMap<>();
+        response.put("volunteers", page.getItems());
+        response.put("nextCursor", page.getNextCursor());
+        response.put("hasMore", page.isHasMore());
+        return response;
+    }
+
     // Request classes for volunteer operations
     public static class VolunteerSignupRequest {
         private String eventId;
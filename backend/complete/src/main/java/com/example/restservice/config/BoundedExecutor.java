@@ -0,0 +1,113 @@
+package com.example.restservice.config;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pool with a bounded queue. Once the queue is full a new task either runs on the submitting thread
+ * (CALLER_RUNS, which slows the producer down to the pool's pace) or is refused with a
+ * RejectedExecutionException (ABORT) for callers that would rather report "busy" than block.
+ */
+public class BoundedExecutor extends ThreadPoolExecutor implements MonitoredExecutor {
+
+    public enum Rejection {
+        CALLER_RUNS, ABORT;
+
+        // Accepts the property form, e.g. "caller-runs"
+        public static Rejection parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final Rejection rejection;
+    private final TaskStats stats = new TaskStats();
+
+    public BoundedExecutor(String name, int threads, int queueCapacity, Rejection rejection) {
+        super(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)));
+        this.name = name;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.rejection = rejection;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        setThreadFactory(runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        setRejectedExecutionHandler((task, executor) -> reject(task));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command, true));
+    }
+
+    /**
+     * Queues the task but never runs it on the calling thread, whatever the rejection policy; returns false
+     * when the pool is at capacity or shut down. For callers such as scheduler threads that must not be borrowed.
+     */
+    public boolean tryExecute(Runnable command) {
+        try {
+            super.execute(new TimedTask(command, false));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void reject(Runnable task) {
+        if (isShutdown()) {
+            throw new RejectedExecutionException(name + " executor is shut down");
+        }
+        if (rejection == Rejection.CALLER_RUNS && ((TimedTask) task).callerMayRun) {
+            stats.recordCallerRuns();
+            task.run();
+            return;
+        }
+        stats.recordRejected();
+        throw new RejectedExecutionException(name + " executor is at capacity (" + queueCapacity + " queued tasks)");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> snapshot = stats.snapshot(name, this, getQueue().size(), queueCapacity);
+        snapshot.put("rejectionPolicy", rejection.name());
+        return snapshot;
+    }
+
+    // Measures time spent in the queue and time spent running, including tasks run by the caller
+    private class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final boolean callerMayRun;
+        private final long submittedAt = System.nanoTime();
+
+        TimedTask(Runnable delegate, boolean callerMayRun) {
+            this.delegate = delegate;
+            this.callerMayRun = callerMayRun;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            stats.recordWait(startedAt - submittedAt);
+            try {
+                delegate.run();
+            } finally {
+                stats.recordRun(System.nanoTime() - startedAt);
+            }
+        }
+    }
+}
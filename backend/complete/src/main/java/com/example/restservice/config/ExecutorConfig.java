@@ -0,0 +1,102 @@
+package com.example.restservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Application thread pools, one per workload so a burst in one cannot starve the others: registration and
+ * event-update notifications, broadcast jobs, @Scheduled jobs and outbound social webhooks. Each pool has a
+ * fixed number of threads and a bounded queue; sizes and the rejection policy are set under app.executors.*
+ * and live load is reported by GET /api/admin/executors, together with the delivery pools owned by the
+ * messaging components (see {@link MonitoredExecutorOwner}).
+ */
+@Configuration
+public class ExecutorConfig implements AsyncConfigurer, SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${app.executors.notifications.threads:4}")
+    private int notificationThreads;
+
+    @Value("${app.executors.notifications.queue-capacity:500}")
+    private int notificationQueueCapacity;
+
+    @Value("${app.executors.notifications.rejection:caller-runs}")
+    private String notificationRejection;
+
+    @Value("${app.executors.broadcasts.threads:2}")
+    private int broadcastThreads;
+
+    @Value("${app.executors.broadcasts.queue-capacity:20}")
+    private int broadcastQueueCapacity;
+
+    @Value("${app.executors.broadcasts.rejection:abort}")
+    private String broadcastRejection;
+
+    @Value("${app.executors.webhooks.threads:2}")
+    private int webhookThreads;
+
+    @Value("${app.executors.webhooks.queue-capacity:20}")
+    private int webhookQueueCapacity;
+
+    @Value("${app.executors.webhooks.rejection:abort}")
+    private String webhookRejection;
+
+    @Value("${app.executors.scheduling.threads:4}")
+    private int schedulingThreads;
+
+    @Value("${app.executors.scheduling.queue-capacity:1000}")
+    private int schedulingQueueCapacity;
+
+    @Value("${app.executors.scheduling.rejection:abort}")
+    private String schedulingRejection;
+
+    @Bean
+    public BoundedExecutor notificationExecutor() {
+        return new BoundedExecutor("notifications", notificationThreads, notificationQueueCapacity,
+                BoundedExecutor.Rejection.parse(notificationRejection));
+    }
+
+    @Bean
+    public BoundedExecutor broadcastExecutor() {
+        return new BoundedExecutor("broadcasts", broadcastThreads, broadcastQueueCapacity,
+                BoundedExecutor.Rejection.parse(broadcastRejection));
+    }
+
+    @Bean
+    public BoundedExecutor webhookExecutor() {
+        return new BoundedExecutor("webhooks", webhookThreads, webhookQueueCapacity,
+                BoundedExecutor.Rejection.parse(webhookRejection));
+    }
+
+    @Bean
+    public InstrumentedScheduler schedulingExecutor() {
+        return new InstrumentedScheduler("scheduling", schedulingThreads, schedulingQueueCapacity,
+                BoundedExecutor.Rejection.parse(schedulingRejection));
+    }
+
+    // @Async methods without an explicit executor run on the notification pool
+    @Override
+    public Executor getAsyncExecutor() {
+        return notificationExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (error, method, params) -> logger.error("Async task {} failed: {}", method.getName(), error.getMessage(), error);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setScheduler(schedulingExecutor());
+    }
+}
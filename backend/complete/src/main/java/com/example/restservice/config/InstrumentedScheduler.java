@@ -0,0 +1,107 @@
+package com.example.restservice.config;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool behind the @Scheduled jobs and delayed work. Its queue holds every future run, so the reported queue
+ * depth counts only runs that are already due, and wait time is how late a run started. The queue is capped
+ * at {@code queueCapacity} scheduled tasks; past that a new task is refused (ABORT) or, under CALLER_RUNS,
+ * run on the submitting thread if it is due now. A delayed or periodic task cannot run early, so it is
+ * refused under either policy.
+ */
+public class InstrumentedScheduler extends ScheduledThreadPoolExecutor implements MonitoredExecutor {
+
+    private final String name;
+    private final int queueCapacity;
+    private final BoundedExecutor.Rejection rejection;
+    private final TaskStats stats = new TaskStats();
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+
+    public InstrumentedScheduler(String name, int threads, int queueCapacity, BoundedExecutor.Rejection rejection) {
+        super(Math.max(1, threads));
+        this.name = name;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.rejection = rejection;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        setThreadFactory(runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Cancelled one-off tasks would otherwise stay queued until their delay ends
+        setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Runnable command, RunnableScheduledFuture<V> task) {
+        return admit(task);
+    }
+
+    @Override
+    protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+        return admit(task);
+    }
+
+    // Called before the task is queued; a task run here is already done when its turn in the queue comes
+    private <V> RunnableScheduledFuture<V> admit(RunnableScheduledFuture<V> task) {
+        if (isShutdown() || getQueue().size() < queueCapacity) {
+            return task;
+        }
+        if (rejection == BoundedExecutor.Rejection.CALLER_RUNS && !task.isPeriodic()
+                && task.getDelay(TimeUnit.NANOSECONDS) <= 0) {
+            stats.recordCallerRuns();
+            task.run();
+            return task;
+        }
+        stats.recordRejected();
+        throw new RejectedExecutionException(name + " scheduler is at capacity (" + queueCapacity + " scheduled tasks)");
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable task) {
+        super.beforeExecute(thread, task);
+        if (task instanceof Delayed) {
+            stats.recordWait(-((Delayed) task).getDelay(TimeUnit.NANOSECONDS));
+        }
+        startedAt.set(System.nanoTime());
+    }
+
+    @Override
+    protected void afterExecute(Runnable task, Throwable failure) {
+        Long start = startedAt.get();
+        if (start != null) {
+            stats.recordRun(System.nanoTime() - start);
+            startedAt.remove();
+        }
+        super.afterExecute(task, failure);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        int scheduled = 0;
+        int due = 0;
+        for (Runnable task : getQueue()) {
+            scheduled++;
+            if (task instanceof Delayed && ((Delayed) task).getDelay(TimeUnit.NANOSECONDS) <= 0) {
+                due++;
+            }
+        }
+        Map<String, Object> snapshot = stats.snapshot(name, this, due, queueCapacity);
+        snapshot.put("scheduledTasks", scheduled);
+        snapshot.put("rejectionPolicy", rejection.name());
+        return snapshot;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.restservice.config;
+
+import java.util.Map;
+
+/**
+ * A named application thread pool that reports its own load: threads, queue depth and task latency.
+ */
+public interface MonitoredExecutor {
+
+    String getName();
+
+    Map<String, Object> getStats();
+}
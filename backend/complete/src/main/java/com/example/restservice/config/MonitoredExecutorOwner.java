@@ -0,0 +1,12 @@
+package com.example.restservice.config;
+
+import java.util.List;
+
+/**
+ * A component that runs thread pools of its own, sized by its own settings rather than app.executors.*, and
+ * reports them next to the shared pools.
+ */
+public interface MonitoredExecutorOwner {
+
+    List<MonitoredExecutor> getExecutors();
+}
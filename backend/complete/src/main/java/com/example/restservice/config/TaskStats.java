@@ -0,0 +1,65 @@
+package com.example.restservice.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for one pool: how long tasks waited to start, how long they ran, and how many were turned
+ * away or pushed back onto the submitting thread.
+ */
+class TaskStats {
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    void recordWait(long nanos) {
+        nanos = Math.max(0, nanos);
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordRun(long nanos) {
+        completed.increment();
+        totalRunNanos.add(nanos);
+        maxRunNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordRejected() {
+        rejected.increment();
+    }
+
+    void recordCallerRuns() {
+        callerRuns.increment();
+    }
+
+    Map<String, Object> snapshot(String name, ThreadPoolExecutor pool, int queueDepth, Integer queueCapacity) {
+        long tasks = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("poolSize", pool.getPoolSize());
+        stats.put("maxPoolSize", pool.getMaximumPoolSize());
+        stats.put("activeThreads", pool.getActiveCount());
+        stats.put("queueDepth", queueDepth);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedTasks", tasks);
+        stats.put("rejectedTasks", rejected.sum());
+        stats.put("callerRunsTasks", callerRuns.sum());
+        stats.put("avgWaitMs", tasks > 0 ? millis(totalWaitNanos.sum() / tasks) : 0.0);
+        stats.put("maxWaitMs", millis(maxWaitNanos.get()));
+        stats.put("avgRunMs", tasks > 0 ? millis(totalRunNanos.sum() / tasks) : 0.0);
+        stats.put("maxRunMs", millis(maxRunNanos.get()));
+        return stats;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
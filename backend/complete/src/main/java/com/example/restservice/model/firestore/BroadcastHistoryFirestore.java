@@ -1,6 +1,9 @@
 package com.example.restservice.model.firestore;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,6 +16,7 @@ public class BroadcastHistoryFirestore {
     private String id; // Firestore document ID
     private String initiatorFirebaseUid; // Who sent the broadcast
     private String initiatorName; // Name of the person who sent it
+    private String initiatedBy; // Sender shown on inbox messages
     private String subject;
     private String message;
     private Set<String> requestedChannels; // inbox, email, sms
@@ -20,6 +24,7 @@ public class BroadcastHistoryFirestore {
     private List<String> directEmails; // direct email addresses
     private List<String> directPhoneNumbers; // direct phone numbers
     private List<String> selectedRecipients; // selected recipient IDs
+    private boolean overrideOptOuts; // kept so a queued broadcast can be re-planned after a restart
 
     // Delivery statistics
     private int totalRecipients;
@@ -29,6 +34,13 @@ public class BroadcastHistoryFirestore {
     private int emailSkipped;
     private int smsSent;
     private int smsSkipped;
+    private int inboxFailed;
+    private int emailFailed;
+    private int smsFailed;
+
+    // Delivery job state: QUEUED, RUNNING, COMPLETED or FAILED
+    private String status;
+    private String errorMessage;
 
     // Additional data
     private Map<String, Integer> categoryCounts;
@@ -38,6 +50,7 @@ public class BroadcastHistoryFirestore {
     // Timestamps
     private Long createdTimestamp;
     private Long sentTimestamp;
+    private Long completedTimestamp;
 
     public BroadcastHistoryFirestore() {
         this.createdTimestamp = System.currentTimeMillis();
@@ -49,13 +62,16 @@ public class BroadcastHistoryFirestore {
         Map<String, Object> map = new HashMap<>();
         map.put("initiatorFirebaseUid", initiatorFirebaseUid);
         map.put("initiatorName", initiatorName);
+        map.put("initiatedBy", initiatedBy);
         map.put("subject", subject);
         map.put("message", message);
-        map.put("requestedChannels", requestedChannels);
+        // Firestore only serializes Lists, not Sets
+        map.put("requestedChannels", requestedChannels != null ? new ArrayList<>(requestedChannels) : null);
         map.put("categories", categories);
         map.put("directEmails", directEmails);
         map.put("directPhoneNumbers", directPhoneNumbers);
         map.put("selectedRecipients", selectedRecipients);
+        map.put("overrideOptOuts", overrideOptOuts);
         map.put("totalRecipients", totalRecipients);
         map.put("inboxSent", inboxSent);
         map.put("inboxSkipped", inboxSkipped);
@@ -63,11 +79,17 @@ public class BroadcastHistoryFirestore {
         map.put("emailSkipped", emailSkipped);
         map.put("smsSent", smsSent);
         map.put("smsSkipped", smsSkipped);
+        map.put("inboxFailed", inboxFailed);
+        map.put("emailFailed", emailFailed);
+        map.put("smsFailed", smsFailed);
+        map.put("status", status);
+        map.put("errorMessage", errorMessage);
         map.put("categoryCounts", categoryCounts);
         map.put("warnings", warnings);
         map.put("failures", failures);
         map.put("createdTimestamp", createdTimestamp);
         map.put("sentTimestamp", sentTimestamp);
+        map.put("completedTimestamp", completedTimestamp);
         return map;
     }
 
@@ -77,13 +99,16 @@ public class BroadcastHistoryFirestore {
         history.setId(documentId);
         history.setInitiatorFirebaseUid((String) map.get("initiatorFirebaseUid"));
         history.setInitiatorName((String) map.get("initiatorName"));
+        history.setInitiatedBy((String) map.get("initiatedBy"));
         history.setSubject((String) map.get("subject"));
         history.setMessage((String) map.get("message"));
-        history.setRequestedChannels((Set<String>) map.get("requestedChannels"));
+        Object channels = map.get("requestedChannels");
+        history.setRequestedChannels(channels instanceof Collection ? new LinkedHashSet<>((Collection<String>) channels) : null);
         history.setCategories((List<String>) map.get("categories"));
         history.setDirectEmails((List<String>) map.get("directEmails"));
         history.setDirectPhoneNumbers((List<String>) map.get("directPhoneNumbers"));
         history.setSelectedRecipients((List<String>) map.get("selectedRecipients"));
+        history.setOverrideOptOuts(Boolean.TRUE.equals(map.get("overrideOptOuts")));
         history.setTotalRecipients(safeLongToInt(map.get("totalRecipients")));
         history.setInboxSent(safeLongToInt(map.get("inboxSent")));
         history.setInboxSkipped(safeLongToInt(map.get("inboxSkipped")));
@@ -91,11 +116,17 @@ public class BroadcastHistoryFirestore {
         history.setEmailSkipped(safeLongToInt(map.get("emailSkipped")));
         history.setSmsSent(safeLongToInt(map.get("smsSent")));
         history.setSmsSkipped(safeLongToInt(map.get("smsSkipped")));
+        history.setInboxFailed(safeLongToInt(map.get("inboxFailed")));
+        history.setEmailFailed(safeLongToInt(map.get("emailFailed")));
+        history.setSmsFailed(safeLongToInt(map.get("smsFailed")));
+        history.setStatus((String) map.get("status"));
+        history.setErrorMessage((String) map.get("errorMessage"));
         history.setCategoryCounts((Map<String, Integer>) map.get("categoryCounts"));
         history.setWarnings((List<String>) map.get("warnings"));
         history.setFailures((List<Map<String, Object>>) map.get("failures"));
         history.setCreatedTimestamp(safeLongFromMap(map, "createdTimestamp"));
         history.setSentTimestamp(safeLongFromMap(map, "sentTimestamp"));
+        history.setCompletedTimestamp(safeLongFromMap(map, "completedTimestamp"));
         return history;
     }
 
@@ -124,6 +155,9 @@ public class BroadcastHistoryFirestore {
     public String getInitiatorName() { return initiatorName; }
     public void setInitiatorName(String initiatorName) { this.initiatorName = initiatorName; }
 
+    public String getInitiatedBy() { return initiatedBy; }
+    public void setInitiatedBy(String initiatedBy) { this.initiatedBy = initiatedBy; }
+
     public String getSubject() { return subject; }
     public void setSubject(String subject) { this.subject = subject; }
 
@@ -147,6 +181,9 @@ public class BroadcastHistoryFirestore {
         this.selectedRecipients = selectedRecipients != null ? selectedRecipients : new java.util.ArrayList<>(); 
     }
 
+    public boolean isOverrideOptOuts() { return overrideOptOuts; }
+    public void setOverrideOptOuts(boolean overrideOptOuts) { this.overrideOptOuts = overrideOptOuts; }
+
     public int getTotalRecipients() { return totalRecipients; }
     public void setTotalRecipients(int totalRecipients) { this.totalRecipients = totalRecipients; }
 
@@ -168,6 +205,21 @@ public class BroadcastHistoryFirestore {
     public int getSmsSkipped() { return smsSkipped; }
     public void setSmsSkipped(int smsSkipped) { this.smsSkipped = smsSkipped; }
 
+    public int getInboxFailed() { return inboxFailed; }
+    public void setInboxFailed(int inboxFailed) { this.inboxFailed = inboxFailed; }
+
+    public int getEmailFailed() { return emailFailed; }
+    public void setEmailFailed(int emailFailed) { this.emailFailed = emailFailed; }
+
+    public int getSmsFailed() { return smsFailed; }
+    public void setSmsFailed(int smsFailed) { this.smsFailed = smsFailed; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
     public Map<String, Integer> getCategoryCounts() { return categoryCounts; }
     public void setCategoryCounts(Map<String, Integer> categoryCounts) { this.categoryCounts = categoryCounts; }
 
@@ -182,4 +234,7 @@ public class BroadcastHistoryFirestore {
 
     public Long getSentTimestamp() { return sentTimestamp; }
     public void setSentTimestamp(Long sentTimestamp) { this.sentTimestamp = sentTimestamp; }
+
+    public Long getCompletedTimestamp() { return completedTimestamp; }
+    public void setCompletedTimestamp(Long completedTimestamp) { this.completedTimestamp = completedTimestamp; }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.restservice.model.firestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rendered message content shared by every outbox task of one broadcast or notification, stored once instead
+ * of on each task.
+ */
+public class OutboxPayloadFirestore {
+
+    private String id; // Firestore document ID
+    private String subject;
+    private String emailBody;
+    private String smsBody;
+    private Map<String, Object> inboxMessage; // Inbox document template; recipient fields are added per task
+    // Optional email attachment, Base64-encoded and rendered once for every recipient
+    private String attachmentContent;
+    private String attachmentFilename;
+    private String attachmentContentType;
+    private Long createdTimestamp;
+
+    public OutboxPayloadFirestore() {
+        this.createdTimestamp = System.currentTimeMillis();
+    }
+
+    // Convert to Map for Firestore storage
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("subject", subject);
+        map.put("emailBody", emailBody);
+        map.put("smsBody", smsBody);
+        map.put("inboxMessage", inboxMessage);
+        map.put("attachmentContent", attachmentContent);
+        map.put("attachmentFilename", attachmentFilename);
+        map.put("attachmentContentType", attachmentContentType);
+        map.put("createdTimestamp", createdTimestamp);
+        return map;
+    }
+
+    // Convert from Firestore Map
+    @SuppressWarnings("unchecked")
+    public static OutboxPayloadFirestore fromMap(Map<String, Object> map, String documentId) {
+        OutboxPayloadFirestore payload = new OutboxPayloadFirestore();
+        payload.setId(documentId);
+        payload.setSubject((String) map.get("subject"));
+        payload.setEmailBody((String) map.get("emailBody"));
+        payload.setSmsBody((String) map.get("smsBody"));
+        payload.setInboxMessage((Map<String, Object>) map.get("inboxMessage"));
+        payload.setAttachmentContent((String) map.get("attachmentContent"));
+        payload.setAttachmentFilename((String) map.get("attachmentFilename"));
+        payload.setAttachmentContentType((String) map.get("attachmentContentType"));
+        Object created = map.get("createdTimestamp");
+        payload.setCreatedTimestamp(created instanceof Number ? ((Number) created).longValue() : null);
+        return payload;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getSubject() { return subject; }
+    public void setSubject(String subject) { this.subject = subject; }
+
+    public String getEmailBody() { return emailBody; }
+    public void setEmailBody(String emailBody) { this.emailBody = emailBody; }
+
+    public String getSmsBody() { return smsBody; }
+    public void setSmsBody(String smsBody) { this.smsBody = smsBody; }
+
+    public Map<String, Object> getInboxMessage() { return inboxMessage; }
+    public void setInboxMessage(Map<String, Object> inboxMessage) { this.inboxMessage = inboxMessage; }
+
+    public String getAttachmentContent() { return attachmentContent; }
+    public void setAttachmentContent(String attachmentContent) { this.attachmentContent = attachmentContent; }
+
+    public String getAttachmentFilename() { return attachmentFilename; }
+    public void setAttachmentFilename(String attachmentFilename) { this.attachmentFilename = attachmentFilename; }
+
+    public String getAttachmentContentType() { return attachmentContentType; }
+    public void setAttachmentContentType(String attachmentContentType) { this.attachmentContentType = attachmentContentType; }
+
+    public Long getCreatedTimestamp() { return createdTimestamp; }
+    public void setCreatedTimestamp(Long createdTimestamp) { this.createdTimestamp = createdTimestamp; }
+}
@@ -0,0 +1,170 @@
+package com.example.restservice.model.firestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One pending delivery (a single recipient on a single channel) in the durable delivery outbox. The document
+ * ID is derived from the idempotency key, so enqueueing the same delivery twice never creates a second task.
+ */
+public class OutboxTaskFirestore {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_IN_FLIGHT = "IN_FLIGHT";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String id; // Firestore document ID, a hash of the idempotency key
+    private String idempotencyKey;
+    private String source; // broadcast, registration
+    private String broadcastId; // Broadcast history record, when the task belongs to a broadcast
+    private String payloadId; // Shared message content in the payloads collection
+    private String channel; // inbox, email, sms
+
+    // Recipient
+    private String recipientUid;
+    private String recipientEmail;
+    private String recipientPhone;
+    private String recipientName;
+    // Per-recipient tag replacements applied to the shared email body and inbox message
+    private Map<String, String> substitutions;
+
+    private String status;
+    private int attempts;
+    // When the dispatcher may next claim the task; null once it is SENT or FAILED.
+    // While IN_FLIGHT this is the lease expiry, so tasks held by a crashed instance become due again.
+    private Long nextAttemptAt;
+    private String lastError;
+    private String claimToken; // Set by each claim; only the holder of the current lease may record the outcome
+
+    private Long createdTimestamp;
+    private Long completedTimestamp;
+
+    public OutboxTaskFirestore() {
+        this.status = STATUS_PENDING;
+        this.createdTimestamp = System.currentTimeMillis();
+        this.nextAttemptAt = this.createdTimestamp;
+    }
+
+    public boolean isFinished() {
+        return STATUS_SENT.equals(status) || STATUS_FAILED.equals(status);
+    }
+
+    // Convert to Map for Firestore storage
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("idempotencyKey", idempotencyKey);
+        map.put("source", source);
+        map.put("broadcastId", broadcastId);
+        map.put("payloadId", payloadId);
+        map.put("channel", channel);
+        map.put("recipientUid", recipientUid);
+        map.put("recipientEmail", recipientEmail);
+        map.put("recipientPhone", recipientPhone);
+        map.put("recipientName", recipientName);
+        map.put("substitutions", substitutions);
+        map.put("status", status);
+        map.put("attempts", attempts);
+        map.put("nextAttemptAt", nextAttemptAt);
+        map.put("lastError", lastError);
+        map.put("claimToken", claimToken);
+        map.put("createdTimestamp", createdTimestamp);
+        map.put("completedTimestamp", completedTimestamp);
+        return map;
+    }
+
+    // Convert from Firestore Map
+    @SuppressWarnings("unchecked")
+    public static OutboxTaskFirestore fromMap(Map<String, Object> map, String documentId) {
+        OutboxTaskFirestore task = new OutboxTaskFirestore();
+        task.setId(documentId);
+        task.setIdempotencyKey((String) map.get("idempotencyKey"));
+        task.setSource((String) map.get("source"));
+        task.setBroadcastId((String) map.get("broadcastId"));
+        task.setPayloadId((String) map.get("payloadId"));
+        task.setChannel((String) map.get("channel"));
+        task.setRecipientUid((String) map.get("recipientUid"));
+        task.setRecipientEmail((String) map.get("recipientEmail"));
+        task.setRecipientPhone((String) map.get("recipientPhone"));
+        task.setRecipientName((String) map.get("recipientName"));
+        task.setSubstitutions((Map<String, String>) map.get("substitutions"));
+        task.setStatus((String) map.get("status"));
+        Object attempts = map.get("attempts");
+        task.setAttempts(attempts instanceof Number ? ((Number) attempts).intValue() : 0);
+        task.setNextAttemptAt(longValue(map.get("nextAttemptAt")));
+        task.setLastError((String) map.get("lastError"));
+        task.setClaimToken((String) map.get("claimToken"));
+        task.setCreatedTimestamp(longValue(map.get("createdTimestamp")));
+        task.setCompletedTimestamp(longValue(map.get("completedTimestamp")));
+        return task;
+    }
+
+    private static Long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    // Recipient details as recorded in broadcast failure reports
+    public Map<String, String> recipientSnapshot() {
+        Map<String, String> snapshot = new HashMap<>();
+        snapshot.put("displayName", recipientName);
+        snapshot.put("email", recipientEmail);
+        snapshot.put("phone", recipientPhone);
+        snapshot.put("firebaseUid", recipientUid);
+        return snapshot;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getBroadcastId() { return broadcastId; }
+    public void setBroadcastId(String broadcastId) { this.broadcastId = broadcastId; }
+
+    public String getPayloadId() { return payloadId; }
+    public void setPayloadId(String payloadId) { this.payloadId = payloadId; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public String getRecipientUid() { return recipientUid; }
+    public void setRecipientUid(String recipientUid) { this.recipientUid = recipientUid; }
+
+    public String getRecipientEmail() { return recipientEmail; }
+    public void setRecipientEmail(String recipientEmail) { this.recipientEmail = recipientEmail; }
+
+    public String getRecipientPhone() { return recipientPhone; }
+    public void setRecipientPhone(String recipientPhone) { this.recipientPhone = recipientPhone; }
+
+    public String getRecipientName() { return recipientName; }
+    public void setRecipientName(String recipientName) { this.recipientName = recipientName; }
+
+    public Map<String, String> getSubstitutions() { return substitutions; }
+    public void setSubstitutions(Map<String, String> substitutions) { this.substitutions = substitutions; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public Long getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(Long nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public String getClaimToken() { return claimToken; }
+    public void setClaimToken(String claimToken) { this.claimToken = claimToken; }
+
+    public Long getCreatedTimestamp() { return createdTimestamp; }
+    public void setCreatedTimestamp(Long createdTimestamp) { this.createdTimestamp = createdTimestamp; }
+
+    public Long getCompletedTimestamp() { return completedTimestamp; }
+    public void setCompletedTimestamp(Long completedTimestamp) { this.completedTimestamp = completedTimestamp; }
+}
@@ -0,0 +1,60 @@
+package com.example.restservice.model.firestore;
+
+import java.util.Map;
+
+/**
+ * Read-only projection of a participant document for list and search screens. Leaves out the medical,
+ * allergy and emergency-contact text, which is only needed on the participant detail view.
+ */
+public class ParticipantSummary {
+
+    public static final String[] FIELDS = {
+        "childName", "childAge", "parentUserId", "parentUserFullName", "eventId", "status", "registrationDate"
+    };
+
+    private String id;
+    private String childName;
+    private Integer childAge;
+    private String parentUserId;
+    private String parentUserFullName;
+    private String eventId;
+    private String status;
+    private String registrationDate;
+
+    public static ParticipantSummary fromMap(Map<String, Object> map, String documentId) {
+        ParticipantSummary summary = new ParticipantSummary();
+        summary.setId(documentId);
+        summary.setChildName((String) map.get("childName"));
+        summary.setChildAge(map.get("childAge") != null ? ((Long) map.get("childAge")).intValue() : null);
+        summary.setParentUserId((String) map.get("parentUserId"));
+        summary.setParentUserFullName((String) map.get("parentUserFullName"));
+        summary.setEventId((String) map.get("eventId"));
+        summary.setStatus((String) map.get("status"));
+        summary.setRegistrationDate((String) map.get("registrationDate"));
+        return summary;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getChildName() { return childName; }
+    public void setChildName(String childName) { this.childName = childName; }
+
+    public Integer getChildAge() { return childAge; }
+    public void setChildAge(Integer childAge) { this.childAge = childAge; }
+
+    public String getParentUserId() { return parentUserId; }
+    public void setParentUserId(String parentUserId) { this.parentUserId = parentUserId; }
+
+    public String getParentUserFullName() { return parentUserFullName; }
+    public void setParentUserFullName(String parentUserFullName) { this.parentUserFullName = parentUserFullName; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getRegistrationDate() { return registrationDate; }
+    public void setRegistrationDate(String registrationDate) { this.registrationDate = registrationDate; }
+}
@@ -0,0 +1,53 @@
+package com.example.restservice.model.firestore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Durable record of an event update that is waiting out its coalescing delay, written before the update
+ * endpoint returns and deleted once the notifications are queued, so a restart in between does not lose them.
+ */
+public class PendingEventUpdateFirestore {
+
+    private String id; // Firestore document ID, one per coalesced batch of edits
+    private String eventId;
+    private Map<String, String> changes; // Field -> "old → new", as shown in the notification
+    private Long dueAt; // When the coalescing delay ends and the notification should go out
+
+    public PendingEventUpdateFirestore() {
+    }
+
+    // Convert to Map for Firestore storage
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("eventId", eventId);
+        map.put("changes", changes);
+        map.put("dueAt", dueAt);
+        return map;
+    }
+
+    // Convert from Firestore Map
+    @SuppressWarnings("unchecked")
+    public static PendingEventUpdateFirestore fromMap(Map<String, Object> map, String documentId) {
+        PendingEventUpdateFirestore update = new PendingEventUpdateFirestore();
+        update.setId(documentId);
+        update.setEventId((String) map.get("eventId"));
+        update.setChanges((Map<String, String>) map.get("changes"));
+        Object dueAt = map.get("dueAt");
+        update.setDueAt(dueAt instanceof Number ? ((Number) dueAt).longValue() : null);
+        return update;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Map<String, String> getChanges() { return changes; }
+    public void setChanges(Map<String, String> changes) { this.changes = changes; }
+
+    public Long getDueAt() { return dueAt; }
+    public void setDueAt(Long dueAt) { this.dueAt = dueAt; }
+}
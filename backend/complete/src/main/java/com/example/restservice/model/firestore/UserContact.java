@@ -0,0 +1,86 @@
+package com.example.restservice.model.firestore;
+
+import java.util.Map;
+
+/**
+ * Read-only projection of a user document holding only the contact fields needed to address a message.
+ * Loaded with {@code Query.select(UserContact.FIELDS)} so the rest of the profile is never transferred.
+ */
+public class UserContact {
+
+    public static final String[] FIELDS = {
+        "firebaseUid", "firstName", "lastName", "email", "phoneNumber", "emailOptedOut", "userType",
+        "emailVerified", "isEmailVerified", "phoneVerified"
+    };
+
+    private String id;
+    private String firebaseUid;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phoneNumber;
+    private Boolean emailOptedOut;
+    private String userType;
+    private boolean emailVerified;
+    private boolean phoneVerified;
+
+    public static UserContact fromMap(Map<String, Object> map, String documentId) {
+        UserContact contact = new UserContact();
+        contact.setId(documentId);
+        contact.setFirebaseUid((String) map.get("firebaseUid"));
+        contact.setFirstName((String) map.get("firstName"));
+        contact.setLastName((String) map.get("lastName"));
+        contact.setEmail((String) map.get("email"));
+        contact.setPhoneNumber((String) map.get("phoneNumber"));
+        contact.setEmailOptedOut(map.get("emailOptedOut") != null ? (Boolean) map.get("emailOptedOut") : false);
+        contact.setUserType((String) map.get("userType"));
+        contact.setEmailVerified(Boolean.TRUE.equals(map.get("emailVerified")) || Boolean.TRUE.equals(map.get("isEmailVerified")));
+        contact.setPhoneVerified(Boolean.TRUE.equals(map.get("phoneVerified")));
+        return contact;
+    }
+
+    public static UserContact fromUser(UserFirestore user) {
+        UserContact contact = new UserContact();
+        contact.setId(user.getId());
+        contact.setFirebaseUid(user.getFirebaseUid());
+        contact.setFirstName(user.getFirstName());
+        contact.setLastName(user.getLastName());
+        contact.setEmail(user.getEmail());
+        contact.setPhoneNumber(user.getPhoneNumber());
+        contact.setEmailOptedOut(user.getEmailOptedOut());
+        contact.setUserType(user.getUserType());
+        contact.setEmailVerified(Boolean.TRUE.equals(user.getEmailVerified()) || Boolean.TRUE.equals(user.getIsEmailVerified()));
+        contact.setPhoneVerified(Boolean.TRUE.equals(user.getPhoneVerified()));
+        return contact;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFirebaseUid() { return firebaseUid; }
+    public void setFirebaseUid(String firebaseUid) { this.firebaseUid = firebaseUid; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getPhoneNumber() { return phoneNumber; }
+    public void setPhoneNumber(String phoneNumber) { this.phoneNumber = phoneNumber; }
+
+    public Boolean getEmailOptedOut() { return emailOptedOut; }
+    public void setEmailOptedOut(Boolean emailOptedOut) { this.emailOptedOut = emailOptedOut; }
+
+    public String getUserType() { return userType; }
+    public void setUserType(String userType) { this.userType = userType; }
+
+    public boolean isEmailVerified() { return emailVerified; }
+    public void setEmailVerified(boolean emailVerified) { this.emailVerified = emailVerified; }
+
+    public boolean isPhoneVerified() { return phoneVerified; }
+    public void setPhoneVerified(boolean phoneVerified) { this.phoneVerified = phoneVerified; }
+}
@@ -17,6 +17,9 @@ public class BroadcastMessageResponse {
     private int emailSkipped;
     private int smsSent;
     private int smsSkipped;
+    private int inboxFailed;
+    private int emailFailed;
+    private int smsFailed;
     private Set<String> requestedChannels;
     private List<String> directEmailsWithoutAccounts = new ArrayList<>();
     private List<String> directPhoneNumbersWithoutAccounts = new ArrayList<>();
@@ -33,6 +36,9 @@ public class BroadcastMessageResponse {
         response.emailSkipped = result.getEmailSkipped();
         response.smsSent = result.getSmsSent();
         response.smsSkipped = result.getSmsSkipped();
+        response.inboxFailed = result.getInboxFailed();
+        response.emailFailed = result.getEmailFailed();
+        response.smsFailed = result.getSmsFailed();
         response.requestedChannels = result.getRequestedChannels();
         response.directEmailsWithoutAccounts = result.getDirectEmailsWithoutAccounts();
         response.directPhoneNumbersWithoutAccounts = result.getDirectPhoneNumbersWithoutAccounts();
@@ -72,6 +78,18 @@ public class BroadcastMessageResponse {
         return smsSkipped;
     }
 
+    public int getInboxFailed() {
+        return inboxFailed;
+    }
+
+    public int getEmailFailed() {
+        return emailFailed;
+    }
+
+    public int getSmsFailed() {
+        return smsFailed;
+    }
+
     public Set<String> getRequestedChannels() {
         return requestedChannels;
     }
@@ -0,0 +1,200 @@
+package com.example.restservice.repository.firestore;
+
+import com.example.restservice.model.firestore.UserContact;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In-memory contact projection of the users collection, kept current by a Firestore snapshot listener and by
+ * the user repository's own writes. Broadcast recipient resolution reads audiences from here instead of
+ * querying users per category and per direct address. Contacts are held in document-ID order and segmented by
+ * user type, with email and phone lookups; until the first snapshot arrives (or after the listener fails)
+ * reads fall back to a direct Firestore query, whose result is reused for a short TTL.
+ *
+ * Returned contacts are shared instances - callers must not modify them.
+ */
+@Component
+public class AudienceIndex {
+
+    private static final String COLLECTION_NAME = "users";
+
+    @Autowired
+    private Firestore firestore;
+
+    @Value("${app.audience.fallback-ttl-ms:30000}")
+    private long fallbackTtlMillis = 30000;
+
+    private ListenedCollection<UserContact, Snapshot> contacts;
+
+    // The fallback reads only the contact fields; the listener needs whole documents
+    @PostConstruct
+    public void start() {
+        CollectionReference collection = firestore.collection(COLLECTION_NAME);
+        contacts = new ListenedCollection<>("Audience index", collection, collection.select(UserContact.FIELDS),
+                document -> UserContact.fromMap(document.getData(), document.getId()),
+                UserContact::getId, (all, version) -> new Snapshot(all), fallbackTtlMillis);
+        contacts.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        contacts.stop();
+    }
+
+    @Scheduled(fixedDelayString = "${app.audience.relisten-ms:30000}")
+    public void ensureListening() {
+        contacts.ensureListening();
+    }
+
+    public List<UserContact> findAll() throws ExecutionException, InterruptedException {
+        return current().all;
+    }
+
+    public List<UserContact> findByUserType(String userType) throws ExecutionException, InterruptedException {
+        return current().byType.getOrDefault(userType, Collections.emptyList());
+    }
+
+    // Matches the firebaseUid field, or the document ID for users keyed by UID
+    public Optional<UserContact> findByFirebaseUid(String firebaseUid) throws ExecutionException, InterruptedException {
+        return firebaseUid != null ? Optional.ofNullable(current().byUid.get(firebaseUid)) : Optional.empty();
+    }
+
+    public Optional<UserContact> findByEmail(String email) throws ExecutionException, InterruptedException {
+        return email != null ? Optional.ofNullable(current().byEmail.get(emailKey(email))) : Optional.empty();
+    }
+
+    public Optional<UserContact> findByPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
+        return phoneNumber != null ? Optional.ofNullable(current().byPhone.get(phoneNumber.trim())) : Optional.empty();
+    }
+
+    /**
+     * Per user type: how many users there are, how many can be emailed (an address and not opted out), how
+     * many opted out, how many have a phone number, and how many of each channel are verified.
+     */
+    public Map<String, Object> getSegmentCounts() throws ExecutionException, InterruptedException {
+        Snapshot current = current();
+        Map<String, Object> segments = new LinkedHashMap<>();
+        segments.put("live", contacts.isLive());
+        segments.put("ALL", segmentCounts(current.all));
+        current.byType.forEach((userType, contacts) -> segments.put(userType, segmentCounts(contacts)));
+        return segments;
+    }
+
+    public boolean isLive() {
+        return contacts.isLive();
+    }
+
+    // Applied by the repository after a local write so the next broadcast sees it before the listener fires
+    void upsert(UserContact contact) {
+        contacts.upsert(contact);
+    }
+
+    void remove(String id) {
+        contacts.remove(id);
+    }
+
+    private Snapshot current() throws ExecutionException, InterruptedException {
+        return contacts.current();
+    }
+
+    private static Map<String, Integer> segmentCounts(List<UserContact> contacts) {
+        int emailable = 0;
+        int optedOut = 0;
+        int emailVerified = 0;
+        int withPhone = 0;
+        int phoneVerified = 0;
+        for (UserContact contact : contacts) {
+            boolean hasEmail = hasText(contact.getEmail());
+            boolean isOptedOut = Boolean.TRUE.equals(contact.getEmailOptedOut());
+            if (isOptedOut) {
+                optedOut++;
+            } else if (hasEmail) {
+                emailable++;
+            }
+            if (hasEmail && contact.isEmailVerified()) {
+                emailVerified++;
+            }
+            if (hasText(contact.getPhoneNumber())) {
+                withPhone++;
+                if (contact.isPhoneVerified()) {
+                    phoneVerified++;
+                }
+            }
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("total", contacts.size());
+        counts.put("emailable", emailable);
+        counts.put("emailOptedOut", optedOut);
+        counts.put("emailVerified", emailVerified);
+        counts.put("withPhone", withPhone);
+        counts.put("phoneVerified", phoneVerified);
+        return counts;
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private static class Snapshot {
+        private final List<UserContact> all;
+        private final Map<String, List<UserContact>> byType;
+        private final Map<String, UserContact> byUid;
+        private final Map<String, UserContact> byEmail;
+        private final Map<String, UserContact> byPhone;
+
+        Snapshot(Collection<UserContact> contacts) {
+            // Document-ID order, the same order a chunked scan of the collection returns
+            Map<String, UserContact> ids = new TreeMap<>();
+            contacts.forEach(contact -> ids.put(contact.getId(), contact));
+
+            Map<String, List<UserContact>> types = new HashMap<>();
+            Map<String, UserContact> uids = new HashMap<>();
+            Map<String, UserContact> emails = new HashMap<>();
+            Map<String, UserContact> phones = new HashMap<>();
+            for (UserContact contact : ids.values()) {
+                if (contact.getUserType() != null) {
+                    types.computeIfAbsent(contact.getUserType(), k -> new ArrayList<>()).add(contact);
+                }
+                uids.putIfAbsent(contact.getId(), contact);
+                if (contact.getFirebaseUid() != null) {
+                    uids.put(contact.getFirebaseUid(), contact);
+                }
+                if (hasText(contact.getEmail())) {
+                    emails.putIfAbsent(emailKey(contact.getEmail()), contact);
+                }
+                if (hasText(contact.getPhoneNumber())) {
+                    phones.putIfAbsent(contact.getPhoneNumber().trim(), contact);
+                }
+            }
+            types.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+            this.all = List.copyOf(ids.values());
+            this.byType = Collections.unmodifiableMap(types);
+            this.byUid = Collections.unmodifiableMap(uids);
+            this.byEmail = Collections.unmodifiableMap(emails);
+            this.byPhone = Collections.unmodifiableMap(phones);
+        }
+    }
+}
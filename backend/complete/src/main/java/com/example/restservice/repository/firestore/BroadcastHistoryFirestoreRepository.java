@@ -1,7 +1,6 @@
 package com.example.restservice.repository.firestore;
 
 import com.example.restservice.model.firestore.BroadcastHistoryFirestore;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -9,8 +8,12 @@ import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.example.restservice.repository.firestore.FirestoreFutures.countAsync;
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
+
 @Repository
 public class BroadcastHistoryFirestoreRepository {
 
@@ -20,89 +23,107 @@ public class BroadcastHistoryFirestoreRepository {
     private Firestore firestore;
 
     public BroadcastHistoryFirestore save(BroadcastHistoryFirestore broadcastHistory) throws ExecutionException, InterruptedException {
-        String docId = broadcastHistory.getId();
-
-        if (docId == null) {
-            // Generate a new document ID
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-            docId = docRef.getId();
-            broadcastHistory.setId(docId);
-        }
-
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(docId);
-        ApiFuture<WriteResult> result = docRef.set(broadcastHistory.toMap());
-        result.get(); // Wait for completion
-
-        return broadcastHistory;
+        return saveAsync(broadcastHistory).get();
     }
 
     public Optional<BroadcastHistoryFirestore> findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            return Optional.of(BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByIdAsync(id).get();
     }
 
     public List<BroadcastHistoryFirestore> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME)
-                .orderBy("sentTimestamp", Query.Direction.DESCENDING)
-                .get();
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .orderBy("sentTimestamp", Query.Direction.DESCENDING)).get();
+    }
 
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<BroadcastHistoryFirestore> broadcastHistories = new ArrayList<>();
+    public List<BroadcastHistoryFirestore> findByInitiator(String initiatorFirebaseUid) throws ExecutionException, InterruptedException {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("initiatorFirebaseUid", initiatorFirebaseUid)
+                .orderBy("sentTimestamp", Query.Direction.DESCENDING)).get();
+    }
 
-        for (QueryDocumentSnapshot document : documents) {
-            broadcastHistories.add(BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public List<BroadcastHistoryFirestore> findByStatus(String status) throws ExecutionException, InterruptedException {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("status", status)).get();
+    }
 
-        return broadcastHistories;
+    /**
+     * Saves the record only if no record with its ID exists yet. Returns false, leaving the stored record
+     * untouched, when one does.
+     */
+    public boolean createIfAbsent(BroadcastHistoryFirestore broadcastHistory) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(broadcastHistory.getId());
+        return firestore.runTransaction(transaction -> {
+            if (transaction.get(docRef).get().exists()) {
+                return false;
+            }
+            transaction.create(docRef, broadcastHistory.toMap());
+            return true;
+        }).get();
     }
 
-    public List<BroadcastHistoryFirestore> findByInitiator(String initiatorFirebaseUid) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("initiatorFirebaseUid", initiatorFirebaseUid)
-                .orderBy("sentTimestamp", Query.Direction.DESCENDING)
-                .get();
+    public List<BroadcastHistoryFirestore> findRecent(int limit) throws ExecutionException, InterruptedException {
+        return findRecentAsync(limit).get();
+    }
 
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<BroadcastHistoryFirestore> broadcastHistories = new ArrayList<>();
+    public CursorPage<BroadcastHistoryFirestore> findPage(int limit, String cursor) throws ExecutionException, InterruptedException {
+        return CursorPage.await(findPageAsync(limit, cursor));
+    }
 
-        for (QueryDocumentSnapshot document : documents) {
-            broadcastHistories.add(BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(id).get();
+    }
 
-        return broadcastHistories;
+    public long count() throws ExecutionException, InterruptedException {
+        return countAsync(firestore.collection(COLLECTION_NAME)).get();
     }
 
-    public List<BroadcastHistoryFirestore> findRecent(int limit) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME)
-                .orderBy("sentTimestamp", Query.Direction.DESCENDING)
-                .limit(limit)
-                .get();
+    // Non-blocking variants - compose these to issue independent reads concurrently
 
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-        List<BroadcastHistoryFirestore> broadcastHistories = new ArrayList<>();
+    public CompletableFuture<BroadcastHistoryFirestore> saveAsync(BroadcastHistoryFirestore broadcastHistory) {
+        String docId = broadcastHistory.getId();
 
-        for (QueryDocumentSnapshot document : documents) {
-            broadcastHistories.add(BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()));
+        if (docId == null) {
+            // Generate a new document ID
+            docId = firestore.collection(COLLECTION_NAME).document().getId();
+            broadcastHistory.setId(docId);
         }
 
-        return broadcastHistories;
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(docId);
+        return toCompletableFuture(docRef.set(broadcastHistory.toMap())).thenApply(result -> broadcastHistory);
     }
 
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
+    public CompletableFuture<Optional<BroadcastHistoryFirestore>> findByIdAsync(String id) {
         DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<WriteResult> result = docRef.delete();
-        result.get(); // Wait for completion
+        return toCompletableFuture(docRef.get()).thenApply(document -> document.exists()
+                ? Optional.of(BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()))
+                : Optional.empty());
     }
 
-    public long count() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-        return future.get().size();
+    public CompletableFuture<List<BroadcastHistoryFirestore>> findRecentAsync(int limit) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .orderBy("sentTimestamp", Query.Direction.DESCENDING)
+                .limit(limit));
+    }
+
+    public CompletableFuture<CursorPage<BroadcastHistoryFirestore>> findPageAsync(int limit, String cursor) {
+        CollectionReference broadcastHistory = firestore.collection(COLLECTION_NAME);
+        Query query = broadcastHistory.orderBy("sentTimestamp", Query.Direction.DESCENDING);
+        return CursorPage.fetchAsync(broadcastHistory, query, limit, cursor,
+                document -> BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()));
+    }
+
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        return toCompletableFuture(firestore.collection(COLLECTION_NAME).document(id).delete())
+                .thenApply(result -> null);
+    }
+
+    private CompletableFuture<List<BroadcastHistoryFirestore>> queryAsync(Query query) {
+        return toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            List<BroadcastHistoryFirestore> broadcastHistories = new ArrayList<>();
+            for (QueryDocumentSnapshot document : querySnapshot.getDocuments()) {
+                broadcastHistories.add(BroadcastHistoryFirestore.fromMap(document.getData(), document.getId()));
+            }
+            return broadcastHistories;
+        });
     }
-}
\ No newline at end of file
+}
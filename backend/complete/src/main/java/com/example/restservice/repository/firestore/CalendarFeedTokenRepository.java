@@ -0,0 +1,60 @@
+package com.example.restservice.repository.firestore;
+
+import com.google.cloud.firestore.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Secret tokens that identify a user's calendar feed. The token is the document ID, so resolving a feed
+ * request is a single document read; a user holds one token at a time and can replace it to revoke the old
+ * feed URL.
+ */
+@Repository
+public class CalendarFeedTokenRepository {
+
+    private static final String COLLECTION_NAME = "calendarFeedTokens";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private Firestore firestore;
+
+    public Optional<String> findUserIdByToken(String token) throws ExecutionException, InterruptedException {
+        DocumentSnapshot document = firestore.collection(COLLECTION_NAME).document(token).get().get();
+        return document.exists() ? Optional.ofNullable(document.getString("userId")) : Optional.empty();
+    }
+
+    public Optional<String> findTokenByUserId(String userId) throws ExecutionException, InterruptedException {
+        QuerySnapshot snapshot = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("userId", userId)
+                .limit(1)
+                .get().get();
+        return snapshot.isEmpty() ? Optional.empty() : Optional.of(snapshot.getDocuments().get(0).getId());
+    }
+
+    // Issues a new token for the user, revoking any token they held before
+    public String issue(String userId) throws ExecutionException, InterruptedException {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        WriteBatch batch = firestore.batch();
+        for (QueryDocumentSnapshot existing : firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("userId", userId)
+                .get().get().getDocuments()) {
+            batch.delete(existing.getReference());
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", userId);
+        data.put("createdTimestamp", System.currentTimeMillis());
+        batch.set(firestore.collection(COLLECTION_NAME).document(token), data);
+        batch.commit().get();
+        return token;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.restservice.repository.firestore;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
+
+/**
+ * Walks every document matching a query in document-ID order, one fixed-size chunk at a time, so a bulk job
+ * such as the custom-claims backfill holds one chunk of full documents rather than the whole collection. Each
+ * chunk after the first starts after the last document of the previous one. Broadcast audiences do not come
+ * through here: {@link AudienceIndex} keeps a contact projection of every user in memory instead, trading
+ * memory that grows with the user count for not reading the collection on each broadcast.
+ */
+final class ChunkedScan {
+
+    static final int DEFAULT_CHUNK_SIZE = 300;
+
+    private ChunkedScan() {
+    }
+
+    static <T> void forEachChunk(Query query,
+                                 int chunkSize,
+                                 Function<DocumentSnapshot, T> mapper,
+                                 Predicate<T> filter,
+                                 Consumer<List<T>> consumer) throws ExecutionException, InterruptedException {
+        int size = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+        Query ordered = query.orderBy(FieldPath.documentId()).limit(size);
+
+        DocumentSnapshot last = null;
+        while (true) {
+            Query page = last == null ? ordered : ordered.startAfter(last);
+            QuerySnapshot snapshot = toCompletableFuture(page.get()).get();
+            List<? extends DocumentSnapshot> documents = snapshot.getDocuments();
+            if (documents.isEmpty()) {
+                return;
+            }
+
+            List<T> chunk = new ArrayList<>(documents.size());
+            for (DocumentSnapshot document : documents) {
+                T item = mapper.apply(document);
+                if (filter.test(item)) {
+                    chunk.add(item);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+
+            if (documents.size() < size) {
+                return;
+            }
+            last = documents.get(documents.size() - 1);
+        }
+    }
+}
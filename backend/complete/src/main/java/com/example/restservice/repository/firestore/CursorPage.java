@@ -0,0 +1,149 @@
+package com.example.restservice.repository.firestore;
+
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
+
+/**
+ * One page of a cursor-paginated Firestore query. The cursor is an opaque, URL-safe token wrapping the
+ * ID of the last document on the page; the next page starts after that document. A malformed cursor is
+ * rejected with IllegalArgumentException before any read, and so is a cursor whose document has since been
+ * deleted: there is no position to resume from, and quietly restarting would hand the client rows it already
+ * has. Controllers answer both with 400 and the client starts again from the first page.
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    public static final String STALE_CURSOR_MESSAGE = "Pagination cursor is no longer valid; start again from the first page";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    public static String encodeCursor(String documentId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(documentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+    }
+
+    // Rejects IDs that decode to something other than a single document in the collection (empty, or containing '/')
+    private static DocumentReference documentFor(CollectionReference collection, String documentId) {
+        if (documentId.isEmpty() || documentId.contains("/")) {
+            throw new IllegalArgumentException("Invalid pagination cursor");
+        }
+        return collection.document(documentId);
+    }
+
+    /**
+     * Waits for a page. A cursor rejected while reading surfaces as the IllegalArgumentException it is rather
+     * than wrapped in ExecutionException, the same as one rejected up front.
+     */
+    static <T> CursorPage<T> await(CompletableFuture<CursorPage<T>> page) throws ExecutionException, InterruptedException {
+        try {
+            return page.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    static <T> CompletableFuture<CursorPage<T>> fetchAsync(CollectionReference collection,
+                                                           Query query,
+                                                           int limit,
+                                                           String cursor,
+                                                           Function<DocumentSnapshot, T> mapper) {
+        return fetchAsync(collection, query, limit, cursor, mapper, item -> true);
+    }
+
+    /**
+     * Reads one page of the query. The filter is applied after the read, so a filtered page may hold
+     * fewer than {@code limit} items while still reporting a next cursor.
+     */
+    static <T> CompletableFuture<CursorPage<T>> fetchAsync(CollectionReference collection,
+                                                           Query query,
+                                                           int limit,
+                                                           String cursor,
+                                                           Function<DocumentSnapshot, T> mapper,
+                                                           Predicate<T> filter) {
+        CompletableFuture<Query> pageQuery;
+        if (cursor == null || cursor.isEmpty()) {
+            pageQuery = CompletableFuture.completedFuture(query);
+        } else {
+            DocumentReference lastDocumentRef = documentFor(collection, decodeCursor(cursor));
+            pageQuery = toCompletableFuture(lastDocumentRef.get()).thenApply(lastDocument -> {
+                if (!lastDocument.exists()) {
+                    throw new IllegalArgumentException(STALE_CURSOR_MESSAGE);
+                }
+                return query.startAfter(lastDocument);
+            });
+        }
+
+        // Read one extra document to learn whether another page exists
+        return pageQuery
+                .thenCompose(q -> toCompletableFuture(q.limit(limit + 1).get()))
+                .thenApply(querySnapshot -> {
+                    List<? extends DocumentSnapshot> documents = querySnapshot.getDocuments();
+                    boolean hasMore = documents.size() > limit;
+                    List<? extends DocumentSnapshot> pageDocuments = hasMore ? documents.subList(0, limit) : documents;
+
+                    List<T> items = new ArrayList<>();
+                    for (DocumentSnapshot document : pageDocuments) {
+                        T item = mapper.apply(document);
+                        if (filter.test(item)) {
+                            items.add(item);
+                        }
+                    }
+
+                    String nextCursor = hasMore
+                            ? encodeCursor(pageDocuments.get(pageDocuments.size() - 1).getId())
+                            : null;
+                    return new CursorPage<>(items, nextCursor);
+                });
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.restservice.repository.firestore;
+
+import com.example.restservice.model.firestore.OutboxPayloadFirestore;
+import com.example.restservice.model.firestore.OutboxTaskFirestore;
+import com.google.cloud.firestore.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.countAsync;
+
+/**
+ * Durable outbox of per-recipient deliveries. Tasks are keyed by a hash of their idempotency key, claimed
+ * with a lease by the dispatcher and marked SENT or FAILED when done, so a restart resumes where it stopped
+ * and re-enqueueing the same work is a no-op.
+ */
+@Repository
+public class DeliveryOutboxRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryOutboxRepository.class);
+
+    private static final String TASKS_COLLECTION = "deliveryOutbox";
+    private static final String PAYLOADS_COLLECTION = "deliveryOutboxPayloads";
+
+    // Each enqueue or outcome transaction reads and writes at most this many tasks (Firestore allows 500 writes)
+    private static final int TRANSACTION_CHUNK_SIZE = 250;
+
+    @Autowired
+    private Firestore firestore;
+
+    public static String taskIdFor(String idempotencyKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(idempotencyKey.getBytes(StandardCharsets.UTF_8))).substring(0, 40);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public void savePayload(OutboxPayloadFirestore payload) throws ExecutionException, InterruptedException {
+        if (payload.getId() == null) {
+            payload.setId(firestore.collection(PAYLOADS_COLLECTION).document().getId());
+        }
+        firestore.collection(PAYLOADS_COLLECTION).document(payload.getId()).set(payload.toMap()).get();
+    }
+
+    public Optional<OutboxPayloadFirestore> findPayloadById(String id) throws ExecutionException, InterruptedException {
+        DocumentSnapshot document = firestore.collection(PAYLOADS_COLLECTION).document(id).get().get();
+        return document.exists()
+                ? Optional.of(OutboxPayloadFirestore.fromMap(document.getData(), document.getId()))
+                : Optional.empty();
+    }
+
+    /**
+     * Creates the tasks that do not exist yet; tasks whose idempotency key was already enqueued are left
+     * untouched whatever their state. Returns the number of tasks created.
+     */
+    public int enqueue(List<OutboxTaskFirestore> tasks) throws ExecutionException, InterruptedException {
+        // A transaction cannot create the same document twice, so repeated keys in one call collapse first
+        Map<String, OutboxTaskFirestore> unique = new LinkedHashMap<>();
+        for (OutboxTaskFirestore task : tasks) {
+            if (task.getId() == null) {
+                task.setId(taskIdFor(task.getIdempotencyKey()));
+            }
+            unique.putIfAbsent(task.getId(), task);
+        }
+        List<OutboxTaskFirestore> pending = new ArrayList<>(unique.values());
+
+        CollectionReference collection = firestore.collection(TASKS_COLLECTION);
+        int created = 0;
+        for (int start = 0; start < pending.size(); start += TRANSACTION_CHUNK_SIZE) {
+            List<OutboxTaskFirestore> chunk = pending.subList(start, Math.min(start + TRANSACTION_CHUNK_SIZE, pending.size()));
+            List<DocumentReference> refs = new ArrayList<>();
+            for (OutboxTaskFirestore task : chunk) {
+                refs.add(collection.document(task.getId()));
+            }
+
+            created += firestore.runTransaction(transaction -> {
+                List<DocumentSnapshot> existing = transaction.getAll(refs.toArray(new DocumentReference[0])).get();
+                int createdInChunk = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!existing.get(i).exists()) {
+                        transaction.create(refs.get(i), chunk.get(i).toMap());
+                        createdInChunk++;
+                    }
+                }
+                return createdInChunk;
+            }).get();
+        }
+        return created;
+    }
+
+    /**
+     * Claims up to {@code limit} due tasks on the channel by moving them IN_FLIGHT with a lease. A task whose
+     * lease runs out (its instance died mid-delivery) is due again and will be claimed by the next poll. Each
+     * claim stamps a fresh claim token, which {@link #saveOutcomes} checks before recording anything.
+     */
+    public List<OutboxTaskFirestore> claimDue(String channel, int limit, long leaseMillis) throws ExecutionException, InterruptedException {
+        Query dueQuery = firestore.collection(TASKS_COLLECTION)
+                .whereEqualTo("channel", channel)
+                .whereLessThanOrEqualTo("nextAttemptAt", System.currentTimeMillis())
+                .orderBy("nextAttemptAt")
+                .limit(limit);
+
+        return firestore.runTransaction(transaction -> {
+            long now = System.currentTimeMillis();
+            List<OutboxTaskFirestore> claimed = new ArrayList<>();
+            for (QueryDocumentSnapshot document : transaction.get(dueQuery).get().getDocuments()) {
+                OutboxTaskFirestore task = OutboxTaskFirestore.fromMap(document.getData(), document.getId());
+                if (task.isFinished()) {
+                    continue;
+                }
+                task.setStatus(OutboxTaskFirestore.STATUS_IN_FLIGHT);
+                task.setAttempts(task.getAttempts() + 1);
+                task.setNextAttemptAt(now + leaseMillis);
+                task.setClaimToken(UUID.randomUUID().toString());
+
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("status", task.getStatus());
+                updates.put("attempts", task.getAttempts());
+                updates.put("nextAttemptAt", task.getNextAttemptAt());
+                updates.put("claimToken", task.getClaimToken());
+                transaction.update(document.getReference(), updates);
+                claimed.add(task);
+            }
+            return claimed;
+        }).get();
+    }
+
+    /**
+     * Persists the outcome of claimed tasks: SENT/FAILED with no next attempt, or PENDING with a retry time.
+     * A task is only written while it still carries the claim token this worker was given; if its lease ran
+     * out and another instance claimed it since, that instance owns the outcome and this one is dropped.
+     * Returns the tasks whose outcome was recorded.
+     */
+    public List<OutboxTaskFirestore> saveOutcomes(List<OutboxTaskFirestore> tasks) throws ExecutionException, InterruptedException {
+        CollectionReference collection = firestore.collection(TASKS_COLLECTION);
+        List<OutboxTaskFirestore> saved = new ArrayList<>();
+        for (int start = 0; start < tasks.size(); start += TRANSACTION_CHUNK_SIZE) {
+            List<OutboxTaskFirestore> chunk = tasks.subList(start, Math.min(start + TRANSACTION_CHUNK_SIZE, tasks.size()));
+            List<DocumentReference> refs = new ArrayList<>();
+            for (OutboxTaskFirestore task : chunk) {
+                refs.add(collection.document(task.getId()));
+            }
+
+            saved.addAll(firestore.runTransaction(transaction -> {
+                List<DocumentSnapshot> current = transaction.getAll(refs.toArray(new DocumentReference[0])).get();
+                List<OutboxTaskFirestore> owned = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    OutboxTaskFirestore task = chunk.get(i);
+                    DocumentSnapshot document = current.get(i);
+                    if (!document.exists() || task.getClaimToken() == null
+                            || !task.getClaimToken().equals(document.getString("claimToken"))) {
+                        continue;
+                    }
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put("status", task.getStatus());
+                    updates.put("nextAttemptAt", task.getNextAttemptAt());
+                    updates.put("lastError", task.getLastError());
+                    updates.put("completedTimestamp", task.getCompletedTimestamp());
+                    updates.put("claimToken", null);
+                    transaction.update(refs.get(i), updates);
+                    owned.add(task);
+                }
+                return owned;
+            }).get());
+        }
+        if (saved.size() < tasks.size()) {
+            logger.warn("Dropped {} outbox outcome(s) whose lease had been reclaimed by another worker",
+                    tasks.size() - saved.size());
+        }
+        return saved;
+    }
+
+    public long countOpen(String broadcastId) throws ExecutionException, InterruptedException {
+        return countAsync(firestore.collection(TASKS_COLLECTION)
+                .whereEqualTo("broadcastId", broadcastId)
+                .whereIn("status", List.of(OutboxTaskFirestore.STATUS_PENDING, OutboxTaskFirestore.STATUS_IN_FLIGHT))).get();
+    }
+
+    public boolean hasTasks(String broadcastId) throws ExecutionException, InterruptedException {
+        return !firestore.collection(TASKS_COLLECTION)
+                .whereEqualTo("broadcastId", broadcastId)
+                .limit(1)
+                .get().get().isEmpty();
+    }
+
+    public long countByStatus(String broadcastId, String channel, String status) throws ExecutionException, InterruptedException {
+        return countAsync(firestore.collection(TASKS_COLLECTION)
+                .whereEqualTo("broadcastId", broadcastId)
+                .whereEqualTo("channel", channel)
+                .whereEqualTo("status", status)).get();
+    }
+
+    public List<OutboxTaskFirestore> findFailed(String broadcastId, int limit) throws ExecutionException, InterruptedException {
+        List<OutboxTaskFirestore> tasks = new ArrayList<>();
+        for (QueryDocumentSnapshot document : firestore.collection(TASKS_COLLECTION)
+                .whereEqualTo("broadcastId", broadcastId)
+                .whereEqualTo("status", OutboxTaskFirestore.STATUS_FAILED)
+                .limit(limit)
+                .get().get().getDocuments()) {
+            tasks.add(OutboxTaskFirestore.fromMap(document.getData(), document.getId()));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.restservice.repository.firestore;
+
+import com.example.restservice.model.firestore.EventFirestore;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In-memory, date-sorted copy of the events collection kept current by a Firestore snapshot listener.
+ * Public event reads are served from here; until the first snapshot arrives (or after the listener fails)
+ * reads fall back to a direct Firestore query, whose result is reused for a short TTL.
+ *
+ * Returned events are shared instances - callers must not modify them.
+ */
+@Component
+public class EventCatalog {
+
+    private static final String COLLECTION_NAME = "events";
+
+    // Same ordering Firestore applies to orderBy("date"): by date string, then by document ID
+    private static final Comparator<EventFirestore> BY_DATE = Comparator
+            .comparing(EventFirestore::getDate)
+            .thenComparing(EventFirestore::getId);
+
+    @Autowired
+    private Firestore firestore;
+
+    @Value("${app.events.catalog.fallback-ttl-ms:5000}")
+    private long fallbackTtlMillis = 5000;
+
+    private ListenedCollection<EventFirestore, Snapshot> events;
+
+    @PostConstruct
+    public void start() {
+        CollectionReference collection = firestore.collection(COLLECTION_NAME);
+        events = new ListenedCollection<>("Event catalog", collection, collection,
+                document -> EventFirestore.fromMap(document.getData(), document.getId()),
+                EventFirestore::getId, Snapshot::new, fallbackTtlMillis);
+        events.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        events.stop();
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.catalog.relisten-ms:30000}")
+    public void ensureListening() {
+        events.ensureListening();
+    }
+
+    public List<EventFirestore> findAll() throws ExecutionException, InterruptedException {
+        return current().byDate;
+    }
+
+    public List<EventFirestore> findUpcoming(LocalDate today) throws ExecutionException, InterruptedException {
+        List<EventFirestore> byDate = current().byDate;
+        return byDate.subList(firstIndexOnOrAfter(byDate, today.toString()), byDate.size());
+    }
+
+    public List<EventFirestore> findPast(LocalDate today) throws ExecutionException, InterruptedException {
+        List<EventFirestore> byDate = current().byDate;
+        List<EventFirestore> past = new ArrayList<>(byDate.subList(0, firstIndexOnOrAfter(byDate, today.toString())));
+        Collections.reverse(past);
+        return Collections.unmodifiableList(past);
+    }
+
+    public Optional<EventFirestore> findById(String id) throws ExecutionException, InterruptedException {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    /**
+     * Version of the snapshot reads are currently served from. While the listener is live this is answered
+     * from memory; otherwise it is the version of the last direct read, which changes at most once per TTL.
+     */
+    public long getVersion() throws ExecutionException, InterruptedException {
+        return current().version;
+    }
+
+    public boolean isLive() {
+        return events.isLive();
+    }
+
+    // Applied by the repository after a local write so readers see their own changes before the listener fires
+    void upsert(EventFirestore event) {
+        events.upsert(event);
+    }
+
+    void remove(String id) {
+        events.remove(id);
+    }
+
+    private Snapshot current() throws ExecutionException, InterruptedException {
+        return events.current();
+    }
+
+    private static int firstIndexOnOrAfter(List<EventFirestore> byDate, String date) {
+        int low = 0;
+        int high = byDate.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byDate.get(mid).getDate().compareTo(date) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static class Snapshot {
+        private final List<EventFirestore> byDate;
+        private final Map<String, EventFirestore> byId;
+        private final long version;
+
+        Snapshot(Collection<EventFirestore> events, Long version) {
+            Map<String, EventFirestore> ids = new HashMap<>();
+            List<EventFirestore> dated = new ArrayList<>();
+            for (EventFirestore event : events) {
+                ids.put(event.getId(), event);
+                // Events without a date are not returned by orderBy("date") queries either
+                if (event.getDate() != null) {
+                    dated.add(event);
+                }
+            }
+            dated.sort(BY_DATE);
+            this.byDate = Collections.unmodifiableList(dated);
+            this.byId = Collections.unmodifiableMap(ids);
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.restservice.repository.firestore;
+
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.countAsync;
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
+
+/**
+ * Keeps per-event participantCount/volunteerCount counters in step with the participant and volunteer
+ * collections. The counters live in eventCounters/{eventId} rather than on the event document, so a
+ * registration never rewrites the event and the event catalog, its version and the public ETags stay put.
+ * Every create and delete writes the record and the counter in the same atomic batch or transaction,
+ * seeding the counter from an aggregate count the first time an event without one is touched.
+ */
+@Component
+public class EventCounters {
+
+    public static final String PARTICIPANT_COUNT = "participantCount";
+    public static final String VOLUNTEER_COUNT = "volunteerCount";
+
+    private static final String EVENTS_COLLECTION = "events";
+    private static final String COUNTERS_COLLECTION = "eventCounters";
+    private static final String PARTICIPANTS_COLLECTION = "participants";
+    private static final String VOLUNTEERS_COLLECTION = "volunteers";
+    private static final int MAX_BATCH_WRITES = 500;
+
+    @Autowired
+    private Firestore firestore;
+
+    // Stored counters of one event; a null count is missing or untrusted and needs an aggregate count instead
+    public record Counts(Long participants, Long volunteers) { }
+
+    // Creates the record and increments the event's counter in one transaction; fails if the event does not exist
+    CompletableFuture<Void> createWithIncrement(DocumentReference docRef, Map<String, Object> data,
+                                                String eventId, String counterField) {
+        if (eventId == null || eventId.isEmpty()) {
+            return toCompletableFuture(docRef.set(data)).thenApply(result -> null);
+        }
+        DocumentReference eventRef = eventRef(eventId);
+        DocumentReference countersRef = countersRef(eventId);
+        return toCompletableFuture(firestore.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef).get();
+            if (!event.exists()) {
+                throw new IllegalArgumentException("Event not found: " + eventId);
+            }
+
+            long current = currentCount(transaction, transaction.get(countersRef).get(), eventId, counterField);
+            transaction.set(docRef, data);
+            transaction.set(countersRef, Map.of(counterField, adjust(current, 1)), SetOptions.merge());
+            return null;
+        }));
+    }
+
+    /**
+     * Admits one participant if the event has a free seat: reads the event's capacity and participant
+     * counter, then writes the participant and the incremented counter in the same transaction. Firestore
+     * retries the transaction if another registration commits first, so the counter can never pass capacity.
+     * The event document is only read, never written.
+     */
+    CompletableFuture<SeatReservationGate.Outcome> reserveSeat(DocumentReference docRef, Map<String, Object> data,
+                                                              String eventId) {
+        DocumentReference eventRef = eventRef(eventId);
+        DocumentReference countersRef = countersRef(eventId);
+        return toCompletableFuture(firestore.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef).get();
+            if (!event.exists()) {
+                return SeatReservationGate.Outcome.EVENT_NOT_FOUND;
+            }
+
+            // A missing or negative counter is reseeded from the participants collection rather than trusted
+            OptionalLong admitted = admit(event.getLong("capacity"),
+                    transaction.get(countersRef).get().getLong(PARTICIPANT_COUNT),
+                    () -> transaction.get(recordsFor(eventId, PARTICIPANT_COUNT).count()).get().getCount());
+            if (admitted.isEmpty()) {
+                return SeatReservationGate.Outcome.FULL;
+            }
+
+            transaction.set(docRef, data);
+            transaction.set(countersRef, Map.of(PARTICIPANT_COUNT, admitted.getAsLong()), SetOptions.merge());
+            return SeatReservationGate.Outcome.RESERVED;
+        }));
+    }
+
+    // Deletes the record and decrements its event's counter in one transaction; completes with the record's event ID
+    CompletableFuture<String> deleteWithDecrement(DocumentReference docRef, String counterField) {
+        return toCompletableFuture(firestore.runTransaction(transaction -> {
+            DocumentSnapshot record = transaction.get(docRef).get();
+            if (!record.exists()) {
+                return null;
+            }
+
+            String eventId = record.getString("eventId");
+            DocumentSnapshot event = eventId != null ? transaction.get(eventRef(eventId)).get() : null;
+            // Seeding counts the record itself, since it has not been deleted yet
+            Long current = event != null && event.exists()
+                    ? currentCount(transaction, transaction.get(countersRef(eventId)).get(), eventId, counterField)
+                    : null;
+
+            transaction.delete(docRef);
+            if (current != null) {
+                transaction.set(countersRef(eventId), Map.of(counterField, adjust(current, -1)), SetOptions.merge());
+            }
+            return eventId;
+        }));
+    }
+
+    /**
+     * Bulk delete for a single event. A trusted counter is decremented by the size of each committed batch;
+     * a missing or corrupted one is left alone until the deletes finish and then set from an aggregate count.
+     */
+    void deleteAllWithDecrement(List<DocumentReference> docRefs, String eventId, String counterField)
+            throws ExecutionException, InterruptedException {
+        DocumentSnapshot event = eventId != null ? eventRef(eventId).get().get() : null;
+        boolean eventExists = event != null && event.exists();
+        boolean decrement = eventExists && isTrusted(countersRef(eventId).get().get().getLong(counterField));
+
+        // Leave room in each batch for the counter update
+        int chunkSize = MAX_BATCH_WRITES - 1;
+        for (int start = 0; start < docRefs.size(); start += chunkSize) {
+            List<DocumentReference> chunk = docRefs.subList(start, Math.min(start + chunkSize, docRefs.size()));
+            WriteBatch batch = firestore.batch();
+            chunk.forEach(batch::delete);
+            if (decrement) {
+                batch.set(countersRef(eventId), Map.of(counterField, FieldValue.increment(-chunk.size())), SetOptions.merge());
+            }
+            batch.commit().get();
+        }
+
+        if (eventExists && !decrement) {
+            long remaining = countAsync(recordsFor(eventId, counterField)).get();
+            countersRef(eventId).set(Map.of(counterField, remaining), SetOptions.merge()).get();
+        }
+    }
+
+    /**
+     * Recomputes both counters for an event from aggregate counts. Used to backfill events created before
+     * the counters existed; increments that land while it runs can be overwritten, so run it when quiet.
+     */
+    public void recount(String eventId) throws ExecutionException, InterruptedException {
+        CompletableFuture<Long> participants = countAsync(recordsFor(eventId, PARTICIPANT_COUNT));
+        CompletableFuture<Long> volunteers = countAsync(recordsFor(eventId, VOLUNTEER_COUNT));
+        countersRef(eventId).set(Map.of(PARTICIPANT_COUNT, participants.get(), VOLUNTEER_COUNT, volunteers.get()),
+                SetOptions.merge()).get();
+    }
+
+    // Drops an event's counters in the same batch that deletes the event
+    void deleteCounters(WriteBatch batch, String eventId) {
+        batch.delete(countersRef(eventId));
+    }
+
+    // Reads the counters of every given event in one round trip
+    public CompletableFuture<Map<String, Counts>> read(List<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        DocumentReference[] refs = eventIds.stream().map(this::countersRef).toArray(DocumentReference[]::new);
+        return toCompletableFuture(firestore.getAll(refs)).thenApply(snapshots -> {
+            Map<String, Counts> counts = new HashMap<>();
+            for (DocumentSnapshot snapshot : snapshots) {
+                counts.put(snapshot.getId(), new Counts(trusted(snapshot.getLong(PARTICIPANT_COUNT)),
+                        trusted(snapshot.getLong(VOLUNTEER_COUNT))));
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * A stored counter is only trusted once it exists and is non-negative. Events that predate the counters
+     * have no field, and a negative value can only come from decrements applied before the field was seeded.
+     */
+    public static boolean isTrusted(Number counter) {
+        return counter != null && counter.longValue() >= 0;
+    }
+
+    private static Long trusted(Long counter) {
+        return isTrusted(counter) ? counter : null;
+    }
+
+    static long adjust(long current, long delta) {
+        return Math.max(0, current + delta);
+    }
+
+    // A capacity of zero or less means the event is unlimited
+    static boolean hasFreeSeat(Long capacity, long taken) {
+        return capacity == null || capacity <= 0 || taken < capacity;
+    }
+
+    /**
+     * The seat decision made inside the reservation transaction: the participant counter to write when a
+     * seat is free, or empty when the event is full.
+     */
+    static OptionalLong admit(Long capacity, Number storedCount, CountSource seed) throws ExecutionException, InterruptedException {
+        long taken = resolveCount(storedCount, seed);
+        return hasFreeSeat(capacity, taken) ? OptionalLong.of(adjust(taken, 1)) : OptionalLong.empty();
+    }
+
+    @FunctionalInterface
+    interface CountSource {
+        long count() throws ExecutionException, InterruptedException;
+    }
+
+    // The stored counter when it can be trusted, otherwise the seed count
+    static long resolveCount(Number stored, CountSource seed) throws ExecutionException, InterruptedException {
+        return isTrusted(stored) ? stored.longValue() : seed.count();
+    }
+
+    // The stored counter when it can be trusted, otherwise an aggregate count of the event's records read in the transaction
+    private long currentCount(Transaction transaction, DocumentSnapshot counters, String eventId, String counterField)
+            throws ExecutionException, InterruptedException {
+        return resolveCount(counters.getLong(counterField),
+                () -> transaction.get(recordsFor(eventId, counterField).count()).get().getCount());
+    }
+
+    private Query recordsFor(String eventId, String counterField) {
+        String collection = PARTICIPANT_COUNT.equals(counterField) ? PARTICIPANTS_COLLECTION : VOLUNTEERS_COLLECTION;
+        return firestore.collection(collection).whereEqualTo("eventId", eventId);
+    }
+
+    private DocumentReference eventRef(String eventId) {
+        return firestore.collection(EVENTS_COLLECTION).document(eventId);
+    }
+
+    private DocumentReference countersRef(String eventId) {
+        return firestore.collection(COUNTERS_COLLECTION).document(eventId);
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.restservice.repository.firestore;
 
 import com.example.restservice.model.firestore.EventFirestore;
-import com.google.api.core.ApiFuture;
+import com.example.restservice.service.CalendarInviteService;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -9,9 +9,13 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
+
 @Repository
 public class EventFirestoreRepository {
 
@@ -20,50 +24,28 @@ public class EventFirestoreRepository {
     @Autowired
     private Firestore firestore;
 
-    public EventFirestore save(EventFirestore event) throws ExecutionException, InterruptedException {
-        CollectionReference events = firestore.collection(COLLECTION_NAME);
+    @Autowired
+    private EventCatalog eventCatalog;
 
-        if (event.getId() == null || event.getId().isEmpty()) {
-            // Create new event with auto-generated ID
-            DocumentReference docRef = events.document();
-            event.setId(docRef.getId());
-            ApiFuture<WriteResult> result = docRef.set(event.toMap());
-            result.get(); // Wait for completion
-        } else {
-            // Update existing event
-            DocumentReference docRef = events.document(event.getId());
-            ApiFuture<WriteResult> result = docRef.set(event.toMap());
-            result.get(); // Wait for completion
-        }
+    @Autowired
+    private SeatReservationGate seatReservationGate;
 
-        return event;
+    @Autowired
+    private EventCounters eventCounters;
+
+    @Autowired
+    private CalendarInviteService calendarInviteService;
+
+    public EventFirestore save(EventFirestore event) throws ExecutionException, InterruptedException {
+        return saveAsync(event).get();
     }
 
     public Optional<EventFirestore> findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            return Optional.of(EventFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByIdAsync(id).get();
     }
 
     public List<EventFirestore> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .orderBy("date", Query.Direction.ASCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<EventFirestore> events = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            events.add(EventFirestore.fromMap(document.getData(), document.getId()));
-        }
-
-        return events;
+        return findAllAsync().get();
     }
 
     public List<EventFirestore> findAllByOrderByDateAsc() throws ExecutionException, InterruptedException {
@@ -71,58 +53,100 @@ public class EventFirestoreRepository {
     }
 
     public List<EventFirestore> findByDateGreaterThanEqualOrderByDateAsc(LocalDate date) throws ExecutionException, InterruptedException {
-        String dateString = date.toString();
-
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereGreaterThanOrEqualTo("date", dateString)
-                .orderBy("date", Query.Direction.ASCENDING)
-                .get();
+        return findByDateGreaterThanEqualOrderByDateAscAsync(date).get();
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<EventFirestore> events = new ArrayList<>();
+    public List<EventFirestore> findByDateLessThanOrderByDateDesc(LocalDate date) throws ExecutionException, InterruptedException {
+        return findByDateLessThanOrderByDateDescAsync(date).get();
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            events.add(EventFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(id).get();
+    }
 
-        return events;
+    public boolean existsById(String id) throws ExecutionException, InterruptedException {
+        return findByIdAsync(id).get().isPresent();
     }
 
-    public List<EventFirestore> findByDateLessThanOrderByDateDesc(LocalDate date) throws ExecutionException, InterruptedException {
-        String dateString = date.toString();
+    public long count() throws ExecutionException, InterruptedException {
+        return countAsync().get();
+    }
 
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereLessThan("date", dateString)
-                .orderBy("date", Query.Direction.DESCENDING)
-                .get();
+    // Non-blocking variants - compose these to issue independent reads concurrently
 
-        QuerySnapshot querySnapshot = query.get();
-        List<EventFirestore> events = new ArrayList<>();
+    public CompletableFuture<EventFirestore> saveAsync(EventFirestore event) {
+        CollectionReference events = firestore.collection(COLLECTION_NAME);
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            events.add(EventFirestore.fromMap(document.getData(), document.getId()));
+        DocumentReference docRef;
+        Map<String, Object> data = event.toMap();
+        // Keep the in-memory copy's version in step with what is stored (calendar blocks are cached by it)
+        event.setUpdatedTimestamp((Long) data.get("updatedTimestamp"));
+        if (event.getId() == null || event.getId().isEmpty()) {
+            // Create new event with auto-generated ID
+            docRef = events.document();
+            event.setId(docRef.getId());
+        } else {
+            // Update existing event
+            docRef = events.document(event.getId());
         }
 
-        return events;
+        // Registration counters live in their own documents (see EventCounters), so a full overwrite is safe
+        return toCompletableFuture(docRef.set(data)).thenApply(result -> {
+            eventCatalog.upsert(event);
+            // Capacity may have been raised - let registrations re-check it
+            seatReservationGate.release(event.getId());
+            return event;
+        });
     }
 
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        writeResult.get(); // Wait for completion
+    public CompletableFuture<Optional<EventFirestore>> findByIdAsync(String id) {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
+        return toCompletableFuture(docRef.get()).thenApply(document -> document.exists()
+                ? Optional.of(EventFirestore.fromMap(document.getData(), document.getId()))
+                : Optional.empty());
     }
 
-    public boolean existsById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        return document.exists();
+    public CompletableFuture<List<EventFirestore>> findAllAsync() {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .orderBy("date", Query.Direction.ASCENDING);
+        return toCompletableFuture(query.get()).thenApply(this::toEvents);
     }
 
-    public long count() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME).get();
-        QuerySnapshot querySnapshot = query.get();
-        return querySnapshot.size();
+    public CompletableFuture<List<EventFirestore>> findByDateGreaterThanEqualOrderByDateAscAsync(LocalDate date) {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereGreaterThanOrEqualTo("date", date.toString())
+                .orderBy("date", Query.Direction.ASCENDING);
+        return toCompletableFuture(query.get()).thenApply(this::toEvents);
+    }
+
+    public CompletableFuture<List<EventFirestore>> findByDateLessThanOrderByDateDescAsync(LocalDate date) {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereLessThan("date", date.toString())
+                .orderBy("date", Query.Direction.DESCENDING);
+        return toCompletableFuture(query.get()).thenApply(this::toEvents);
+    }
+
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        WriteBatch batch = firestore.batch();
+        batch.delete(firestore.collection(COLLECTION_NAME).document(id));
+        eventCounters.deleteCounters(batch, id);
+        return toCompletableFuture(batch.commit())
+                .thenApply(result -> {
+                    eventCatalog.remove(id);
+                    calendarInviteService.evict(id);
+                    return null;
+                });
+    }
+
+    public CompletableFuture<Long> countAsync() {
+        return FirestoreFutures.countAsync(firestore.collection(COLLECTION_NAME));
+    }
+
+    private List<EventFirestore> toEvents(QuerySnapshot querySnapshot) {
+        List<EventFirestore> events = new ArrayList<>();
+        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+            events.add(EventFirestore.fromMap(document.getData(), document.getId()));
+        }
+        return events;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.example.restservice.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.Query;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bridges Firestore's {@link ApiFuture} to {@link CompletableFuture} without parking a thread on get().
+ */
+public final class FirestoreFutures {
+
+    private FirestoreFutures() {
+    }
+
+    public static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> completable = new CompletableFuture<>();
+
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                completable.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                completable.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+
+        // Propagate cancellation back to the underlying RPC
+        completable.whenComplete((result, error) -> {
+            if (completable.isCancelled()) {
+                apiFuture.cancel(false);
+            }
+        });
+
+        return completable;
+    }
+
+    /**
+     * Counts the documents matching the query with a server-side aggregation, so only the total
+     * crosses the wire instead of every matching document.
+     */
+    public static CompletableFuture<Long> countAsync(Query query) {
+        return toCompletableFuture(query.count().get()).thenApply(AggregateQuerySnapshot::getCount);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.restservice.repository.firestore;
+
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * In-memory copy of a Firestore query kept current by a snapshot listener. Every change rebuilds the owner's
+ * immutable view of the items under a new version number. Until the first snapshot arrives (or after the
+ * listener fails) reads fall back to a direct query, whose result is reused for a short TTL. The owner applies
+ * its own writes through {@link #upsert} and {@link #remove} so readers see them before the listener fires.
+ *
+ * @param <T> item mapped from each document
+ * @param <V> view the owner serves reads from, built from all items and the version
+ */
+final class ListenedCollection<T, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListenedCollection.class);
+
+    private final String name;
+    private final Query listenQuery;
+    private final Query fallbackQuery;
+    private final Function<DocumentSnapshot, T> mapper;
+    private final Function<T, String> idOf;
+    private final BiFunction<Collection<T>, Long, V> viewOf;
+    private final long fallbackTtlMillis;
+
+    // Bumped for every rebuilt view, so cached renderings of it know when they are stale
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile State<T, V> state;
+    private volatile long fallbackExpiresAt;
+    private volatile boolean live;
+    private volatile boolean failed;
+    private ListenerRegistration registration;
+
+    ListenedCollection(String name, Query listenQuery, Query fallbackQuery, Function<DocumentSnapshot, T> mapper,
+                       Function<T, String> idOf, BiFunction<Collection<T>, Long, V> viewOf, long fallbackTtlMillis) {
+        this.name = name;
+        this.listenQuery = listenQuery;
+        this.fallbackQuery = fallbackQuery;
+        this.mapper = mapper;
+        this.idOf = idOf;
+        this.viewOf = viewOf;
+        this.fallbackTtlMillis = fallbackTtlMillis;
+    }
+
+    synchronized void start() {
+        failed = false;
+        registration = listenQuery.addSnapshotListener((querySnapshot, error) -> {
+            if (error != null) {
+                logger.warn("{} listener failed, falling back to direct reads: {}", name, error.getMessage());
+                live = false;
+                failed = true;
+                return;
+            }
+            if (querySnapshot != null) {
+                replace(querySnapshot.getDocuments());
+                live = true;
+            }
+        });
+    }
+
+    synchronized void stop() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        live = false;
+    }
+
+    // Re-attach the listener if Firestore terminated it with an error
+    void ensureListening() {
+        if (failed) {
+            logger.info("Re-attaching {} listener", name);
+            stop();
+            start();
+        }
+    }
+
+    boolean isLive() {
+        return live;
+    }
+
+    V current() throws ExecutionException, InterruptedException {
+        State<T, V> current = state;
+        if (current != null && (live || System.currentTimeMillis() < fallbackExpiresAt)) {
+            return current.view;
+        }
+        return readFallback();
+    }
+
+    synchronized void upsert(T item) {
+        State<T, V> current = state;
+        String id = idOf.apply(item);
+        if (current == null || id == null) {
+            return;
+        }
+        Map<String, T> byId = new HashMap<>(current.byId);
+        byId.put(id, item);
+        state = rebuild(byId);
+    }
+
+    synchronized void remove(String id) {
+        State<T, V> current = state;
+        if (current == null || !current.byId.containsKey(id)) {
+            return;
+        }
+        Map<String, T> byId = new HashMap<>(current.byId);
+        byId.remove(id);
+        state = rebuild(byId);
+    }
+
+    // Listener not ready (or failed) - read the query directly and keep the result, with its version, for a
+    // short TTL so a run of reads (a version check and the read after it, a roster resolved one lookup at a
+    // time) shares one query
+    private synchronized V readFallback() throws ExecutionException, InterruptedException {
+        State<T, V> current = state;
+        if (current != null && (live || System.currentTimeMillis() < fallbackExpiresAt)) {
+            return current.view;
+        }
+        V rebuilt = replace(FirestoreFutures.toCompletableFuture(fallbackQuery.get()).get().getDocuments());
+        fallbackExpiresAt = System.currentTimeMillis() + fallbackTtlMillis;
+        return rebuilt;
+    }
+
+    private synchronized V replace(List<? extends DocumentSnapshot> documents) {
+        Map<String, T> byId = new HashMap<>();
+        for (DocumentSnapshot document : documents) {
+            byId.put(document.getId(), mapper.apply(document));
+        }
+        State<T, V> rebuilt = rebuild(byId);
+        state = rebuilt;
+        return rebuilt.view;
+    }
+
+    private State<T, V> rebuild(Map<String, T> byId) {
+        Map<String, T> items = Collections.unmodifiableMap(byId);
+        return new State<>(items, viewOf.apply(items.values(), versions.incrementAndGet()));
+    }
+
+    private static class State<T, V> {
+        private final Map<String, T> byId;
+        private final V view;
+
+        State(Map<String, T> byId, V view) {
+            this.byId = byId;
+            this.view = view;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.example.restservice.repository.firestore;
 
 import com.example.restservice.model.firestore.ParticipantFirestore;
-import com.google.api.core.ApiFuture;
+import com.example.restservice.model.firestore.ParticipantSummary;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.countAsync;
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
 
 @Repository
 public class ParticipantFirestoreRepository {
@@ -19,185 +25,195 @@ public class ParticipantFirestoreRepository {
     @Autowired
     private Firestore firestore;
 
+    @Autowired
+    private EventCounters eventCounters;
+
+    @Autowired
+    private SeatReservationGate seatReservationGate;
+
     public ParticipantFirestore save(ParticipantFirestore participant) throws ExecutionException, InterruptedException {
-        CollectionReference participants = firestore.collection(COLLECTION_NAME);
+        return saveAsync(participant).get();
+    }
 
-        if (participant.getId() == null || participant.getId().isEmpty()) {
-            // Create new participant with auto-generated ID
-            DocumentReference docRef = participants.document();
-            participant.setId(docRef.getId());
-            ApiFuture<WriteResult> result = docRef.set(participant.toMap());
-            result.get(); // Wait for completion
-        } else {
-            // Update existing participant
-            DocumentReference docRef = participants.document(participant.getId());
-            ApiFuture<WriteResult> result = docRef.set(participant.toMap());
-            result.get(); // Wait for completion
+    /**
+     * Creates a new participant only if its event still has a free seat. The capacity check and the write
+     * happen atomically, so concurrent registrations can never overbook an event.
+     */
+    public SeatReservationGate.Outcome reserveSeat(ParticipantFirestore participant) throws ExecutionException, InterruptedException {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
+        participant.setId(docRef.getId());
+        Map<String, Object> data = participant.toMap();
+
+        SeatReservationGate.Outcome outcome = seatReservationGate.reserve(participant.getEventId(),
+                () -> eventCounters.reserveSeat(docRef, data, participant.getEventId()).get());
+        if (outcome != SeatReservationGate.Outcome.RESERVED) {
+            participant.setId(null);
         }
-
-        return participant;
+        return outcome;
     }
 
     public Optional<ParticipantFirestore> findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            return Optional.of(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByIdAsync(id).get();
     }
 
     public List<ParticipantFirestore> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .orderBy("registrationDate", Query.Direction.DESCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        }
+        return findAllAsync().get();
+    }
 
-        return participants;
+    public CursorPage<ParticipantFirestore> findPage(int limit, String cursor) throws ExecutionException, InterruptedException {
+        return CursorPage.await(findPageAsync(limit, cursor));
     }
 
     public List<ParticipantFirestore> findByEventId(String eventId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("eventId", eventId)
-                .orderBy("childName", Query.Direction.ASCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        }
+        return findByEventIdAsync(eventId).get();
+    }
 
-        return participants;
+    public List<ParticipantSummary> findSummariesByEventId(String eventId) throws ExecutionException, InterruptedException {
+        return findSummariesByEventIdAsync(eventId).get();
     }
 
     public List<ParticipantFirestore> findByParentUserId(String parentUserId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("parentUserId", parentUserId)
-                .orderBy("registrationDate", Query.Direction.DESCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        }
-
-        return participants;
+        return findByParentUserIdAsync(parentUserId).get();
     }
 
     public List<ParticipantFirestore> findByParentUserIdAndEventId(String parentUserId, String eventId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+        return findByParentUserIdAndEventIdAsync(parentUserId, eventId).get();
+    }
+
+    public List<ParticipantFirestore> findByParentUserIdAndEventIdAndChildName(String parentUserId, String eventId, String childName) throws ExecutionException, InterruptedException {
+        Query query = firestore.collection(COLLECTION_NAME)
                 .whereEqualTo("parentUserId", parentUserId)
                 .whereEqualTo("eventId", eventId)
-                .get();
+                .whereEqualTo("childName", childName);
+        return queryAsync(query).get();
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
+    public List<ParticipantFirestore> findByStatus(String status) throws ExecutionException, InterruptedException {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("status", status)
+                .orderBy("registrationDate", Query.Direction.DESCENDING);
+        return queryAsync(query).get();
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public List<ParticipantFirestore> findByEventIdAndStatus(String eventId, String status) throws ExecutionException, InterruptedException {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("eventId", eventId)
+                .whereEqualTo("status", status)
+                .orderBy("childName", Query.Direction.ASCENDING);
+        return queryAsync(query).get();
+    }
 
-        return participants;
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(id).get();
     }
 
-    public List<ParticipantFirestore> findByParentUserIdAndEventIdAndChildName(String parentUserId, String eventId, String childName) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("parentUserId", parentUserId)
-                .whereEqualTo("eventId", eventId)
-                .whereEqualTo("childName", childName)
-                .get();
+    public void deleteByEventId(String eventId) throws ExecutionException, InterruptedException {
+        // First get all participants for the event, then delete them in batches
+        List<DocumentReference> docRefs = findByEventId(eventId).stream()
+                .map(participant -> firestore.collection(COLLECTION_NAME).document(participant.getId()))
+                .collect(Collectors.toList());
+        eventCounters.deleteAllWithDecrement(docRefs, eventId, EventCounters.PARTICIPANT_COUNT);
+        seatReservationGate.release(eventId);
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
+    public boolean existsById(String id) throws ExecutionException, InterruptedException {
+        return findByIdAsync(id).get().isPresent();
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public long count() throws ExecutionException, InterruptedException {
+        return countAsync(firestore.collection(COLLECTION_NAME)).get();
+    }
 
-        return participants;
+    public long countByEventId(String eventId) throws ExecutionException, InterruptedException {
+        return countByEventIdAsync(eventId).get();
     }
 
-    public List<ParticipantFirestore> findByStatus(String status) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("status", status)
-                .orderBy("registrationDate", Query.Direction.DESCENDING)
-                .get();
+    // Non-blocking variants - compose these to issue independent reads concurrently
 
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
+    public CompletableFuture<ParticipantFirestore> saveAsync(ParticipantFirestore participant) {
+        CollectionReference participants = firestore.collection(COLLECTION_NAME);
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
+        if (participant.getId() == null || participant.getId().isEmpty()) {
+            // Create new participant with auto-generated ID and count it against its event
+            DocumentReference docRef = participants.document();
+            participant.setId(docRef.getId());
+            return eventCounters.createWithIncrement(docRef, participant.toMap(), participant.getEventId(), EventCounters.PARTICIPANT_COUNT)
+                    .thenApply(result -> participant);
         }
 
-        return participants;
+        // Update existing participant
+        DocumentReference docRef = participants.document(participant.getId());
+        return toCompletableFuture(docRef.set(participant.toMap())).thenApply(result -> participant);
     }
 
-    public List<ParticipantFirestore> findByEventIdAndStatus(String eventId, String status) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("eventId", eventId)
-                .whereEqualTo("status", status)
-                .orderBy("childName", Query.Direction.ASCENDING)
-                .get();
+    public CompletableFuture<Optional<ParticipantFirestore>> findByIdAsync(String id) {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
+        return toCompletableFuture(docRef.get()).thenApply(document -> document.exists()
+                ? Optional.of(ParticipantFirestore.fromMap(document.getData(), document.getId()))
+                : Optional.empty());
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<ParticipantFirestore> participants = new ArrayList<>();
+    public CompletableFuture<List<ParticipantFirestore>> findAllAsync() {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .orderBy("registrationDate", Query.Direction.DESCENDING));
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public CompletableFuture<CursorPage<ParticipantFirestore>> findPageAsync(int limit, String cursor) {
+        CollectionReference participants = firestore.collection(COLLECTION_NAME);
+        Query query = participants.orderBy("registrationDate", Query.Direction.DESCENDING);
+        return CursorPage.fetchAsync(participants, query, limit, cursor,
+                document -> ParticipantFirestore.fromMap(document.getData(), document.getId()));
+    }
 
-        return participants;
+    public CompletableFuture<List<ParticipantFirestore>> findByEventIdAsync(String eventId) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("eventId", eventId)
+                .orderBy("childName", Query.Direction.ASCENDING));
     }
 
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        writeResult.get(); // Wait for completion
+    // Same ordering as findByEventIdAsync, but only the fields in ParticipantSummary are read
+    public CompletableFuture<List<ParticipantSummary>> findSummariesByEventIdAsync(String eventId) {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("eventId", eventId)
+                .orderBy("childName", Query.Direction.ASCENDING)
+                .select(ParticipantSummary.FIELDS);
+        return toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            List<ParticipantSummary> summaries = new ArrayList<>();
+            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                summaries.add(ParticipantSummary.fromMap(document.getData(), document.getId()));
+            }
+            return summaries;
+        });
     }
 
-    public void deleteByEventId(String eventId) throws ExecutionException, InterruptedException {
-        // First get all participants for the event
-        List<ParticipantFirestore> participants = findByEventId(eventId);
+    public CompletableFuture<List<ParticipantFirestore>> findByParentUserIdAsync(String parentUserId) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("parentUserId", parentUserId)
+                .orderBy("registrationDate", Query.Direction.DESCENDING));
+    }
 
-        // Delete each participant
-        for (ParticipantFirestore participant : participants) {
-            deleteById(participant.getId());
-        }
+    public CompletableFuture<List<ParticipantFirestore>> findByParentUserIdAndEventIdAsync(String parentUserId, String eventId) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("parentUserId", parentUserId)
+                .whereEqualTo("eventId", eventId));
     }
 
-    public boolean existsById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        return document.exists();
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        return eventCounters.deleteWithDecrement(firestore.collection(COLLECTION_NAME).document(id), EventCounters.PARTICIPANT_COUNT)
+                .thenAccept(seatReservationGate::release);
     }
 
-    public long count() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME).get();
-        QuerySnapshot querySnapshot = query.get();
-        return querySnapshot.size();
+    public CompletableFuture<Long> countByEventIdAsync(String eventId) {
+        return countAsync(firestore.collection(COLLECTION_NAME).whereEqualTo("eventId", eventId));
     }
 
-    public long countByEventId(String eventId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("eventId", eventId)
-                .get();
-        QuerySnapshot querySnapshot = query.get();
-        return querySnapshot.size();
+    private CompletableFuture<List<ParticipantFirestore>> queryAsync(Query query) {
+        return toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            List<ParticipantFirestore> participants = new ArrayList<>();
+            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                participants.add(ParticipantFirestore.fromMap(document.getData(), document.getId()));
+            }
+            return participants;
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.example.restservice.repository.firestore;
+
+import com.example.restservice.model.firestore.PendingEventUpdateFirestore;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Event updates that are published but not yet notified. The notifier writes one before acknowledging an edit
+ * and deletes it after queueing the deliveries; anything left past its due time was lost with its instance.
+ */
+@Repository
+public class PendingEventUpdateRepository {
+
+    private static final String COLLECTION_NAME = "pendingEventUpdates";
+
+    @Autowired
+    private Firestore firestore;
+
+    public PendingEventUpdateFirestore save(PendingEventUpdateFirestore update) throws ExecutionException, InterruptedException {
+        if (update.getId() == null) {
+            update.setId(firestore.collection(COLLECTION_NAME).document().getId());
+        }
+        firestore.collection(COLLECTION_NAME).document(update.getId()).set(update.toMap()).get();
+        return update;
+    }
+
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        firestore.collection(COLLECTION_NAME).document(id).delete().get();
+    }
+
+    public List<PendingEventUpdateFirestore> findDueBefore(long timestamp, int limit) throws ExecutionException, InterruptedException {
+        List<PendingEventUpdateFirestore> updates = new ArrayList<>();
+        for (QueryDocumentSnapshot document : firestore.collection(COLLECTION_NAME)
+                .whereLessThan("dueAt", timestamp)
+                .orderBy("dueAt")
+                .limit(limit)
+                .get().get().getDocuments()) {
+            updates.add(PendingEventUpdateFirestore.fromMap(document.getData(), document.getId()));
+        }
+        return updates;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.restservice.repository.firestore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process admission step in front of the seat reservation transaction. Registrations for the same event
+ * are queued on a fair per-event lock so concurrent requests on this instance never contend (and retry)
+ * on the event document, and once an event is known to be full further attempts are rejected without
+ * touching Firestore until a seat is released or the sold-out marker expires. A lock only exists while a
+ * registration holds or waits for it, so the map stays as small as the number of events being registered for.
+ */
+@Component
+public class SeatReservationGate {
+
+    public enum Outcome {
+        RESERVED,
+        FULL,
+        EVENT_NOT_FOUND
+    }
+
+    @FunctionalInterface
+    public interface Reservation {
+        Outcome attempt() throws ExecutionException, InterruptedException;
+    }
+
+    @Value("${app.registration.sold-out-cache-ms:2000}")
+    private long soldOutCacheMillis = 2000;
+
+    // Fair lock plus the number of requests holding or waiting for it; both only change inside compute()
+    private static class EventLock {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int users;
+    }
+
+    private final Map<String, EventLock> locks = new ConcurrentHashMap<>();
+    private final Map<String, Long> soldOutUntil = new ConcurrentHashMap<>();
+
+    public Outcome reserve(String eventId, Reservation reservation) throws ExecutionException, InterruptedException {
+        if (isKnownFull(eventId)) {
+            return Outcome.FULL;
+        }
+
+        EventLock eventLock = locks.compute(eventId, (id, existing) -> {
+            EventLock joined = existing != null ? existing : new EventLock();
+            joined.users++;
+            return joined;
+        });
+        try {
+            eventLock.lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            leave(eventId);
+            throw e;
+        }
+        try {
+            // Another request may have taken the last seat while this one was queued
+            if (isKnownFull(eventId)) {
+                return Outcome.FULL;
+            }
+
+            Outcome outcome = reservation.attempt();
+            if (outcome == Outcome.FULL) {
+                soldOutUntil.put(eventId, System.currentTimeMillis() + soldOutCacheMillis);
+            }
+            return outcome;
+        } finally {
+            eventLock.lock.unlock();
+            leave(eventId);
+        }
+    }
+
+    // The last request out removes the lock; one arriving meanwhile has already joined it in compute()
+    private void leave(String eventId) {
+        locks.computeIfPresent(eventId, (id, eventLock) -> --eventLock.users == 0 ? null : eventLock);
+    }
+
+    int lockCount() {
+        return locks.size();
+    }
+
+    // Called when a registration is cancelled or capacity changes so the next attempt re-checks Firestore
+    public void release(String eventId) {
+        if (eventId != null) {
+            soldOutUntil.remove(eventId);
+        }
+    }
+
+    private boolean isKnownFull(String eventId) {
+        Long until = soldOutUntil.get(eventId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            soldOutUntil.remove(eventId, until);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.restservice.repository.firestore;
+
+import com.example.restservice.model.firestore.UserFirestore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of user documents used by {@link UserFirestoreRepository}.
+ * Entries are keyed by document ID with secondary indexes on firebaseUid, email and phone number.
+ * The raw document data is stored so every hit returns a fresh {@link UserFirestore} instance.
+ */
+@Component
+public class UserCache {
+
+    @Value("${app.cache.users.max-size:1000}")
+    private int maxSize;
+
+    @Value("${app.cache.users.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Access-ordered so the least recently used entry is evicted first
+    private final LinkedHashMap<String, CachedUser> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> uidIndex = new HashMap<>();
+    private final Map<String, String> emailIndex = new HashMap<>();
+    private final Map<String, String> phoneIndex = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public Optional<UserFirestore> getById(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            return lookup(id);
+        }
+    }
+
+    public Optional<UserFirestore> getByFirebaseUid(String firebaseUid) {
+        if (firebaseUid == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            return lookup(uidIndex.getOrDefault(firebaseUid, firebaseUid));
+        }
+    }
+
+    public Optional<UserFirestore> getByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            return lookup(emailIndex.get(email));
+        }
+    }
+
+    public Optional<UserFirestore> getByPhoneNumber(String phoneNumber) {
+        if (phoneNumber == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            return lookup(phoneIndex.get(phoneNumber));
+        }
+    }
+
+    public synchronized void put(String documentId, Map<String, Object> data) {
+        if (documentId == null || data == null || maxSize <= 0) {
+            return;
+        }
+        removeEntry(documentId);
+
+        CachedUser cached = new CachedUser(documentId, new HashMap<>(data),
+                System.currentTimeMillis() + ttlSeconds * 1000);
+        entries.put(documentId, cached);
+        if (cached.firebaseUid != null) {
+            uidIndex.put(cached.firebaseUid, documentId);
+        }
+        if (cached.email != null) {
+            emailIndex.put(cached.email, documentId);
+        }
+        if (cached.phoneNumber != null) {
+            phoneIndex.put(cached.phoneNumber, documentId);
+        }
+
+        while (entries.size() > maxSize) {
+            String eldest = entries.keySet().iterator().next();
+            removeEntry(eldest);
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops the entry for the given document ID or firebaseUid along with its secondary keys.
+     */
+    public synchronized void invalidate(String idOrUid) {
+        if (idOrUid == null) {
+            return;
+        }
+        removeEntry(idOrUid);
+        String documentId = uidIndex.get(idOrUid);
+        if (documentId != null) {
+            removeEntry(documentId);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        uidIndex.clear();
+        emailIndex.clear();
+        phoneIndex.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private Optional<UserFirestore> lookup(String documentId) {
+        CachedUser cached = documentId != null ? entries.get(documentId) : null;
+        if (cached == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (cached.expiresAt < System.currentTimeMillis()) {
+            removeEntry(documentId);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(UserFirestore.fromMap(new HashMap<>(cached.data), cached.documentId));
+    }
+
+    private void removeEntry(String documentId) {
+        CachedUser removed = entries.remove(documentId);
+        if (removed == null) {
+            return;
+        }
+        if (removed.firebaseUid != null) {
+            uidIndex.remove(removed.firebaseUid, documentId);
+        }
+        if (removed.email != null) {
+            emailIndex.remove(removed.email, documentId);
+        }
+        if (removed.phoneNumber != null) {
+            phoneIndex.remove(removed.phoneNumber, documentId);
+        }
+    }
+
+    private static class CachedUser {
+        private final String documentId;
+        private final Map<String, Object> data;
+        private final String firebaseUid;
+        private final String email;
+        private final String phoneNumber;
+        private final long expiresAt;
+
+        CachedUser(String documentId, Map<String, Object> data, long expiresAt) {
+            this.documentId = documentId;
+            this.data = data;
+            this.firebaseUid = (String) data.get("firebaseUid");
+            this.email = (String) data.get("email");
+            this.phoneNumber = (String) data.get("phoneNumber");
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,155 +1,96 @@
 package com.example.restservice.repository.firestore;
 
+import com.example.restservice.model.firestore.UserContact;
 import com.example.restservice.model.firestore.UserFirestore;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.countAsync;
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
 
 @Repository
 public class UserFirestoreRepository {
 
     private static final String COLLECTION_NAME = "users";
 
+    // Documents per getAll round trip, and values per whereIn query (Firestore's limit for "in" filters)
+    private static final int GET_ALL_CHUNK_SIZE = 100;
+    private static final int WHERE_IN_CHUNK_SIZE = 30;
+
     @Autowired
     private Firestore firestore;
 
-    public UserFirestore save(UserFirestore user) throws ExecutionException, InterruptedException {
-        CollectionReference users = firestore.collection(COLLECTION_NAME);
-
-        // Use firebaseUid as the document ID for easy lookup
-        String documentId = user.getFirebaseUid();
-        if (documentId == null || documentId.isEmpty()) {
-            // Fallback to auto-generated ID if no firebaseUid
-            DocumentReference docRef = users.document();
-            documentId = docRef.getId();
-        }
+    @Autowired
+    private UserCache userCache;
 
-        user.setId(documentId);
-        DocumentReference docRef = users.document(documentId);
-        ApiFuture<WriteResult> result = docRef.set(user.toMap());
-        result.get(); // Wait for completion
+    @Autowired
+    private AudienceIndex audienceIndex;
 
-        return user;
+    public UserFirestore save(UserFirestore user) throws ExecutionException, InterruptedException {
+        return saveAsync(user).get();
     }
 
     public Optional<UserFirestore> findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            return Optional.of(UserFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByIdAsync(id).get();
     }
 
     public Optional<UserFirestore> findByFirebaseUid(String firebaseUid) throws ExecutionException, InterruptedException {
-        // First try direct lookup by document ID (should be firebaseUid)
-        Optional<UserFirestore> directLookup = findById(firebaseUid);
-        if (directLookup.isPresent()) {
-            return directLookup;
-        }
-
-        // Fallback to query if direct lookup fails
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("firebaseUid", firebaseUid)
-                .limit(1)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
+        return findByFirebaseUidAsync(firebaseUid).get();
+    }
 
-        if (!querySnapshot.getDocuments().isEmpty()) {
-            DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-            return Optional.of(UserFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+    public Map<String, UserFirestore> findAllByIds(Collection<String> firebaseUids) throws ExecutionException, InterruptedException {
+        return findAllByIdsAsync(firebaseUids).get();
     }
 
     public Optional<UserFirestore> findByEmail(String email) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("email", email)
-                .limit(1)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-
-        if (!querySnapshot.getDocuments().isEmpty()) {
-            DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-            return Optional.of(UserFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByEmailAsync(email).get();
     }
 
     public List<UserFirestore> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<UserFirestore> users = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            users.add(UserFirestore.fromMap(document.getData(), document.getId()));
-        }
-
-        // Sort in-memory with null-safe comparison
-        users.sort((u1, u2) -> {
-            String lastName1 = u1.getLastName();
-            String lastName2 = u2.getLastName();
-            if (lastName1 == null && lastName2 == null) return 0;
-            if (lastName1 == null) return 1;
-            if (lastName2 == null) return -1;
-            return lastName1.compareToIgnoreCase(lastName2);
-        });
-
-        return users;
+        return findAllAsync().get();
     }
 
     public List<UserFirestore> findByUserType(String userType) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userType", userType)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<UserFirestore> users = new ArrayList<>();
+        return findByUserTypeAsync(userType).get();
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            users.add(UserFirestore.fromMap(document.getData(), document.getId()));
-        }
+    /**
+     * Streams every user to the consumer in document-ID order, {@code chunkSize} at a time, without loading
+     * the whole collection. Unlike {@link #findAll()} the users are not sorted by last name.
+     */
+    public void forEachChunk(int chunkSize, Consumer<List<UserFirestore>> consumer) throws ExecutionException, InterruptedException {
+        ChunkedScan.forEachChunk(firestore.collection(COLLECTION_NAME), chunkSize,
+                document -> UserFirestore.fromMap(document.getData(), document.getId()), user -> true, consumer);
+    }
 
-        // Sort in-memory with null-safe comparison
-        users.sort((u1, u2) -> {
-            String lastName1 = u1.getLastName();
-            String lastName2 = u2.getLastName();
-            if (lastName1 == null && lastName2 == null) return 0;
-            if (lastName1 == null) return 1;
-            if (lastName2 == null) return -1;
-            return lastName1.compareToIgnoreCase(lastName2);
-        });
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(id).get();
+    }
 
-        return users;
+    // Drops any cached copy of the user so the next read goes to Firestore
+    public void evictFromCache(String idOrUid) {
+        userCache.invalidate(idOrUid);
     }
 
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        writeResult.get(); // Wait for completion
+    public Map<String, Object> getCacheStats() {
+        return userCache.getStats();
     }
 
     public boolean existsById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        return document.exists();
+        return findById(id).isPresent();
     }
 
     public boolean existsByFirebaseUid(String firebaseUid) throws ExecutionException, InterruptedException {
@@ -162,19 +103,7 @@ public class UserFirestoreRepository {
 
 
     public Optional<UserFirestore> findByPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("phoneNumber", phoneNumber)
-                .limit(1)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-
-        if (!querySnapshot.getDocuments().isEmpty()) {
-            DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-            return Optional.of(UserFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByPhoneNumberAsync(phoneNumber).get();
     }
 
     public Optional<UserFirestore> findByEmailOrPhoneNumber(String email, String phoneNumber) throws ExecutionException, InterruptedException {
@@ -191,50 +120,224 @@ public class UserFirestoreRepository {
     public List<UserFirestore> findAllExcludingBanned() throws ExecutionException, InterruptedException {
         // Get ALL users first, then filter in memory
         // This is because Firestore doesn't support "whereEqualTo null OR whereEqualTo false"
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME).get();
+        return queryAsync(firestore.collection(COLLECTION_NAME), UserFirestoreRepository::isNotBanned).get();
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<UserFirestore> users = new ArrayList<>();
+    // Pages are ordered by document ID because the in-memory lastName sort cannot be paginated;
+    // banned users are filtered out after the read, so a page may hold fewer than limit users
+    public CursorPage<UserFirestore> findPageExcludingBanned(int limit, String cursor) throws ExecutionException, InterruptedException {
+        return CursorPage.await(findPageExcludingBannedAsync(limit, cursor));
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            UserFirestore user = UserFirestore.fromMap(document.getData(), document.getId());
-            // Include users where isBanned is null, false, or not set
-            if (user.getIsBanned() == null || !user.getIsBanned()) {
-                users.add(user);
-            }
+    public List<UserFirestore> findByUserTypeExcludingBanned(String userType) throws ExecutionException, InterruptedException {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("userType", userType)
+                .whereEqualTo("isBanned", false);
+        // Double check - only include if not banned
+        return queryAsync(query, UserFirestoreRepository::isNotBanned).get();
+    }
+
+    public long count() throws ExecutionException, InterruptedException {
+        return countAsync(firestore.collection(COLLECTION_NAME)).get();
+    }
+
+    // Non-blocking variants - compose these to issue independent reads concurrently
+
+    public CompletableFuture<UserFirestore> saveAsync(UserFirestore user) {
+        CollectionReference users = firestore.collection(COLLECTION_NAME);
+
+        // Use firebaseUid as the document ID for easy lookup
+        String documentId = user.getFirebaseUid();
+        if (documentId == null || documentId.isEmpty()) {
+            // Fallback to auto-generated ID if no firebaseUid
+            documentId = users.document().getId();
         }
 
-        // Sort in-memory with null-safe comparison
-        users.sort((u1, u2) -> {
-            String lastName1 = u1.getLastName();
-            String lastName2 = u2.getLastName();
-            if (lastName1 == null && lastName2 == null) return 0;
-            if (lastName1 == null) return 1;
-            if (lastName2 == null) return -1;
-            return lastName1.compareToIgnoreCase(lastName2);
+        user.setId(documentId);
+        String savedId = documentId;
+        return toCompletableFuture(users.document(documentId).set(user.toMap()))
+                .thenApply(result -> {
+                    userCache.invalidate(savedId);
+                    audienceIndex.upsert(UserContact.fromUser(user));
+                    return user;
+                });
+    }
+
+    public CompletableFuture<Optional<UserFirestore>> findByIdAsync(String id) {
+        Optional<UserFirestore> cached = userCache.getById(id);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return readByIdAsync(id);
+    }
+
+    // Reads past the cache and fills it; callers check the cache first
+    private CompletableFuture<Optional<UserFirestore>> readByIdAsync(String id) {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
+        return toCompletableFuture(docRef.get()).thenApply(document -> {
+            if (!document.exists()) {
+                return Optional.empty();
+            }
+            userCache.put(document.getId(), document.getData());
+            return Optional.of(UserFirestore.fromMap(document.getData(), document.getId()));
         });
+    }
+
+    public CompletableFuture<Optional<UserFirestore>> findByFirebaseUidAsync(String firebaseUid) {
+        Optional<UserFirestore> cached = userCache.getByFirebaseUid(firebaseUid);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
 
-        return users;
+        // First try direct lookup by document ID (should be firebaseUid), then fall back to a query. The cache
+        // lookup above already covered the document ID, so this one miss is all that is recorded.
+        return readByIdAsync(firebaseUid).thenCompose(directLookup -> directLookup.isPresent()
+                ? CompletableFuture.completedFuture(directLookup)
+                : findFirstAsync(firestore.collection(COLLECTION_NAME).whereEqualTo("firebaseUid", firebaseUid)));
     }
 
-    public List<UserFirestore> findByUserTypeExcludingBanned(String userType) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userType", userType)
-                .whereEqualTo("isBanned", false)
-                .get();
+    /**
+     * Batch version of {@link #findByFirebaseUidAsync}: cached users are served from memory, the rest are read
+     * with chunked {@code getAll} calls issued in parallel. IDs with no document of that name fall back to a
+     * firebaseUid query, matching the single lookup. The result is keyed by the requested ID; unknown IDs are absent.
+     */
+    public CompletableFuture<Map<String, UserFirestore>> findAllByIdsAsync(Collection<String> firebaseUids) {
+        Map<String, UserFirestore> found = new ConcurrentHashMap<>();
+        List<DocumentReference> toFetch = new ArrayList<>();
+        CollectionReference users = firestore.collection(COLLECTION_NAME);
+        for (String firebaseUid : new LinkedHashSet<>(firebaseUids)) {
+            if (firebaseUid == null || firebaseUid.isEmpty()) {
+                continue;
+            }
+            Optional<UserFirestore> cached = userCache.getByFirebaseUid(firebaseUid);
+            if (cached.isPresent()) {
+                found.put(firebaseUid, cached.get());
+            } else {
+                toFetch.add(users.document(firebaseUid));
+            }
+        }
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (List<DocumentReference> chunk : partition(toFetch, GET_ALL_CHUNK_SIZE)) {
+            chunks.add(toCompletableFuture(firestore.getAll(chunk.toArray(new DocumentReference[0])))
+                    .thenCompose(documents -> {
+                        List<String> missing = new ArrayList<>();
+                        for (DocumentSnapshot document : documents) {
+                            if (document.exists()) {
+                                userCache.put(document.getId(), document.getData());
+                                found.put(document.getId(), UserFirestore.fromMap(document.getData(), document.getId()));
+                            } else {
+                                missing.add(document.getId());
+                            }
+                        }
+                        return findByFirebaseUidFieldAsync(missing, found);
+                    }));
+        }
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(result -> found);
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<UserFirestore> users = new ArrayList<>();
+    public CompletableFuture<Optional<UserFirestore>> findByEmailAsync(String email) {
+        Optional<UserFirestore> cached = userCache.getByEmail(email);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return findFirstAsync(firestore.collection(COLLECTION_NAME).whereEqualTo("email", email));
+    }
+
+    public CompletableFuture<Optional<UserFirestore>> findByPhoneNumberAsync(String phoneNumber) {
+        Optional<UserFirestore> cached = userCache.getByPhoneNumber(phoneNumber);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return findFirstAsync(firestore.collection(COLLECTION_NAME).whereEqualTo("phoneNumber", phoneNumber));
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            UserFirestore user = UserFirestore.fromMap(document.getData(), document.getId());
-            // Double check - only include if not banned
-            if (user.getIsBanned() == null || !user.getIsBanned()) {
-                users.add(user);
+    public CompletableFuture<List<UserFirestore>> findAllAsync() {
+        return queryAsync(firestore.collection(COLLECTION_NAME), user -> true);
+    }
+
+    public CompletableFuture<List<UserFirestore>> findByUserTypeAsync(String userType) {
+        return queryAsync(firestore.collection(COLLECTION_NAME).whereEqualTo("userType", userType), user -> true);
+    }
+
+    public CompletableFuture<CursorPage<UserFirestore>> findPageExcludingBannedAsync(int limit, String cursor) {
+        CollectionReference users = firestore.collection(COLLECTION_NAME);
+        return CursorPage.fetchAsync(users, users.orderBy(FieldPath.documentId()), limit, cursor,
+                document -> UserFirestore.fromMap(document.getData(), document.getId()),
+                UserFirestoreRepository::isNotBanned);
+    }
+
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        return toCompletableFuture(firestore.collection(COLLECTION_NAME).document(id).delete())
+                .thenApply(result -> {
+                    userCache.invalidate(id);
+                    audienceIndex.remove(id);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Optional<UserFirestore>> findFirstAsync(Query query) {
+        return toCompletableFuture(query.limit(1).get()).thenApply(querySnapshot -> {
+            if (querySnapshot.getDocuments().isEmpty()) {
+                return Optional.empty();
             }
+            DocumentSnapshot document = querySnapshot.getDocuments().get(0);
+            userCache.put(document.getId(), document.getData());
+            return Optional.of(UserFirestore.fromMap(document.getData(), document.getId()));
+        });
+    }
+
+    // Fallback for users whose document ID is not their firebaseUid
+    private CompletableFuture<Void> findByFirebaseUidFieldAsync(List<String> firebaseUids, Map<String, UserFirestore> found) {
+        CollectionReference users = firestore.collection(COLLECTION_NAME);
+        List<CompletableFuture<QuerySnapshot>> queries = new ArrayList<>();
+        for (List<String> chunk : partition(firebaseUids, WHERE_IN_CHUNK_SIZE)) {
+            queries.add(toCompletableFuture(users.whereIn("firebaseUid", new ArrayList<Object>(chunk)).get()));
         }
 
-        // Sort in-memory with null-safe comparison
+        return CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).thenAccept(result -> {
+            for (CompletableFuture<QuerySnapshot> query : queries) {
+                for (DocumentSnapshot document : query.join().getDocuments()) {
+                    UserFirestore user = UserFirestore.fromMap(document.getData(), document.getId());
+                    if (user.getFirebaseUid() != null) {
+                        userCache.put(document.getId(), document.getData());
+                        found.putIfAbsent(user.getFirebaseUid(), user);
+                    }
+                }
+            }
+        });
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += size) {
+            chunks.add(items.subList(start, Math.min(start + size, items.size())));
+        }
+        return chunks;
+    }
+
+    private CompletableFuture<List<UserFirestore>> queryAsync(Query query, Predicate<UserFirestore> filter) {
+        return toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            List<UserFirestore> users = new ArrayList<>();
+            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                UserFirestore user = UserFirestore.fromMap(document.getData(), document.getId());
+                if (filter.test(user)) {
+                    users.add(user);
+                }
+            }
+            sortByLastName(users);
+            return users;
+        });
+    }
+
+    private static boolean isNotBanned(UserFirestore user) {
+        // Include users where isBanned is null, false, or not set
+        return user.getIsBanned() == null || !user.getIsBanned();
+    }
+
+    // Sort in-memory with null-safe comparison
+    private static void sortByLastName(List<UserFirestore> users) {
         users.sort((u1, u2) -> {
             String lastName1 = u1.getLastName();
             String lastName2 = u2.getLastName();
@@ -243,13 +346,5 @@ public class UserFirestoreRepository {
             if (lastName2 == null) return -1;
             return lastName1.compareToIgnoreCase(lastName2);
         });
-
-        return users;
-    }
-
-    public long count() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME).get();
-        QuerySnapshot querySnapshot = query.get();
-        return querySnapshot.size();
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,6 @@
 package com.example.restservice.repository.firestore;
 
 import com.example.restservice.model.firestore.VolunteerFirestore;
-import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -9,7 +8,12 @@ import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static com.example.restservice.repository.firestore.FirestoreFutures.countAsync;
+import static com.example.restservice.repository.firestore.FirestoreFutures.toCompletableFuture;
 
 @Repository
 public class VolunteerFirestoreRepository {
@@ -19,178 +23,170 @@ public class VolunteerFirestoreRepository {
     @Autowired
     private Firestore firestore;
 
-    public VolunteerFirestore save(VolunteerFirestore volunteer) throws ExecutionException, InterruptedException {
-        CollectionReference volunteers = firestore.collection(COLLECTION_NAME);
-
-        if (volunteer.getId() == null || volunteer.getId().isEmpty()) {
-            // Create new volunteer with auto-generated ID
-            DocumentReference docRef = volunteers.document();
-            volunteer.setId(docRef.getId());
-            ApiFuture<WriteResult> result = docRef.set(volunteer.toMap());
-            result.get(); // Wait for completion
-        } else {
-            // Update existing volunteer
-            DocumentReference docRef = volunteers.document(volunteer.getId());
-            ApiFuture<WriteResult> result = docRef.set(volunteer.toMap());
-            result.get(); // Wait for completion
-        }
+    @Autowired
+    private EventCounters eventCounters;
 
-        return volunteer;
+    public VolunteerFirestore save(VolunteerFirestore volunteer) throws ExecutionException, InterruptedException {
+        return saveAsync(volunteer).get();
     }
 
     public Optional<VolunteerFirestore> findById(String id) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-
-        if (document.exists()) {
-            return Optional.of(VolunteerFirestore.fromMap(document.getData(), document.getId()));
-        } else {
-            return Optional.empty();
-        }
+        return findByIdAsync(id).get();
     }
 
     public List<VolunteerFirestore> findAll() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .orderBy("signupDate", Query.Direction.DESCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<VolunteerFirestore> volunteers = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
-        }
+        return findAllAsync().get();
+    }
 
-        return volunteers;
+    public CursorPage<VolunteerFirestore> findPage(int limit, String cursor) throws ExecutionException, InterruptedException {
+        return CursorPage.await(findPageAsync(limit, cursor));
     }
 
     public List<VolunteerFirestore> findByEventId(String eventId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("eventId", eventId)
-                .orderBy("userLastName", Query.Direction.ASCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<VolunteerFirestore> volunteers = new ArrayList<>();
+        return findByEventIdAsync(eventId).get();
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
+    // Reads only the userId field of each signup
+    public List<String> findUserIdsByEventId(String eventId) throws ExecutionException, InterruptedException {
+        Query query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("eventId", eventId)
+                .select("userId");
+        List<String> userIds = new ArrayList<>();
+        for (DocumentSnapshot document : toCompletableFuture(query.get()).get().getDocuments()) {
+            userIds.add(document.getString("userId"));
         }
-
-        return volunteers;
+        return userIds;
     }
 
     public List<VolunteerFirestore> findByUserId(String userId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .orderBy("signupDate", Query.Direction.DESCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<VolunteerFirestore> volunteers = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
-        }
-
-        return volunteers;
+        return findByUserIdAsync(userId).get();
     }
 
     public List<VolunteerFirestore> findByUserIdAndEventId(String userId, String eventId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("eventId", eventId)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<VolunteerFirestore> volunteers = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
-        }
-
-        return volunteers;
+        return findByUserIdAndEventIdAsync(userId, eventId).get();
     }
 
     public List<VolunteerFirestore> findByStatus(String status) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+        Query query = firestore.collection(COLLECTION_NAME)
                 .whereEqualTo("status", status)
-                .orderBy("signupDate", Query.Direction.DESCENDING)
-                .get();
-
-        QuerySnapshot querySnapshot = query.get();
-        List<VolunteerFirestore> volunteers = new ArrayList<>();
-
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
-        }
-
-        return volunteers;
+                .orderBy("signupDate", Query.Direction.DESCENDING);
+        return queryAsync(query).get();
     }
 
     public List<VolunteerFirestore> findByEventIdAndStatus(String eventId, String status) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+        Query query = firestore.collection(COLLECTION_NAME)
                 .whereEqualTo("eventId", eventId)
                 .whereEqualTo("status", status)
-                .orderBy("userLastName", Query.Direction.ASCENDING)
-                .get();
+                .orderBy("userLastName", Query.Direction.ASCENDING);
+        return queryAsync(query).get();
+    }
 
-        QuerySnapshot querySnapshot = query.get();
-        List<VolunteerFirestore> volunteers = new ArrayList<>();
+    public void deleteById(String id) throws ExecutionException, InterruptedException {
+        deleteByIdAsync(id).get();
+    }
 
-        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
-        }
+    public void deleteByEventId(String eventId) throws ExecutionException, InterruptedException {
+        // First get all volunteers for the event, then delete them in batches
+        List<DocumentReference> docRefs = findByEventId(eventId).stream()
+                .map(volunteer -> firestore.collection(COLLECTION_NAME).document(volunteer.getId()))
+                .collect(Collectors.toList());
+        eventCounters.deleteAllWithDecrement(docRefs, eventId, EventCounters.VOLUNTEER_COUNT);
+    }
 
-        return volunteers;
+    public void deleteByUserId(String userId) throws ExecutionException, InterruptedException {
+        // First get all volunteers for the user, then delete them concurrently
+        deleteAll(findByUserId(userId));
     }
 
-    public void deleteById(String id) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME)
-                .document(id)
-                .delete();
-        writeResult.get(); // Wait for completion
+    public boolean existsById(String id) throws ExecutionException, InterruptedException {
+        return findByIdAsync(id).get().isPresent();
     }
 
-    public void deleteByEventId(String eventId) throws ExecutionException, InterruptedException {
-        // First get all volunteers for the event
-        List<VolunteerFirestore> volunteers = findByEventId(eventId);
+    public long count() throws ExecutionException, InterruptedException {
+        return countAsync(firestore.collection(COLLECTION_NAME)).get();
+    }
 
-        // Delete each volunteer
-        for (VolunteerFirestore volunteer : volunteers) {
-            deleteById(volunteer.getId());
-        }
+    public long countByEventId(String eventId) throws ExecutionException, InterruptedException {
+        return countByEventIdAsync(eventId).get();
     }
 
-    public void deleteByUserId(String userId) throws ExecutionException, InterruptedException {
-        // First get all volunteers for the user
-        List<VolunteerFirestore> volunteers = findByUserId(userId);
+    // Non-blocking variants - compose these to issue independent reads concurrently
+
+    public CompletableFuture<VolunteerFirestore> saveAsync(VolunteerFirestore volunteer) {
+        CollectionReference volunteers = firestore.collection(COLLECTION_NAME);
 
-        // Delete each volunteer
-        for (VolunteerFirestore volunteer : volunteers) {
-            deleteById(volunteer.getId());
+        if (volunteer.getId() == null || volunteer.getId().isEmpty()) {
+            // Create new volunteer with auto-generated ID and count it against its event
+            DocumentReference docRef = volunteers.document();
+            volunteer.setId(docRef.getId());
+            return eventCounters.createWithIncrement(docRef, volunteer.toMap(), volunteer.getEventId(), EventCounters.VOLUNTEER_COUNT)
+                    .thenApply(result -> volunteer);
         }
+
+        // Update existing volunteer
+        DocumentReference docRef = volunteers.document(volunteer.getId());
+        return toCompletableFuture(docRef.set(volunteer.toMap())).thenApply(result -> volunteer);
     }
 
-    public boolean existsById(String id) throws ExecutionException, InterruptedException {
+    public CompletableFuture<Optional<VolunteerFirestore>> findByIdAsync(String id) {
         DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
-        return document.exists();
+        return toCompletableFuture(docRef.get()).thenApply(document -> document.exists()
+                ? Optional.of(VolunteerFirestore.fromMap(document.getData(), document.getId()))
+                : Optional.empty());
     }
 
-    public long count() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME).get();
-        QuerySnapshot querySnapshot = query.get();
-        return querySnapshot.size();
+    public CompletableFuture<List<VolunteerFirestore>> findAllAsync() {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .orderBy("signupDate", Query.Direction.DESCENDING));
     }
 
-    public long countByEventId(String eventId) throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+    public CompletableFuture<CursorPage<VolunteerFirestore>> findPageAsync(int limit, String cursor) {
+        CollectionReference volunteers = firestore.collection(COLLECTION_NAME);
+        Query query = volunteers.orderBy("signupDate", Query.Direction.DESCENDING);
+        return CursorPage.fetchAsync(volunteers, query, limit, cursor,
+                document -> VolunteerFirestore.fromMap(document.getData(), document.getId()));
+    }
+
+    public CompletableFuture<List<VolunteerFirestore>> findByEventIdAsync(String eventId) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
                 .whereEqualTo("eventId", eventId)
-                .get();
-        QuerySnapshot querySnapshot = query.get();
-        return querySnapshot.size();
+                .orderBy("userLastName", Query.Direction.ASCENDING));
+    }
+
+    public CompletableFuture<List<VolunteerFirestore>> findByUserIdAsync(String userId) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("userId", userId)
+                .orderBy("signupDate", Query.Direction.DESCENDING));
+    }
+
+    public CompletableFuture<List<VolunteerFirestore>> findByUserIdAndEventIdAsync(String userId, String eventId) {
+        return queryAsync(firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("eventId", eventId));
+    }
+
+    public CompletableFuture<Void> deleteByIdAsync(String id) {
+        return eventCounters.deleteWithDecrement(firestore.collection(COLLECTION_NAME).document(id), EventCounters.VOLUNTEER_COUNT)
+                .thenApply(eventId -> null);
+    }
+
+    public CompletableFuture<Long> countByEventIdAsync(String eventId) {
+        return countAsync(firestore.collection(COLLECTION_NAME).whereEqualTo("eventId", eventId));
+    }
+
+    private void deleteAll(List<VolunteerFirestore> volunteers) throws ExecutionException, InterruptedException {
+        CompletableFuture.allOf(volunteers.stream()
+                .map(volunteer -> deleteByIdAsync(volunteer.getId()))
+                .toArray(CompletableFuture[]::new)).get();
+    }
+
+    private CompletableFuture<List<VolunteerFirestore>> queryAsync(Query query) {
+        return toCompletableFuture(query.get()).thenApply(querySnapshot -> {
+            List<VolunteerFirestore> volunteers = new ArrayList<>();
+            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                volunteers.add(VolunteerFirestore.fromMap(document.getData(), document.getId()));
+            }
+            return volunteers;
+        });
     }
-}
\ No newline at end of file
+}
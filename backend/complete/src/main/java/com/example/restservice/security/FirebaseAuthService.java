@@ -5,6 +5,7 @@ import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
 import com.google.firebase.auth.UserRecord;
 import com.google.firebase.auth.UserRecord.UpdateRequest;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -12,6 +13,9 @@ import java.util.Map;
 @Service
 public class FirebaseAuthService {
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     public FirebaseToken verifyIdToken(String idToken) throws FirebaseAuthException {
         return FirebaseAuth.getInstance().verifyIdToken(idToken);
     }
@@ -49,10 +53,12 @@ public class FirebaseAuthService {
 
     public void setCustomUserClaims(String uid, Map<String, Object> claims) throws FirebaseAuthException {
         FirebaseAuth.getInstance().setCustomUserClaims(uid, claims);
+        verifiedTokenCache.invalidateUser(uid);
     }
 
     public void revokeRefreshTokens(String uid) throws FirebaseAuthException {
         FirebaseAuth.getInstance().revokeRefreshTokens(uid);
+        verifiedTokenCache.invalidateUser(uid);
     }
 
     public void updateUserEmail(String uid, String newEmail) throws FirebaseAuthException {
@@ -72,6 +78,7 @@ public class FirebaseAuthService {
 
     public void deleteUser(String uid) throws FirebaseAuthException {
         FirebaseAuth.getInstance().deleteUser(uid);
+        verifiedTokenCache.invalidateUser(uid);
     }
 }
 
@@ -25,6 +25,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Component
@@ -38,6 +40,12 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserFirestoreRepository userRepository;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private UserClaimsSync userClaimsSync;
+
     @Value("${firebase.enabled:true}")
     private boolean firebaseEnabled;
 
@@ -113,14 +121,35 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
                 System.out.println("DEBUG: Processing regular Firebase token");
 
                 try {
-                    FirebaseToken decodedToken = firebaseAuthService.verifyIdToken(idToken);
-                    String uid = decodedToken.getUid();
-                    String email = decodedToken.getEmail();
+                    String uid;
+                    String email;
+                    List<SimpleGrantedAuthority> authorities;
+
+                    // Reuse an earlier verification of the same token to skip signature checks and the authority lookup
+                    Optional<VerifiedTokenCache.VerifiedToken> cached = verifiedTokenCache.get(idToken);
+                    if (cached.isPresent()) {
+                        uid = cached.get().getUid();
+                        email = cached.get().getEmail();
+                        authorities = cached.get().getAuthorities();
+                    } else {
+                        FirebaseToken decodedToken = firebaseAuthService.verifyIdToken(idToken);
+                        // Authorities come from the token's claims, so a token issued before a ban or demotion is refused
+                        if (userClaimsSync.isRevoked(decodedToken)) {
+                            rejectRevokedToken(request, response);
+                            return;
+                        }
+                        uid = decodedToken.getUid();
+                        email = decodedToken.getEmail();
 
-                    System.out.println("DEBUG: Firebase token verified successfully - UID: " + uid + ", Email: " + email);
+                        System.out.println("DEBUG: Firebase token verified successfully - UID: " + uid + ", Email: " + email);
 
-                    // Get user authorities from database
-                    List<SimpleGrantedAuthority> authorities = resolveAuthorities(uid, false);
+                        // Prefer the role and team claims carried by the token; fall back to the user document
+                        authorities = userClaimsSync.authoritiesFromClaims(decodedToken);
+                        if (authorities == null) {
+                            authorities = resolveAuthorities(uid, false);
+                        }
+                        verifiedTokenCache.put(idToken, uid, email, authorities, expiresAtSeconds(decodedToken));
+                    }
 
                     // Create a UserDetails object with Firebase UID as username
                     UserDetails userDetails = User.builder()
@@ -176,6 +205,26 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void rejectRevokedToken(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String origin = request.getHeader("Origin");
+        if (origin != null) {
+            response.setHeader("Access-Control-Allow-Origin", origin);
+            response.setHeader("Access-Control-Allow-Credentials", "true");
+        }
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Token has been revoked\"}");
+    }
+
+    public Map<String, Object> getTokenCacheStats() {
+        return verifiedTokenCache.getStats();
+    }
+
+    private static Long expiresAtSeconds(FirebaseToken decodedToken) {
+        Object exp = decodedToken.getClaims().get("exp");
+        return exp instanceof Number ? ((Number) exp).longValue() : null;
+    }
+
     private List<SimpleGrantedAuthority> resolveAuthorities(String firebaseUid, boolean testAdmin) {
         if (testAdmin) {
             return List.of(
@@ -192,6 +241,11 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
                         // Always add basic user role
                         authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
 
+                        // Banned users keep basic access only, matching the banned claim
+                        if (user.getIsBanned() != null && user.getIsBanned()) {
+                            return authorities;
+                        }
+
                         // Check for admin privileges based on UserType
                         if ("ADMIN".equals(user.getUserType())) {
                             authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
@@ -228,6 +282,11 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
                 return true;
             }
 
+            // Calendar feeds are fetched by calendar clients, authenticated by the token in the URL
+            if (requestPath.startsWith("/api/calendar/feed/")) {
+                return true;
+            }
+
             // Public announcement endpoints
             if (requestPath.equals("/api/announcements/recent") ||
                 requestPath.equals("/api/announcements/active")) {
@@ -0,0 +1,176 @@
+package com.example.restservice.security;
+
+import com.example.restservice.model.firestore.UserFirestore;
+import com.example.restservice.repository.firestore.UserFirestoreRepository;
+import com.google.firebase.auth.FirebaseToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mirrors each user's type, teams and ban status into Firebase custom claims so {@link FirebaseTokenFilter}
+ * can build authorities from the verified token instead of reading the user document on every request.
+ *
+ * Claims only reach the client with its next ID token. Until then a token issued before the last sync on this
+ * instance is treated as stale and the filter falls back to the Firestore lookup. A ban or an admin demotion
+ * also revokes the user's refresh tokens, so they cannot mint new tokens with the old claims, and tokens issued
+ * before the revocation are refused on this instance. Other claim changes, such as team membership, take effect
+ * with the client's next token refresh.
+ */
+@Service
+public class UserClaimsSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserClaimsSync.class);
+
+    static final String USER_TYPE_CLAIM = "userType";
+    static final String TEAMS_CLAIM = "teams";
+    static final String BANNED_CLAIM = "banned";
+
+    // Firebase ID tokens live for an hour, so older sync markers can no longer match a live token
+    private static final long TOKEN_LIFETIME_MILLIS = 60 * 60 * 1000;
+    private static final int MAX_TRACKED_SYNCS = 10_000;
+
+    @Autowired
+    private FirebaseAuthService firebaseAuthService;
+
+    @Autowired
+    private UserFirestoreRepository userRepository;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private final Map<String, Long> syncedAt = new ConcurrentHashMap<>();
+    // Per-uid tokensValidAfter, mirrored locally when this instance revokes, so the filter needs no lookup
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Writes the user's current claims, revoking their sessions on a ban or admin demotion. Cached token
+     * verifications for the user are dropped either way. Failures are logged rather than thrown so the calling
+     * update still succeeds; the filter keeps falling back to Firestore for tokens without claims.
+     */
+    public boolean sync(UserFirestore user) {
+        if (user == null || user.getFirebaseUid() == null) {
+            return false;
+        }
+        String uid = user.getFirebaseUid();
+        try {
+            Map<String, Object> claims = buildClaims(user);
+            Map<String, Object> previous = firebaseAuthService.getUserRecord(uid).getCustomClaims();
+            firebaseAuthService.setCustomUserClaims(uid, claims);
+            markSynced(uid);
+            if (requiresRevocation(previous, claims)) {
+                firebaseAuthService.revokeRefreshTokens(uid);
+                revokedAt.put(uid, syncedAt.get(uid));
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to sync custom claims for user {}: {}", uid, e.getMessage());
+            return false;
+        } finally {
+            verifiedTokenCache.invalidateUser(uid);
+        }
+    }
+
+    // Whether the token was issued before this instance last revoked the user's sessions
+    boolean isRevoked(FirebaseToken token) {
+        Long revoked = revokedAt.get(token.getUid());
+        Object issuedAt = token.getClaims().get("iat");
+        return revoked != null && (!(issuedAt instanceof Number) || ((Number) issuedAt).longValue() * 1000 < revoked);
+    }
+
+    /**
+     * Writes claims for every existing user, e.g. after first deploying claim-based authorities.
+     */
+    public Map<String, Object> backfill() throws ExecutionException, InterruptedException {
+        AtomicInteger synced = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        userRepository.forEachChunk(200, users -> users.forEach(user -> {
+            if (sync(user)) {
+                synced.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }));
+        logger.info("Custom claims backfill finished: {} synced, {} failed", synced.get(), failed.get());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("synced", synced.get());
+        result.put("failed", failed.get());
+        return result;
+    }
+
+    /**
+     * Authorities carried by the token, or null when the token has no claims yet or predates the last sync
+     * on this instance and must be resolved from Firestore.
+     */
+    List<SimpleGrantedAuthority> authoritiesFromClaims(FirebaseToken token) {
+        Map<String, Object> claims = token.getClaims();
+        if (!(claims.get(USER_TYPE_CLAIM) instanceof String userType)) {
+            return null;
+        }
+        Long lastSync = syncedAt.get(token.getUid());
+        Object issuedAt = claims.get("iat");
+        if (lastSync != null && (!(issuedAt instanceof Number) || ((Number) issuedAt).longValue() * 1000 < lastSync)) {
+            return null;
+        }
+
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        if (Boolean.TRUE.equals(claims.get(BANNED_CLAIM))) {
+            return authorities;
+        }
+        if ("ADMIN".equals(userType)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        if (claims.get(TEAMS_CLAIM) instanceof List<?> teams) {
+            teams.stream()
+                    .map(team -> new SimpleGrantedAuthority("TEAM_" + String.valueOf(team).toUpperCase()))
+                    .forEach(authorities::add);
+        }
+        return authorities;
+    }
+
+    /**
+     * Whether moving from the previous claims to the next ones bans the user or demotes an admin. A user without
+     * previous claims is still revoked on a ban, so a ban always ends their sessions.
+     */
+    static boolean requiresRevocation(Map<String, Object> previous, Map<String, Object> next) {
+        Map<String, Object> before = previous != null ? previous : Map.of();
+        if (!Boolean.TRUE.equals(before.get(BANNED_CLAIM)) && Boolean.TRUE.equals(next.get(BANNED_CLAIM))) {
+            return true;
+        }
+        return "ADMIN".equals(before.get(USER_TYPE_CLAIM)) && !"ADMIN".equals(next.get(USER_TYPE_CLAIM));
+    }
+
+    private Map<String, Object> buildClaims(UserFirestore user) {
+        Map<String, Object> claims = new HashMap<>();
+        if (user.getUserType() != null) {
+            claims.put(USER_TYPE_CLAIM, user.getUserType());
+        }
+        claims.put(TEAMS_CLAIM, user.getTeams() != null ? List.copyOf(user.getTeams()) : List.of());
+        claims.put(BANNED_CLAIM, user.getIsBanned() != null && user.getIsBanned());
+        return claims;
+    }
+
+    private void markSynced(String uid) {
+        long now = System.currentTimeMillis();
+        // Token iat has one-second resolution, so round down to keep tokens minted in the same second valid
+        syncedAt.put(uid, now - now % 1000);
+        if (syncedAt.size() > MAX_TRACKED_SYNCS) {
+            syncedAt.values().removeIf(at -> at < now - TOKEN_LIFETIME_MILLIS);
+        }
+        if (revokedAt.size() > MAX_TRACKED_SYNCS) {
+            revokedAt.values().removeIf(at -> at < now - TOKEN_LIFETIME_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.restservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of verified Firebase ID tokens used by {@link FirebaseTokenFilter}. Entries are keyed by a
+ * SHA-256 hash of the token (the raw token is never stored) and hold the decoded UID, email and resolved
+ * authorities until the token's own expiry, capped at a configurable TTL so role changes made elsewhere
+ * are picked up. All entries for a user are dropped when their tokens are revoked or their account changes.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${app.auth.token-cache.max-size:5000}")
+    private int maxSize;
+
+    @Value("${app.auth.token-cache.max-ttl-seconds:300}")
+    private long maxTtlSeconds;
+
+    // Access-ordered so the least recently used entry is evicted first
+    private final LinkedHashMap<String, VerifiedToken> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> uidIndex = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public Optional<VerifiedToken> get(String idToken) {
+        String key = hash(idToken);
+        synchronized (this) {
+            VerifiedToken cached = entries.get(key);
+            if (cached == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            if (cached.expiresAt <= System.currentTimeMillis()) {
+                removeEntry(key);
+                evictions.incrementAndGet();
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+    }
+
+    /**
+     * Caches a verified token. {@code tokenExpiresAtSeconds} is the token's {@code exp} claim; tokens without
+     * one are cached for the maximum TTL.
+     */
+    public void put(String idToken, String uid, String email, List<SimpleGrantedAuthority> authorities,
+                    Long tokenExpiresAtSeconds) {
+        if (idToken == null || uid == null || maxSize <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + maxTtlSeconds * 1000;
+        if (tokenExpiresAtSeconds != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiresAtSeconds * 1000);
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+
+        String key = hash(idToken);
+        synchronized (this) {
+            removeEntry(key);
+            entries.put(key, new VerifiedToken(uid, email, List.copyOf(authorities), expiresAt));
+            uidIndex.computeIfAbsent(uid, k -> new HashSet<>()).add(key);
+
+            while (entries.size() > maxSize) {
+                String eldest = entries.keySet().iterator().next();
+                removeEntry(eldest);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // Drops every cached token belonging to the user so their next request is verified again
+    public synchronized void invalidateUser(String uid) {
+        if (uid == null) {
+            return;
+        }
+        Set<String> keys = uidIndex.remove(uid);
+        if (keys != null) {
+            keys.forEach(entries::remove);
+            invalidations.addAndGet(keys.size());
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        uidIndex.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("maxTtlSeconds", maxTtlSeconds);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private void removeEntry(String key) {
+        VerifiedToken removed = entries.remove(key);
+        if (removed == null) {
+            return;
+        }
+        Set<String> keys = uidIndex.get(removed.uid);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                uidIndex.remove(removed.uid);
+            }
+        }
+    }
+
+    private static String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class VerifiedToken {
+        private final String uid;
+        private final String email;
+        private final List<SimpleGrantedAuthority> authorities;
+        private final long expiresAt;
+
+        VerifiedToken(String uid, String email, List<SimpleGrantedAuthority> authorities, long expiresAt) {
+            this.uid = uid;
+            this.email = email;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getUid() {
+            return uid;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public List<SimpleGrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+    }
+}
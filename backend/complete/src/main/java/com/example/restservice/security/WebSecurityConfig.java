@@ -61,6 +61,7 @@ public class WebSecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/events/{id}").permitAll() // Allow public event detail viewing
                 .requestMatchers("/api/announcements/recent", "/api/announcements/active").permitAll() // Allow public announcements
                 .requestMatchers(HttpMethod.POST, "/api/users/verify-email").permitAll() // Allow email verification without authentication
+                .requestMatchers(HttpMethod.GET, "/api/calendar/feed/**").permitAll() // Calendar feeds authenticate with their URL token
                 // Admin endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/events").hasRole("ADMIN") // Allow admin to create events
@@ -0,0 +1,98 @@
+package com.example.restservice.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory state of one asynchronous broadcast. The job ID is the ID of the broadcast's history record,
+ * so a job can still be looked up from Firestore after it has been purged from memory or the server restarted.
+ */
+public class BroadcastJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final MessagingService.BroadcastResult result = new MessagingService.BroadcastResult();
+    private final long submittedAt = System.currentTimeMillis();
+    private volatile Status status = Status.QUEUED;
+    private volatile Long startedAt;
+    private volatile Long finishedAt;
+    private volatile String errorMessage;
+
+    public BroadcastJob(String id) {
+        this.id = id;
+    }
+
+    // A job known only from its history record, such as one repeated by an idempotent resubmission
+    BroadcastJob(String id, Status status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    void markRunning() {
+        startedAt = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    void markCompleted() {
+        finishedAt = System.currentTimeMillis();
+        status = Status.COMPLETED;
+    }
+
+    void markFailed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finishedAt = System.currentTimeMillis();
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public MessagingService.BroadcastResult getResult() {
+        return result;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    // Per-channel sent/skipped/failed counts so far
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("totalRecipients", result.getTotalRecipients());
+        progress.put("inbox", channelProgress(result.getInboxSent(), result.getInboxSkipped(), result.getInboxFailed()));
+        progress.put("email", channelProgress(result.getEmailSent(), result.getEmailSkipped(), result.getEmailFailed()));
+        progress.put("sms", channelProgress(result.getSmsSent(), result.getSmsSkipped(), result.getSmsFailed()));
+        return progress;
+    }
+
+    static Map<String, Integer> channelProgress(int sent, int skipped, int failed) {
+        return Map.of("sent", sent, "skipped", skipped, "failed", failed);
+    }
+}
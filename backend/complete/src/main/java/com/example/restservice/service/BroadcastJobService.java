@@ -0,0 +1,437 @@
+package com.example.restservice.service;
+
+import com.example.restservice.config.BoundedExecutor;
+import com.example.restservice.model.firestore.BroadcastHistoryFirestore;
+import com.example.restservice.model.firestore.OutboxTaskFirestore;
+import com.example.restservice.model.firestore.UserFirestore;
+import com.example.restservice.payload.request.BroadcastMessageRequest;
+import com.example.restservice.repository.firestore.BroadcastHistoryFirestoreRepository;
+import com.example.restservice.repository.firestore.DeliveryOutboxRepository;
+import com.example.restservice.repository.firestore.UserFirestoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Runs admin broadcasts as background jobs on a dedicated worker pool. A history record is written when the
+ * job is submitted (its ID doubles as the job ID) and finalized with the delivery counts when the job ends.
+ * With the delivery outbox enabled a job only resolves recipients and queues their deliveries; it completes
+ * once {@link DeliveryOutboxDispatcher} has settled every queued task, even across a restart.
+ */
+@Service
+public class BroadcastJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastJobService.class);
+
+    @Autowired
+    private MessagingService messagingService;
+
+    @Autowired
+    private BroadcastHistoryFirestoreRepository broadcastHistoryRepository;
+
+    @Autowired
+    private UserFirestoreRepository userRepository;
+
+    @Autowired
+    private DeliveryOutboxRepository outboxRepository;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
+    @Value("${app.broadcast.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    // Failed deliveries copied onto a finished history record; the outbox keeps the rest
+    private static final int MAX_REPORTED_FAILURES = 500;
+
+    private final Map<String, BroadcastJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    @Qualifier("broadcastExecutor")
+    private BoundedExecutor workers;
+
+    /**
+     * Validates the request, records it as QUEUED and schedules delivery. Throws IllegalArgumentException
+     * for an invalid request; recipient resolution errors are reported through the job instead. A repeated
+     * idempotency key from the same initiator returns the job it first created rather than sending again.
+     * Throws RejectedExecutionException, and keeps no record, when too many broadcasts are already queued.
+     */
+    public BroadcastJob submit(BroadcastMessageRequest request, String initiatedBy, String initiatorFirebaseUid,
+                               String idempotencyKey) throws ExecutionException, InterruptedException {
+        messagingService.validateRequest(request);
+
+        BroadcastHistoryFirestore history = buildHistory(request, initiatedBy, initiatorFirebaseUid);
+        history.setStatus(BroadcastJob.Status.QUEUED.name());
+
+        if (StringUtils.hasText(idempotencyKey)) {
+            String scopedKey = initiatorFirebaseUid + ":" + idempotencyKey.trim();
+            history.setId(UUID.nameUUIDFromBytes(scopedKey.getBytes(StandardCharsets.UTF_8)).toString());
+            if (!broadcastHistoryRepository.createIfAbsent(history)) {
+                logger.info("Broadcast {} already submitted with this idempotency key", history.getId());
+                return existingJob(history.getId());
+            }
+        } else {
+            broadcastHistoryRepository.save(history);
+        }
+
+        BroadcastJob job = new BroadcastJob(history.getId());
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(() -> run(job, request, initiatedBy, history));
+        } catch (RejectedExecutionException e) {
+            // Forget the submission so a retry with the same idempotency key is accepted later
+            jobs.remove(job.getId());
+            broadcastHistoryRepository.deleteById(history.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    private BroadcastJob existingJob(String jobId) throws ExecutionException, InterruptedException {
+        BroadcastJob job = jobs.get(jobId);
+        if (job != null) {
+            return job;
+        }
+        BroadcastHistoryFirestore history = broadcastHistoryRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalStateException("Broadcast " + jobId + " disappeared"));
+        return new BroadcastJob(jobId, history.getStatus() != null
+                ? BroadcastJob.Status.valueOf(history.getStatus())
+                : BroadcastJob.Status.COMPLETED);
+    }
+
+    public Optional<BroadcastJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Progress for a job that is still held in memory, or the state recorded on its history record. While an
+     * outbox broadcast is RUNNING its sent and failed counts are read from the outbox, so every instance
+     * reports the same progress whichever one queued it.
+     */
+    public Optional<Map<String, Object>> getStatus(String jobId) throws ExecutionException, InterruptedException {
+        BroadcastJob job = jobs.get(jobId);
+        if (job != null) {
+            Map<String, Object> status = new HashMap<>(job.getProgress());
+            status.put("jobId", job.getId());
+            status.put("status", job.getStatus().name());
+            status.put("submittedAt", job.getSubmittedAt());
+            status.put("startedAt", job.getStartedAt());
+            status.put("finishedAt", job.getFinishedAt());
+            status.put("error", job.getErrorMessage());
+            if (outboxEnabled && job.getStatus() == BroadcastJob.Status.RUNNING) {
+                MessagingService.BroadcastResult result = job.getResult();
+                putOutboxProgress(status, jobId, result.getInboxSkipped(), result.getEmailSkipped(), result.getSmsSkipped());
+            }
+            return Optional.of(status);
+        }
+
+        return broadcastHistoryRepository.findById(jobId).map(history -> {
+            Map<String, Object> status = new HashMap<>();
+            status.put("jobId", history.getId());
+            // Records written before broadcasts became jobs have no status; they were sent synchronously
+            status.put("status", history.getStatus() != null ? history.getStatus() : BroadcastJob.Status.COMPLETED.name());
+            status.put("submittedAt", history.getCreatedTimestamp());
+            status.put("finishedAt", history.getCompletedTimestamp());
+            status.put("error", history.getErrorMessage());
+            status.put("totalRecipients", history.getTotalRecipients());
+            status.put("inbox", BroadcastJob.channelProgress(history.getInboxSent(), history.getInboxSkipped(), history.getInboxFailed()));
+            status.put("email", BroadcastJob.channelProgress(history.getEmailSent(), history.getEmailSkipped(), history.getEmailFailed()));
+            status.put("sms", BroadcastJob.channelProgress(history.getSmsSent(), history.getSmsSkipped(), history.getSmsFailed()));
+            return status;
+        }).map(status -> {
+            if (outboxEnabled && BroadcastJob.Status.RUNNING.name().equals(status.get("status"))) {
+                putOutboxProgress(status, jobId, skipped(status, "inbox"), skipped(status, "email"), skipped(status, "sms"));
+            }
+            return status;
+        });
+    }
+
+    // Skips are only known to the instance that planned the broadcast, which records them before it goes RUNNING
+    private void putOutboxProgress(Map<String, Object> status, String broadcastId, int inboxSkipped, int emailSkipped,
+                                   int smsSkipped) {
+        try {
+            status.put("inbox", BroadcastJob.channelProgress(
+                    countTasks(broadcastId, DeliveryEngine.INBOX, OutboxTaskFirestore.STATUS_SENT), inboxSkipped,
+                    countTasks(broadcastId, DeliveryEngine.INBOX, OutboxTaskFirestore.STATUS_FAILED)));
+            status.put("email", BroadcastJob.channelProgress(
+                    countTasks(broadcastId, DeliveryEngine.EMAIL, OutboxTaskFirestore.STATUS_SENT), emailSkipped,
+                    countTasks(broadcastId, DeliveryEngine.EMAIL, OutboxTaskFirestore.STATUS_FAILED)));
+            status.put("sms", BroadcastJob.channelProgress(
+                    countTasks(broadcastId, DeliveryEngine.SMS, OutboxTaskFirestore.STATUS_SENT), smsSkipped,
+                    countTasks(broadcastId, DeliveryEngine.SMS, OutboxTaskFirestore.STATUS_FAILED)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            // The recorded counts are still a valid, if stale, answer
+            logger.warn("Failed to read outbox progress of broadcast {}: {}", broadcastId, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int skipped(Map<String, Object> status, String channel) {
+        return ((Map<String, Integer>) status.get(channel)).get("skipped");
+    }
+
+    // Finished jobs stay queryable from memory for a while, then only through their history record
+    @Scheduled(fixedDelayString = "${app.broadcast.job-purge-ms:600000}")
+    public void purgeFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - jobRetentionMinutes * 60 * 1000;
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt() < cutoff);
+    }
+
+    /**
+     * Picks up broadcasts interrupted by a restart. QUEUED ones are planned again (their outbox tasks are
+     * keyed by broadcast, so nothing already queued is queued twice); RUNNING ones only wait on the outbox.
+     * Without the outbox their progress is gone, so they are marked failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedBroadcasts() {
+        try {
+            for (BroadcastHistoryFirestore history : broadcastHistoryRepository.findByStatus(BroadcastJob.Status.QUEUED.name())) {
+                if (!outboxEnabled) {
+                    markInterrupted(history);
+                    continue;
+                }
+                logger.info("Resuming queued broadcast {}", history.getId());
+                BroadcastJob job = new BroadcastJob(history.getId());
+                jobs.put(job.getId(), job);
+                try {
+                    workers.execute(() -> run(job, toRequest(history), history.getInitiatedBy(), history));
+                } catch (RejectedExecutionException e) {
+                    // Still QUEUED, so the next restart picks it up
+                    jobs.remove(job.getId());
+                    logger.warn("Broadcast queue full, leaving {} for the next restart", history.getId());
+                }
+            }
+            for (BroadcastHistoryFirestore history : broadcastHistoryRepository.findByStatus(BroadcastJob.Status.RUNNING.name())) {
+                if (outboxEnabled) {
+                    checkCompletion(history.getId());
+                } else {
+                    markInterrupted(history);
+                }
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            logger.error("Failed to resume unfinished broadcasts: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Completes a RUNNING broadcast once none of its outbox tasks are left open, taking the sent and failed
+     * counts from the outbox and keeping the skips recorded when it was queued.
+     */
+    public void checkCompletion(String broadcastId) {
+        try {
+            if (outboxRepository.countOpen(broadcastId) > 0) {
+                return;
+            }
+            Optional<BroadcastHistoryFirestore> stored = broadcastHistoryRepository.findById(broadcastId);
+            if (stored.isEmpty() || !BroadcastJob.Status.RUNNING.name().equals(stored.get().getStatus())) {
+                return;
+            }
+            BroadcastHistoryFirestore history = stored.get();
+
+            history.setInboxSent(countTasks(broadcastId, DeliveryEngine.INBOX, OutboxTaskFirestore.STATUS_SENT));
+            history.setInboxFailed(countTasks(broadcastId, DeliveryEngine.INBOX, OutboxTaskFirestore.STATUS_FAILED));
+            history.setEmailSent(countTasks(broadcastId, DeliveryEngine.EMAIL, OutboxTaskFirestore.STATUS_SENT));
+            history.setEmailFailed(countTasks(broadcastId, DeliveryEngine.EMAIL, OutboxTaskFirestore.STATUS_FAILED));
+            history.setSmsSent(countTasks(broadcastId, DeliveryEngine.SMS, OutboxTaskFirestore.STATUS_SENT));
+            history.setSmsFailed(countTasks(broadcastId, DeliveryEngine.SMS, OutboxTaskFirestore.STATUS_FAILED));
+
+            List<Map<String, Object>> failures = new ArrayList<>();
+            if (history.getFailures() != null) {
+                failures.addAll(history.getFailures());
+            }
+            for (OutboxTaskFirestore task : outboxRepository.findFailed(broadcastId, MAX_REPORTED_FAILURES)) {
+                failures.add(failureMap(task.getChannel(), failureReason(task), task.recipientSnapshot()));
+            }
+            history.setFailures(failures);
+
+            BroadcastJob job = jobs.get(broadcastId);
+            if (job != null) {
+                job.markCompleted();
+                history.setCompletedTimestamp(job.getFinishedAt());
+            } else {
+                history.setCompletedTimestamp(System.currentTimeMillis());
+            }
+            history.setStatus(BroadcastJob.Status.COMPLETED.name());
+            broadcastHistoryRepository.save(history);
+            logger.info("Broadcast {} finished delivering through the outbox", broadcastId);
+        } catch (ExecutionException | InterruptedException e) {
+            logger.error("Failed to check completion of broadcast {}: {}", broadcastId, e.getMessage());
+        }
+    }
+
+    private int countTasks(String broadcastId, String channel, String status) throws ExecutionException, InterruptedException {
+        return (int) outboxRepository.countByStatus(broadcastId, channel, status);
+    }
+
+    private static String failureReason(OutboxTaskFirestore task) {
+        return "Delivery failed after " + task.getAttempts() + " attempt(s): " + task.getLastError();
+    }
+
+    private void run(BroadcastJob job, BroadcastMessageRequest request, String initiatedBy, BroadcastHistoryFirestore history) {
+        job.markRunning();
+        try {
+            if (outboxEnabled) {
+                messagingService.enqueueBroadcast(request, initiatedBy, job.getId(), job.getResult());
+                // Records the skips and marks the history RUNNING; the dispatcher takes it from here
+                finalizeHistory(history, job);
+                checkCompletion(job.getId());
+                return;
+            }
+            messagingService.broadcast(request, initiatedBy, job.getResult());
+            job.markCompleted();
+        } catch (IllegalArgumentException e) {
+            job.markFailed(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Broadcast job {} failed", job.getId(), e);
+            if (outboxEnabled && partlyQueued(job.getId())) {
+                // What was queued is delivered regardless, so the job finishes with the outbox and reports the gap
+                job.getResult().addGlobalWarning("Only some recipients were queued before an error: " + e.getMessage());
+                finalizeHistory(history, job);
+                checkCompletion(job.getId());
+                return;
+            }
+            job.markFailed("Failed to broadcast messages: " + e.getMessage());
+        }
+        finalizeHistory(history, job);
+        logger.info("Broadcast job {} finished with status {}", job.getId(), job.getStatus());
+    }
+
+    private boolean partlyQueued(String broadcastId) {
+        try {
+            return outboxRepository.hasTasks(broadcastId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("Failed to check queued deliveries of broadcast {}: {}", broadcastId, e.getMessage());
+        }
+        // Unknown, so leave it to the outbox; with nothing queued the next completion check closes it
+        return true;
+    }
+
+    private void markInterrupted(BroadcastHistoryFirestore history) {
+        history.setStatus(BroadcastJob.Status.FAILED.name());
+        history.setErrorMessage("Interrupted by a server restart before delivery finished");
+        history.setCompletedTimestamp(System.currentTimeMillis());
+        try {
+            broadcastHistoryRepository.save(history);
+        } catch (ExecutionException | InterruptedException e) {
+            logger.error("Failed to mark broadcast {} as interrupted: {}", history.getId(), e.getMessage());
+        }
+    }
+
+    private BroadcastMessageRequest toRequest(BroadcastHistoryFirestore history) {
+        BroadcastMessageRequest request = new BroadcastMessageRequest();
+        request.setSubject(history.getSubject());
+        request.setMessage(history.getMessage());
+        request.setDeliveryChannels(history.getRequestedChannels() != null
+                ? new ArrayList<>(history.getRequestedChannels())
+                : new ArrayList<>());
+        request.setCategories(history.getCategories());
+        request.setDirectEmails(history.getDirectEmails());
+        request.setDirectPhoneNumbers(history.getDirectPhoneNumbers());
+        request.setSelectedRecipients(history.getSelectedRecipients());
+        request.setOverrideOptOuts(history.isOverrideOptOuts());
+        return request;
+    }
+
+    private void finalizeHistory(BroadcastHistoryFirestore history, BroadcastJob job) {
+        MessagingService.BroadcastResult result = job.getResult();
+        history.setStatus(job.getStatus().name());
+        history.setErrorMessage(job.getErrorMessage());
+        history.setCompletedTimestamp(job.getFinishedAt());
+        history.setRequestedChannels(result.getRequestedChannels());
+
+        history.setTotalRecipients(result.getTotalRecipients());
+        history.setInboxSent(result.getInboxSent());
+        history.setInboxSkipped(result.getInboxSkipped());
+        history.setInboxFailed(result.getInboxFailed());
+        history.setEmailSent(result.getEmailSent());
+        history.setEmailSkipped(result.getEmailSkipped());
+        history.setEmailFailed(result.getEmailFailed());
+        history.setSmsSent(result.getSmsSent());
+        history.setSmsSkipped(result.getSmsSkipped());
+        history.setSmsFailed(result.getSmsFailed());
+
+        history.setCategoryCounts(result.getCategoryCounts());
+        history.setWarnings(List.copyOf(result.getGlobalWarnings()));
+
+        // Convert failures to serializable format
+        List<Map<String, Object>> failuresList;
+        synchronized (result.getFailures()) {
+            failuresList = result.getFailures().stream()
+                .map(failure -> failureMap(failure.getChannel(), failure.getReason(), failure.getRecipient()))
+                .collect(Collectors.toList());
+        }
+        history.setFailures(failuresList);
+
+        try {
+            broadcastHistoryRepository.save(history);
+        } catch (Exception e) {
+            logger.error("Failed to finalize broadcast history {}: {}", history.getId(), e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> failureMap(String channel, String reason, Map<String, String> recipient) {
+        Map<String, Object> failureMap = new HashMap<>();
+        failureMap.put("channel", channel);
+        failureMap.put("reason", reason);
+        failureMap.put("recipient", recipient);
+        return failureMap;
+    }
+
+    private BroadcastHistoryFirestore buildHistory(BroadcastMessageRequest request, String initiatedBy, String initiatorFirebaseUid) {
+        BroadcastHistoryFirestore history = new BroadcastHistoryFirestore();
+        history.setInitiatorFirebaseUid(initiatorFirebaseUid);
+        history.setInitiatedBy(initiatedBy);
+
+        // Get initiator name
+        try {
+            Optional<UserFirestore> initiatorOpt = initiatorFirebaseUid != null
+                    ? userRepository.findByFirebaseUid(initiatorFirebaseUid)
+                    : Optional.empty();
+            if (initiatorOpt.isPresent()) {
+                UserFirestore initiator = initiatorOpt.get();
+                history.setInitiatorName(initiator.getFirstName() + " " + initiator.getLastName());
+            } else {
+                history.setInitiatorName("Kids in Motion Admin");
+            }
+        } catch (Exception e) {
+            history.setInitiatorName("Kids in Motion Admin");
+        }
+
+        history.setSubject(request.getSubject());
+        history.setMessage(request.getMessage());
+        history.setCategories(request.getCategories());
+        history.setDirectEmails(request.getDirectEmails());
+        history.setDirectPhoneNumbers(request.getDirectPhoneNumbers());
+        history.setSelectedRecipients(request.getSelectedRecipients());
+        history.setOverrideOptOuts(request.isOverrideOptOuts());
+        // The raw channel selection, so a queued broadcast can be planned again after a restart
+        history.setRequestedChannels(request.getDeliveryChannels() != null
+                ? new LinkedHashSet<>(request.getDeliveryChannels())
+                : null);
+        return history;
+    }
+}
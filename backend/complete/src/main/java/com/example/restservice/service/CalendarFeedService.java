@@ -0,0 +1,128 @@
+package com.example.restservice.service;
+
+import com.example.restservice.model.firestore.EventFirestore;
+import com.example.restservice.model.firestore.ParticipantFirestore;
+import com.example.restservice.model.firestore.VolunteerFirestore;
+import com.example.restservice.repository.firestore.CalendarFeedTokenRepository;
+import com.example.restservice.repository.firestore.EventCatalog;
+import com.example.restservice.repository.firestore.ParticipantFirestoreRepository;
+import com.example.restservice.repository.firestore.VolunteerFirestoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Per-user subscribable calendar: every event the user has a child registered for or is volunteering at.
+ * Feeds are looked up by secret token, since calendar clients cannot send the user's ID token. The ETag is
+ * derived from the feed's event IDs and versions, so an unchanged feed is answered with a 304 without
+ * rendering, and a changed one is assembled from the cached VEVENT blocks.
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final String CALENDAR_NAME = "Kids in Motion";
+    private static final String CANCELLED = "CANCELLED";
+
+    @Autowired
+    private CalendarFeedTokenRepository tokenRepository;
+
+    @Autowired
+    private ParticipantFirestoreRepository participantRepository;
+
+    @Autowired
+    private VolunteerFirestoreRepository volunteerRepository;
+
+    @Autowired
+    private EventCatalog eventCatalog;
+
+    @Autowired
+    private CalendarInviteService calendarInviteService;
+
+    public String getOrIssueToken(String userId) throws ExecutionException, InterruptedException {
+        Optional<String> existing = tokenRepository.findTokenByUserId(userId);
+        return existing.isPresent() ? existing.get() : tokenRepository.issue(userId);
+    }
+
+    public String reissueToken(String userId) throws ExecutionException, InterruptedException {
+        return tokenRepository.issue(userId);
+    }
+
+    // Empty when the token is unknown or has been replaced
+    public Optional<Feed> resolveFeed(String token) throws ExecutionException, InterruptedException {
+        Optional<String> userId = tokenRepository.findUserIdByToken(token);
+        if (userId.isEmpty()) {
+            return Optional.empty();
+        }
+
+        CompletableFuture<List<ParticipantFirestore>> registrations = participantRepository.findByParentUserIdAsync(userId.get());
+        CompletableFuture<List<VolunteerFirestore>> signUps = volunteerRepository.findByUserIdAsync(userId.get());
+
+        Set<String> eventIds = new HashSet<>();
+        for (ParticipantFirestore participant : registrations.get()) {
+            if (!CANCELLED.equalsIgnoreCase(participant.getStatus())) {
+                eventIds.add(participant.getEventId());
+            }
+        }
+        for (VolunteerFirestore volunteer : signUps.get()) {
+            if (!CANCELLED.equalsIgnoreCase(volunteer.getStatus())) {
+                eventIds.add(volunteer.getEventId());
+            }
+        }
+
+        // The catalog is already in date order
+        List<EventFirestore> events = new ArrayList<>();
+        for (EventFirestore event : eventCatalog.findAll()) {
+            if (eventIds.contains(event.getId())) {
+                events.add(event);
+            }
+        }
+        return Optional.of(new Feed(events, etagFor(events)));
+    }
+
+    public String render(Feed feed) {
+        return calendarInviteService.generateFeed(feed.getEvents(), CALENDAR_NAME);
+    }
+
+    private static String etagFor(List<EventFirestore> events) {
+        StringBuilder versions = new StringBuilder();
+        for (EventFirestore event : events) {
+            versions.append(event.getId()).append('@').append(event.getUpdatedTimestamp()).append(';');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(versions.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash).substring(0, 32) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class Feed {
+        private final List<EventFirestore> events;
+        private final String etag;
+
+        public Feed(List<EventFirestore> events, String etag) {
+            this.events = events;
+            this.etag = etag;
+        }
+
+        public List<EventFirestore> getEvents() {
+            return events;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
@@ -5,12 +5,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class CalendarInviteService {
@@ -18,6 +22,10 @@ public class CalendarInviteService {
     private static final Logger logger = LoggerFactory.getLogger(CalendarInviteService.class);
     private static final DateTimeFormatter ICAL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
     private static final ZoneId TIMEZONE = ZoneId.of("America/New_York"); // Eastern Time for Pennsylvania
+    private static final String END_VEVENT = "END:VEVENT\r\n";
+
+    // Rendered VEVENT blocks by event ID, each tagged with the event version it was rendered from
+    private final Map<String, CachedEvent> eventBlocks = new ConcurrentHashMap<>();
 
     public String generateICalInvite(EventFirestore event, String participantName) {
         if (event == null) {
@@ -26,88 +34,137 @@ public class CalendarInviteService {
         }
 
         try {
-            StringBuilder ical = new StringBuilder();
-
-            // ICS header
-            ical.append("BEGIN:VCALENDAR\r\n");
-            ical.append("VERSION:2.0\r\n");
-            ical.append("PRODID:-//Kids in Motion//Event Management//EN\r\n");
-            ical.append("METHOD:REQUEST\r\n");
-            ical.append("CALSCALE:GREGORIAN\r\n");
-
-            // Event details
-            ical.append("BEGIN:VEVENT\r\n");
-            ical.append("UID:").append(generateUID(event.getId())).append("\r\n");
-            ical.append("DTSTAMP:").append(formatDateTimeForICal(LocalDateTime.now())).append("\r\n");
-
-            // Parse event date and times
-            LocalDate eventDate = parseEventDate(event.getDate());
-            LocalTime startTime = parseEventTime(event.getStartTime());
-            LocalTime endTime = parseEventTime(event.getEndTime());
-
-            if (eventDate != null) {
-                if (startTime != null) {
-                    LocalDateTime startDateTime = LocalDateTime.of(eventDate, startTime);
-                    ical.append("DTSTART:").append(formatDateTimeForICal(startDateTime)).append("\r\n");
-
-                    if (endTime != null) {
-                        LocalDateTime endDateTime = LocalDateTime.of(eventDate, endTime);
-                        ical.append("DTEND:").append(formatDateTimeForICal(endDateTime)).append("\r\n");
-                    } else {
-                        // Default to 2 hours if no end time
-                        LocalDateTime endDateTime = startDateTime.plusHours(2);
-                        ical.append("DTEND:").append(formatDateTimeForICal(endDateTime)).append("\r\n");
-                    }
-                } else {
-                    // All-day event if no start time
-                    ical.append("DTSTART;VALUE=DATE:").append(eventDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"))).append("\r\n");
-                    ical.append("DTEND;VALUE=DATE:").append(eventDate.plusDays(1).format(DateTimeFormatter.ofPattern("yyyyMMdd"))).append("\r\n");
-                }
+            String block = renderEvent(event);
+            if (participantName != null && !participantName.trim().isEmpty()) {
+                // Attendee (participant) - the only per-recipient line, added to a copy of the shared block
+                String attendee = "ATTENDEE;CN=" + escapeICalText(participantName)
+                        + ";RSVP=TRUE;PARTSTAT=NEEDS-ACTION:mailto:participant@kidsinmotionpa.org\r\n";
+                block = block.substring(0, block.length() - END_VEVENT.length()) + attendee + END_VEVENT;
             }
+            return calendarHeader("REQUEST", null) + block + "END:VCALENDAR\r\n";
 
-            // Event details
-            ical.append("SUMMARY:").append(escapeICalText(event.getName())).append("\r\n");
+        } catch (Exception e) {
+            logger.error("Error generating calendar invite for event {}: {}", event.getId(), e.getMessage());
+            return null;
+        }
+    }
 
-            if (event.getDescription() != null && !event.getDescription().trim().isEmpty()) {
-                ical.append("DESCRIPTION:").append(escapeICalText(event.getDescription())).append("\r\n");
+    /**
+     * A subscribable calendar (METHOD:PUBLISH) holding the given events, assembled from the cached blocks.
+     */
+    public String generateFeed(List<EventFirestore> events, String calendarName) {
+        StringBuilder ical = new StringBuilder(calendarHeader("PUBLISH", calendarName));
+        for (EventFirestore event : events) {
+            try {
+                ical.append(renderEvent(event));
+            } catch (Exception e) {
+                logger.error("Error rendering event {} for calendar feed: {}", event.getId(), e.getMessage());
             }
+        }
+        ical.append("END:VCALENDAR\r\n");
+        return ical.toString();
+    }
 
-            if (event.getLocation() != null && !event.getLocation().trim().isEmpty()) {
-                ical.append("LOCATION:").append(escapeICalText(event.getLocation())).append("\r\n");
-            }
+    /**
+     * The event's VEVENT block. Blocks are cached by event ID and re-rendered only when the event's update
+     * timestamp changes; DTSTAMP is that timestamp, so a cached block is identical to a fresh render.
+     */
+    public String renderEvent(EventFirestore event) {
+        Long version = event.getUpdatedTimestamp();
+        if (event.getId() == null || version == null) {
+            return buildEventBlock(event, version);
+        }
+        CachedEvent cached = eventBlocks.get(event.getId());
+        if (cached != null && cached.version == version) {
+            return cached.block;
+        }
+        String block = buildEventBlock(event, version);
+        eventBlocks.put(event.getId(), new CachedEvent(version, block));
+        return block;
+    }
 
-            // Status and priority
-            ical.append("STATUS:CONFIRMED\r\n");
-            ical.append("PRIORITY:5\r\n");
+    // Called when the event is deleted, so its block does not outlive it
+    public void evict(String eventId) {
+        eventBlocks.remove(eventId);
+    }
 
-            // Organizer
-            ical.append("ORGANIZER;CN=Kids in Motion:mailto:info@kidsinmotionpa.org\r\n");
+    private String calendarHeader(String method, String calendarName) {
+        StringBuilder ical = new StringBuilder();
+        ical.append("BEGIN:VCALENDAR\r\n");
+        ical.append("VERSION:2.0\r\n");
+        ical.append("PRODID:-//Kids in Motion//Event Management//EN\r\n");
+        ical.append("METHOD:").append(method).append("\r\n");
+        ical.append("CALSCALE:GREGORIAN\r\n");
+        if (calendarName != null) {
+            ical.append("X-WR-CALNAME:").append(escapeICalText(calendarName)).append("\r\n");
+        }
+        return ical.toString();
+    }
 
-            // Attendee (participant)
-            if (participantName != null && !participantName.trim().isEmpty()) {
-                ical.append("ATTENDEE;CN=").append(escapeICalText(participantName))
-                      .append(";RSVP=TRUE;PARTSTAT=NEEDS-ACTION:mailto:participant@kidsinmotionpa.org\r\n");
+    private String buildEventBlock(EventFirestore event, Long version) {
+        StringBuilder ical = new StringBuilder();
+
+        // Event details
+        ical.append("BEGIN:VEVENT\r\n");
+        ical.append("UID:").append(generateUID(event.getId())).append("\r\n");
+        LocalDateTime stamp = version != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(version), TIMEZONE)
+                : LocalDateTime.now();
+        ical.append("DTSTAMP:").append(formatDateTimeForICal(stamp)).append("\r\n");
+
+        // Parse event date and times
+        LocalDate eventDate = parseEventDate(event.getDate());
+        LocalTime startTime = parseEventTime(event.getStartTime());
+        LocalTime endTime = parseEventTime(event.getEndTime());
+
+        if (eventDate != null) {
+            if (startTime != null) {
+                LocalDateTime startDateTime = LocalDateTime.of(eventDate, startTime);
+                ical.append("DTSTART:").append(formatDateTimeForICal(startDateTime)).append("\r\n");
+
+                if (endTime != null) {
+                    LocalDateTime endDateTime = LocalDateTime.of(eventDate, endTime);
+                    ical.append("DTEND:").append(formatDateTimeForICal(endDateTime)).append("\r\n");
+                } else {
+                    // Default to 2 hours if no end time
+                    LocalDateTime endDateTime = startDateTime.plusHours(2);
+                    ical.append("DTEND:").append(formatDateTimeForICal(endDateTime)).append("\r\n");
+                }
+            } else {
+                // All-day event if no start time
+                ical.append("DTSTART;VALUE=DATE:").append(eventDate.format(DateTimeFormatter.ofPattern("yyyyMMdd"))).append("\r\n");
+                ical.append("DTEND;VALUE=DATE:").append(eventDate.plusDays(1).format(DateTimeFormatter.ofPattern("yyyyMMdd"))).append("\r\n");
             }
+        }
 
-            // Categories
-            ical.append("CATEGORIES:Kids in Motion Event");
-            if (event.getAgeGroup() != null && !event.getAgeGroup().trim().isEmpty()) {
-                ical.append(",").append(escapeICalText(event.getAgeGroup()));
-            }
-            ical.append("\r\n");
+        // Event details
+        ical.append("SUMMARY:").append(escapeICalText(event.getName())).append("\r\n");
 
-            // End event
-            ical.append("END:VEVENT\r\n");
+        if (event.getDescription() != null && !event.getDescription().trim().isEmpty()) {
+            ical.append("DESCRIPTION:").append(escapeICalText(event.getDescription())).append("\r\n");
+        }
 
-            // End calendar
-            ical.append("END:VCALENDAR\r\n");
+        if (event.getLocation() != null && !event.getLocation().trim().isEmpty()) {
+            ical.append("LOCATION:").append(escapeICalText(event.getLocation())).append("\r\n");
+        }
 
-            return ical.toString();
+        // Status and priority
+        ical.append("STATUS:CONFIRMED\r\n");
+        ical.append("PRIORITY:5\r\n");
 
-        } catch (Exception e) {
-            logger.error("Error generating calendar invite for event {}: {}", event.getId(), e.getMessage());
-            return null;
+        // Organizer
+        ical.append("ORGANIZER;CN=Kids in Motion:mailto:info@kidsinmotionpa.org\r\n");
+
+        // Categories
+        ical.append("CATEGORIES:Kids in Motion Event");
+        if (event.getAgeGroup() != null && !event.getAgeGroup().trim().isEmpty()) {
+            ical.append(",").append(escapeICalText(event.getAgeGroup()));
         }
+        ical.append("\r\n");
+
+        // End event
+        ical.append(END_VEVENT);
+        return ical.toString();
     }
 
     public String generateBase64ICalInvite(EventFirestore event, String participantName) {
@@ -162,4 +219,14 @@ public class CalendarInviteService {
                   .replace("\n", "\\n")
                   .replace("\r", "");
     }
-}
\ No newline at end of file
+
+    private static class CachedEvent {
+        private final long version;
+        private final String block;
+
+        private CachedEvent(long version, String block) {
+            this.version = version;
+            this.block = block;
+        }
+    }
+}
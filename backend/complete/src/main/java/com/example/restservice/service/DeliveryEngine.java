@@ -0,0 +1,119 @@
+package com.example.restservice.service;
+
+import com.example.restservice.config.BoundedExecutor;
+import com.example.restservice.config.MonitoredExecutor;
+import com.example.restservice.config.MonitoredExecutorOwner;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Fans broadcast deliveries out across recipients with a separate bounded pool per channel, so a slow
+ * provider only limits its own channel and each provider sees at most its configured number of concurrent
+ * requests. Work is grouped into a {@link Batch} that the caller waits on once everything is submitted.
+ * SMS is paced by {@link SmsDispatchQueue} instead; its futures are tracked by the same batch. Each pool's
+ * queue is bounded and runs overflow on the submitting job thread, which slows that job to the provider's pace.
+ */
+@Component
+public class DeliveryEngine implements MonitoredExecutorOwner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryEngine.class);
+
+    public static final String INBOX = "inbox";
+    public static final String EMAIL = "email";
+    public static final String SMS = "sms";
+
+    @Value("${app.broadcast.concurrency.inbox:16}")
+    private int inboxConcurrency;
+
+    @Value("${app.broadcast.concurrency.email:8}")
+    private int emailConcurrency;
+
+    @Value("${app.broadcast.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private final Map<String, BoundedExecutor> executors = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        start(Map.of(INBOX, inboxConcurrency, EMAIL, emailConcurrency));
+    }
+
+    void start(Map<String, Integer> concurrencyByChannel) {
+        concurrencyByChannel.forEach((channel, limit) -> executors.put(channel,
+                new BoundedExecutor("delivery-" + channel, limit, queueCapacity, BoundedExecutor.Rejection.CALLER_RUNS)));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+
+    @Override
+    public List<MonitoredExecutor> getExecutors() {
+        return new ArrayList<>(executors.values());
+    }
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Deliveries submitted by one broadcast. Not thread-safe: submit from a single thread, then await.
+     */
+    public class Batch {
+        private final List<Future<?>> pending = new ArrayList<>();
+
+        /**
+         * Queues a delivery on the channel's pool. {@code onError} records the delivery as failed if the task
+         * throws, so one bad recipient never aborts the rest of the broadcast.
+         */
+        public void submit(String channel, Runnable delivery, Consumer<Exception> onError) {
+            BoundedExecutor executor = executors.get(channel);
+            if (executor == null) {
+                throw new IllegalArgumentException("Unknown delivery channel: " + channel);
+            }
+            pending.add(executor.submit(() -> {
+                try {
+                    delivery.run();
+                } catch (Exception e) {
+                    logger.warn("Unexpected {} delivery error: {}", channel, e.getMessage());
+                    onError.accept(e);
+                }
+            }));
+        }
+
+        // Waits for work that runs elsewhere, such as queued SMS, along with the pooled deliveries
+        public void track(Future<?> future) {
+            pending.add(future);
+        }
+
+        public void awaitCompletion() throws InterruptedException {
+            try {
+                for (Future<?> future : pending) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // Tasks handle their own errors; only a failing onError callback can get here
+                        logger.error("Delivery task failed", e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                pending.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.restservice.service;
+
+import com.example.restservice.config.BoundedExecutor;
+import com.example.restservice.config.MonitoredExecutor;
+import com.example.restservice.config.MonitoredExecutorOwner;
+import com.example.restservice.model.firestore.OutboxPayloadFirestore;
+import com.example.restservice.model.firestore.OutboxTaskFirestore;
+import com.example.restservice.repository.firestore.DeliveryOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the delivery outbox. Each poll claims due tasks per channel under a lease, delivers them through the
+ * same pools and queues as direct broadcasts, and records the outcome: SENT, PENDING again with a backoff, or
+ * FAILED once attempts run out. Tasks claimed by an instance that dies become due again when their lease ends,
+ * so delivery resumes after a restart. Inbox writes are idempotent; email and SMS are at-least-once because
+ * neither provider deduplicates requests. SMS outcomes are final here, since {@link SmsDispatchQueue} already
+ * retries the failures that are safe to resend.
+ */
+@Component
+public class DeliveryOutboxDispatcher implements MonitoredExecutorOwner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryOutboxDispatcher.class);
+
+    private static final List<String> CHANNELS = List.of(DeliveryEngine.INBOX, DeliveryEngine.EMAIL, DeliveryEngine.SMS);
+
+    @Autowired
+    private DeliveryOutboxRepository outboxRepository;
+
+    @Autowired
+    private DeliveryEngine deliveryEngine;
+
+    @Autowired
+    private FirestoreService firestoreService;
+
+    @Autowired
+    private EmailDeliveryService emailDeliveryService;
+
+    @Autowired
+    private SmsDispatchQueue smsDispatchQueue;
+
+    @Autowired
+    private BroadcastJobService broadcastJobService;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.lease-seconds:600}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    // One drain per channel at a time, so a slow provider never holds up the other channels
+    private final Map<String, AtomicBoolean> draining = new HashMap<>();
+    private BoundedExecutor drainers;
+
+    @PostConstruct
+    public void start() {
+        CHANNELS.forEach(channel -> draining.put(channel, new AtomicBoolean()));
+        drainers = new BoundedExecutor("outbox-dispatch", CHANNELS.size(), CHANNELS.size(), BoundedExecutor.Rejection.ABORT);
+    }
+
+    @PreDestroy
+    public void stop() {
+        drainers.shutdownNow();
+    }
+
+    @Override
+    public List<MonitoredExecutor> getExecutors() {
+        return List.of(drainers);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:2000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        for (String channel : CHANNELS) {
+            AtomicBoolean busy = draining.get(channel);
+            // Never borrow the scheduler thread; a refused drain is simply retried on the next poll
+            if (busy.compareAndSet(false, true) && !drainers.tryExecute(() -> {
+                try {
+                    drain(channel);
+                } finally {
+                    busy.set(false);
+                }
+            })) {
+                busy.set(false);
+            }
+        }
+    }
+
+    // Keeps claiming until the channel has nothing due, so a large broadcast does not wait a poll per batch
+    void drain(String channel) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int limit = claimLimit(channel);
+                List<OutboxTaskFirestore> tasks = outboxRepository.claimDue(channel, limit, leaseSeconds * 1000);
+                if (tasks.isEmpty()) {
+                    return;
+                }
+                deliver(channel, tasks);
+                // Outcomes for tasks whose lease was reclaimed meanwhile belong to the new holder
+                report(outboxRepository.saveOutcomes(tasks));
+                if (tasks.size() < limit) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            // Claimed tasks keep their lease and are retried once it expires
+            logger.error("Outbox {} dispatch failed: {}", channel, e.getMessage());
+        }
+    }
+
+    // SMS is paced, so a claim is capped at what the queue can send, retries included, in half the lease
+    private int claimLimit(String channel) {
+        if (!DeliveryEngine.SMS.equals(channel)) {
+            return batchSize;
+        }
+        return Math.min(batchSize, smsDispatchQueue.capacityWithin(leaseSeconds * 1000 / 2));
+    }
+
+    private void deliver(String channel, List<OutboxTaskFirestore> tasks) throws ExecutionException, InterruptedException {
+        Map<String, Optional<OutboxPayloadFirestore>> payloads = new HashMap<>();
+        Map<OutboxPayloadFirestore, List<OutboxTaskFirestore>> tasksByPayload = new LinkedHashMap<>();
+        for (OutboxTaskFirestore task : tasks) {
+            if (!payloads.containsKey(task.getPayloadId())) {
+                payloads.put(task.getPayloadId(), outboxRepository.findPayloadById(task.getPayloadId()));
+            }
+            Optional<OutboxPayloadFirestore> payload = payloads.get(task.getPayloadId());
+            if (payload.isEmpty()) {
+                fail(task, "Message content is no longer available", false);
+                continue;
+            }
+            tasksByPayload.computeIfAbsent(payload.get(), k -> new ArrayList<>()).add(task);
+        }
+
+        DeliveryEngine.Batch batch = deliveryEngine.newBatch();
+        tasksByPayload.forEach((payload, payloadTasks) -> {
+            switch (channel) {
+                case DeliveryEngine.INBOX -> submitInbox(batch, payload, payloadTasks);
+                case DeliveryEngine.EMAIL -> submitEmail(batch, payload, payloadTasks);
+                default -> payloadTasks.forEach(task -> submitSms(batch, task, payload));
+            }
+        });
+        batch.awaitCompletion();
+    }
+
+    private void submitInbox(DeliveryEngine.Batch batch, OutboxPayloadFirestore payload, List<OutboxTaskFirestore> tasks) {
+        List<OutboxTaskFirestore> pointers = new ArrayList<>();
+        List<OutboxTaskFirestore> copies = new ArrayList<>();
+        for (OutboxTaskFirestore task : tasks) {
+            (task.getBroadcastId() != null ? pointers : copies).add(task);
+        }
+        if (!pointers.isEmpty()) {
+            batch.submit(DeliveryEngine.INBOX,
+                    () -> deliverInboxPointers(pointers, payload),
+                    e -> pointers.forEach(task -> retry(task, "Unexpected delivery error: " + e.getMessage())));
+        }
+        if (!copies.isEmpty()) {
+            batch.submit(DeliveryEngine.INBOX,
+                    () -> deliverInboxCopies(copies, payload),
+                    e -> copies.forEach(task -> retry(task, "Unexpected delivery error: " + e.getMessage())));
+        }
+    }
+
+    // Broadcasts store their body once under the broadcast ID and give each recipient a pointer to it. The body
+    // is rewritten (unchanged) per claimed batch so a retry never points at a body that was not stored.
+    private void deliverInboxPointers(List<OutboxTaskFirestore> tasks, OutboxPayloadFirestore payload) {
+        String broadcastId = tasks.get(0).getBroadcastId();
+        if (firestoreService.saveBroadcastMessage(broadcastId, payload.getInboxMessage()) == null) {
+            tasks.forEach(task -> retry(task, "Failed to persist message to inbox (service disabled or error)"));
+            return;
+        }
+
+        String timestamp = payload.getInboxMessage() != null ? (String) payload.getInboxMessage().get("timestamp") : null;
+        List<String> userIds = new ArrayList<>();
+        tasks.forEach(task -> userIds.add(task.getRecipientUid()));
+        Set<String> failed = new HashSet<>(firestoreService.saveBroadcastPointers(broadcastId, timestamp, userIds));
+        for (OutboxTaskFirestore task : tasks) {
+            if (failed.contains(task.getRecipientUid())) {
+                retry(task, "Failed to persist message to inbox (service disabled or error)");
+            } else {
+                succeed(task);
+            }
+        }
+    }
+
+    // Personalized messages (registrations, event updates) get their own inbox entry, written in batches
+    private void deliverInboxCopies(List<OutboxTaskFirestore> tasks, OutboxPayloadFirestore payload) {
+        Map<FirestoreService.InboxWrite, OutboxTaskFirestore> writes = new IdentityHashMap<>();
+        for (OutboxTaskFirestore task : tasks) {
+            Map<String, Object> message = applySubstitutions(payload.getInboxMessage(), task.getSubstitutions());
+            message.put("recipientEmail", task.getRecipientEmail());
+            message.put("recipientDisplayName", task.getRecipientName());
+            // The task ID is the inbox document ID, so a retried write replaces rather than duplicates
+            writes.put(new FirestoreService.InboxWrite(task.getRecipientUid(), task.getId(), message), task);
+        }
+
+        Set<FirestoreService.InboxWrite> failed = new HashSet<>(firestoreService.saveMessages(new ArrayList<>(writes.keySet())));
+        writes.forEach((write, task) -> {
+            if (failed.contains(write)) {
+                retry(task, "Failed to persist message to inbox (service disabled or error)");
+            } else {
+                succeed(task);
+            }
+        });
+    }
+
+    /**
+     * Copies the message template with each substitution tag replaced in its text fields, the inbox
+     * counterpart of the email provider's per-recipient substitutions.
+     */
+    static Map<String, Object> applySubstitutions(Map<String, Object> template, Map<String, String> substitutions) {
+        Map<String, Object> message = template != null ? new HashMap<>(template) : new HashMap<>();
+        if (substitutions == null || substitutions.isEmpty()) {
+            return message;
+        }
+        message.replaceAll((field, value) -> {
+            if (!(value instanceof String)) {
+                return value;
+            }
+            String text = (String) value;
+            for (Map.Entry<String, String> substitution : substitutions.entrySet()) {
+                text = text.replace(substitution.getKey(), substitution.getValue());
+            }
+            return text;
+        });
+        return message;
+    }
+
+    private void submitEmail(DeliveryEngine.Batch batch, OutboxPayloadFirestore payload, List<OutboxTaskFirestore> tasks) {
+        for (int start = 0; start < tasks.size(); start += EmailDeliveryService.MAX_BATCH_SIZE) {
+            List<OutboxTaskFirestore> chunk = tasks.subList(start, Math.min(start + EmailDeliveryService.MAX_BATCH_SIZE, tasks.size()));
+            batch.submit(DeliveryEngine.EMAIL, () -> {
+                Map<EmailDeliveryService.BatchRecipient, OutboxTaskFirestore> recipients = new IdentityHashMap<>();
+                for (OutboxTaskFirestore task : chunk) {
+                    Map<String, String> substitutions = task.getSubstitutions() != null ? task.getSubstitutions() : Map.of();
+                    recipients.put(new EmailDeliveryService.BatchRecipient(task.getRecipientEmail(), substitutions), task);
+                }
+                Set<EmailDeliveryService.BatchRecipient> failed = new HashSet<>(emailDeliveryService.sendBatch(
+                        payload.getSubject(), payload.getEmailBody(), new ArrayList<>(recipients.keySet()),
+                        payload.getAttachmentContent(), payload.getAttachmentFilename(), payload.getAttachmentContentType()));
+                recipients.forEach((recipient, task) -> {
+                    if (recipient.isRejected()) {
+                        fail(task, "Email address rejected: " + task.getRecipientEmail(), false);
+                    } else if (failed.contains(recipient)) {
+                        retry(task, "Email provider reported a failure - check server logs");
+                    } else {
+                        succeed(task);
+                    }
+                });
+            }, e -> chunk.forEach(task -> retry(task, "Unexpected delivery error: " + e.getMessage())));
+        }
+    }
+
+    private void submitSms(DeliveryEngine.Batch batch, OutboxTaskFirestore task, OutboxPayloadFirestore payload) {
+        batch.track(smsDispatchQueue.submit(task.getRecipientPhone(), payload.getSmsBody()).thenAccept(result -> {
+            if (result.isDelivered()) {
+                succeed(task);
+                return;
+            }
+            String status = result.getStatusCode() != null ? " (HTTP " + result.getStatusCode() + ")" : "";
+            // The queue is the only retry layer for SMS: it has already retried whatever was safe to resend,
+            // and a Twilio create is not idempotent, so anything else may have been sent and is not retried here
+            fail(task, "SMS provider reported a failure" + status + " after " + result.getAttempts()
+                    + " attempt(s): " + result.getErrorMessage(), false);
+        }));
+    }
+
+    private void succeed(OutboxTaskFirestore task) {
+        task.setStatus(OutboxTaskFirestore.STATUS_SENT);
+        task.setNextAttemptAt(null);
+        task.setLastError(null);
+        task.setCompletedTimestamp(System.currentTimeMillis());
+    }
+
+    private void retry(OutboxTaskFirestore task, String error) {
+        fail(task, error, true);
+    }
+
+    // Schedules another attempt with exponential backoff, or gives up once attempts run out
+    private void fail(OutboxTaskFirestore task, String error, boolean retryable) {
+        task.setLastError(error);
+        if (retryable && task.getAttempts() < maxAttempts) {
+            long backoffMillis = initialBackoffSeconds * 1000 << Math.min(task.getAttempts() - 1, 10);
+            task.setStatus(OutboxTaskFirestore.STATUS_PENDING);
+            task.setNextAttemptAt(System.currentTimeMillis() + backoffMillis);
+            return;
+        }
+        task.setStatus(OutboxTaskFirestore.STATUS_FAILED);
+        task.setNextAttemptAt(null);
+        task.setCompletedTimestamp(System.currentTimeMillis());
+        logger.warn("Outbox {} delivery {} failed after {} attempt(s): {}",
+                task.getChannel(), task.getIdempotencyKey(), task.getAttempts(), error);
+    }
+
+    private void report(List<OutboxTaskFirestore> tasks) {
+        Set<String> broadcastIds = new LinkedHashSet<>();
+        for (OutboxTaskFirestore task : tasks) {
+            if (task.getBroadcastId() != null) {
+                broadcastIds.add(task.getBroadcastId());
+            }
+        }
+        broadcastIds.forEach(broadcastJobService::checkCompletion);
+    }
+}
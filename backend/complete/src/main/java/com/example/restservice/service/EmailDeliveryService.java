@@ -5,6 +5,7 @@ import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Attachments;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import com.sendgrid.helpers.mail.objects.Personalization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,12 +14,29 @@ import org.springframework.util.StringUtils;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Service
 public class EmailDeliveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailDeliveryService.class);
 
+    // SendGrid accepts at most 1,000 personalizations per mail/send request
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    // Replaced per recipient by SendGrid in batch sends
+    private static final String UNSUBSCRIBE_URL_TAG = "-unsubscribeUrl-";
+
+    // Loose shape check run before batching; SendGrid rejects the whole request for one malformed address
+    private static final Pattern EMAIL_ADDRESS = Pattern.compile("^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$");
+
+    // Extra requests one batch may spend splitting a rejected request to isolate the recipients SendGrid refuses
+    private static final int MAX_SPLIT_REQUESTS = 64;
+
     @Value("${app.messaging.email.enabled:false}")
     private boolean emailEnabled;
 
@@ -28,6 +46,9 @@ public class EmailDeliveryService {
     @Value("${sendgrid.api.key:}")
     private String sendGridApiKey;
 
+    // Shared client so requests reuse its pooled HTTP connections
+    private volatile SendGrid sendGrid;
+
     @PostConstruct
     public void validateConfiguration() {
         logger.info("=== EmailDeliveryService Configuration ===");
@@ -94,7 +115,7 @@ public class EmailDeliveryService {
 
             logger.debug("Preparing SendGrid request - Endpoint: mail/send, Method: POST");
 
-            SendGrid sg = new SendGrid(sendGridApiKey);
+            SendGrid sg = client();
             Request request = new Request();
             request.setMethod(Method.POST);
             request.setEndpoint("mail/send");
@@ -176,7 +197,7 @@ public class EmailDeliveryService {
 
             logger.debug("Preparing SendGrid request with attachment - Endpoint: mail/send, Method: POST");
 
-            SendGrid sg = new SendGrid(sendGridApiKey);
+            SendGrid sg = client();
             Request request = new Request();
             request.setMethod(Method.POST);
             request.setEndpoint("mail/send");
@@ -207,14 +228,160 @@ public class EmailDeliveryService {
         }
     }
 
+    /**
+     * Sends one message to many recipients, packing up to {@link #MAX_BATCH_SIZE} of them into each SendGrid
+     * request as separate personalizations so nobody sees the other addresses. Each recipient's substitutions
+     * replace their tags in the subject and body, and the unsubscribe link is filled in per address.
+     *
+     * Malformed addresses are rejected before any request. A request SendGrid rejects with a 4xx other than 429
+     * is split in half and each half resent, so one bad recipient only fails itself; recipients isolated that
+     * way, or rejected up front, are marked {@link BatchRecipient#isRejected() rejected} and will not succeed
+     * on a retry.
+     *
+     * @return the recipients that could not be sent to; empty when every request was accepted
+     */
+    public List<BatchRecipient> sendBatch(String subject, String body, List<BatchRecipient> recipients) {
+        return sendBatch(subject, body, recipients, null, null, null);
+    }
+
+    public List<BatchRecipient> sendBatch(String subject, String body, List<BatchRecipient> recipients,
+                                          String attachmentContent, String attachmentFilename, String contentType) {
+        List<BatchRecipient> failed = new ArrayList<>();
+        List<BatchRecipient> deliverable = new ArrayList<>();
+        for (BatchRecipient recipient : recipients) {
+            if (isValidAddress(recipient.getEmail())) {
+                deliverable.add(recipient);
+            } else {
+                recipient.markRejected();
+                failed.add(recipient);
+            }
+        }
+
+        if (!isEnabled()) {
+            logger.warn("Email delivery disabled or not configured - skipping batch of {} recipients", deliverable.size());
+            failed.addAll(deliverable);
+            return failed;
+        }
+
+        String htmlBody = buildHtmlEmail(subject, body, UNSUBSCRIBE_URL_TAG);
+        for (int start = 0; start < deliverable.size(); start += MAX_BATCH_SIZE) {
+            List<BatchRecipient> chunk = deliverable.subList(start, Math.min(start + MAX_BATCH_SIZE, deliverable.size()));
+            sendOrSplit(subject, body, htmlBody, chunk, attachmentContent, attachmentFilename, contentType,
+                    new AtomicInteger(MAX_SPLIT_REQUESTS), failed);
+        }
+        return failed;
+    }
+
+    static boolean isValidAddress(String email) {
+        return email != null && EMAIL_ADDRESS.matcher(email.trim()).matches();
+    }
+
+    private void sendOrSplit(String subject, String body, String htmlBody, List<BatchRecipient> recipients,
+                             String attachmentContent, String attachmentFilename, String contentType,
+                             AtomicInteger splitBudget, List<BatchRecipient> failed) {
+        int status = sendBatchRequest(subject, body, htmlBody, recipients, attachmentContent, attachmentFilename, contentType);
+        if (status >= 200 && status < 300) {
+            return;
+        }
+        // Throttling, server errors and I/O failures say nothing about individual recipients
+        if (status < 400 || status >= 500 || status == 429) {
+            failed.addAll(recipients);
+            return;
+        }
+        if (recipients.size() == 1) {
+            recipients.get(0).markRejected();
+            failed.add(recipients.get(0));
+            return;
+        }
+        if (splitBudget.addAndGet(-2) < 0) {
+            logger.warn("Stopped splitting rejected email batch; {} recipients left undelivered", recipients.size());
+            failed.addAll(recipients);
+            return;
+        }
+        int middle = recipients.size() / 2;
+        sendOrSplit(subject, body, htmlBody, recipients.subList(0, middle),
+                attachmentContent, attachmentFilename, contentType, splitBudget, failed);
+        sendOrSplit(subject, body, htmlBody, recipients.subList(middle, recipients.size()),
+                attachmentContent, attachmentFilename, contentType, splitBudget, failed);
+    }
+
+    // The HTTP status SendGrid answered with, or -1 when the request could not be made
+    private int sendBatchRequest(String subject, String body, String htmlBody, List<BatchRecipient> recipients,
+                                     String attachmentContent, String attachmentFilename, String contentType) {
+        try {
+            Mail mail = new Mail();
+            mail.setFrom(new Email(defaultFromAddress, "Kids in Motion"));
+            mail.setSubject(subject);
+            // SendGrid requires text/plain to come FIRST, then text/html
+            mail.addContent(new Content("text/plain", body));
+            mail.addContent(new Content("text/html", htmlBody));
+
+            for (BatchRecipient recipient : recipients) {
+                Personalization personalization = new Personalization();
+                personalization.addTo(new Email(recipient.getEmail()));
+                personalization.addSubstitution(UNSUBSCRIBE_URL_TAG, unsubscribeUrl(recipient.getEmail()));
+                recipient.getSubstitutions().forEach(personalization::addSubstitution);
+                mail.addPersonalization(personalization);
+            }
+
+            if (StringUtils.hasText(attachmentContent) && StringUtils.hasText(attachmentFilename)) {
+                Attachments attachment = new Attachments();
+                attachment.setContent(attachmentContent);
+                attachment.setType(contentType);
+                attachment.setFilename(attachmentFilename);
+                attachment.setDisposition("attachment");
+                mail.addAttachments(attachment);
+            }
+
+            Request request = new Request();
+            request.setMethod(Method.POST);
+            request.setEndpoint("mail/send");
+            request.setBody(mail.build());
+
+            Response response = client().api(request);
+            if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
+                logger.info("Batch email '{}' accepted by SendGrid for {} recipients", subject, recipients.size());
+            } else {
+                logger.error("SendGrid API error sending batch of {} recipients: HTTP {} - Response body: {}",
+                    recipients.size(), response.getStatusCode(), response.getBody());
+            }
+            return response.getStatusCode();
+        } catch (IOException ex) {
+            logger.error("Failed to send batch of {} emails via SendGrid - IOException: {}", recipients.size(), ex.getMessage(), ex);
+            return -1;
+        } catch (Exception ex) {
+            logger.error("Unexpected error sending batch of {} emails via SendGrid: {}", recipients.size(), ex.getMessage(), ex);
+            return -1;
+        }
+    }
+
+    private SendGrid client() {
+        SendGrid client = sendGrid;
+        if (client == null) {
+            synchronized (this) {
+                if (sendGrid == null) {
+                    sendGrid = new SendGrid(sendGridApiKey);
+                }
+                client = sendGrid;
+            }
+        }
+        return client;
+    }
+
     /**
      * Creates a professional HTML email template with Kids in Motion branding and unsubscribe functionality
      * Colors match website theme: Primary #2f506a (indigo-dye), Secondary #e64f50 (imperial-red), Background #ede9e7 (isabelline)
      */
     private String createHtmlEmailTemplate(String subject, String body, String toAddress) {
-        // Create unsubscribe mailto link
-        String unsubscribeUrl = "mailto:info@kidsinmotionpa.org?subject=Unsubscribe%20Request&body=Please%20unsubscribe%20" + java.net.URLEncoder.encode(toAddress, java.nio.charset.StandardCharsets.UTF_8) + "%20from%20all%20communications.";
+        return buildHtmlEmail(subject, body, unsubscribeUrl(toAddress));
+    }
 
+    // Create unsubscribe mailto link
+    private static String unsubscribeUrl(String toAddress) {
+        return "mailto:info@kidsinmotionpa.org?subject=Unsubscribe%20Request&body=Please%20unsubscribe%20" + java.net.URLEncoder.encode(toAddress, java.nio.charset.StandardCharsets.UTF_8) + "%20from%20all%20communications.";
+    }
+
+    private String buildHtmlEmail(String subject, String body, String unsubscribeUrl) {
         // Convert plain text body to HTML (preserve line breaks)
         String htmlBody = body.replace("\n", "<br>");
 
@@ -352,4 +519,36 @@ public class EmailDeliveryService {
             </html>
             """, subject, subject, htmlBody, unsubscribeUrl);
     }
+
+    public static class BatchRecipient {
+        private final String email;
+        private final Map<String, String> substitutions;
+        private volatile boolean rejected;
+
+        public BatchRecipient(String email) {
+            this(email, Map.of());
+        }
+
+        public BatchRecipient(String email, Map<String, String> substitutions) {
+            this.email = email;
+            this.substitutions = substitutions;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public Map<String, String> getSubstitutions() {
+            return substitutions;
+        }
+
+        // Set when the address is malformed or SendGrid refused it on its own; retrying will not help
+        public boolean isRejected() {
+            return rejected;
+        }
+
+        void markRejected() {
+            this.rejected = true;
+        }
+    }
 }
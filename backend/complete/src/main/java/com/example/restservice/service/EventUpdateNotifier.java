@@ -0,0 +1,599 @@
+package com.example.restservice.service;
+
+import com.example.restservice.config.BoundedExecutor;
+import com.example.restservice.config.InstrumentedScheduler;
+import com.example.restservice.model.firestore.EventFirestore;
+import com.example.restservice.model.firestore.OutboxPayloadFirestore;
+import com.example.restservice.model.firestore.OutboxTaskFirestore;
+import com.example.restservice.model.firestore.ParticipantFirestore;
+import com.example.restservice.model.firestore.PendingEventUpdateFirestore;
+import com.example.restservice.repository.firestore.DeliveryOutboxRepository;
+import com.example.restservice.repository.firestore.EventFirestoreRepository;
+import com.example.restservice.repository.firestore.ParticipantFirestoreRepository;
+import com.example.restservice.repository.firestore.PendingEventUpdateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notifies the families registered for an event when an admin changes it. The update endpoint only publishes
+ * the change: a background thread waits briefly so a burst of edits to one event collapses into a single
+ * notification, renders the email, inbox message and calendar invite once for that version of the event, and
+ * queues one email and one inbox task per participant on the delivery outbox. The outbox dispatcher sends
+ * them in batches, filling in each child's name. With the outbox disabled the batches are sent from here.
+ * Each waiting update is also recorded in Firestore before the endpoint returns, and a periodic sweep sends
+ * any whose instance stopped before it got to them.
+ */
+@Service
+public class EventUpdateNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventUpdateNotifier.class);
+
+    // Substitution tag for the child's name in batched event update emails and inbox messages
+    private static final String CHILD_NAME_TAG = "-childName-";
+    private static final String CHANGE_SEPARATOR = " → ";
+
+    @Autowired
+    private ParticipantFirestoreRepository participantRepository;
+
+    @Autowired
+    private CalendarInviteService calendarInviteService;
+
+    @Autowired
+    private EmailDeliveryService emailDeliveryService;
+
+    @Autowired
+    private FirestoreService firestoreService;
+
+    @Autowired
+    private DeliveryOutboxRepository outboxRepository;
+
+    @Autowired
+    private PendingEventUpdateRepository pendingUpdateRepository;
+
+    @Autowired
+    private EventFirestoreRepository eventRepository;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
+    @Value("${app.events.update-coalesce-ms:5000}")
+    private long coalesceMillis;
+
+    // How long past its due time a recorded update may sit before another instance takes it over
+    @Value("${app.events.update-recovery-grace-ms:60000}")
+    private long recoveryGraceMillis;
+
+    // Updates waiting out the coalescing delay, by event ID
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    // Waits out the coalescing delay on the shared scheduler, then renders and queues on the notification pool
+    @Autowired
+    @Qualifier("schedulingExecutor")
+    private InstrumentedScheduler scheduler;
+
+    @Autowired
+    @Qualifier("notificationExecutor")
+    private BoundedExecutor notificationExecutor;
+
+    // Updates still waiting out their delay are sent right away on a graceful shutdown
+    @PreDestroy
+    public void stop() {
+        new ArrayList<>(pending.keySet()).forEach(this::flush);
+    }
+
+    /**
+     * Records the change from {@code oldEvent} to {@code newEvent} for notification and returns right away.
+     * Returns the detected changes; nothing is sent when there are none.
+     */
+    public Map<String, String> publish(EventFirestore oldEvent, EventFirestore newEvent) {
+        Map<String, String> changes = detectEventChanges(oldEvent, newEvent);
+        if (changes.isEmpty() || newEvent.getId() == null) {
+            return changes;
+        }
+
+        long dueAt = System.currentTimeMillis() + coalesceMillis;
+        PendingUpdate update = pending.compute(newEvent.getId(), (eventId, existing) -> {
+            if (existing == null) {
+                scheduleHandOff(eventId);
+                return new PendingUpdate(newEvent, changes, dueAt);
+            }
+            existing.merge(newEvent, changes);
+            return existing;
+        });
+        record(newEvent.getId(), update);
+        return changes;
+    }
+
+    // Writes the update's current changes to Firestore, unless it has already been sent
+    private void record(String eventId, PendingUpdate update) {
+        synchronized (update) {
+            if (update.sent) {
+                return;
+            }
+            PendingEventUpdateFirestore marker = new PendingEventUpdateFirestore();
+            marker.setId(update.markerId);
+            marker.setEventId(eventId);
+            marker.setChanges(update.changes());
+            marker.setDueAt(update.dueAt);
+            try {
+                pendingUpdateRepository.save(marker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | RuntimeException e) {
+                // Still sent from memory; only a restart before then would lose it
+                logger.error("Failed to record pending update for event {}: {}", eventId, e.getMessage());
+            }
+        }
+    }
+
+    private void scheduleHandOff(String eventId) {
+        try {
+            scheduler.schedule(() -> handOff(eventId), coalesceMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Stays pending; the recovery sweep hands it off once it is overdue
+            logger.warn("Scheduler is full, update for event {} waits for the recovery sweep", eventId);
+        }
+    }
+
+    // Runs the flush on the notification pool. A full pool is retried after another delay rather than running
+    // the flush here, which would hold a scheduler thread (and the @Scheduled jobs behind it) for the whole send.
+    private void handOff(String eventId) {
+        if (!notificationExecutor.tryExecute(() -> flush(eventId))) {
+            logger.warn("Notification pool is full, retrying the update for event {} in {} ms", eventId, coalesceMillis);
+            scheduleHandOff(eventId);
+        }
+    }
+
+    private void flush(String eventId) {
+        PendingUpdate update = pending.remove(eventId);
+        if (update == null) {
+            return;
+        }
+
+        Map<String, String> changes = update.changes();
+        try {
+            // Empty when later edits put everything back the way it was
+            if (!changes.isEmpty()) {
+                // The saved event's version, so the rendered invite matches the cached calendar block
+                EventFirestore event = update.event();
+                Long version = event.getUpdatedTimestamp();
+                notifyParticipants(event, changes, version != null ? version : System.currentTimeMillis());
+            }
+            synchronized (update) {
+                update.sent = true;
+                pendingUpdateRepository.deleteById(update.markerId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            // The record stays behind, so the recovery sweep tries again
+            logger.error("Error sending event update notifications for event {}: {}", eventId, e.getMessage());
+        }
+    }
+
+    /**
+     * Sends updates recorded by an instance that stopped before sending them. Deliveries are keyed by event
+     * version, so if two instances pick up the same record the outbox still queues each message once.
+     */
+    @Scheduled(fixedDelayString = "${app.events.update-recovery-ms:60000}")
+    public void recoverPendingUpdates() {
+        try {
+            long cutoff = System.currentTimeMillis() - recoveryGraceMillis;
+            // Our own updates that missed their hand-off because the scheduler was full
+            pending.forEach((eventId, update) -> {
+                if (update.dueAt < cutoff) {
+                    handOff(eventId);
+                }
+            });
+            for (PendingEventUpdateFirestore marker : pendingUpdateRepository.findDueBefore(cutoff, 50)) {
+                boolean ours = pending.values().stream().anyMatch(update -> update.markerId.equals(marker.getId()));
+                if (!ours) {
+                    recover(marker);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            logger.error("Failed to recover pending event updates: {}", e.getMessage());
+        }
+    }
+
+    private void recover(PendingEventUpdateFirestore marker) throws ExecutionException, InterruptedException {
+        Optional<EventFirestore> event = eventRepository.findById(marker.getEventId());
+        if (event.isPresent() && marker.getChanges() != null && !marker.getChanges().isEmpty()) {
+            logger.info("Sending update for event {} left pending by another instance", marker.getEventId());
+            Long version = event.get().getUpdatedTimestamp();
+            notifyParticipants(event.get(), marker.getChanges(), version != null ? version : marker.getDueAt());
+        }
+        pendingUpdateRepository.deleteById(marker.getId());
+    }
+
+    private void notifyParticipants(EventFirestore event, Map<String, String> changes, long version)
+            throws ExecutionException, InterruptedException {
+        List<ParticipantFirestore> participants = participantRepository.findByEventId(event.getId());
+        if (participants.isEmpty()) {
+            return;
+        }
+        logger.info("Event {} updated with {} changes, notifying {} participants",
+                   event.getId(), changes.size(), participants.size());
+
+        // Rendered once for every participant; the child's name is substituted per recipient
+        OutboxPayloadFirestore payload = new OutboxPayloadFirestore();
+        payload.setId("event-update-" + event.getId() + "-" + version);
+        payload.setSubject("Event Update: " + event.getName());
+        payload.setEmailBody(buildEventUpdateEmail(event, changes, CHILD_NAME_TAG));
+        payload.setInboxMessage(buildEventUpdateInboxMessage(event, changes, CHILD_NAME_TAG));
+
+        if (shouldIncludeCalendarInvite(changes)) {
+            try {
+                // Attachments are shared by the whole batch, so the invite carries no attendee name
+                payload.setAttachmentContent(calendarInviteService.generateBase64ICalInvite(event, null));
+                payload.setAttachmentFilename(event.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_updated.ics");
+                payload.setAttachmentContentType("text/calendar");
+                payload.setEmailBody(payload.getEmailBody() + "\n\nA calendar invite is attached to this email to help you keep track of the updated event details.");
+            } catch (Exception calendarError) {
+                logger.warn("Failed to generate calendar invite for event {}, sending regular email: {}",
+                           event.getId(), calendarError.getMessage());
+            }
+        }
+
+        if (outboxEnabled) {
+            queue(payload, participants, event.getId(), version);
+        } else {
+            send(payload, participants);
+        }
+    }
+
+    private void queue(OutboxPayloadFirestore payload, List<ParticipantFirestore> participants, String eventId, long version)
+            throws ExecutionException, InterruptedException {
+        outboxRepository.savePayload(payload);
+
+        List<OutboxTaskFirestore> tasks = new ArrayList<>();
+        for (ParticipantFirestore participant : participants) {
+            String keyPrefix = "event-update:" + eventId + ":" + version + ":" + participant.getId() + ":";
+            if (participant.getParentUserEmail() != null && emailDeliveryService.isEnabled()) {
+                OutboxTaskFirestore task = updateTask(keyPrefix, payload, participant, DeliveryEngine.EMAIL);
+                task.setRecipientEmail(participant.getParentUserEmail());
+                tasks.add(task);
+            }
+            if (participant.getParentUserId() != null) {
+                OutboxTaskFirestore task = updateTask(keyPrefix, payload, participant, DeliveryEngine.INBOX);
+                task.setRecipientUid(participant.getParentUserId());
+                task.setRecipientEmail(participant.getParentUserEmail());
+                tasks.add(task);
+            }
+        }
+        int created = outboxRepository.enqueue(tasks);
+        logger.info("Queued {} event update deliveries for event {}", created, eventId);
+    }
+
+    private OutboxTaskFirestore updateTask(String keyPrefix, OutboxPayloadFirestore payload,
+                                           ParticipantFirestore participant, String channel) {
+        OutboxTaskFirestore task = new OutboxTaskFirestore();
+        task.setIdempotencyKey(keyPrefix + channel);
+        task.setSource("event-update");
+        task.setPayloadId(payload.getId());
+        task.setChannel(channel);
+        task.setRecipientName(participant.getParentUserFirstName());
+        task.setSubstitutions(childNameSubstitution(participant));
+        return task;
+    }
+
+    // Outbox disabled: one batched email request and batched inbox writes, no retries
+    private void send(OutboxPayloadFirestore payload, List<ParticipantFirestore> participants) {
+        List<EmailDeliveryService.BatchRecipient> emailRecipients = new ArrayList<>();
+        List<FirestoreService.InboxWrite> inboxWrites = new ArrayList<>();
+        for (ParticipantFirestore participant : participants) {
+            Map<String, String> substitutions = childNameSubstitution(participant);
+            if (participant.getParentUserEmail() != null && emailDeliveryService.isEnabled()) {
+                emailRecipients.add(new EmailDeliveryService.BatchRecipient(participant.getParentUserEmail(), substitutions));
+            }
+            if (participant.getParentUserId() != null) {
+                inboxWrites.add(new FirestoreService.InboxWrite(participant.getParentUserId(), null,
+                        DeliveryOutboxDispatcher.applySubstitutions(payload.getInboxMessage(), substitutions)));
+            }
+        }
+
+        int emailCount = 0;
+        if (!emailRecipients.isEmpty()) {
+            List<EmailDeliveryService.BatchRecipient> failed = emailDeliveryService.sendBatch(
+                payload.getSubject(), payload.getEmailBody(), emailRecipients,
+                payload.getAttachmentContent(), payload.getAttachmentFilename(), payload.getAttachmentContentType());
+            emailCount = emailRecipients.size() - failed.size();
+        }
+        int inboxCount = inboxWrites.size() - firestoreService.saveMessages(inboxWrites).size();
+
+        logger.info("Sent {} emails and {} inbox messages for event update", emailCount, inboxCount);
+    }
+
+    private static Map<String, String> childNameSubstitution(ParticipantFirestore participant) {
+        return Map.of(CHILD_NAME_TAG, participant.getChildName() != null ? participant.getChildName() : "your child");
+    }
+
+    // Helper methods for date/time formatting
+    private String formatEventDate(String dateString) {
+        if (dateString == null || dateString.trim().isEmpty()) {
+            return "TBD";
+        }
+        try {
+            LocalDate date = LocalDate.parse(dateString);
+            return date.format(DateTimeFormatter.ofPattern("MMMM d, yyyy"));
+        } catch (Exception e) {
+            logger.warn("Failed to parse date string: {}", dateString);
+            return "TBD";
+        }
+    }
+
+    private String formatEventTime(String timeString) {
+        if (timeString == null || timeString.trim().isEmpty()) {
+            return "TBD";
+        }
+        try {
+            LocalTime time = LocalTime.parse(timeString);
+            return time.format(DateTimeFormatter.ofPattern("h:mm a"));
+        } catch (Exception e) {
+            logger.warn("Failed to parse time string: {}", timeString);
+            return "TBD";
+        }
+    }
+
+    private String formatEventDateTime(String date, String startTime, String endTime) {
+        String formattedDate = formatEventDate(date);
+        String formattedStartTime = formatEventTime(startTime);
+        String formattedEndTime = formatEventTime(endTime);
+
+        if ("TBD".equals(formattedDate)) {
+            return "Date and time TBD";
+        }
+
+        StringBuilder result = new StringBuilder(formattedDate);
+
+        if (!"TBD".equals(formattedStartTime)) {
+            result.append(" from ").append(formattedStartTime);
+            if (!"TBD".equals(formattedEndTime)) {
+                result.append(" to ").append(formattedEndTime);
+            }
+        } else if (!"TBD".equals(formattedEndTime)) {
+            result.append(" until ").append(formattedEndTime);
+        }
+
+        return result.toString();
+    }
+
+    // Helper method to format age range
+    private String formatAgeRange(Integer minAge, Integer maxAge) {
+        if (minAge != null && maxAge != null) {
+            return "Ages " + minAge + "-" + maxAge;
+        } else if (minAge != null) {
+            return "Ages " + minAge + "+";
+        } else if (maxAge != null) {
+            return "Ages up to " + maxAge;
+        } else {
+            return "All Ages";
+        }
+    }
+
+    // Change detection method
+    private Map<String, String> detectEventChanges(EventFirestore oldEvent, EventFirestore newEvent) {
+        Map<String, String> changes = new HashMap<>();
+
+        // Compare key fields
+        if (!java.util.Objects.equals(oldEvent.getName(), newEvent.getName())) {
+            changes.put("name", oldEvent.getName() + " → " + newEvent.getName());
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getDate(), newEvent.getDate())) {
+            changes.put("date", formatEventDate(oldEvent.getDate()) + " → " + formatEventDate(newEvent.getDate()));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getStartTime(), newEvent.getStartTime())) {
+            changes.put("startTime", formatEventTime(oldEvent.getStartTime()) + " → " + formatEventTime(newEvent.getStartTime()));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getEndTime(), newEvent.getEndTime())) {
+            changes.put("endTime", formatEventTime(oldEvent.getEndTime()) + " → " + formatEventTime(newEvent.getEndTime()));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getLocation(), newEvent.getLocation())) {
+            changes.put("location", (oldEvent.getLocation() != null ? oldEvent.getLocation() : "TBD") + " → " + (newEvent.getLocation() != null ? newEvent.getLocation() : "TBD"));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getAgeGroup(), newEvent.getAgeGroup())) {
+            changes.put("ageGroup", (oldEvent.getAgeGroup() != null ? oldEvent.getAgeGroup() : "Not specified") + " → " + (newEvent.getAgeGroup() != null ? newEvent.getAgeGroup() : "Not specified"));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getPrice(), newEvent.getPrice())) {
+            changes.put("price", String.format("$%.2f → $%.2f", (oldEvent.getPrice() != null ? oldEvent.getPrice() : 0.0), (newEvent.getPrice() != null ? newEvent.getPrice() : 0.0)));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getCapacity(), newEvent.getCapacity())) {
+            changes.put("capacity", (oldEvent.getCapacity() != null ? oldEvent.getCapacity().toString() : "Unlimited") + " → " + (newEvent.getCapacity() != null ? newEvent.getCapacity().toString() : "Unlimited"));
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getMinAge(), newEvent.getMinAge()) || !java.util.Objects.equals(oldEvent.getMaxAge(), newEvent.getMaxAge())) {
+            String oldAgeRange = formatAgeRange(oldEvent.getMinAge(), oldEvent.getMaxAge());
+            String newAgeRange = formatAgeRange(newEvent.getMinAge(), newEvent.getMaxAge());
+            changes.put("ageRange", oldAgeRange + " → " + newAgeRange);
+        }
+
+        if (!java.util.Objects.equals(oldEvent.getTags(), newEvent.getTags())) {
+            String oldTags = oldEvent.getTags() != null && !oldEvent.getTags().trim().isEmpty() ? oldEvent.getTags() : "None";
+            String newTags = newEvent.getTags() != null && !newEvent.getTags().trim().isEmpty() ? newEvent.getTags() : "None";
+            changes.put("tags", oldTags + " → " + newTags);
+        }
+
+        return changes;
+    }
+
+    // Email builder method
+    private String buildEventUpdateEmail(EventFirestore event, Map<String, String> changes, String childName) {
+        StringBuilder emailBody = new StringBuilder();
+
+        emailBody.append("Dear Parent,\n\n");
+        emailBody.append("The event '").append(event.getName()).append("' that ").append(childName).append(" is registered for has been updated.\n\n");
+
+        emailBody.append("CHANGES MADE:\n");
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String fieldName = change.getKey();
+            String changeValue = change.getValue();
+
+            // Make field names more readable
+            switch (fieldName) {
+                case "startTime":
+                    fieldName = "Start Time";
+                    break;
+                case "endTime":
+                    fieldName = "End Time";
+                    break;
+                case "ageGroup":
+                    fieldName = "Age Group";
+                    break;
+                case "ageRange":
+                    fieldName = "Age Range";
+                    break;
+                case "tags":
+                    fieldName = "Tags";
+                    break;
+                default:
+                    fieldName = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+            }
+
+            emailBody.append("• ").append(fieldName).append(": ").append(changeValue).append("\n");
+        }
+
+        emailBody.append("\n");
+        emailBody.append("UPDATED EVENT DETAILS:\n");
+        emailBody.append("Event: ").append(event.getName()).append("\n");
+        emailBody.append("Date & Time: ").append(formatEventDateTime(event.getDate(), event.getStartTime(), event.getEndTime())).append("\n");
+
+        if (event.getLocation() != null && !event.getLocation().trim().isEmpty()) {
+            emailBody.append("Location: ").append(event.getLocation()).append("\n");
+        }
+
+        if (event.getAgeGroup() != null && !event.getAgeGroup().trim().isEmpty()) {
+            emailBody.append("Age Group: ").append(event.getAgeGroup()).append("\n");
+        }
+
+        if (event.getPrice() != null && event.getPrice() > 0) {
+            emailBody.append("Price: $").append(String.format("%.2f", event.getPrice())).append("\n");
+        }
+
+        emailBody.append("\n");
+        emailBody.append("If you have questions about these changes, please contact us.\n\n");
+        emailBody.append("Thank you,\n");
+        emailBody.append("Kids in Motion Team\n");
+        emailBody.append("Email: info@kidsinmotionpa.org");
+
+        return emailBody.toString();
+    }
+
+    // Inbox message builder method
+    private Map<String, Object> buildEventUpdateInboxMessage(EventFirestore event, Map<String, String> changes, String childName) {
+        Map<String, Object> message = new HashMap<>();
+
+        message.put("type", "event-update");
+        message.put("title", "Event Update: " + event.getName());
+
+        // Build short message with first 2-3 changes
+        StringBuilder shortMessage = new StringBuilder();
+        shortMessage.append("The event '").append(event.getName()).append("' has been updated for ").append(childName).append(". ");
+
+        int changeCount = 0;
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (changeCount >= 2) {
+                shortMessage.append("and more...");
+                break;
+            }
+            if (changeCount > 0) {
+                shortMessage.append(", ");
+            }
+            shortMessage.append(change.getKey()).append(" changed");
+            changeCount++;
+        }
+
+        shortMessage.append(". Check your email for full details.");
+
+        message.put("message", shortMessage.toString());
+        message.put("from", "Kids in Motion");
+        message.put("timestamp", LocalDateTime.now().toString());
+        message.put("read", false);
+        message.put("isSystem", true);
+        message.put("actionLink", "/dashboard");
+        message.put("actionText", "View Registrations");
+
+        return message;
+    }
+
+    // Helper method to determine if calendar invite should be included
+    private boolean shouldIncludeCalendarInvite(Map<String, String> changes) {
+        // Include calendar invite if date, start time, or end time changed
+        return changes.containsKey("date") ||
+               changes.containsKey("startTime") ||
+               changes.containsKey("endTime") ||
+               changes.containsKey("location");
+    }
+
+    // Changes to one event waiting to be sent; later edits fold into it
+    static class PendingUpdate {
+        private final String markerId = UUID.randomUUID().toString();
+        private final long dueAt;
+        private volatile EventFirestore event;
+        private final Map<String, String> changes;
+        private boolean sent; // Guarded by the update's monitor, with the Firestore record
+
+        PendingUpdate(EventFirestore event, Map<String, String> changes, long dueAt) {
+            this.event = event;
+            this.changes = new HashMap<>(changes);
+            this.dueAt = dueAt;
+        }
+
+        synchronized Map<String, String> changes() {
+            return new HashMap<>(changes);
+        }
+
+        EventFirestore event() {
+            return event;
+        }
+
+        // Keeps each field's original value and takes the newest one; a field changed back drops out
+        synchronized void merge(EventFirestore newer, Map<String, String> newerChanges) {
+            event = newer;
+            newerChanges.forEach((field, change) -> {
+                String earlier = changes.get(field);
+                if (earlier == null) {
+                    changes.put(field, change);
+                    return;
+                }
+                String from = earlier.split(CHANGE_SEPARATOR, 2)[0];
+                String[] latest = change.split(CHANGE_SEPARATOR, 2);
+                String to = latest.length > 1 ? latest[1] : change;
+                if (from.equals(to)) {
+                    changes.remove(field);
+                } else {
+                    changes.put(field, from + CHANGE_SEPARATOR + to);
+                }
+            });
+        }
+    }
+}
@@ -1,20 +1,30 @@
 package com.example.restservice.service;
 
 import com.example.restservice.model.VolunteerEmployee;
+import com.example.restservice.repository.firestore.CursorPage;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.WriteResult;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteBatch;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -28,6 +38,19 @@ public class FirestoreService {
 
     private static final String VOLUNTEER_APPLICATIONS_COLLECTION = "volunteerApplications";
 
+    // Broadcast bodies are stored once here; each recipient's inbox holds a small pointer document instead
+    private static final String BROADCAST_MESSAGES_COLLECTION = "broadcastMessages";
+    private static final int WRITE_BATCH_LIMIT = 500;
+
+    // Unread count per user, kept in step with inbox writes; repairUnreadCounters corrects any drift
+    private static final String INBOX_COUNTERS_COLLECTION = "inboxCounters";
+    private static final String UNREAD_FIELD = "unread";
+    private static final String REPAIRED_AT_FIELD = "repairedAt";
+
+    // Each pointer write also bumps the recipient's counter
+    private static final int POINTER_CHUNK_SIZE = WRITE_BATCH_LIMIT / 2;
+    private static final int INBOX_WRITE_CHUNK_SIZE = 200;
+
     public void syncVolunteerApplication(VolunteerEmployee volunteerEmployee) {
         if (!firebaseEnabled || firestore == null) {
             return;
@@ -62,11 +85,15 @@ public class FirestoreService {
             Map<String, Object> payload = messageData != null ? new HashMap<>(messageData) : new HashMap<>();
             payload.putIfAbsent("userId", userId);
             payload.putIfAbsent("timestamp", java.time.LocalDateTime.now().toString());
+            payload.putIfAbsent("read", false);
 
-            DocumentReference docRef = firestore.collection("users")
-                .document(userId)
-                .collection("messages")
-                .add(payload).get();
+            DocumentReference docRef = messagesOf(userId).document();
+            WriteBatch batch = firestore.batch();
+            batch.set(docRef, payload);
+            if (isUnread(payload)) {
+                incrementUnread(batch, userId, 1);
+            }
+            batch.commit().get();
 
             System.out.println("Saved message to Firestore user messages: users/" + userId + "/messages/" + docRef.getId());
             return true;
@@ -80,44 +107,225 @@ public class FirestoreService {
         }
     }
 
-    public List<Map<String, Object>> getUserMessages(String userId) {
+    /**
+     * Writes several inbox messages in transactions of up to 200, bumping each recipient's unread counter
+     * once. A write with a message ID overwrites that entry (so a retried outbox task never duplicates it);
+     * one without gets a generated ID. Returns the writes that failed.
+     */
+    public List<InboxWrite> saveMessages(List<InboxWrite> writes) {
         if (!firebaseEnabled || firestore == null) {
-            return new ArrayList<>();
+            System.out.println("Firestore messaging disabled - skipping " + writes.size() + " inbox writes");
+            return new ArrayList<>(writes);
         }
 
-        if (userId == null || userId.trim().isEmpty()) {
-            return new ArrayList<>();
+        List<InboxWrite> failed = new ArrayList<>();
+        for (int start = 0; start < writes.size(); start += INBOX_WRITE_CHUNK_SIZE) {
+            List<InboxWrite> chunk = writes.subList(start, Math.min(start + INBOX_WRITE_CHUNK_SIZE, writes.size()));
+            DocumentReference[] refs = new DocumentReference[chunk.size()];
+            List<Map<String, Object>> payloads = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                InboxWrite write = chunk.get(i);
+                refs[i] = write.getMessageId() != null
+                    ? messagesOf(write.getUserId()).document(write.getMessageId())
+                    : messagesOf(write.getUserId()).document();
+                Map<String, Object> payload = write.getData() != null ? new HashMap<>(write.getData()) : new HashMap<>();
+                payload.putIfAbsent("userId", write.getUserId());
+                payload.putIfAbsent("timestamp", java.time.LocalDateTime.now().toString());
+                payload.putIfAbsent("read", false);
+                payloads.add(payload);
+            }
+
+            try {
+                firestore.runTransaction(transaction -> {
+                    // Overwriting an entry only changes the count if its read state changes
+                    List<DocumentSnapshot> existing = transaction.getAll(refs).get();
+                    Map<String, Long> deltas = new HashMap<>();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        DocumentSnapshot previous = existing.get(i);
+                        long delta = (isUnread(payloads.get(i)) ? 1 : 0) - (previous.exists() && isUnread(previous.getData()) ? 1 : 0);
+                        deltas.merge(chunk.get(i).getUserId(), delta, Long::sum);
+                        transaction.set(refs[i], payloads.get(i));
+                    }
+                    deltas.forEach((userId, delta) -> {
+                        if (delta != 0) {
+                            incrementUnread(transaction, userId, delta);
+                        }
+                    });
+                    return null;
+                }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while saving inbox messages to Firestore: " + e.getMessage());
+                failed.addAll(writes.subList(start, writes.size()));
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("Failed to save inbox messages to Firestore: " + e.getMessage());
+                failed.addAll(chunk);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Stores the shared body of a broadcast inbox message. Pass null to generate an ID. Returns the ID, or null
+     * if the write failed.
+     */
+    public String saveBroadcastMessage(String broadcastId, Map<String, Object> messageData) {
+        if (!firebaseEnabled || firestore == null) {
+            System.out.println("Firestore messaging disabled - skipping broadcast message write");
+            return null;
         }
 
         try {
-            CollectionReference messagesRef = firestore.collection("users")
-                .document(userId)
-                .collection("messages");
-
-            List<QueryDocumentSnapshot> documents = messagesRef
-                .orderBy("timestamp", Query.Direction.DESCENDING)
-                .get()
-                .get()
-                .getDocuments();
-
-            List<Map<String, Object>> messages = new ArrayList<>();
-            for (QueryDocumentSnapshot doc : documents) {
-                Map<String, Object> messageData = new HashMap<>(doc.getData());
-                messageData.put("id", doc.getId());
-                messages.add(messageData);
+            DocumentReference docRef = broadcastId != null
+                ? firestore.collection(BROADCAST_MESSAGES_COLLECTION).document(broadcastId)
+                : firestore.collection(BROADCAST_MESSAGES_COLLECTION).document();
+            Map<String, Object> payload = messageData != null ? new HashMap<>(messageData) : new HashMap<>();
+            payload.putIfAbsent("timestamp", java.time.LocalDateTime.now().toString());
+            docRef.set(payload).get();
+            return docRef.getId();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while saving broadcast message to Firestore: " + e.getMessage());
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Failed to save broadcast message to Firestore: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Delivers a stored broadcast to each user's inbox as a pointer document, in transactions of up to 250
+     * users. The pointer's ID is the broadcast ID: users who already have it are left alone, so delivering
+     * twice neither duplicates the entry nor counts it as unread again. Returns the users whose pointer could
+     * not be written.
+     */
+    public List<String> saveBroadcastPointers(String broadcastId, String timestamp, Collection<String> userIds) {
+        List<String> pending = new ArrayList<>(new LinkedHashSet<>(userIds));
+        if (!firebaseEnabled || firestore == null) {
+            System.out.println("Firestore messaging disabled - skipping broadcast inbox pointers");
+            return pending;
+        }
+
+        String pointerTimestamp = timestamp != null ? timestamp : java.time.LocalDateTime.now().toString();
+        List<String> failed = new ArrayList<>();
+        for (int start = 0; start < pending.size(); start += POINTER_CHUNK_SIZE) {
+            List<String> chunk = pending.subList(start, Math.min(start + POINTER_CHUNK_SIZE, pending.size()));
+            DocumentReference[] refs = chunk.stream()
+                .map(userId -> messagesOf(userId).document(broadcastId))
+                .toArray(DocumentReference[]::new);
+            try {
+                firestore.runTransaction(transaction -> {
+                    List<DocumentSnapshot> existing = transaction.getAll(refs).get();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        if (existing.get(i).exists()) {
+                            continue;
+                        }
+                        Map<String, Object> pointer = new HashMap<>();
+                        pointer.put("broadcastId", broadcastId);
+                        pointer.put("userId", chunk.get(i));
+                        pointer.put("timestamp", pointerTimestamp);
+                        pointer.put("read", false);
+                        transaction.create(refs[i], pointer);
+                        incrementUnread(transaction, chunk.get(i), 1);
+                    }
+                    return null;
+                }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while saving broadcast inbox pointers: " + e.getMessage());
+                failed.addAll(pending.subList(start, pending.size()));
+                break;
+            } catch (ExecutionException e) {
+                System.err.println("Failed to save broadcast inbox pointers: " + e.getMessage());
+                failed.addAll(chunk);
             }
+        }
+        return failed;
+    }
 
-            return messages;
+    /**
+     * One page of the user's inbox, newest first. The cursor is the ID of the last message on the previous
+     * page; the returned page carries the cursor for the next one, or null when there are no more messages.
+     * A cursor whose message has been deleted is rejected with IllegalArgumentException.
+     */
+    public MessagePage getUserMessagesPage(String userId, int limit, String cursor) {
+        if (!firebaseEnabled || firestore == null || userId == null || userId.trim().isEmpty()) {
+            return new MessagePage(new ArrayList<>(), null);
+        }
+
+        try {
+            CollectionReference messagesRef = messagesOf(userId);
+            Query query = messagesRef.orderBy("timestamp", Query.Direction.DESCENDING);
+            if (cursor != null && !cursor.trim().isEmpty()) {
+                if (cursor.contains("/")) {
+                    throw new IllegalArgumentException("Invalid pagination cursor");
+                }
+                DocumentSnapshot after = messagesRef.document(cursor).get().get();
+                if (!after.exists()) {
+                    // The cursor message was deleted; the client starts again from the newest page
+                    throw new IllegalArgumentException(CursorPage.STALE_CURSOR_MESSAGE);
+                }
+                query = query.startAfter(after);
+            }
+
+            List<QueryDocumentSnapshot> documents = query.limit(limit).get().get().getDocuments();
+            String nextCursor = documents.size() == limit ? documents.get(documents.size() - 1).getId() : null;
+            return new MessagePage(resolveMessages(documents), nextCursor);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Interrupted while fetching messages from Firestore: " + e.getMessage());
-            return new ArrayList<>();
+            return new MessagePage(new ArrayList<>(), null);
         } catch (ExecutionException e) {
             System.err.println("Failed to fetch messages from Firestore: " + e.getMessage());
-            return new ArrayList<>();
+            return new MessagePage(new ArrayList<>(), null);
         }
     }
 
+    /**
+     * Expands broadcast pointers with their shared body; the pointer's own fields (read state, ID) win. Pointers
+     * whose broadcast was deleted are left out here and removed by the nightly repairUnreadCounters.
+     */
+    private List<Map<String, Object>> resolveMessages(List<? extends DocumentSnapshot> documents)
+            throws ExecutionException, InterruptedException {
+        Set<String> broadcastIds = new LinkedHashSet<>();
+        for (DocumentSnapshot doc : documents) {
+            Object broadcastId = doc.get("broadcastId");
+            if (broadcastId instanceof String) {
+                broadcastIds.add((String) broadcastId);
+            }
+        }
+
+        Map<String, Map<String, Object>> bodies = new HashMap<>();
+        if (!broadcastIds.isEmpty()) {
+            DocumentReference[] refs = broadcastIds.stream()
+                .map(id -> firestore.collection(BROADCAST_MESSAGES_COLLECTION).document(id))
+                .toArray(DocumentReference[]::new);
+            for (DocumentSnapshot body : firestore.getAll(refs).get()) {
+                if (body.exists()) {
+                    bodies.put(body.getId(), body.getData());
+                }
+            }
+        }
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+        for (DocumentSnapshot doc : documents) {
+            Map<String, Object> messageData = new HashMap<>();
+            Object broadcastId = doc.get("broadcastId");
+            if (broadcastId instanceof String) {
+                Map<String, Object> body = bodies.get(broadcastId);
+                if (body == null) {
+                    continue;
+                }
+                messageData.putAll(body);
+            }
+            messageData.putAll(doc.getData());
+            messageData.put("id", doc.getId());
+            messages.add(messageData);
+        }
+        return messages;
+    }
+
     public boolean markMessageAsRead(String userId, String messageId) {
         if (!firebaseEnabled || firestore == null) {
             return false;
@@ -128,17 +336,23 @@ public class FirestoreService {
         }
 
         try {
-            DocumentReference messageRef = firestore.collection("users")
-                .document(userId)
-                .collection("messages")
-                .document(messageId);
-
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("read", true);
-            updates.put("readAt", java.time.Instant.now().toEpochMilli());
-
-            messageRef.update(updates).get();
-            return true;
+            DocumentReference messageRef = messagesOf(userId).document(messageId);
+
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot message = transaction.get(messageRef).get();
+                if (!message.exists()) {
+                    return false;
+                }
+                // Marking an already-read message again leaves the counter alone
+                if (isUnread(message.getData())) {
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put("read", true);
+                    updates.put("readAt", java.time.Instant.now().toEpochMilli());
+                    transaction.update(messageRef, updates);
+                    incrementUnread(transaction, userId, -1);
+                }
+                return true;
+            }).get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             System.err.println("Interrupted while marking message as read: " + e.getMessage());
@@ -149,6 +363,168 @@ public class FirestoreService {
         }
     }
 
+    public boolean deleteMessage(String userId, String messageId) {
+        if (!firebaseEnabled || firestore == null) {
+            return false;
+        }
+
+        if (userId == null || userId.trim().isEmpty() || messageId == null || messageId.trim().isEmpty()) {
+            return false;
+        }
+
+        try {
+            DocumentReference messageRef = messagesOf(userId).document(messageId);
+
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot message = transaction.get(messageRef).get();
+                if (!message.exists()) {
+                    return false;
+                }
+                transaction.delete(messageRef);
+                if (isUnread(message.getData())) {
+                    incrementUnread(transaction, userId, -1);
+                }
+                return true;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while deleting message: " + e.getMessage());
+            return false;
+        } catch (ExecutionException e) {
+            System.err.println("Failed to delete message: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The user's unread message count, read from their counter document. A user without a counter yet (or
+     * whose counter predates counting) is counted once from the inbox itself.
+     */
+    public long getUnreadCount(String userId) {
+        if (!firebaseEnabled || firestore == null || userId == null || userId.trim().isEmpty()) {
+            return 0;
+        }
+
+        try {
+            DocumentSnapshot counter = firestore.collection(INBOX_COUNTERS_COLLECTION).document(userId).get().get();
+            Object unread = counter.get(UNREAD_FIELD);
+            if (counter.exists() && counter.contains(REPAIRED_AT_FIELD) && unread instanceof Number) {
+                return Math.max(0, ((Number) unread).longValue());
+            }
+            return repairUnreadCount(userId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while reading unread count: " + e.getMessage());
+            return 0;
+        } catch (ExecutionException e) {
+            System.err.println("Failed to read unread count: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Recounts from the inbox: messages without a read flag count as unread, as they always have. Every inbox
+     * write also writes the counter document, so reading it in the same transaction as the counts means a write
+     * landing in between retries the recount instead of being overwritten by it.
+     */
+    private long repairUnreadCount(String userId) throws ExecutionException, InterruptedException {
+        CollectionReference messagesRef = messagesOf(userId);
+        DocumentReference counterRef = firestore.collection(INBOX_COUNTERS_COLLECTION).document(userId);
+
+        return firestore.runTransaction(transaction -> {
+            transaction.get(counterRef).get();
+            long total = transaction.get(messagesRef.count()).get().getCount();
+            long read = transaction.get(messagesRef.whereEqualTo("read", true).count()).get().getCount();
+            long unread = Math.max(0, total - read);
+
+            Map<String, Object> counter = new HashMap<>();
+            counter.put(UNREAD_FIELD, unread);
+            counter.put(REPAIRED_AT_FIELD, System.currentTimeMillis());
+            transaction.set(counterRef, counter);
+            return unread;
+        }).get();
+    }
+
+    // Removes pointers whose broadcast body was deleted, through deleteMessage so they stop counting as unread
+    private void removeDanglingPointers(String userId, Map<String, Boolean> bodyExists)
+            throws ExecutionException, InterruptedException {
+        List<QueryDocumentSnapshot> pointers = messagesOf(userId)
+            .whereNotEqualTo("broadcastId", null)
+            .select("broadcastId")
+            .get().get().getDocuments();
+
+        Set<String> unknown = new LinkedHashSet<>();
+        for (DocumentSnapshot pointer : pointers) {
+            String broadcastId = pointer.getString("broadcastId");
+            if (broadcastId != null && !bodyExists.containsKey(broadcastId)) {
+                unknown.add(broadcastId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            DocumentReference[] refs = unknown.stream()
+                .map(id -> firestore.collection(BROADCAST_MESSAGES_COLLECTION).document(id))
+                .toArray(DocumentReference[]::new);
+            for (DocumentSnapshot body : firestore.getAll(refs).get()) {
+                bodyExists.put(body.getId(), body.exists());
+            }
+        }
+
+        for (DocumentSnapshot pointer : pointers) {
+            String broadcastId = pointer.getString("broadcastId");
+            if (broadcastId != null && !bodyExists.getOrDefault(broadcastId, true)) {
+                deleteMessage(userId, pointer.getId());
+            }
+        }
+    }
+
+    /**
+     * Recounts every maintained counter, first removing pointers to deleted broadcasts. Inbox changes only go
+     * through the backend, but counters can still drift when a write succeeds but its transaction result is lost.
+     */
+    @Scheduled(cron = "${app.inbox.counter-repair-cron:0 30 3 * * *}", zone = "America/New_York")
+    public void repairUnreadCounters() {
+        if (!firebaseEnabled || firestore == null) {
+            return;
+        }
+
+        int repaired = 0;
+        // Whether each broadcast body still exists, shared across users since most hold the same broadcasts
+        Map<String, Boolean> bodyExists = new HashMap<>();
+        try {
+            for (DocumentReference counterRef : firestore.collection(INBOX_COUNTERS_COLLECTION).listDocuments()) {
+                try {
+                    removeDanglingPointers(counterRef.getId(), bodyExists);
+                    repairUnreadCount(counterRef.getId());
+                    repaired++;
+                } catch (ExecutionException e) {
+                    System.err.println("Failed to repair unread count for user " + counterRef.getId() + ": " + e.getMessage());
+                }
+            }
+            System.out.println("Repaired " + repaired + " inbox unread counters");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while repairing unread counters after " + repaired + " users");
+        }
+    }
+
+    private CollectionReference messagesOf(String userId) {
+        return firestore.collection("users").document(userId).collection("messages");
+    }
+
+    private static boolean isUnread(Map<String, Object> message) {
+        return message == null || !Boolean.TRUE.equals(message.get("read"));
+    }
+
+    private void incrementUnread(WriteBatch batch, String userId, long delta) {
+        batch.set(firestore.collection(INBOX_COUNTERS_COLLECTION).document(userId),
+            Map.of(UNREAD_FIELD, FieldValue.increment(delta)), SetOptions.merge());
+    }
+
+    private void incrementUnread(Transaction transaction, String userId, long delta) {
+        transaction.set(firestore.collection(INBOX_COUNTERS_COLLECTION).document(userId),
+            Map.of(UNREAD_FIELD, FieldValue.increment(delta)), SetOptions.merge());
+    }
+
     private Map<String, Object> convertVolunteerToFirestoreData(VolunteerEmployee volunteer) {
         Map<String, Object> data = new HashMap<>();
 
@@ -181,4 +557,45 @@ public class FirestoreService {
         return data;
     }
 
+    public static class MessagePage {
+        private final List<Map<String, Object>> messages;
+        private final String nextCursor;
+
+        public MessagePage(List<Map<String, Object>> messages, String nextCursor) {
+            this.messages = messages;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Map<String, Object>> getMessages() {
+            return messages;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    public static class InboxWrite {
+        private final String userId;
+        private final String messageId;
+        private final Map<String, Object> data;
+
+        public InboxWrite(String userId, String messageId, Map<String, Object> data) {
+            this.userId = userId;
+            this.messageId = messageId;
+            this.data = data;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getMessageId() {
+            return messageId;
+        }
+
+        public Map<String, Object> getData() {
+            return data;
+        }
+    }
 }
@@ -1,10 +1,10 @@
 package com.example.restservice.service;
 
 // import com.example.restservice.model.Participant;
-import com.example.restservice.model.firestore.UserFirestore;
+import com.example.restservice.model.firestore.UserContact;
 // import com.example.restservice.model.VolunteerEmployee;
 // import com.example.restservice.repository.ParticipantRepository;
-import com.example.restservice.repository.firestore.UserFirestoreRepository;
+import com.example.restservice.repository.firestore.AudienceIndex;
 // import com.example.restservice.repository.VolunteerEmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,9 +25,9 @@ import java.util.stream.Collectors;
 @Service
 public class MessagingRecipientService {
 
-
+    // Audiences are read from memory; only event rosters still need a Firestore query
     @Autowired
-    private UserFirestoreRepository userRepository;
+    private AudienceIndex audienceIndex;
 
     @Autowired
     private com.example.restservice.repository.firestore.ParticipantFirestoreRepository participantRepository;
@@ -57,25 +57,23 @@ public class MessagingRecipientService {
             switch (category) {
                 case ALL_USERS -> {
                     try {
-                        userRepository.findAll().forEach(user -> upsertUserRecipient(user, category, recipients));
+                        audienceIndex.findAll().forEach(user -> upsertUserRecipient(user, category, recipients));
                     } catch (Exception e) {
                         throw new RuntimeException("Failed to fetch all users", e);
                     }
                 }
                 case PARENTS -> {
                     try {
-                        // Find users with PARENT userType
-                        userRepository.findByUserType("PARENT").forEach(user ->
-                            upsertUserRecipient(user, category, recipients));
+                        // Users with PARENT userType
+                        audienceIndex.findByUserType("PARENT").forEach(user -> upsertUserRecipient(user, category, recipients));
                     } catch (Exception e) {
                         throw new RuntimeException("Failed to fetch parent users by userType", e);
                     }
                 }
                 case VOLUNTEERS -> {
                     try {
-                        // Find users with VOLUNTEER userType
-                        userRepository.findByUserType("VOLUNTEER").forEach(user ->
-                            upsertUserRecipient(user, category, recipients));
+                        // Users with VOLUNTEER userType
+                        audienceIndex.findByUserType("VOLUNTEER").forEach(user -> upsertUserRecipient(user, category, recipients));
                     } catch (Exception e) {
                         throw new RuntimeException("Failed to fetch volunteer users by userType", e);
                     }
@@ -84,19 +82,15 @@ public class MessagingRecipientService {
                     if (eventId != null) {
                         try {
                             // Collect unique parent user IDs for this event first to avoid duplicate lookups
-                            Set<String> uniqueParentIds = participantRepository.findByEventId(eventId).stream()
+                            Set<String> uniqueParentIds = participantRepository.findSummariesByEventId(eventId).stream()
                                 .map(participant -> participant.getParentUserId())
                                 .filter(StringUtils::hasText)
                                 .collect(Collectors.toSet());
 
-                            // Batch lookup users by ID
-                            for (String parentUserId : uniqueParentIds) {
-                                try {
-                                    userRepository.findByFirebaseUid(parentUserId)
-                                        .ifPresent(user -> upsertUserRecipient(user, category, recipients));
-                                } catch (Exception e) {
-                                    // Skip this user if lookup fails
-                                }
+                            // Parents without an account are skipped
+                            for (String parentId : uniqueParentIds) {
+                                audienceIndex.findByFirebaseUid(parentId)
+                                    .ifPresent(user -> upsertUserRecipient(user, category, recipients));
                             }
                         } catch (Exception e) {
                             throw new RuntimeException("Failed to fetch parent users for event", e);
@@ -107,19 +101,14 @@ public class MessagingRecipientService {
                     if (eventId != null) {
                         try {
                             // Collect unique volunteer user IDs for this event first to avoid duplicate lookups
-                            Set<String> uniqueVolunteerIds = volunteerRepository.findByEventId(eventId).stream()
-                                .map(volunteer -> volunteer.getUserId())
+                            Set<String> uniqueVolunteerIds = volunteerRepository.findUserIdsByEventId(eventId).stream()
                                 .filter(StringUtils::hasText)
                                 .collect(Collectors.toSet());
 
-                            // Batch lookup users by ID
-                            for (String userId : uniqueVolunteerIds) {
-                                try {
-                                    userRepository.findByFirebaseUid(userId)
-                                        .ifPresent(user -> upsertUserRecipient(user, category, recipients));
-                                } catch (Exception e) {
-                                    // Skip this user if lookup fails
-                                }
+                            // Volunteers without an account are skipped
+                            for (String volunteerId : uniqueVolunteerIds) {
+                                audienceIndex.findByFirebaseUid(volunteerId)
+                                    .ifPresent(user -> upsertUserRecipient(user, category, recipients));
                             }
                         } catch (Exception e) {
                             throw new RuntimeException("Failed to fetch volunteer users for event", e);
@@ -145,7 +134,7 @@ public class MessagingRecipientService {
                             existing.addCategory(RecipientCategory.DIRECT_EMAILS);
                         } else {
                             try {
-                                userRepository.findByEmail(email)
+                                audienceIndex.findByEmail(email)
                                     .ifPresentOrElse(user -> {
                                         MessagingRecipient recipient = upsertUserRecipient(user, RecipientCategory.DIRECT_EMAILS, recipients);
                                         recipient.setIncludedByDirectEmail(true);
@@ -179,7 +168,7 @@ public class MessagingRecipientService {
                             existing.addCategory(RecipientCategory.DIRECT_PHONES);
                         } else {
                             try {
-                                userRepository.findByPhoneNumber(phone)
+                                audienceIndex.findByPhoneNumber(phone)
                                     .ifPresentOrElse(user -> {
                                         MessagingRecipient recipient = upsertUserRecipient(user, RecipientCategory.DIRECT_PHONES, recipients);
                                         recipient.setIncludedByDirectPhone(true);
@@ -221,7 +210,7 @@ public class MessagingRecipientService {
         return new RecipientResolutionResult(new ArrayList<>(recipients.values()), directEmailsWithoutAccounts, directPhoneNumbersWithoutAccounts, categoryCounts);
     }
 
-    private MessagingRecipient upsertUserRecipient(UserFirestore user, RecipientCategory category, Map<String, MessagingRecipient> recipients) {
+    private MessagingRecipient upsertUserRecipient(UserContact user, RecipientCategory category, Map<String, MessagingRecipient> recipients) {
         if (user == null) {
             return null;
         }
@@ -254,7 +243,7 @@ public class MessagingRecipientService {
         return recipient;
     }
 
-    private String buildUserKey(UserFirestore user) {
+    private String buildUserKey(UserContact user) {
         if (StringUtils.hasText(user.getFirebaseUid())) {
             return "uid:" + user.getFirebaseUid();
         }
@@ -287,7 +276,7 @@ public class MessagingRecipientService {
         return trimmed;
     }
 
-    private String buildDisplayName(UserFirestore user) {
+    private String buildDisplayName(UserContact user) {
         String first = user.getFirstName();
         String last = user.getLastName();
         if (StringUtils.hasText(first) || StringUtils.hasText(last)) {
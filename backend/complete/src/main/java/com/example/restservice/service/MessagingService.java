@@ -1,6 +1,9 @@
 package com.example.restservice.service;
 
+import com.example.restservice.model.firestore.OutboxPayloadFirestore;
+import com.example.restservice.model.firestore.OutboxTaskFirestore;
 import com.example.restservice.payload.request.BroadcastMessageRequest;
+import com.example.restservice.repository.firestore.DeliveryOutboxRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +16,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +31,9 @@ public class MessagingService {
 
     private static final Logger logger = LoggerFactory.getLogger(MessagingService.class);
 
+    // One Firestore write batch of inbox pointers
+    private static final int INBOX_POINTER_BATCH_SIZE = 500;
+
     @Autowired
     private MessagingRecipientService recipientService;
 
@@ -37,7 +46,104 @@ public class MessagingService {
     @Autowired
     private SmsDeliveryService smsDeliveryService;
 
+    @Autowired
+    private SmsDispatchQueue smsDispatchQueue;
+
+    @Autowired
+    private DeliveryEngine deliveryEngine;
+
+    @Autowired
+    private DeliveryOutboxRepository outboxRepository;
+
     public BroadcastResult broadcast(BroadcastMessageRequest request, String initiatedBy) {
+        return broadcast(request, initiatedBy, new BroadcastResult());
+    }
+
+    /**
+     * Delivers the broadcast, recording progress into the supplied result as it goes so a caller on
+     * another thread can report it while delivery is still running.
+     */
+    public BroadcastResult broadcast(BroadcastMessageRequest request, String initiatedBy, BroadcastResult result) {
+        DeliveryPlan plan = plan(request, initiatedBy, result);
+
+        // Deliveries run concurrently, bounded per channel by the delivery engine
+        DeliveryEngine.Batch batch = deliveryEngine.newBatch();
+        submitInboxPointers(batch, plan.inboxTemplate, plan.inboxRecipients, result);
+        submitEmailBatches(batch, plan.subject, plan.emailBody, plan.emails, result);
+        for (PlannedSms sms : plan.sms) {
+            submitSms(batch, sms.phoneNumber, plan.smsBody, sms.recipient, result);
+        }
+
+        try {
+            batch.awaitCompletion();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Broadcast interrupted before all deliveries finished", e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Resolves the broadcast like {@link #broadcast} but writes one outbox task per recipient and channel
+     * instead of delivering; {@link DeliveryOutboxDispatcher} sends them. Skips are recorded into the result
+     * right away. Task keys derive from the broadcast ID, so enqueueing the same broadcast twice sends nothing
+     * twice. Returns the number of tasks created.
+     */
+    public int enqueueBroadcast(BroadcastMessageRequest request, String initiatedBy, String broadcastId, BroadcastResult result)
+            throws ExecutionException, InterruptedException {
+        DeliveryPlan plan = plan(request, initiatedBy, result);
+
+        // One payload per broadcast, keyed by the broadcast so a re-enqueue overwrites rather than duplicates
+        OutboxPayloadFirestore payload = new OutboxPayloadFirestore();
+        payload.setId(broadcastId);
+        payload.setSubject(plan.subject);
+        payload.setEmailBody(plan.emailBody);
+        payload.setSmsBody(plan.smsBody);
+        payload.setInboxMessage(plan.inboxTemplate);
+        outboxRepository.savePayload(payload);
+
+        List<OutboxTaskFirestore> tasks = new ArrayList<>();
+        for (MessagingRecipient recipient : plan.inboxRecipients) {
+            OutboxTaskFirestore task = outboxTask(broadcastId, DeliveryEngine.INBOX, recipient.getFirebaseUid());
+            task.setRecipientUid(recipient.getFirebaseUid());
+            task.setRecipientEmail(recipient.getEmail());
+            task.setRecipientName(recipient.getDisplayName());
+            tasks.add(task);
+        }
+        plan.emails.forEach((batchRecipient, snapshot) -> {
+            OutboxTaskFirestore task = outboxTask(broadcastId, DeliveryEngine.EMAIL,
+                    batchRecipient.getEmail().trim().toLowerCase(Locale.ROOT));
+            task.setRecipientUid(snapshot.get("firebaseUid"));
+            task.setRecipientEmail(batchRecipient.getEmail());
+            task.setRecipientName(snapshot.get("displayName"));
+            tasks.add(task);
+        });
+        for (PlannedSms sms : plan.sms) {
+            OutboxTaskFirestore task = outboxTask(broadcastId, DeliveryEngine.SMS, sms.phoneNumber);
+            task.setRecipientUid(sms.recipient.get("firebaseUid"));
+            task.setRecipientPhone(sms.phoneNumber);
+            task.setRecipientName(sms.recipient.get("displayName"));
+            tasks.add(task);
+        }
+
+        int created = outboxRepository.enqueue(tasks);
+        logger.info("Queued {} outbox deliveries for broadcast {} ({} already queued)", created, broadcastId, tasks.size() - created);
+        return created;
+    }
+
+    private OutboxTaskFirestore outboxTask(String broadcastId, String channel, String recipientKey) {
+        OutboxTaskFirestore task = new OutboxTaskFirestore();
+        task.setIdempotencyKey(broadcastId + ":" + channel + ":" + recipientKey);
+        task.setSource("broadcast");
+        task.setBroadcastId(broadcastId);
+        task.setPayloadId(broadcastId);
+        task.setChannel(channel);
+        return task;
+    }
+
+    // Resolves recipients and content and records every skip; what is left is what gets delivered
+    private DeliveryPlan plan(BroadcastMessageRequest request, String initiatedBy, BroadcastResult result) {
         validateRequest(request);
 
         Set<String> channels = request.getDeliveryChannels() != null
@@ -112,7 +218,6 @@ public class MessagingService {
             throw new IllegalArgumentException("No recipients resolved for the provided criteria");
         }
 
-        BroadcastResult result = new BroadcastResult();
         int totalRecipientCount = recipients.size() + directEmailsWithoutAccounts.size() + directPhoneNumbersWithoutAccounts.size();
         logger.info("Broadcasting admin message '{}' to {} recipients ({} registered users + {} direct emails + {} direct phones) via channels {}",
                 request.getSubject(), totalRecipientCount, recipients.size(), directEmailsWithoutAccounts.size(), directPhoneNumbersWithoutAccounts.size(), channels);
@@ -129,38 +234,74 @@ public class MessagingService {
             result.addGlobalWarning("SMS delivery is disabled or not configured. No SMS messages were sent.");
         }
 
-        Map<String, Object> inboxTemplate = buildInboxTemplate(request, initiatedBy, channels);
-        String emailBody = buildEmailBody(request, initiatedBy);
-        String smsBody = buildSmsBody(request);
+        DeliveryPlan plan = new DeliveryPlan();
+        plan.subject = request.getSubject();
+        plan.inboxTemplate = buildInboxTemplate(request, initiatedBy, channels);
+        plan.emailBody = buildEmailBody(request, initiatedBy);
+        plan.smsBody = buildSmsBody(request);
 
         // Process registered user recipients
         for (MessagingRecipient recipient : recipients) {
-            if (sendInbox) {
-                handleInboxDelivery(recipient, inboxTemplate, result);
+            if (sendInbox && acceptInboxRecipient(recipient, result)) {
+                plan.inboxRecipients.add(recipient);
             }
-            if (sendEmail) {
-                handleEmailDelivery(recipient, request.getSubject(), emailBody, request, result);
+            if (sendEmail && acceptEmailRecipient(recipient, request, result)) {
+                plan.emails.put(new EmailDeliveryService.BatchRecipient(recipient.getEmail()), recipientSnapshot(recipient));
             }
-            if (sendSms) {
-                handleSmsDelivery(recipient, smsBody, result);
+            if (sendSms && acceptSmsRecipient(recipient, result)) {
+                plan.sms.add(new PlannedSms(recipient.getPhoneNumber(), recipientSnapshot(recipient)));
             }
         }
 
         // Process direct emails without accounts (email only - no inbox or SMS)
         if (sendEmail && !directEmailsWithoutAccounts.isEmpty()) {
             for (String email : directEmailsWithoutAccounts) {
-                handleDirectEmailDelivery(email, request.getSubject(), emailBody, result);
+                Map<String, String> snapshot = Map.of("email", email, "displayName", email);
+                if (emailDeliveryService.isEnabled()) {
+                    plan.emails.put(new EmailDeliveryService.BatchRecipient(email), snapshot);
+                } else {
+                    result.incrementEmailSkipped();
+                    result.addFailure(new BroadcastResult.DeliveryFailure("email", "Email delivery disabled", snapshot));
+                }
             }
         }
 
         // Process direct phone numbers without accounts (SMS only - no inbox or email)
         if (sendSms && !directPhoneNumbersWithoutAccounts.isEmpty()) {
             for (String phoneNumber : directPhoneNumbersWithoutAccounts) {
-                handleDirectSmsDelivery(phoneNumber, smsBody, result);
+                Map<String, String> snapshot = Map.of("phoneNumber", phoneNumber, "displayName", phoneNumber);
+                if (smsDeliveryService.isEnabled()) {
+                    plan.sms.add(new PlannedSms(phoneNumber, snapshot));
+                } else {
+                    result.incrementSmsSkipped();
+                    result.addFailure(new BroadcastResult.DeliveryFailure("sms", "SMS delivery disabled", snapshot));
+                }
             }
         }
 
-        return result;
+        return plan;
+    }
+
+    // Everything a broadcast will deliver once recipients are resolved and skips recorded
+    private static class DeliveryPlan {
+        private String subject;
+        private Map<String, Object> inboxTemplate;
+        private String emailBody;
+        private String smsBody;
+        private final List<MessagingRecipient> inboxRecipients = new ArrayList<>();
+        // Emails are collected and sent in SendGrid batches rather than one request per recipient
+        private final Map<EmailDeliveryService.BatchRecipient, Map<String, String>> emails = new LinkedHashMap<>();
+        private final List<PlannedSms> sms = new ArrayList<>();
+    }
+
+    private static class PlannedSms {
+        private final String phoneNumber;
+        private final Map<String, String> recipient;
+
+        private PlannedSms(String phoneNumber, Map<String, String> recipient) {
+            this.phoneNumber = phoneNumber;
+            this.recipient = recipient;
+        }
     }
 
     public boolean sendInboxMessage(String userIdentifier, Map<String, Object> messageData) {
@@ -170,43 +311,70 @@ public class MessagingService {
         return firestoreService.saveMessage(userIdentifier, messageData);
     }
 
-    private void handleInboxDelivery(MessagingRecipient recipient,
-                                     Map<String, Object> inboxTemplate,
-                                     BroadcastResult result) {
+    // Records the skip and returns false when the recipient has no inbox to deliver to
+    private boolean acceptInboxRecipient(MessagingRecipient recipient, BroadcastResult result) {
         if (!StringUtils.hasText(recipient.getFirebaseUid())) {
             result.incrementInboxSkipped();
             result.addFailure(new BroadcastResult.DeliveryFailure("inbox",
                     "Recipient does not have a linked site inbox",
                     recipientSnapshot(recipient)));
-            return;
+            return false;
         }
+        return true;
+    }
 
-        Map<String, Object> payload = new HashMap<>(inboxTemplate);
-        payload.put("recipientEmail", recipient.getEmail());
-        payload.put("recipientDisplayName", recipient.getDisplayName());
+    /**
+     * Stores the broadcast body once, then drops a pointer into each recipient's inbox with batched writes.
+     * Each batch of pointers runs on the inbox pool.
+     */
+    private void submitInboxPointers(DeliveryEngine.Batch batch,
+                                     Map<String, Object> inboxTemplate,
+                                     List<MessagingRecipient> recipients,
+                                     BroadcastResult result) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        String broadcastId = firestoreService.saveBroadcastMessage(null, inboxTemplate);
+        if (broadcastId == null) {
+            recipients.forEach(recipient -> recordInboxFailure(recipient, result));
+            return;
+        }
 
-        boolean delivered = firestoreService.saveMessage(recipient.getFirebaseUid(), payload);
-        if (delivered) {
-            result.incrementInboxSent();
-        } else {
-            result.incrementInboxSkipped();
-            result.addFailure(new BroadcastResult.DeliveryFailure("inbox",
-                    "Failed to persist message to inbox (service disabled or error)",
-                    recipientSnapshot(recipient)));
+        String timestamp = (String) inboxTemplate.get("timestamp");
+        for (int start = 0; start < recipients.size(); start += INBOX_POINTER_BATCH_SIZE) {
+            List<MessagingRecipient> chunk = recipients.subList(start, Math.min(start + INBOX_POINTER_BATCH_SIZE, recipients.size()));
+            batch.submit(DeliveryEngine.INBOX, () -> {
+                List<String> userIds = chunk.stream().map(MessagingRecipient::getFirebaseUid).collect(Collectors.toList());
+                Set<String> failed = new HashSet<>(firestoreService.saveBroadcastPointers(broadcastId, timestamp, userIds));
+                for (MessagingRecipient recipient : chunk) {
+                    if (failed.contains(recipient.getFirebaseUid())) {
+                        recordInboxFailure(recipient, result);
+                    } else {
+                        result.incrementInboxSent();
+                    }
+                }
+            }, e -> chunk.forEach(recipient ->
+                    recordUnexpectedFailure(DeliveryEngine.INBOX, recipientSnapshot(recipient), e, result)));
         }
     }
 
-    private void handleEmailDelivery(MessagingRecipient recipient,
-                                     String subject,
-                                     String body,
-                                     BroadcastMessageRequest request,
-                                     BroadcastResult result) {
+    private void recordInboxFailure(MessagingRecipient recipient, BroadcastResult result) {
+        result.incrementInboxFailed();
+        result.addFailure(new BroadcastResult.DeliveryFailure("inbox",
+                "Failed to persist message to inbox (service disabled or error)",
+                recipientSnapshot(recipient)));
+    }
+
+    // Records the skip and returns false when the recipient should not be emailed
+    private boolean acceptEmailRecipient(MessagingRecipient recipient,
+                                         BroadcastMessageRequest request,
+                                         BroadcastResult result) {
         if (!StringUtils.hasText(recipient.getEmail())) {
             result.incrementEmailSkipped();
             result.addFailure(new BroadcastResult.DeliveryFailure("email",
                     "No email address on file",
                     recipientSnapshot(recipient)));
-            return;
+            return false;
         }
 
         if (!emailDeliveryService.isEnabled()) {
@@ -214,7 +382,7 @@ public class MessagingService {
             result.addFailure(new BroadcastResult.DeliveryFailure("email",
                     "Email delivery disabled",
                     recipientSnapshot(recipient)));
-            return;
+            return false;
         }
 
         // Check if user has opted out of email communications
@@ -228,29 +396,48 @@ public class MessagingService {
             result.addFailure(new BroadcastResult.DeliveryFailure("email",
                     "User has opted out of email communications",
                     recipientSnapshot(recipient)));
-            return;
+            return false;
         }
+        return true;
+    }
 
-        boolean delivered = emailDeliveryService.sendEmail(recipient.getEmail(), subject, body);
-        if (delivered) {
-            result.incrementEmailSent();
-        } else {
-            result.incrementEmailSkipped();
-            result.addFailure(new BroadcastResult.DeliveryFailure("email",
-                    "Email provider reported a failure - check server logs",
-                    recipientSnapshot(recipient)));
+    // Each SendGrid batch is one delivery task, so batches still run concurrently up to the email limit
+    private void submitEmailBatches(DeliveryEngine.Batch batch,
+                                    String subject,
+                                    String body,
+                                    Map<EmailDeliveryService.BatchRecipient, Map<String, String>> pendingEmails,
+                                    BroadcastResult result) {
+        List<EmailDeliveryService.BatchRecipient> recipients = new ArrayList<>(pendingEmails.keySet());
+        for (int start = 0; start < recipients.size(); start += EmailDeliveryService.MAX_BATCH_SIZE) {
+            List<EmailDeliveryService.BatchRecipient> chunk =
+                    recipients.subList(start, Math.min(start + EmailDeliveryService.MAX_BATCH_SIZE, recipients.size()));
+            batch.submit(DeliveryEngine.EMAIL, () -> {
+                // BatchRecipient uses identity equality, so failures match the exact entries submitted
+                Set<EmailDeliveryService.BatchRecipient> failed =
+                        new HashSet<>(emailDeliveryService.sendBatch(subject, body, chunk));
+                for (EmailDeliveryService.BatchRecipient recipient : chunk) {
+                    if (failed.contains(recipient)) {
+                        result.incrementEmailFailed();
+                        result.addFailure(new BroadcastResult.DeliveryFailure("email",
+                                "Email provider reported a failure - check server logs",
+                                pendingEmails.get(recipient)));
+                    } else {
+                        result.incrementEmailSent();
+                    }
+                }
+            }, e -> chunk.forEach(recipient ->
+                    recordUnexpectedFailure(DeliveryEngine.EMAIL, pendingEmails.get(recipient), e, result)));
         }
     }
 
-    private void handleSmsDelivery(MessagingRecipient recipient,
-                                   String smsBody,
-                                   BroadcastResult result) {
+    // Records the skip and returns false when the recipient should not be texted
+    private boolean acceptSmsRecipient(MessagingRecipient recipient, BroadcastResult result) {
         if (!StringUtils.hasText(recipient.getPhoneNumber())) {
             result.incrementSmsSkipped();
             result.addFailure(new BroadcastResult.DeliveryFailure("sms",
                     "No phone number available",
                     recipientSnapshot(recipient)));
-            return;
+            return false;
         }
 
         if (!smsDeliveryService.isEnabled()) {
@@ -258,63 +445,43 @@ public class MessagingService {
             result.addFailure(new BroadcastResult.DeliveryFailure("sms",
                     "SMS delivery not configured",
                     recipientSnapshot(recipient)));
-            return;
-        }
-
-        boolean delivered = smsDeliveryService.sendSms(recipient.getPhoneNumber(), smsBody);
-        if (delivered) {
-            result.incrementSmsSent();
-        } else {
-            result.incrementSmsSkipped();
-            result.addFailure(new BroadcastResult.DeliveryFailure("sms",
-                    "SMS provider reported a failure - check credentials",
-                    recipientSnapshot(recipient)));
-        }
-    }
-
-    private void handleDirectEmailDelivery(String email,
-                                          String subject,
-                                          String body,
-                                          BroadcastResult result) {
-        if (!emailDeliveryService.isEnabled()) {
-            result.incrementEmailSkipped();
-            result.addFailure(new BroadcastResult.DeliveryFailure("email",
-                    "Email delivery disabled",
-                    Map.of("email", email, "displayName", email)));
-            return;
-        }
-
-        boolean delivered = emailDeliveryService.sendEmail(email, subject, body);
-        if (delivered) {
-            result.incrementEmailSent();
-        } else {
-            result.incrementEmailSkipped();
-            result.addFailure(new BroadcastResult.DeliveryFailure("email",
-                    "Email provider reported a failure - check server logs",
-                    Map.of("email", email, "displayName", email)));
+            return false;
         }
+        return true;
     }
 
-    private void handleDirectSmsDelivery(String phoneNumber,
-                                       String body,
-                                       BroadcastResult result) {
-        if (!smsDeliveryService.isEnabled()) {
-            result.incrementSmsSkipped();
+    // Queued SMS are paced to the sender number's rate and retried on throttling; the batch waits for each outcome
+    private void submitSms(DeliveryEngine.Batch batch,
+                           String phoneNumber,
+                           String smsBody,
+                           Map<String, String> recipient,
+                           BroadcastResult result) {
+        batch.track(smsDispatchQueue.submit(phoneNumber, smsBody).thenAccept(sendResult -> {
+            if (sendResult.isDelivered()) {
+                result.incrementSmsSent();
+                return;
+            }
+            result.incrementSmsFailed();
+            String status = sendResult.getStatusCode() != null ? " (HTTP " + sendResult.getStatusCode() + ")" : "";
             result.addFailure(new BroadcastResult.DeliveryFailure("sms",
-                    "SMS delivery disabled",
-                    Map.of("phoneNumber", phoneNumber, "displayName", phoneNumber)));
-            return;
-        }
+                    "SMS provider reported a failure" + status + " after " + sendResult.getAttempts()
+                            + " attempt(s): " + sendResult.getErrorMessage(),
+                    recipient));
+        }));
+    }
 
-        boolean delivered = smsDeliveryService.sendSms(phoneNumber, body);
-        if (delivered) {
-            result.incrementSmsSent();
-        } else {
-            result.incrementSmsSkipped();
-            result.addFailure(new BroadcastResult.DeliveryFailure("sms",
-                    "SMS provider reported a failure - check server logs",
-                    Map.of("phoneNumber", phoneNumber, "displayName", phoneNumber)));
-        }
+    private void recordUnexpectedFailure(String channel,
+                                         Map<String, String> recipient,
+                                         Exception error,
+                                         BroadcastResult result) {
+        switch (channel) {
+            case DeliveryEngine.INBOX -> result.incrementInboxFailed();
+            case DeliveryEngine.EMAIL -> result.incrementEmailFailed();
+            default -> result.incrementSmsFailed();
+        }
+        result.addFailure(new BroadcastResult.DeliveryFailure(channel,
+                "Unexpected delivery error: " + error.getMessage(),
+                recipient));
     }
 
     private Map<String, Integer> transformCategoryCounts(Map<RecipientCategory, Integer> counts) {
@@ -366,7 +533,7 @@ public class MessagingService {
         return snapshot;
     }
 
-    private void validateRequest(BroadcastMessageRequest request) {
+    public void validateRequest(BroadcastMessageRequest request) {
         if (request == null) {
             throw new IllegalArgumentException("Request payload is required");
         }
@@ -382,19 +549,23 @@ public class MessagingService {
     }
 
     public static class BroadcastResult {
-        private int totalRecipients;
-        private int inboxSent;
-        private int inboxSkipped;
-        private int emailSent;
-        private int emailSkipped;
-        private int smsSent;
-        private int smsSkipped;
+        // Counters are read by the job progress endpoint while delivery is still running
+        private volatile int totalRecipients;
+        private final AtomicInteger inboxSent = new AtomicInteger();
+        private final AtomicInteger inboxSkipped = new AtomicInteger();
+        private final AtomicInteger inboxFailed = new AtomicInteger();
+        private final AtomicInteger emailSent = new AtomicInteger();
+        private final AtomicInteger emailSkipped = new AtomicInteger();
+        private final AtomicInteger emailFailed = new AtomicInteger();
+        private final AtomicInteger smsSent = new AtomicInteger();
+        private final AtomicInteger smsSkipped = new AtomicInteger();
+        private final AtomicInteger smsFailed = new AtomicInteger();
         private Set<String> requestedChannels = new HashSet<>();
         private List<String> directEmailsWithoutAccounts = new ArrayList<>();
         private List<String> directPhoneNumbersWithoutAccounts = new ArrayList<>();
         private Map<String, Integer> categoryCounts = new HashMap<>();
-        private final List<DeliveryFailure> failures = new ArrayList<>();
-        private final List<String> globalWarnings = new ArrayList<>();
+        private final List<DeliveryFailure> failures = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> globalWarnings = Collections.synchronizedList(new ArrayList<>());
 
         public int getTotalRecipients() {
             return totalRecipients;
@@ -405,51 +576,75 @@ public class MessagingService {
         }
 
         public int getInboxSent() {
-            return inboxSent;
+            return inboxSent.get();
         }
 
         public void incrementInboxSent() {
-            this.inboxSent++;
+            inboxSent.incrementAndGet();
         }
 
         public int getInboxSkipped() {
-            return inboxSkipped;
+            return inboxSkipped.get();
         }
 
         public void incrementInboxSkipped() {
-            this.inboxSkipped++;
+            inboxSkipped.incrementAndGet();
+        }
+
+        public int getInboxFailed() {
+            return inboxFailed.get();
+        }
+
+        public void incrementInboxFailed() {
+            inboxFailed.incrementAndGet();
         }
 
         public int getEmailSent() {
-            return emailSent;
+            return emailSent.get();
         }
 
         public void incrementEmailSent() {
-            this.emailSent++;
+            emailSent.incrementAndGet();
         }
 
         public int getEmailSkipped() {
-            return emailSkipped;
+            return emailSkipped.get();
         }
 
         public void incrementEmailSkipped() {
-            this.emailSkipped++;
+            emailSkipped.incrementAndGet();
+        }
+
+        public int getEmailFailed() {
+            return emailFailed.get();
+        }
+
+        public void incrementEmailFailed() {
+            emailFailed.incrementAndGet();
         }
 
         public int getSmsSent() {
-            return smsSent;
+            return smsSent.get();
         }
 
         public void incrementSmsSent() {
-            this.smsSent++;
+            smsSent.incrementAndGet();
         }
 
         public int getSmsSkipped() {
-            return smsSkipped;
+            return smsSkipped.get();
         }
 
         public void incrementSmsSkipped() {
-            this.smsSkipped++;
+            smsSkipped.incrementAndGet();
+        }
+
+        public int getSmsFailed() {
+            return smsFailed.get();
+        }
+
+        public void incrementSmsFailed() {
+            smsFailed.incrementAndGet();
         }
 
         public Set<String> getRequestedChannels() {
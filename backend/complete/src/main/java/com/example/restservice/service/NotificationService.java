@@ -1,10 +1,14 @@
 package com.example.restservice.service;
 
 import com.example.restservice.model.firestore.EventFirestore;
+import com.example.restservice.model.firestore.OutboxPayloadFirestore;
+import com.example.restservice.model.firestore.OutboxTaskFirestore;
 import com.example.restservice.model.firestore.ParticipantFirestore;
+import com.example.restservice.repository.firestore.DeliveryOutboxRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -14,10 +18,13 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 
 @Service
 public class NotificationService {
@@ -30,6 +37,12 @@ public class NotificationService {
     @Autowired
     private EmailDeliveryService emailDeliveryService;
 
+    @Autowired
+    private DeliveryOutboxRepository outboxRepository;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
     public static class NotificationDeliveryStatus {
         private boolean emailSent;
         private boolean inboxSent;
@@ -51,33 +64,73 @@ public class NotificationService {
         public void setInboxStatusMessage(String inboxStatusMessage) { this.inboxStatusMessage = inboxStatusMessage; }
     }
 
-    @Async
+    @Async("notificationExecutor")
     public void sendRegistrationNotificationsAsync(ParticipantFirestore participant, EventFirestore event, String userEmail, String userId) {
-        try {
-            // Send email notification (without calendar file)
-            if (emailDeliveryService.isEnabled()) {
-                String emailBody = buildRegistrationConfirmationEmail(participant, event);
+        queueRegistrationNotifications(participant, event, userEmail, userId);
+    }
 
-                boolean emailSent = emailDeliveryService.sendEmail(
-                    userEmail,
-                    "Registration Confirmed: " + event.getName(),
-                    emailBody
-                );
-                logger.info("Registration confirmation email sent to {}: {}", userEmail, emailSent);
-            } else {
-                logger.info("Email service is disabled, skipping registration confirmation email for {}", userEmail);
-            }
+    /**
+     * Queues the registration confirmation email and inbox message on the delivery outbox, keyed by participant
+     * so they survive a restart and a repeated call never notifies twice. Sends directly when the outbox is
+     * disabled. A queued notification is reported as sent; the outbox retries it until it is delivered.
+     */
+    public NotificationDeliveryStatus queueRegistrationNotifications(ParticipantFirestore participant, EventFirestore event, String userEmail, String userId) {
+        if (!outboxEnabled || participant.getId() == null) {
+            return sendRegistrationNotifications(participant, event, userEmail, userId);
+        }
 
-            // Send inbox message
-            Map<String, Object> inboxMessage = buildRegistrationInboxMessage(participant, event);
-            boolean inboxSent = messagingService.sendInboxMessage(userId, inboxMessage);
-            logger.info("Registration inbox message sent to user {}: {}", userId, inboxSent);
+        NotificationDeliveryStatus status = new NotificationDeliveryStatus();
+        try {
+            OutboxPayloadFirestore payload = new OutboxPayloadFirestore();
+            payload.setId("registration-" + participant.getId());
+            payload.setSubject("Registration Confirmed: " + event.getName());
+            payload.setEmailBody(buildRegistrationConfirmationEmail(participant, event));
+            payload.setInboxMessage(buildRegistrationInboxMessage(participant, event));
+            outboxRepository.savePayload(payload);
+
+            List<OutboxTaskFirestore> tasks = new ArrayList<>();
+            boolean queueEmail = emailDeliveryService.isEnabled() && userEmail != null && !userEmail.trim().isEmpty();
+            if (queueEmail) {
+                OutboxTaskFirestore task = registrationTask(participant, payload, DeliveryEngine.EMAIL);
+                task.setRecipientEmail(userEmail);
+                tasks.add(task);
+            }
+            boolean queueInbox = userId != null && !userId.trim().isEmpty();
+            if (queueInbox) {
+                OutboxTaskFirestore task = registrationTask(participant, payload, DeliveryEngine.INBOX);
+                task.setRecipientUid(userId);
+                task.setRecipientEmail(userEmail);
+                tasks.add(task);
+            }
+            outboxRepository.enqueue(tasks);
+
+            status.setEmailSent(queueEmail);
+            status.setEmailStatusMessage(queueEmail ?
+                "Registration confirmation email queued for delivery" :
+                "Email service is disabled or not configured");
+            status.setInboxSent(queueInbox);
+            status.setInboxStatusMessage(queueInbox ?
+                "Registration notification queued for inbox" :
+                "Failed to send registration notification to inbox");
 
-        } catch (Exception notificationException) {
-            // Log notification failures
-            logger.warn("Failed to send registration notifications for user {} and event {}: {}",
-                      userId, event.getName(), notificationException.getMessage());
+            logger.info("Registration notifications queued for user {} and event {}", userId, event.getName());
+        } catch (ExecutionException | InterruptedException e) {
+            logger.warn("Failed to queue registration notifications for user {} and event {}: {}",
+                      userId, event.getName(), e.getMessage());
+            status.setEmailStatusMessage("Error occurred while queueing email: " + e.getMessage());
+            status.setInboxStatusMessage("Error occurred while queueing inbox message: " + e.getMessage());
         }
+        return status;
+    }
+
+    private OutboxTaskFirestore registrationTask(ParticipantFirestore participant, OutboxPayloadFirestore payload, String channel) {
+        OutboxTaskFirestore task = new OutboxTaskFirestore();
+        task.setIdempotencyKey("registration:" + participant.getId() + ":" + channel);
+        task.setSource("registration");
+        task.setPayloadId(payload.getId());
+        task.setChannel(channel);
+        task.setRecipientName(participant.getParentUserFirstName());
+        return task;
     }
 
     public NotificationDeliveryStatus sendRegistrationNotifications(ParticipantFirestore participant, EventFirestore event, String userEmail, String userId) {
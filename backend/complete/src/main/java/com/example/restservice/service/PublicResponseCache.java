@@ -0,0 +1,150 @@
+package com.example.restservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON and its content-hash ETag for each public read (event lists, single events, announcements),
+ * rebuilt only when the data version behind that view changes. Larger bodies are also kept gzipped, so a hot
+ * read writes stored bytes instead of serializing and compressing per request. A request whose If-None-Match
+ * carries the current ETag gets a 304 from here; with the event catalog live, neither answer touches Firestore.
+ */
+@Component
+public class PublicResponseCache {
+
+    // Below this a gzipped body saves too little to be worth a Content-Encoding
+    private static final int MIN_GZIP_BYTES = 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.public-cache.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface Loader {
+        // Returns the response body, or null when there is nothing to return (404)
+        Object load() throws ExecutionException, InterruptedException;
+    }
+
+    /**
+     * Answers a public GET for {@code view} from the entry built at {@code version}, loading and serializing
+     * the body first when the entry is missing or was built from an older version.
+     */
+    public ResponseEntity<?> respond(String view, String version, HttpServletRequest request, Loader loader)
+            throws ExecutionException, InterruptedException {
+        Entry entry = entries.get(view);
+        if (entry == null || !entry.version.equals(version)) {
+            Object body = loader.load();
+            if (body == null) {
+                entries.remove(view);
+                return ResponseEntity.notFound().build();
+            }
+            entry = new Entry(version, serialize(view, body));
+            entries.put(view, entry);
+        }
+
+        // The gzipped body is a different representation, so it gets its own ETag
+        boolean gzip = entry.gzipped != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? entry.gzipEtag : entry.etag;
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzipped);
+        }
+        return response.body(entry.json);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" means the client refuses it
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private byte[] serialize(String view, Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + view, e);
+        }
+    }
+
+    private static String hashOf(byte[] json) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(json)).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to gzip response", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static class Entry {
+        private final String version;
+        private final byte[] json;
+        private final byte[] gzipped; // null for bodies too small to compress
+        private final String etag;
+        private final String gzipEtag;
+
+        Entry(String version, byte[] json) {
+            String hash = hashOf(json);
+            this.version = version;
+            this.json = json;
+            this.gzipped = json.length >= MIN_GZIP_BYTES ? gzip(json) : null;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.restservice.service;
 
-import com.twilio.Twilio;
+import com.twilio.exception.ApiConnectionException;
 import com.twilio.exception.ApiException;
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.Request;
+import com.twilio.http.Response;
+import com.twilio.http.TwilioRestClient;
 import com.twilio.rest.api.v2010.account.Message;
 import com.twilio.type.PhoneNumber;
 import org.slf4j.Logger;
@@ -10,6 +14,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+
 @Service
 public class SmsDeliveryService {
 
@@ -27,7 +36,11 @@ public class SmsDeliveryService {
     @Value("${twilio.from-number:}")
     private String fromNumber;
 
-    private volatile boolean initialized = false;
+    // Overrides https://api.twilio.com, e.g. to point at a local fake Twilio endpoint
+    @Value("${twilio.api-base-url:}")
+    private String apiBaseUrl;
+
+    private volatile TwilioRestClient restClient;
 
     public boolean isEnabled() {
         boolean hasCredentials = StringUtils.hasText(accountSid) && StringUtils.hasText(authToken) && StringUtils.hasText(fromNumber);
@@ -44,43 +57,77 @@ public class SmsDeliveryService {
     }
 
     public boolean sendSms(String rawPhoneNumber, String messageBody) {
+        return attemptSend(rawPhoneNumber, messageBody).isDelivered();
+    }
+
+    /**
+     * Makes a single send attempt and reports whether a failure is safe to retry. Creating a message is not
+     * idempotent, so only failures where Twilio certainly did not accept it qualify: HTTP 429, or a connection
+     * that was never established. A 5xx, timeout or dropped connection may follow an accepted message and is
+     * final. Large sends should go through {@link SmsDispatchQueue}, which paces and retries.
+     */
+    public SendResult attemptSend(String rawPhoneNumber, String messageBody) {
         if (!smsEnabled) {
             logger.debug("SMS delivery disabled via configuration - skipping message to {}", rawPhoneNumber);
-            return false;
+            return SendResult.failed(null, "SMS delivery disabled", false);
         }
 
         if (!StringUtils.hasText(accountSid) || !StringUtils.hasText(authToken) || !StringUtils.hasText(fromNumber)) {
             logger.warn("Twilio credentials not configured - unable to send SMS to {}", rawPhoneNumber);
-            return false;
+            return SendResult.failed(null, "Twilio credentials not configured", false);
         }
 
         String normalized = normalizePhoneNumber(rawPhoneNumber);
         if (!StringUtils.hasText(normalized)) {
             logger.debug("Unable to normalize phone number '{}' for SMS delivery", rawPhoneNumber);
-            return false;
-        }
-
-        if (!initialized) {
-            synchronized (this) {
-                if (!initialized) {
-                    Twilio.init(accountSid, authToken);
-                    initialized = true;
-                }
-            }
+            return SendResult.failed(null, "Invalid phone number", false);
         }
 
         try {
             logger.info("Attempting to send SMS to {} from {}", normalized, fromNumber);
-            Message message = Message.creator(new PhoneNumber(normalized), new PhoneNumber(fromNumber), messageBody).create();
+            Message message = Message.creator(new PhoneNumber(normalized), new PhoneNumber(fromNumber), messageBody).create(client());
             logger.info("SMS sent successfully to {} with SID: {}", normalized, message.getSid());
-            return true;
+            return SendResult.sent(message.getSid());
         } catch (ApiException ex) {
-            logger.error("Twilio API error sending SMS to {}: {} (Code: {})", normalized, ex.getMessage(), ex.getCode());
-            return false;
+            Integer status = ex.getStatusCode();
+            boolean retryable = status != null && status == 429;
+            logger.error("Twilio API error sending SMS to {}: {} (Code: {}, HTTP {})", normalized, ex.getMessage(), ex.getCode(), status);
+            return SendResult.failed(status, ex.getMessage(), retryable);
+        } catch (ApiConnectionException ex) {
+            logger.error("Connection error sending SMS to {}: {}", normalized, ex.getMessage());
+            return SendResult.failed(null, ex.getMessage(), failedBeforeSending(ex));
         } catch (RuntimeException ex) {
             logger.error("Unexpected error sending SMS to {}: {}", normalized, ex.getMessage(), ex);
-            return false;
+            return SendResult.failed(null, ex.getMessage(), false);
+        }
+    }
+
+    // Refused connections, unknown hosts and unreachable networks fail before any request byte is written
+    static boolean failedBeforeSending(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TwilioRestClient client() {
+        TwilioRestClient client = restClient;
+        if (client == null) {
+            synchronized (this) {
+                if (restClient == null) {
+                    TwilioRestClient.Builder builder = new TwilioRestClient.Builder(accountSid, authToken);
+                    if (StringUtils.hasText(apiBaseUrl)) {
+                        builder.httpClient(new BaseUrlHttpClient(apiBaseUrl));
+                    }
+                    restClient = builder.build();
+                }
+                client = restClient;
+            }
         }
+        return client;
     }
 
     /**
@@ -136,4 +183,80 @@ public class SmsDeliveryService {
         logger.warn("Unable to normalize phone number: {} (digits: {})", rawNumber, digits);
         return null;
     }
+
+    public static class SendResult {
+        private final boolean delivered;
+        private final String sid;
+        private final Integer statusCode;
+        private final String errorMessage;
+        private final boolean retryable;
+        private final int attempts;
+
+        private SendResult(boolean delivered, String sid, Integer statusCode, String errorMessage,
+                           boolean retryable, int attempts) {
+            this.delivered = delivered;
+            this.sid = sid;
+            this.statusCode = statusCode;
+            this.errorMessage = errorMessage;
+            this.retryable = retryable;
+            this.attempts = attempts;
+        }
+
+        public static SendResult sent(String sid) {
+            return new SendResult(true, sid, null, null, false, 1);
+        }
+
+        public static SendResult failed(Integer statusCode, String errorMessage, boolean retryable) {
+            return new SendResult(false, null, statusCode, errorMessage, retryable, 1);
+        }
+
+        SendResult withAttempts(int attempts) {
+            return new SendResult(delivered, sid, statusCode, errorMessage, retryable, attempts);
+        }
+
+        public boolean isDelivered() {
+            return delivered;
+        }
+
+        public String getSid() {
+            return sid;
+        }
+
+        public Integer getStatusCode() {
+            return statusCode;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        public boolean isRetryable() {
+            return retryable;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+    }
+
+    // Sends Twilio API requests to another host while keeping the path, parameters and auth
+    private static class BaseUrlHttpClient extends NetworkHttpClient {
+        private final String baseUrl;
+
+        BaseUrlHttpClient(String baseUrl) {
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        }
+
+        @Override
+        public Response makeRequest(Request request) {
+            Request redirected = new Request(request.getMethod(), baseUrl + URI.create(request.getUrl()).getRawPath());
+            if (request.requiresAuthentication()) {
+                redirected.setAuth(request.getUsername(), request.getPassword());
+            }
+            request.getQueryParams().forEach((name, values) -> values.forEach(value -> redirected.addQueryParam(name, value)));
+            request.getPostParams().forEach((name, values) -> values.forEach(value -> redirected.addPostParam(name, value)));
+            request.getHeaderParams().forEach((name, values) -> values.forEach(value -> redirected.addHeaderParam(name, value)));
+            return super.makeRequest(redirected);
+        }
+    }
 }
@@ -0,0 +1,176 @@
+package com.example.restservice.service;
+
+import com.example.restservice.config.BoundedExecutor;
+import com.example.restservice.config.InstrumentedScheduler;
+import com.example.restservice.config.MonitoredExecutor;
+import com.example.restservice.config.MonitoredExecutorOwner;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue for outbound SMS that paces Twilio requests with a token bucket matching the sender number's
+ * throughput. Failures that are safe to resend (see {@link SmsDeliveryService#attemptSend}) are retried with
+ * exponential backoff; each submission completes with the final {@link SmsDeliveryService.SendResult}. The
+ * queue is the worker pool's bounded queue, and a submission that finds it full fails at once rather than
+ * piling up in memory. Both the workers and the retry timer are reported by GET /api/admin/executors.
+ */
+@Component
+public class SmsDispatchQueue implements MonitoredExecutorOwner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsDispatchQueue.class);
+
+    @Autowired
+    private SmsDeliveryService smsDeliveryService;
+
+    // A US long code sends one message per second; raise for toll-free, short code or messaging services
+    @Value("${app.messaging.sms.rate-per-second:1}")
+    private double ratePerSecond;
+
+    @Value("${app.messaging.sms.burst:1}")
+    private int burst;
+
+    @Value("${app.messaging.sms.workers:2}")
+    private int workerCount;
+
+    @Value("${app.messaging.sms.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${app.messaging.sms.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.messaging.sms.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${app.messaging.sms.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private TokenBucket tokenBucket;
+    private BoundedExecutor workers;
+    private InstrumentedScheduler retryScheduler;
+    // Messages not yet completed, so shutdown can fail the ones still queued or waiting for a retry
+    private final Set<PendingSms> outstanding = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        tokenBucket = new TokenBucket(ratePerSecond, burst);
+        // Each message is one task; a worker waits for a token, so the pool's queue is the send queue
+        workers = new BoundedExecutor("sms-dispatch", workerCount, queueCapacity, BoundedExecutor.Rejection.ABORT);
+        retryScheduler = new InstrumentedScheduler("sms-retry", 1, queueCapacity, BoundedExecutor.Rejection.ABORT);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+        retryScheduler.shutdownNow();
+        for (PendingSms sms : outstanding) {
+            sms.complete(SmsDeliveryService.SendResult.failed(null, "Server shutting down", false)
+                    .withAttempts(sms.attempts));
+        }
+    }
+
+    @Override
+    public List<MonitoredExecutor> getExecutors() {
+        return List.of(workers, retryScheduler);
+    }
+
+    public CompletableFuture<SmsDeliveryService.SendResult> submit(String phoneNumber, String body) {
+        PendingSms sms = new PendingSms(phoneNumber, body);
+        outstanding.add(sms);
+        if (!enqueue(sms)) {
+            logger.warn("SMS queue is full ({} waiting) - not sending to {}", getQueueDepth(), phoneNumber);
+            sms.complete(SmsDeliveryService.SendResult.failed(null, "SMS queue is full", false).withAttempts(0));
+        }
+        return sms.future;
+    }
+
+    /**
+     * The most messages that can be handed to the queue at once and still all finish, every retry included,
+     * within {@code millis} at the configured rate.
+     */
+    public int capacityWithin(long millis) {
+        double sends = ratePerSecond * millis / 1000.0 / Math.max(1, maxAttempts);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, sends));
+    }
+
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    private boolean enqueue(PendingSms sms) {
+        return workers.tryExecute(() -> {
+            try {
+                tokenBucket.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sms.complete(SmsDeliveryService.SendResult.failed(null, "Server shutting down", false)
+                        .withAttempts(sms.attempts));
+                return;
+            }
+            dispatch(sms);
+        });
+    }
+
+    private void dispatch(PendingSms sms) {
+        sms.attempts++;
+        SmsDeliveryService.SendResult result;
+        try {
+            result = smsDeliveryService.attemptSend(sms.phoneNumber, sms.body);
+        } catch (RuntimeException e) {
+            result = SmsDeliveryService.SendResult.failed(null, e.getMessage(), false);
+        }
+
+        if (!result.isDelivered() && result.isRetryable() && sms.attempts < maxAttempts) {
+            long delay = backoffMillis(sms.attempts);
+            logger.info("Retrying SMS to {} in {} ms after attempt {} failed (HTTP {})",
+                    sms.phoneNumber, delay, sms.attempts, result.getStatusCode());
+            SmsDeliveryService.SendResult lastResult = result.withAttempts(sms.attempts);
+            try {
+                retryScheduler.schedule(() -> {
+                    if (!enqueue(sms)) {
+                        sms.complete(lastResult);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                sms.complete(lastResult);
+            }
+            return;
+        }
+        sms.complete(result.withAttempts(sms.attempts));
+    }
+
+    // Exponential backoff with up to 20% jitter so retries from one burst do not line up again
+    private long backoffMillis(int attempt) {
+        long base = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return base + ThreadLocalRandom.current().nextLong(base / 5 + 1);
+    }
+
+    private class PendingSms {
+        private final String phoneNumber;
+        private final String body;
+        private final CompletableFuture<SmsDeliveryService.SendResult> future = new CompletableFuture<>();
+        private volatile int attempts;
+
+        PendingSms(String phoneNumber, String body) {
+            this.phoneNumber = phoneNumber;
+            this.body = body;
+        }
+
+        void complete(SmsDeliveryService.SendResult result) {
+            outstanding.remove(this);
+            future.complete(result);
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.restservice.service;
 
+import com.example.restservice.config.BoundedExecutor;
 import com.example.restservice.model.firestore.EventFirestore;
-import com.example.restservice.repository.firestore.EventFirestoreRepository;
+import com.example.restservice.repository.firestore.EventCatalog;
 import com.example.restservice.service.SocialPublisher.WebhookPayload;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
@@ -10,6 +11,7 @@ import com.google.cloud.firestore.QuerySnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -19,6 +21,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class SocialScheduler {
@@ -30,7 +33,11 @@ public class SocialScheduler {
     private SocialPublisher socialPublisher;
 
     @Autowired
-    private EventFirestoreRepository eventRepository;
+    @Qualifier("webhookExecutor")
+    private BoundedExecutor webhookExecutor;
+
+    @Autowired
+    private EventCatalog eventCatalog;
 
     @Autowired(required = false)
     private Firestore firestore;
@@ -47,6 +54,15 @@ public class SocialScheduler {
 
         logger.info("Running scheduled social media post...");
 
+        // The webhook call can take a while; keep it off the shared scheduling threads
+        try {
+            webhookExecutor.execute(this::publishContent);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Skipping social post, webhook executor is busy: {}", e.getMessage());
+        }
+    }
+
+    private void publishContent() {
         try {
             if (hasUpcomingEvents()) {
                 postEventHype();
@@ -68,7 +84,7 @@ public class SocialScheduler {
             LocalDate today = LocalDate.now();
             LocalDate weekFromNow = today.plusDays(7);
 
-            List<EventFirestore> upcomingEvents = eventRepository.findByDateGreaterThanEqualOrderByDateAsc(today);
+            List<EventFirestore> upcomingEvents = eventCatalog.findUpcoming(today);
 
             for (EventFirestore event : upcomingEvents) {
                 if (event.getDate() != null) {
@@ -89,7 +105,7 @@ public class SocialScheduler {
             LocalDate today = LocalDate.now();
             LocalDate weekFromNow = today.plusDays(7);
 
-            List<EventFirestore> upcomingEvents = eventRepository.findByDateGreaterThanEqualOrderByDateAsc(today);
+            List<EventFirestore> upcomingEvents = eventCatalog.findUpcoming(today);
 
             EventFirestore nextEvent = null;
             for (EventFirestore event : upcomingEvents) {
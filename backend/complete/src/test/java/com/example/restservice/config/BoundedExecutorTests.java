@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class BoundedExecutorTests {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private BoundedExecutor executor;
+
+	@AfterEach
+	public void tearDown() {
+		release.countDown();
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void callerRunsWhenQueueIsFull() throws Exception {
+		executor = new BoundedExecutor("test", 1, 1, BoundedExecutor.Rejection.parse("caller-runs"));
+		fill(executor);
+
+		AtomicReference<String> ranOn = new AtomicReference<>();
+		executor.execute(() -> ranOn.set(Thread.currentThread().getName()));
+
+		assertEquals(Thread.currentThread().getName(), ranOn.get());
+		Map<String, Object> stats = executor.getStats();
+		assertEquals(1, stats.get("activeThreads"));
+		assertEquals(1, stats.get("queueDepth"));
+		assertEquals(1L, stats.get("callerRunsTasks"));
+	}
+
+	@Test
+	public void abortRejectsWhenQueueIsFull() throws Exception {
+		executor = new BoundedExecutor("test", 1, 1, BoundedExecutor.Rejection.parse("abort"));
+		fill(executor);
+
+		assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+		assertEquals(1L, executor.getStats().get("rejectedTasks"));
+
+		release.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals(2L, executor.getStats().get("completedTasks"));
+	}
+
+	@Test
+	public void tryExecuteNeverRunsOnTheCaller() throws Exception {
+		executor = new BoundedExecutor("test", 1, 1, BoundedExecutor.Rejection.parse("caller-runs"));
+		fill(executor);
+
+		AtomicReference<String> ranOn = new AtomicReference<>();
+		assertFalse(executor.tryExecute(() -> ranOn.set(Thread.currentThread().getName())));
+
+		assertNull(ranOn.get());
+		assertEquals(0L, executor.getStats().get("callerRunsTasks"));
+		assertEquals(1L, executor.getStats().get("rejectedTasks"));
+	}
+
+	// Occupies the only worker and the only queue slot until the test releases them
+	private void fill(BoundedExecutor executor) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			awaitRelease();
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		executor.execute(this::awaitRelease);
+	}
+
+	private void awaitRelease() {
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
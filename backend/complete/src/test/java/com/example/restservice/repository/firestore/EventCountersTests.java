@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.repository.firestore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class EventCountersTests {
+
+	@Test
+	public void trustedCounterIsUsedWithoutSeeding() throws Exception {
+		AtomicInteger seeds = new AtomicInteger();
+		long count = EventCounters.resolveCount(12L, () -> {
+			seeds.incrementAndGet();
+			return 99;
+		});
+
+		assertEquals(12, count);
+		assertEquals(0, seeds.get());
+	}
+
+	@Test
+	public void missingCounterIsSeeded() throws Exception {
+		assertEquals(7, EventCounters.resolveCount(null, () -> 7));
+	}
+
+	@Test
+	public void negativeCounterIsReseeded() throws Exception {
+		// A legacy event whose first write was a cancellation
+		assertFalse(EventCounters.isTrusted(-1));
+		assertEquals(20, EventCounters.resolveCount(-1L, () -> 20));
+	}
+
+	@Test
+	public void zeroCounterIsTrusted() throws Exception {
+		assertTrue(EventCounters.isTrusted(0));
+		assertEquals(0, EventCounters.resolveCount(0L, () -> 5));
+	}
+
+	@Test
+	public void adjustNeverGoesBelowZero() {
+		assertEquals(4, EventCounters.adjust(3, 1));
+		assertEquals(2, EventCounters.adjust(3, -1));
+		assertEquals(0, EventCounters.adjust(0, -1));
+	}
+
+	@Test
+	public void reseededLegacyEventAtCapacityIsFull() throws Exception {
+		long capacity = 20;
+		// Stored counter reads -1 after a cancellation, but the roster already holds 20 participants
+		long taken = EventCounters.resolveCount(-1L, () -> 20);
+
+		assertFalse(EventCounters.hasFreeSeat(capacity, taken));
+		assertTrue(EventCounters.hasFreeSeat(capacity, EventCounters.adjust(taken, -1)));
+	}
+
+	@Test
+	public void unlimitedEventsAlwaysHaveASeat() {
+		assertTrue(EventCounters.hasFreeSeat(null, 500));
+		assertTrue(EventCounters.hasFreeSeat(0L, 500));
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.repository.firestore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+public class SeatReservationGateTests {
+
+	private static final String EVENT_ID = "event-1";
+
+	private final SeatReservationGate gate = new SeatReservationGate();
+
+	// Deliberately racy read-then-write, like the old count-then-save registration path
+	private static class UnsafeSeatStore {
+		private final int capacity;
+		private volatile int taken;
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		UnsafeSeatStore(int capacity) {
+			this.capacity = capacity;
+		}
+
+		SeatReservationGate.Outcome attempt() throws InterruptedException {
+			attempts.incrementAndGet();
+			int current = taken;
+			Thread.sleep(1);
+			if (current >= capacity) {
+				return SeatReservationGate.Outcome.FULL;
+			}
+			taken = current + 1;
+			return SeatReservationGate.Outcome.RESERVED;
+		}
+	}
+
+	// Stands in for Firestore's optimistic transactions: the commit fails if the counter document changed since
+	// it was read, and the client library runs the transaction body again
+	private static class OptimisticSeatStore {
+		private record State(Long counter, int participants) { }
+
+		private final Long capacity;
+		private final AtomicReference<State> state;
+
+		OptimisticSeatStore(long capacity, Long counter, int participants) {
+			this.capacity = capacity;
+			this.state = new AtomicReference<>(new State(counter, participants));
+		}
+
+		// The body of EventCounters.reserveSeat, with the seed count read from the same snapshot
+		SeatReservationGate.Outcome reserveSeat() throws ExecutionException, InterruptedException {
+			while (true) {
+				State read = state.get();
+				OptionalLong admitted = EventCounters.admit(capacity, read.counter(), () -> read.participants());
+				Thread.sleep(1);
+				if (admitted.isEmpty()) {
+					return SeatReservationGate.Outcome.FULL;
+				}
+				if (state.compareAndSet(read, new State(admitted.getAsLong(), read.participants() + 1))) {
+					return SeatReservationGate.Outcome.RESERVED;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void instancesSharingTheStoreNeverOverbook() throws Exception {
+		int capacity = 25;
+		int alreadyRegistered = 3;
+		int requests = 200;
+		// The event predates the counter, so the first transaction seeds it from the participant count
+		OptimisticSeatStore store = new OptimisticSeatStore(capacity, null, alreadyRegistered);
+		// Each gate is one application instance; they only coordinate through the store
+		List<SeatReservationGate> instances = List.of(new SeatReservationGate(), new SeatReservationGate());
+
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<SeatReservationGate.Outcome>> results = new ArrayList<>();
+		for (int i = 0; i < requests; i++) {
+			SeatReservationGate instance = instances.get(i % instances.size());
+			results.add(pool.submit(() -> {
+				start.await();
+				return instance.reserve(EVENT_ID, store::reserveSeat);
+			}));
+		}
+		start.countDown();
+
+		int reserved = 0;
+		for (Future<SeatReservationGate.Outcome> result : results) {
+			if (result.get() == SeatReservationGate.Outcome.RESERVED) {
+				reserved++;
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(capacity - alreadyRegistered, reserved);
+		assertEquals(capacity, store.state.get().participants());
+		assertEquals(Long.valueOf(capacity), store.state.get().counter());
+		// Per-event locks are dropped once nobody holds or waits for them
+		instances.forEach(instance -> assertEquals(0, instance.lockCount()));
+	}
+
+	@Test
+	public void concurrentRegistrationsNeverExceedCapacity() throws Exception {
+		int capacity = 25;
+		int requests = 200;
+		UnsafeSeatStore store = new UnsafeSeatStore(capacity);
+
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<SeatReservationGate.Outcome>> results = new ArrayList<>();
+		for (int i = 0; i < requests; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return gate.reserve(EVENT_ID, store::attempt);
+			}));
+		}
+		start.countDown();
+
+		int reserved = 0;
+		int full = 0;
+		for (Future<SeatReservationGate.Outcome> result : results) {
+			SeatReservationGate.Outcome outcome = result.get();
+			if (outcome == SeatReservationGate.Outcome.RESERVED) {
+				reserved++;
+			} else if (outcome == SeatReservationGate.Outcome.FULL) {
+				full++;
+			}
+		}
+		pool.shutdown();
+
+		assertEquals(capacity, reserved);
+		assertEquals(requests - capacity, full);
+		assertEquals(capacity, store.taken);
+		// Once sold out, queued requests are turned away without reaching the store
+		assertTrue(store.attempts.get() < requests);
+		assertEquals(0, gate.lockCount());
+	}
+
+	@Test
+	public void releaseLetsTheNextRegistrationRecheck() throws Exception {
+		UnsafeSeatStore store = new UnsafeSeatStore(1);
+		assertEquals(SeatReservationGate.Outcome.RESERVED, gate.reserve(EVENT_ID, store::attempt));
+		assertEquals(SeatReservationGate.Outcome.FULL, gate.reserve(EVENT_ID, store::attempt));
+
+		int attemptsWhileSoldOut = store.attempts.get();
+		assertEquals(SeatReservationGate.Outcome.FULL, gate.reserve(EVENT_ID, store::attempt));
+		assertEquals(attemptsWhileSoldOut, store.attempts.get());
+
+		store.taken = 0;
+		gate.release(EVENT_ID);
+		assertEquals(SeatReservationGate.Outcome.RESERVED, gate.reserve(EVENT_ID, store::attempt));
+	}
+
+}
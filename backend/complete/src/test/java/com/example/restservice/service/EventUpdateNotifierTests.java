@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.restservice.model.firestore.EventFirestore;
+
+public class EventUpdateNotifierTests {
+
+	private final EventFirestore event = new EventFirestore();
+
+	@Test
+	public void mergeAddsFieldsChangedByLaterEdits() {
+		EventUpdateNotifier.PendingUpdate update = new EventUpdateNotifier.PendingUpdate(event,
+				Map.of("location", "Gym → Field"), 0L);
+
+		update.merge(event, Map.of("startTime", "10:00 AM → 11:00 AM"));
+
+		assertEquals(Map.of("location", "Gym → Field", "startTime", "10:00 AM → 11:00 AM"), update.changes());
+	}
+
+	@Test
+	public void mergeKeepsTheOriginalValueAndTheNewestOne() {
+		EventUpdateNotifier.PendingUpdate update = new EventUpdateNotifier.PendingUpdate(event,
+				Map.of("startTime", "10:00 AM → 11:00 AM"), 0L);
+
+		update.merge(event, Map.of("startTime", "11:00 AM → 11:30 AM"));
+
+		assertEquals(Map.of("startTime", "10:00 AM → 11:30 AM"), update.changes());
+	}
+
+	@Test
+	public void mergeDropsAFieldChangedBack() {
+		EventUpdateNotifier.PendingUpdate update = new EventUpdateNotifier.PendingUpdate(event,
+				Map.of("location", "Gym → Field"), 0L);
+
+		update.merge(event, Map.of("location", "Field → Gym"));
+
+		assertTrue(update.changes().isEmpty());
+	}
+
+	@Test
+	public void mergeHandlesSeveralFieldsAtOnce() {
+		EventUpdateNotifier.PendingUpdate update = new EventUpdateNotifier.PendingUpdate(event,
+				Map.of("location", "Gym → Field", "price", "$10.00 → $12.00"), 0L);
+
+		// One edit reverts the location, moves the price again and changes the date
+		update.merge(event, Map.of(
+				"location", "Field → Gym",
+				"price", "$12.00 → $15.00",
+				"date", "May 3, 2026 → May 10, 2026"));
+
+		assertEquals(Map.of("price", "$10.00 → $15.00", "date", "May 3, 2026 → May 10, 2026"), update.changes());
+	}
+
+	@Test
+	public void mergeTakesTheNewestEvent() {
+		EventFirestore newer = new EventFirestore();
+		EventUpdateNotifier.PendingUpdate update = new EventUpdateNotifier.PendingUpdate(event,
+				Map.of("location", "Gym → Field"), 0L);
+
+		update.merge(newer, Map.of("location", "Field → Park"));
+
+		assertEquals(Map.of("location", "Gym → Park"), update.changes());
+		assertSame(newer, update.event());
+	}
+}
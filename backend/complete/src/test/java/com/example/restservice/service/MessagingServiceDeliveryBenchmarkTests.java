@@ -0,0 +1,229 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.restservice.payload.request.BroadcastMessageRequest;
+
+public class MessagingServiceDeliveryBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(MessagingServiceDeliveryBenchmarkTests.class);
+
+	private static final int RECIPIENTS = 40;
+	private static final long PROVIDER_LATENCY_MS = 20;
+	private static final int INBOX_LIMIT = 8;
+	private static final int EMAIL_LIMIT = 8;
+	private static final int SMS_LIMIT = 4;
+	// Enough recipients for several SendGrid requests, each slow enough that running them back to back shows
+	private static final int EMAIL_BATCHES = 4;
+	private static final long EMAIL_BATCH_LATENCY_MS = 200;
+
+	private final DeliveryEngine engine = new DeliveryEngine();
+	private final SmsDispatchQueue smsDispatchQueue = new SmsDispatchQueue();
+	private final EmailDeliveryService emailDeliveryService = mock(EmailDeliveryService.class);
+	private final FirestoreService firestoreService = mock(FirestoreService.class);
+	private final MessagingService messagingService = new MessagingService();
+	private final MessagingRecipientService recipientService = mock(MessagingRecipientService.class);
+
+	// Mock SMS provider: records peak concurrency and holds every send until the channel limit is reached,
+	// so the peak shows the limit was both reached and never exceeded without relying on timing
+	private static class GatedProvider {
+		private final int limit;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger peak = new AtomicInteger();
+		private final CountDownLatch saturated = new CountDownLatch(1);
+
+		GatedProvider(int limit) {
+			this.limit = limit;
+		}
+
+		void deliver() throws InterruptedException {
+			int current = inFlight.incrementAndGet();
+			peak.accumulateAndGet(current, Math::max);
+			try {
+				if (current >= limit) {
+					saturated.countDown();
+				}
+				// Bounded wait, so a channel that never reaches its limit fails the assertion below instead of hanging
+				saturated.await(5, TimeUnit.SECONDS);
+				Thread.sleep(PROVIDER_LATENCY_MS);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+		}
+	}
+
+	private final GatedProvider sms = new GatedProvider(SMS_LIMIT);
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		engine.start(Map.of(DeliveryEngine.INBOX, INBOX_LIMIT, DeliveryEngine.EMAIL, EMAIL_LIMIT));
+
+		resolveTo(RECIPIENTS);
+
+		when(firestoreService.saveBroadcastMessage(any(), any())).thenReturn("broadcast-1");
+		when(firestoreService.saveBroadcastPointers(anyString(), any(), any())).thenAnswer(invocation -> {
+			Thread.sleep(PROVIDER_LATENCY_MS);
+			return List.of();
+		});
+
+		when(emailDeliveryService.isEnabled()).thenReturn(true);
+		when(emailDeliveryService.sendBatch(anyString(), anyString(), anyList())).thenAnswer(invocation -> {
+			Thread.sleep(PROVIDER_LATENCY_MS);
+			return List.of();
+		});
+
+		SmsDeliveryService smsDeliveryService = mock(SmsDeliveryService.class);
+		when(smsDeliveryService.isEnabled()).thenReturn(true);
+		when(smsDeliveryService.attemptSend(anyString(), anyString())).thenAnswer(invocation -> {
+			sms.deliver();
+			return SmsDeliveryService.SendResult.sent("SM" + invocation.getArgument(0));
+		});
+		doThrow(new IllegalStateException("boom")).when(smsDeliveryService).attemptSend(eq("+15550000013"), anyString());
+
+		// Rate limit well above the benchmark load so only the worker count bounds SMS concurrency
+		ReflectionTestUtils.setField(smsDispatchQueue, "smsDeliveryService", smsDeliveryService);
+		ReflectionTestUtils.setField(smsDispatchQueue, "ratePerSecond", 10_000.0);
+		ReflectionTestUtils.setField(smsDispatchQueue, "burst", 100);
+		ReflectionTestUtils.setField(smsDispatchQueue, "workerCount", SMS_LIMIT);
+		ReflectionTestUtils.setField(smsDispatchQueue, "maxAttempts", 1);
+		ReflectionTestUtils.setField(smsDispatchQueue, "queueCapacity", 10_000);
+		smsDispatchQueue.start();
+
+		ReflectionTestUtils.setField(messagingService, "recipientService", recipientService);
+		ReflectionTestUtils.setField(messagingService, "firestoreService", firestoreService);
+		ReflectionTestUtils.setField(messagingService, "emailDeliveryService", emailDeliveryService);
+		ReflectionTestUtils.setField(messagingService, "smsDeliveryService", smsDeliveryService);
+		ReflectionTestUtils.setField(messagingService, "smsDispatchQueue", smsDispatchQueue);
+		ReflectionTestUtils.setField(messagingService, "deliveryEngine", engine);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		engine.stop();
+		smsDispatchQueue.stop();
+	}
+
+	private void resolveTo(int count) {
+		List<MessagingRecipient> recipients = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			MessagingRecipient recipient = new MessagingRecipient();
+			recipient.setFirebaseUid("uid-" + i);
+			recipient.setEmail("user" + i + "@example.com");
+			recipient.setPhoneNumber("+1555000" + String.format("%04d", i));
+			recipient.setDisplayName("User " + i);
+			recipients.add(recipient);
+		}
+		when(recipientService.resolveRecipients(any(), any(), any(), any(), any()))
+				.thenReturn(new MessagingRecipientService.RecipientResolutionResult(
+						recipients, List.of(), List.of(), Map.of(RecipientCategory.ALL_USERS, count)));
+	}
+
+	@Test
+	public void parallelDeliveryRespectsPerChannelLimits() throws Exception {
+		BroadcastMessageRequest request = new BroadcastMessageRequest();
+		request.setSubject("Practice moved");
+		request.setMessage("Saturday practice starts at 10am.");
+		request.setCategories(List.of("all"));
+		request.setDeliveryChannels(List.of("inbox", "email", "phone"));
+
+		long start = System.nanoTime();
+		MessagingService.BroadcastResult result = messagingService.broadcast(request, "Admin");
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// The old loop paid every provider round trip back to back; reported only, since timing varies by machine
+		long sequentialMs = 3L * RECIPIENTS * PROVIDER_LATENCY_MS;
+		logger.info("Broadcast to {} recipients x 3 channels: {} ms parallel vs ~{} ms sequential ({}x)",
+				RECIPIENTS, elapsedMs, sequentialMs, String.format("%.1f", (double) sequentialMs / Math.max(1, elapsedMs)));
+
+		assertEquals(RECIPIENTS, result.getInboxSent());
+		assertEquals(RECIPIENTS, result.getEmailSent());
+		assertEquals(RECIPIENTS - 1, result.getSmsSent());
+		assertEquals(1, result.getSmsFailed());
+		assertEquals(1, result.getFailures().size());
+		// All 40 emails fit in one SendGrid request
+		verify(emailDeliveryService, times(1)).sendBatch(anyString(), anyString(), anyList());
+		// The inbox body is stored once and all 40 pointers go out in one batched write
+		verify(firestoreService, times(1)).saveBroadcastMessage(any(), any());
+		verify(firestoreService, times(1)).saveBroadcastPointers(eq("broadcast-1"), any(), any());
+
+		// SMS is still one provider call per recipient: the workers ran in parallel, up to and never past the limit
+		assertEquals(0, sms.saturated.getCount(), "SMS never reached " + SMS_LIMIT + " concurrent sends");
+		assertEquals(SMS_LIMIT, sms.peak.get(), "sms concurrency " + sms.peak.get());
+	}
+
+	@Test
+	public void emailBatchesOfOneBroadcastOverlap() throws Exception {
+		int recipients = (EMAIL_BATCHES - 1) * EmailDeliveryService.MAX_BATCH_SIZE + 1;
+		resolveTo(recipients);
+
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		when(emailDeliveryService.sendBatch(anyString(), anyString(), anyList())).thenAnswer(invocation -> {
+			peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(EMAIL_BATCH_LATENCY_MS);
+			} finally {
+				inFlight.decrementAndGet();
+			}
+			return List.of();
+		});
+
+		BroadcastMessageRequest request = new BroadcastMessageRequest();
+		request.setSubject("Practice moved");
+		request.setMessage("Saturday practice starts at 10am.");
+		request.setCategories(List.of("all"));
+		request.setDeliveryChannels(List.of("email"));
+
+		long start = System.nanoTime();
+		MessagingService.BroadcastResult result = messagingService.broadcast(request, "Admin");
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		long sequentialMs = EMAIL_BATCHES * EMAIL_BATCH_LATENCY_MS;
+		logger.info("{} email batches: {} ms parallel vs ~{} ms sequential", EMAIL_BATCHES, elapsedMs, sequentialMs);
+
+		assertEquals(recipients, result.getEmailSent());
+		verify(emailDeliveryService, times(EMAIL_BATCHES)).sendBatch(anyString(), anyString(), anyList());
+		// Loose on purpose: back to back the batches cannot finish in under their summed latency
+		assertTrue(peak.get() > 1, "email batches never overlapped");
+		assertTrue(elapsedMs < sequentialMs, "took " + elapsedMs + " ms, no faster than sequential " + sequentialMs + " ms");
+	}
+}
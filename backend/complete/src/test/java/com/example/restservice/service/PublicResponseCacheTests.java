@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class PublicResponseCacheTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final PublicResponseCache cache = new PublicResponseCache();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final List<Map<String, Object>> events = new ArrayList<>();
+
+	@BeforeEach
+	public void setUp() {
+		ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(cache, "maxAgeSeconds", 60L);
+		for (int i = 0; i < 50; i++) {
+			events.add(Map.of("id", "event-" + i, "name", "Baseball clinic " + i, "location", "Community field"));
+		}
+	}
+
+	@Test
+	public void servesStoredBodyUntilVersionChanges() throws Exception {
+		ResponseEntity<?> first = cache.respond("events", "1", new MockHttpServletRequest(), this::load);
+		ResponseEntity<?> second = cache.respond("events", "1", new MockHttpServletRequest(), this::load);
+
+		assertEquals(1, loads.get());
+		assertArrayEquals(objectMapper.writeValueAsBytes(events), (byte[]) second.getBody());
+		assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+		assertEquals("max-age=60, public", second.getHeaders().getCacheControl());
+
+		cache.respond("events", "2", new MockHttpServletRequest(), this::load);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void matchingIfNoneMatchGetsNotModifiedWithoutLoading() throws Exception {
+		String etag = cache.respond("events", "1", new MockHttpServletRequest(), this::load).getHeaders().getETag();
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+		ResponseEntity<?> response = cache.respond("events", "1", request, this::load);
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertNull(response.getBody());
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void gzipClientsGetPrecompressedBodyWithItsOwnEtag() throws Exception {
+		ResponseEntity<?> plain = cache.respond("events", "1", new MockHttpServletRequest(), this::load);
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+		ResponseEntity<?> gzipped = cache.respond("events", "1", request, this::load);
+
+		assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertNotEquals(plain.getHeaders().getETag(), gzipped.getHeaders().getETag());
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) gzipped.getBody()))) {
+			assertArrayEquals((byte[]) plain.getBody(), in.readAllBytes());
+		}
+	}
+
+	@Test
+	public void parsesAcceptEncoding() {
+		assertTrue(PublicResponseCache.acceptsGzip("gzip"));
+		assertTrue(PublicResponseCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertFalse(PublicResponseCache.acceptsGzip("gzip;q=0"));
+		assertFalse(PublicResponseCache.acceptsGzip("identity"));
+		assertFalse(PublicResponseCache.acceptsGzip(null));
+	}
+
+	private Object load() {
+		loads.incrementAndGet();
+		return events;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.restservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URLDecoder;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.twilio.exception.ApiConnectionException;
+
+public class SmsDispatchQueueTests {
+
+	private static final String ACCOUNT_SID = "AC00000000000000000000000000000000";
+	private static final double RATE_PER_SECOND = 20;
+	private static final String THROTTLED_NUMBER = "+15550000003";
+	private static final String REJECTED_NUMBER = "+15550000004";
+	private static final String SERVER_ERROR_NUMBER = "+15550000005";
+
+	private HttpServer fakeTwilio;
+	private final List<Long> requestTimes = Collections.synchronizedList(new ArrayList<>());
+	private final Map<String, AtomicInteger> requestsByNumber = new ConcurrentHashMap<>();
+
+	private final SmsDeliveryService smsDeliveryService = new SmsDeliveryService();
+	private final SmsDispatchQueue queue = new SmsDispatchQueue();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		fakeTwilio = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		fakeTwilio.createContext("/2010-04-01/Accounts/" + ACCOUNT_SID + "/Messages.json", this::handleCreateMessage);
+		fakeTwilio.start();
+
+		ReflectionTestUtils.setField(smsDeliveryService, "smsEnabled", true);
+		ReflectionTestUtils.setField(smsDeliveryService, "accountSid", ACCOUNT_SID);
+		ReflectionTestUtils.setField(smsDeliveryService, "authToken", "test-token");
+		ReflectionTestUtils.setField(smsDeliveryService, "fromNumber", "+15559990000");
+		ReflectionTestUtils.setField(smsDeliveryService, "apiBaseUrl",
+				"http://127.0.0.1:" + fakeTwilio.getAddress().getPort());
+
+		ReflectionTestUtils.setField(queue, "smsDeliveryService", smsDeliveryService);
+		ReflectionTestUtils.setField(queue, "ratePerSecond", RATE_PER_SECOND);
+		ReflectionTestUtils.setField(queue, "burst", 1);
+		ReflectionTestUtils.setField(queue, "workerCount", 2);
+		ReflectionTestUtils.setField(queue, "maxAttempts", 3);
+		ReflectionTestUtils.setField(queue, "initialBackoffMs", 50L);
+		ReflectionTestUtils.setField(queue, "maxBackoffMs", 1000L);
+		ReflectionTestUtils.setField(queue, "queueCapacity", 1000);
+		queue.start();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		queue.stop();
+		fakeTwilio.stop(0);
+	}
+
+	// Mimics Twilio's Create Message endpoint: throttles one number once, rejects another outright and fails a
+	// third with a server error
+	private void handleCreateMessage(HttpExchange exchange) throws IOException {
+		requestTimes.add(System.nanoTime());
+		String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		String to = "";
+		for (String pair : form.split("&")) {
+			if (pair.startsWith("To=")) {
+				to = URLDecoder.decode(pair.substring(3), StandardCharsets.UTF_8);
+			}
+		}
+		int attempt = requestsByNumber.computeIfAbsent(to, k -> new AtomicInteger()).incrementAndGet();
+
+		if (THROTTLED_NUMBER.equals(to) && attempt == 1) {
+			respond(exchange, 429, "{\"code\": 20429, \"message\": \"Too Many Requests\", \"status\": 429}");
+		} else if (REJECTED_NUMBER.equals(to)) {
+			respond(exchange, 400, "{\"code\": 21211, \"message\": \"Invalid 'To' Phone Number\", \"status\": 400}");
+		} else if (SERVER_ERROR_NUMBER.equals(to)) {
+			respond(exchange, 500, "{\"code\": 20500, \"message\": \"Internal Server Error\", \"status\": 500}");
+		} else {
+			respond(exchange, 201, "{\"sid\": \"SM" + Math.abs(to.hashCode()) + "\", \"account_sid\": \"" + ACCOUNT_SID
+					+ "\", \"to\": \"" + to + "\", \"status\": \"queued\"}");
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	@Test
+	public void queuePacesRequestsAndRetriesThrottledMessages() throws Exception {
+		int messages = 20;
+		List<CompletableFuture<SmsDeliveryService.SendResult>> results = new ArrayList<>();
+		for (int i = 0; i < messages; i++) {
+			results.add(queue.submit(String.format("+1555000%04d", i), "Practice moved to 10am"));
+		}
+		CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+		SmsDeliveryService.SendResult throttled = results.get(3).get();
+		assertTrue(throttled.isDelivered());
+		assertEquals(2, throttled.getAttempts());
+
+		SmsDeliveryService.SendResult rejected = results.get(4).get();
+		assertFalse(rejected.isDelivered());
+		assertEquals(400, rejected.getStatusCode());
+		assertEquals(1, rejected.getAttempts());
+
+		long delivered = results.stream().filter(future -> future.join().isDelivered()).count();
+		assertEquals(messages - 1, delivered);
+
+		// 21 requests (one retry) at 20/s with a burst of 1 need at least a second between first and last
+		List<Long> times = new ArrayList<>(requestTimes);
+		assertEquals(messages + 1, times.size());
+		long spanMs = TimeUnit.NANOSECONDS.toMillis(Collections.max(times) - Collections.min(times));
+		long minimumSpanMs = (long) ((times.size() - 1) / RATE_PER_SECOND * 1000);
+		assertTrue(spanMs >= minimumSpanMs * 0.9, "requests were not paced: " + spanMs + " ms");
+	}
+
+	@Test
+	public void serverErrorIsNotRetried() throws Exception {
+		// Twilio may have created the message before failing, so resending could deliver it twice
+		SmsDeliveryService.SendResult result = queue.submit(SERVER_ERROR_NUMBER, "Practice moved to 10am")
+				.get(10, TimeUnit.SECONDS);
+
+		assertFalse(result.isDelivered());
+		assertEquals(500, result.getStatusCode());
+		assertEquals(1, result.getAttempts());
+		assertEquals(1, requestsByNumber.get(SERVER_ERROR_NUMBER).get());
+	}
+
+	@Test
+	public void onlyConnectionsThatWereNeverEstablishedAreSafeToResend() {
+		assertTrue(SmsDeliveryService.failedBeforeSending(
+				new ApiConnectionException("Connection refused", new ConnectException("Connection refused"))));
+		assertTrue(SmsDeliveryService.failedBeforeSending(
+				new ApiConnectionException("Unknown host", new UnknownHostException("api.twilio.com"))));
+		assertFalse(SmsDeliveryService.failedBeforeSending(
+				new ApiConnectionException("Read timed out", new SocketTimeoutException("Read timed out"))));
+		assertFalse(SmsDeliveryService.failedBeforeSending(new ApiConnectionException("Connection reset")));
+	}
+
+	@Test
+	public void fullQueueRejectsSubmissionsImmediately() {
+		queue.stop();
+		ReflectionTestUtils.setField(queue, "ratePerSecond", 1.0);
+		ReflectionTestUtils.setField(queue, "queueCapacity", 1);
+		queue.start();
+
+		// Two workers hold one message each and one more fits in the queue; the rest cannot wait
+		List<CompletableFuture<SmsDeliveryService.SendResult>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			results.add(queue.submit(String.format("+1555000%04d", i), "Practice moved to 10am"));
+		}
+
+		long rejected = results.stream()
+				.filter(CompletableFuture::isDone)
+				.map(CompletableFuture::join)
+				.filter(result -> "SMS queue is full".equals(result.getErrorMessage()))
+				.count();
+		assertTrue(rejected >= 5, "expected most submissions to be rejected, got " + rejected);
+	}
+}
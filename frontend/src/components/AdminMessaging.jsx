@@ -1,4 +1,4 @@
-import React, { useMemo, useState, useEffect } from 'react';
+import React, { useMemo, useState, useEffect, useRef } from 'react';
 import { apiService } from '../services/api';
 import BroadcastHistory from './BroadcastHistory';
 
@@ -15,6 +15,8 @@ const CHANNEL_OPTIONS = [
   { id: 'all', label: 'All Channels', icon: 'fa-broadcast-tower' },
 ];
 
+const BROADCAST_POLL_INTERVAL_MS = 1500;
+
 const AdminMessaging = () => {
   const [subject, setSubject] = useState('');
   const [message, setMessage] = useState('');
@@ -31,6 +33,8 @@ const AdminMessaging = () => {
   const [selectedRecipients, setSelectedRecipients] = useState([]);
   const [loadingRecipients, setLoadingRecipients] = useState({});
   const [overrideOptOuts, setOverrideOptOuts] = useState(false);
+  // Reused when a send is retried, so the server recognizes the repeat instead of broadcasting twice
+  const idempotencyKeyRef = useRef(null);
 
   // Helper function to format event date
   const formatEventDate = (dateString) => {
@@ -52,7 +56,7 @@ const AdminMessaging = () => {
   useEffect(() => {
     const fetchEvents = async () => {
       try {
-        const eventsData = await apiService.getAllEvents();
+        const eventsData = await apiService.getAllEvents({ revalidate: true });
         setEvents(eventsData || []);
       } catch (error) {
         console.error('Failed to fetch events for messaging categories:', error);
@@ -305,9 +309,26 @@ const AdminMessaging = () => {
     try {
       setSending(true);
       console.log('Sending broadcast message with payload:', payload);
-      const response = await apiService.broadcastMessage(payload);
+      if (!idempotencyKeyRef.current) {
+        idempotencyKeyRef.current = crypto.randomUUID();
+      }
+      const { jobId } = await apiService.broadcastMessage(payload, idempotencyKeyRef.current);
+
+      // Broadcasts run in the background; poll the job until delivery finishes
+      let job = await apiService.getBroadcastJob(jobId);
+      while (job.status !== 'COMPLETED' && job.status !== 'FAILED') {
+        await new Promise((resolve) => setTimeout(resolve, BROADCAST_POLL_INTERVAL_MS));
+        job = await apiService.getBroadcastJob(jobId);
+      }
+      idempotencyKeyRef.current = null;
+
+      if (job.status === 'FAILED') {
+        throw new Error(job.error || 'Broadcast failed.');
+      }
+
+      const response = job.result || job;
       setDeliveryResult(response);
-      setSuccess(`Message queued for ${response.totalRecipients} recipient${response.totalRecipients === 1 ? '' : 's'}.`);
+      setSuccess(`Message sent to ${response.totalRecipients} recipient${response.totalRecipients === 1 ? '' : 's'}.`);
     } catch (err) {
       console.error('Failed to broadcast admin message:', err);
       setError(err?.message || 'Unable to send messages at this time.');
@@ -322,6 +343,7 @@ const AdminMessaging = () => {
     setContactList('');
     setSelectedCategories([]);
     setChannels(['inbox']);
+    idempotencyKeyRef.current = null;
     setSuccess('');
     setError('');
     setDeliveryResult(null);
@@ -689,15 +711,15 @@ const AdminMessaging = () => {
               </div>
               <div>
                 <strong>Inbox</strong>
-                <span>{deliveryResult.inboxSent} sent / {deliveryResult.inboxSkipped} skipped</span>
+                <span>{deliveryResult.inboxSent} sent / {deliveryResult.inboxSkipped} skipped / {deliveryResult.inboxFailed ?? 0} failed</span>
               </div>
               <div>
                 <strong>Email</strong>
-                <span>{deliveryResult.emailSent} sent / {deliveryResult.emailSkipped} skipped</span>
+                <span>{deliveryResult.emailSent} sent / {deliveryResult.emailSkipped} skipped / {deliveryResult.emailFailed ?? 0} failed</span>
               </div>
               <div>
                 <strong>SMS</strong>
-                <span>{deliveryResult.smsSent} sent / {deliveryResult.smsSkipped} skipped</span>
+                <span>{deliveryResult.smsSent} sent / {deliveryResult.smsSkipped} skipped / {deliveryResult.smsFailed ?? 0} failed</span>
               </div>
             </div>
 
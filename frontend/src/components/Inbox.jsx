@@ -2,13 +2,17 @@ import React, { useState, useEffect } from 'react';
 import { useAuth } from '../context/AuthContext';
 import { apiService } from '../services/api';
 import firebaseRealtimeService from '../services/firebaseRealtimeService';
-import { doc, updateDoc, deleteDoc } from 'firebase/firestore';
-import { db } from '../firebaseConfig';
+
+// Messages per inbox page; the live subscription covers the newest page and older pages load on demand
+const INBOX_PAGE_SIZE = 20;
 
 const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
   const { currentUser, userProfile, needsProfileCompletion } = useAuth();
   const [messages, setMessages] = useState([]);
   const [firestoreMessages, setFirestoreMessages] = useState([]);
+  const [pagedMessages, setPagedMessages] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [unreadCount, setUnreadCount] = useState(0);
 
@@ -69,7 +73,8 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
         },
         (error) => {
           console.error('Real-time message subscription error:', error);
-        }
+        },
+        INBOX_PAGE_SIZE
       );
 
       // Cleanup subscription on unmount
@@ -88,8 +93,12 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
       const savedMessages = JSON.parse(localStorage.getItem(`inbox_${currentUser.uid}`) || '[]');
       const systemMessages = savedMessages.filter(msg => msg.isSystem);
 
+      // Older pages loaded through the API, minus anything the live subscription already covers
+      const liveIds = new Set(firestoreMessages.map(msg => msg.id));
+      const olderMessages = pagedMessages.filter(msg => !liveIds.has(msg.id));
+
       // Normalize timestamps for Firestore messages
-      const normalizedFirestoreMessages = firestoreMessages.map(msg => {
+      const normalizedFirestoreMessages = [...firestoreMessages, ...olderMessages].map(msg => {
         // Convert timestamp to Date if it's a number (epoch milliseconds)
         if (typeof msg.timestamp === 'number') {
           return { ...msg, timestamp: new Date(msg.timestamp).toISOString() };
@@ -120,7 +129,7 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
       const unread = allMessages.filter(msg => !msg.read).length;
       setUnreadCount(unread);
     }
-  }, [firestoreMessages, currentUser]);
+  }, [firestoreMessages, pagedMessages, currentUser]);
 
   const loadMessages = async () => {
     if (!currentUser) return;
@@ -128,9 +137,11 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
     setLoading(true);
     try {
       // Try to load messages from backend for ALL users
-      const response = await apiService.getInboxMessages();
+      const response = await apiService.getInboxMessages({ limit: INBOX_PAGE_SIZE });
       if (response && response.messages) {
         const normalizedMessages = normalizeMessageLinks(response.messages);
+        setPagedMessages(normalizedMessages);
+        setNextCursor(response.nextCursor || null);
         const unreadFromApi = normalizedMessages.filter(msg => !msg.read).length;
         setMessages(normalizedMessages);
         setUnreadCount(response.unreadCount !== undefined ? response.unreadCount : unreadFromApi);
@@ -154,6 +165,26 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
     setLoading(false);
   };
 
+  const loadMoreMessages = async () => {
+    if (!nextCursor || loadingMore) return;
+
+    setLoadingMore(true);
+    try {
+      const response = await apiService.getInboxMessages({ limit: INBOX_PAGE_SIZE, cursor: nextCursor });
+      const older = normalizeMessageLinks(response?.messages || []);
+      setPagedMessages(prev => [...prev, ...older.filter(msg => !prev.some(existing => existing.id === msg.id))]);
+      setNextCursor(response?.nextCursor || null);
+    } catch (error) {
+      if (error.status === 400) {
+        // The cursor message was deleted - start over from the newest page
+        await loadMessages();
+      } else {
+        console.error('Error loading older messages:', error);
+      }
+    }
+    setLoadingMore(false);
+  };
+
   const generateSystemMessages = () => {
     if (!currentUser) return;
 
@@ -257,26 +288,15 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
       localStorage.setItem(`inbox_${currentUser.uid}`, JSON.stringify(systemMessages));
       setUnreadCount(prev => Math.max(0, prev - 1));
     } else {
-      // Handle Firestore messages - try API first, fallback to direct Firestore update
+      // Firestore messages are only changed through the API, which keeps the unread counter in step
       try {
-        // Try API endpoint first
         await apiService.markMessageAsRead(messageId);
+        setPagedMessages(prev => prev.map(msg =>
+          msg.id === messageId ? { ...msg, read: true } : msg
+        ));
         console.log('Marked message as read via API:', messageId);
-      } catch (apiError) {
-        // Fallback to direct Firestore update
-        try {
-          const messageRef = doc(db, 'users', currentUser.uid, 'messages', messageId);
-          await updateDoc(messageRef, { read: true });
-          console.log('Marked Firestore message as read directly:', messageId);
-        } catch (error) {
-          console.error('Error marking Firestore message as read:', error);
-          // Fallback to local update if Firestore fails
-          const updatedMessages = messages.map(msg =>
-            msg.id === messageId ? { ...msg, read: true } : msg
-          );
-          setMessages(updatedMessages);
-          setUnreadCount(prev => Math.max(0, prev - 1));
-        }
+      } catch (error) {
+        console.error('Error marking message as read:', error);
       }
     }
   };
@@ -293,18 +313,13 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
       const unread = updatedMessages.filter(msg => !msg.read).length;
       setUnreadCount(unread);
     } else {
-      // Handle Firestore messages
+      // Firestore messages are only deleted through the API, which keeps the unread counter in step
       try {
-        const messageRef = doc(db, 'users', currentUser.uid, 'messages', messageId);
-        await deleteDoc(messageRef);
-        console.log('Deleted Firestore message:', messageId);
+        await apiService.deleteInboxMessage(messageId);
+        setPagedMessages(prev => prev.filter(msg => msg.id !== messageId));
+        console.log('Deleted message via API:', messageId);
       } catch (error) {
-        console.error('Error deleting Firestore message:', error);
-        // Fallback to local update if Firestore fails
-        const updatedMessages = messages.filter(msg => msg.id !== messageId);
-        setMessages(updatedMessages);
-        const unread = updatedMessages.filter(msg => !msg.read).length;
-        setUnreadCount(unread);
+        console.error('Error deleting message:', error);
       }
     }
   };
@@ -470,6 +485,17 @@ const Inbox = ({ isOpen, onClose, isDropdown = false }) => {
                   )}
                 </div>
               ))}
+              {nextCursor && (
+                <div className="inbox-view-all">
+                  <button
+                    className="btn btn-secondary btn-sm"
+                    onClick={loadMoreMessages}
+                    disabled={loadingMore}
+                  >
+                    {loadingMore ? 'Loading...' : 'Load older messages'}
+                  </button>
+                </div>
+              )}
             </div>
           )}
         </div>
@@ -489,20 +515,26 @@ export const useInboxCount = () => {
 
     if (currentUser) {
       setLoading(true);
-      const messages = JSON.parse(localStorage.getItem(`inbox_${currentUser.uid}`) || '[]');
-      const unread = messages.filter(msg => !msg.read).length;
-      if (isMounted) {
-        setUnreadCount(unread);
-        setLoading(false);
-      }
 
-      const interval = setInterval(() => {
+      // Local system messages plus the server's unread counter (one small read per poll)
+      const refreshCount = async () => {
+        const savedMessages = JSON.parse(localStorage.getItem(`inbox_${currentUser.uid}`) || '[]');
+        const localUnread = savedMessages.filter(msg => msg.isSystem && !msg.read).length;
+        let serverUnread = 0;
+        try {
+          const response = await apiService.getInboxUnreadCount();
+          serverUnread = response?.unreadCount || 0;
+        } catch (error) {
+          // Counter unavailable - show local messages only
+        }
         if (isMounted) {
-          const updatedMessages = JSON.parse(localStorage.getItem(`inbox_${currentUser.uid}`) || '[]');
-          const updatedUnread = updatedMessages.filter(msg => !msg.read).length;
-          setUnreadCount(updatedUnread);
+          setUnreadCount(localUnread + serverUnread);
+          setLoading(false);
         }
-      }, 30000);
+      };
+
+      refreshCount();
+      const interval = setInterval(refreshCount, 30000);
 
       return () => {
         isMounted = false;
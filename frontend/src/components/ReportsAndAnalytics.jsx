@@ -28,7 +28,7 @@ const ReportsAndAnalytics = () => {
     setIsLoading(true);
     try {
       // Fetch basic data that's available to all users
-      const eventsData = await apiService.getEvents().catch(() => []);
+      const eventsData = await apiService.getEvents({ revalidate: true }).catch(() => []);
       const events = Array.isArray(eventsData) ? eventsData : [];
 
       let usersData = [];
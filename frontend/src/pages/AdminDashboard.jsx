@@ -146,7 +146,7 @@ const AdminDashboard = () => {
     const fetchEvents = async () => {
       try {
         // Fetch events only - stats are managed by real-time Firestore listeners
-        const eventsData = await apiService.getEvents();
+        const eventsData = await apiService.getEvents({ revalidate: true });
 
         console.log('Admin dashboard fetched events:', eventsData);
         setEvents(eventsData);
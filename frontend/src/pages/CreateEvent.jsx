@@ -46,7 +46,7 @@ const CreateEvent = () => {
     try {
       setIsLoading(true);
       setError(null);
-      const eventData = await apiService.getEvent(id);
+      const eventData = await apiService.getEvent(id, { revalidate: true });
       setOriginalEvent(eventData);
 
       // Populate form data with existing event data
@@ -37,6 +37,7 @@ const Dashboard = () => {
   const [currentVolunteerApplication, setCurrentVolunteerApplication] = useState(null);
 
   // Volunteer check-in state
+  const [calendarFeedUrl, setCalendarFeedUrl] = useState(null);
   const [showVolunteerCheckIn, setShowVolunteerCheckIn] = useState(false);
   const [selectedEvent, setSelectedEvent] = useState(null);
   const [searchQuery, setSearchQuery] = useState('');
@@ -943,6 +944,40 @@ const Dashboard = () => {
     setShowConfirmModal(true);
   };
 
+  const handleSubscribeCalendar = async () => {
+    try {
+      const response = await apiService.getCalendarFeedToken();
+      setCalendarFeedUrl(apiService.calendarFeedUrl(response.token));
+    } catch (error) {
+      console.error('Failed to load calendar feed:', error);
+    }
+  };
+
+  const renderCalendarFeed = () => (
+    <div className="mb-3">
+      {calendarFeedUrl ? (
+        <div className="alert alert-secondary">
+          <i className="fas fa-calendar-plus mr-2"></i>
+          Add this address to your calendar app to keep these events up to date:
+          <input
+            className="form-control mt-2"
+            readOnly
+            value={calendarFeedUrl}
+            onFocus={(e) => e.target.select()}
+          />
+          <a className="btn btn-outline-primary btn-sm mt-2" href={calendarFeedUrl.replace(/^https?:/, 'webcal:')}>
+            Open in calendar app
+          </a>
+        </div>
+      ) : (
+        <button className="btn btn-outline-primary btn-sm" onClick={handleSubscribeCalendar}>
+          <i className="fas fa-calendar-plus mr-2"></i>
+          Subscribe to calendar
+        </button>
+      )}
+    </div>
+  );
+
   // Volunteer check-in handlers
   const handleVolunteerCheckIn = (event) => {
     setSelectedEvent(event);
@@ -1258,6 +1293,7 @@ const Dashboard = () => {
                       <i className="fas fa-info-circle mr-2"></i>
                       <strong>Note:</strong> To register for events, please first add your children's information in the "My Children" tab above.
                     </div>
+                    {renderCalendarFeed()}
 
                     {registeredEvents.length === 0 ? (
                       <div className="empty-state">
@@ -1378,6 +1414,7 @@ const Dashboard = () => {
 
                 {activeTab === 'volunteer' && (
                   <div className="tab-content">
+                    {volunteerEvents.length > 0 && renderCalendarFeed()}
                     {volunteerEvents.length === 0 ? (
                       <div className="volunteer-welcome-card">
                         <div className="volunteer-icon">
@@ -18,7 +18,7 @@ const EventRegistrations = () => {
     try {
       setLoading(true);
       // Fetch event details
-      const eventData = await apiService.getEvent(id);
+      const eventData = await apiService.getEvent(id, { revalidate: true });
       setEvent(eventData);
 
       // Fetch participants for this event
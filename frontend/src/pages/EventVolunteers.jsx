@@ -17,7 +17,7 @@ const EventVolunteers = () => {
     try {
       setLoading(true);
       // Fetch event details
-      const eventData = await apiService.getEvent(id);
+      const eventData = await apiService.getEvent(id, { revalidate: true });
       setEvent(eventData);
 
       // Fetch volunteers for this event
@@ -124,12 +124,12 @@ class ApiService {
 
       const config = {
         method: 'GET',
+        ...options,
         headers: {
           'Content-Type': 'application/json',
           'Authorization': `Bearer ${token}`,
           ...options.headers,
         },
-        ...options,
       };
 
       const tokenPreview = token ? `${token.slice(0, 8)}...` : 'none';
@@ -362,7 +362,9 @@ class ApiService {
   }
 
   // Event endpoints
-  async getEvents() {
+  // Public event reads may be served from the browser cache for a short while; admin screens pass
+  // { revalidate: true } so they always see their own edits (an unchanged list comes back as a cheap 304)
+  async getEvents({ revalidate = false } = {}) {
     // Public endpoint - no auth required
     try {
       const response = await fetch(`${this.baseURL}/events`, {
@@ -371,6 +373,7 @@ class ApiService {
           'Content-Type': 'application/json',
         },
         mode: 'cors',
+        cache: revalidate ? 'no-cache' : 'default',
       });
 
       if (!response.ok) {
@@ -386,8 +389,8 @@ class ApiService {
     }
   }
 
-  async getAllEvents() {
-    return this.getEvents();
+  async getAllEvents(options) {
+    return this.getEvents(options);
   }
 
   async getUpcomingEvents() {
@@ -414,7 +417,7 @@ class ApiService {
     }
   }
 
-  async getEvent(id) {
+  async getEvent(id, { revalidate = false } = {}) {
     // Public endpoint - no auth required, with Firestore fallback
     try {
       const response = await fetch(`${this.baseURL}/events/${id}`, {
@@ -423,6 +426,7 @@ class ApiService {
           'Content-Type': 'application/json',
         },
         mode: 'cors',
+        cache: revalidate ? 'no-cache' : 'default',
       });
 
       if (!response.ok) {
@@ -777,10 +781,14 @@ class ApiService {
   }
 
   // Inbox/Messaging Methods
-  async getInboxMessages() {
+  async getInboxMessages({ limit, cursor } = {}) {
+    const params = new URLSearchParams();
+    if (limit) params.set('limit', limit);
+    if (cursor) params.set('cursor', cursor);
+    const query = params.toString();
     try {
       // Try to fetch inbox messages, fallback to empty if not available
-      return await this.makeRequest('/messages/inbox');
+      return await this.makeRequest(`/messages/inbox${query ? `?${query}` : ''}`);
     } catch (error) {
       // Handle 403 errors gracefully for inbox (expected when endpoint isn't available for regular users)
       if (error.message.includes('403') || error.message.includes('Forbidden')) {
@@ -797,6 +805,31 @@ class ApiService {
     });
   }
 
+  // Calendar feed - a per-user .ics URL that calendar apps can subscribe to
+  calendarFeedUrl(token) {
+    return `${this.baseURL}/calendar/feed/${token}.ics`;
+  }
+
+  async getCalendarFeedToken() {
+    return this.makeRequest('/calendar/feed-token');
+  }
+
+  async resetCalendarFeedToken() {
+    return this.makeRequest('/calendar/feed-token', {
+      method: 'POST',
+    });
+  }
+
+  async getInboxUnreadCount() {
+    return this.makeRequest('/messages/inbox/unread-count');
+  }
+
+  async deleteInboxMessage(messageId) {
+    return this.makeRequest(`/messages/inbox/${messageId}`, {
+      method: 'DELETE',
+    });
+  }
+
   async sendMessage(userId, messageData) {
     return this.makeRequest(`/messages/send/${userId}`, {
       method: 'POST',
@@ -804,13 +837,18 @@ class ApiService {
     });
   }
 
-  async broadcastMessage(broadcastPayload) {
+  async broadcastMessage(broadcastPayload, idempotencyKey) {
     return this.makeRequest('/messages/broadcast', {
       method: 'POST',
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {},
       body: JSON.stringify(broadcastPayload),
     });
   }
 
+  async getBroadcastJob(jobId) {
+    return this.makeRequest(`/messages/broadcast-jobs/${jobId}`);
+  }
+
   // Broadcast History APIs
   async getBroadcastHistory() {
     return this.makeRequest('/messages/broadcast-history');
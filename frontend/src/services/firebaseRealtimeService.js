@@ -1,5 +1,5 @@
 import { db } from '../firebaseConfig';
-import { collection, doc, onSnapshot, query, where, orderBy, addDoc, serverTimestamp, writeBatch } from 'firebase/firestore';
+import { collection, doc, getDoc, onSnapshot, query, where, orderBy, limit, addDoc, serverTimestamp, writeBatch } from 'firebase/firestore';
 
 class FirebaseRealtimeService {
   constructor() {
@@ -254,7 +254,8 @@ class FirebaseRealtimeService {
   }
 
   // Listen to user messages for realtime inbox updates
-  subscribeToUserMessages(userId, callback, errorCallback) {
+  // pageSize limits the subscription to the newest messages; older ones are paged through the inbox API
+  subscribeToUserMessages(userId, callback, errorCallback, pageSize) {
     const listenerKey = `user_messages_${userId}`;
 
     // Clean up existing listener if any
@@ -263,16 +264,30 @@ class FirebaseRealtimeService {
 
     try {
       const messagesRef = collection(db, 'users', userId, 'messages');
-      const messagesQuery = query(messagesRef, orderBy('timestamp', 'desc'));
+      const messagesQuery = pageSize
+        ? query(messagesRef, orderBy('timestamp', 'desc'), limit(pageSize))
+        : query(messagesRef, orderBy('timestamp', 'desc'));
+      const broadcastBodies = new Map();
 
       const unsubscribe = onSnapshot(
         messagesQuery,
-        (querySnapshot) => {
-          const messages = [];
-          querySnapshot.forEach((doc) => {
-            messages.push({ id: doc.id, ...doc.data() });
-          });
-          callback(messages);
+        async (querySnapshot) => {
+          const entries = querySnapshot.docs.map((snapshot) => ({ id: snapshot.id, ...snapshot.data() }));
+          // Broadcasts arrive as pointers; fill in the shared body, fetched once per broadcast
+          const messages = await Promise.all(entries.map(async (entry) => {
+            if (!entry.broadcastId) return entry;
+            if (!broadcastBodies.has(entry.broadcastId)) {
+              broadcastBodies.set(entry.broadcastId, getDoc(doc(db, 'broadcastMessages', entry.broadcastId))
+                .then((body) => (body.exists() ? body.data() : null))
+                .catch(() => {
+                  broadcastBodies.delete(entry.broadcastId);
+                  return null;
+                }));
+            }
+            const body = await broadcastBodies.get(entry.broadcastId);
+            return body ? { ...body, ...entry } : null;
+          }));
+          callback(messages.filter(Boolean));
         },
         (error) => {
           if (process.env.NODE_ENV !== 'production') {